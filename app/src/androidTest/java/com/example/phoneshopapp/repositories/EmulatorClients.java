@@ -0,0 +1,58 @@
+package com.example.phoneshopapp.repositories;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assume.assumeNoException;
+
+/**
+ * Tạo nhiều Firestore client trỏ tới emulator cho các test tranh chấp: mỗi client là một
+ * FirebaseApp riêng nên transaction của chúng thực sự chạy song song.
+ * Test tự bỏ qua nếu không kết nối được emulator (firebase emulators:start --only firestore).
+ */
+final class EmulatorClients {
+
+    // 10.0.2.2 là localhost của máy host khi chạy trên Android emulator
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+
+    private EmulatorClients() {
+    }
+
+    static List<FirebaseFirestore> connect(String appPrefix, int count) {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        // PhoneShopApplication đã khởi tạo app mặc định
+        FirebaseApp defaultApp = FirebaseApp.getInstance();
+
+        FirebaseFirestoreSettings settings = new FirebaseFirestoreSettings.Builder()
+                .setPersistenceEnabled(false)
+                .build();
+        List<FirebaseFirestore> clients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            FirebaseApp app = FirebaseApp.initializeApp(context, defaultApp.getOptions(), appPrefix + "-" + i);
+            FirebaseFirestore db = FirebaseFirestore.getInstance(app);
+            db.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+            db.setFirestoreSettings(settings);
+            clients.add(db);
+        }
+
+        try {
+            Tasks.await(clients.get(0).collection("_ping").document("ping").get(Source.SERVER),
+                    5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            assumeNoException("Firestore emulator not reachable", e);
+        }
+        return clients;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.phoneshopapp.repositories;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.phoneshopapp.repositories.callbacks.OrderIdCallback;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Nhiều client cùng xin mã đơn qua OrderIdAllocator trên Firestore emulator: các khối hi/lo
+ * không chồng nhau nên không có mã trùng.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderIdAllocatorTest {
+
+    private static final int CLIENTS = 8;
+    // Mỗi client dùng hết vài khối để các transaction giữ khối tranh chấp nhau
+    private static final int IDS_PER_CLIENT = OrderIdAllocator.BLOCK_SIZE * 3;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private static List<FirebaseFirestore> clients;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        clients = EmulatorClients.connect("order-id", CLIENTS);
+    }
+
+    @Test
+    public void concurrentClients_neverShareAnOrderId() throws Exception {
+        int total = CLIENTS * IDS_PER_CLIENT;
+        CountDownLatch done = new CountDownLatch(total);
+        List<String> ids = Collections.synchronizedList(new ArrayList<>());
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < total; i++) {
+            OrderIdAllocator.getInstance(clients.get(i % CLIENTS)).nextId(new OrderIdCallback() {
+                @Override
+                public void onSuccess(String orderId) {
+                    ids.add(orderId);
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    errors.add(errorMessage);
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue("Allocation did not finish in time", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue("Unexpected errors: " + errors, errors.isEmpty());
+        assertEquals(total, ids.size());
+        assertEquals("Duplicate order IDs", total, new HashSet<>(ids).size());
+        for (String id : ids) {
+            assertTrue(id, id.matches("ORD_\\d{8}_\\d{6,}"));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.phoneshopapp.repositories;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.phoneshopapp.data.cart.CartRepository;
+import com.example.phoneshopapp.models.CustomerInfo;
+import com.example.phoneshopapp.models.Order;
+import com.example.phoneshopapp.models.OrderItem;
+import com.example.phoneshopapp.models.OrderStatus;
+import com.example.phoneshopapp.models.PaymentInfo;
+import com.example.phoneshopapp.models.PaymentMethod;
+import com.example.phoneshopapp.models.PaymentStatus;
+import com.example.phoneshopapp.models.PricingInfo;
+import com.example.phoneshopapp.repositories.callbacks.OrderCreationCallback;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Stress test cho FirebaseOrderRepository.placeOrder trên Firestore emulator: nhiều người mua
+ * cùng lúc một SKU có tồn kho giới hạn, chia trên nhiều Firestore client để transaction
+ * thực sự tranh chấp nhau. Không được bán quá tồn kho.
+ *
+ * Chạy emulator trước: firebase emulators:start --only firestore (cổng 8080).
+ * Test tự bỏ qua nếu không kết nối được emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PlaceOrderStressTest {
+
+    private static final int CLIENTS = 8;
+    private static final int BUYERS = 60;
+    private static final int INITIAL_STOCK = 10;
+    private static final long TIMEOUT_SECONDS = 120;
+
+    private static List<FirebaseFirestore> clients;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        clients = EmulatorClients.connect("stress", CLIENTS);
+    }
+
+    @Test
+    public void concurrentBuyers_neverOversellOneSku() throws Exception {
+        FirebaseFirestore admin = clients.get(0);
+        String runId = String.valueOf(System.currentTimeMillis());
+        String productId = "stress_product_" + runId;
+        String variantId = "stress_variant_" + runId;
+
+        Map<String, Object> inventory = new HashMap<>();
+        inventory.put("isAvailable", true);
+        inventory.put("sku", "STRESS-" + runId);
+        inventory.put("stockQuantity", INITIAL_STOCK);
+        Map<String, Object> variant = new HashMap<>();
+        variant.put("productId", productId);
+        variant.put("inventory", inventory);
+        Tasks.await(admin.collection("product_variants").document(variantId).set(variant));
+
+        // Mỗi người mua có một dòng giỏ hàng số lượng 1
+        List<String> cartIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            String userId = "stress_user_" + runId + "_" + i;
+            String cartId = CartRepository.cartItemId(userId, productId, variantId);
+            Map<String, Object> cartLine = new HashMap<>();
+            cartLine.put("userId", userId);
+            cartLine.put("productId", productId);
+            cartLine.put("variantId", variantId);
+            cartLine.put("quantity", 1);
+            Tasks.await(admin.collection("carts").document(cartId).set(cartLine));
+            cartIds.add(cartId);
+        }
+
+        CountDownLatch done = new CountDownLatch(BUYERS);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<String> placedOrderIds = Collections.synchronizedList(new ArrayList<>());
+        List<String> unexpectedErrors = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < BUYERS; i++) {
+            FirebaseOrderRepository repository = new FirebaseOrderRepository(clients.get(i % CLIENTS));
+            Order order = newOrder("stress_user_" + runId + "_" + i, "STRESS_" + runId + "_" + i,
+                    productId, variantId);
+            repository.placeOrder(order, Collections.singletonList(cartIds.get(i)), new OrderCreationCallback() {
+                @Override
+                public void onSuccess(Order created) {
+                    placed.incrementAndGet();
+                    placedOrderIds.add(created.getOrderId());
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    if (errorMessage.contains("hết hàng") || errorMessage.contains("chỉ còn")) {
+                        rejected.incrementAndGet();
+                    } else {
+                        unexpectedErrors.add(errorMessage);
+                    }
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue("Buyers did not finish in time", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        System.out.println("placeOrder stress: " + placed.get() + " placed, " + rejected.get()
+                + " rejected, " + unexpectedErrors.size() + " errors " + unexpectedErrors);
+
+        assertTrue("Unexpected errors: " + unexpectedErrors, unexpectedErrors.isEmpty());
+        assertEquals(INITIAL_STOCK, placed.get());
+        assertEquals(BUYERS - INITIAL_STOCK, rejected.get());
+
+        DocumentSnapshot finalVariant = Tasks.await(
+                admin.collection("product_variants").document(variantId).get(Source.SERVER));
+        assertEquals(Long.valueOf(0L), finalVariant.getLong("inventory.stockQuantity"));
+
+        for (String orderId : placedOrderIds) {
+            assertTrue(Tasks.await(admin.collection("orders").document(orderId).get(Source.SERVER)).exists());
+        }
+
+        // Dòng giỏ hàng chỉ bị xóa cùng đơn hàng thành công
+        int remainingCartLines = 0;
+        for (String cartId : cartIds) {
+            if (Tasks.await(admin.collection("carts").document(cartId).get(Source.SERVER)).exists()) {
+                remainingCartLines++;
+            }
+        }
+        assertEquals(BUYERS - INITIAL_STOCK, remainingCartLines);
+    }
+
+    static Order newOrder(String userId, String orderId, String productId, String variantId) {
+        OrderItem item = new OrderItem(productId, "Stress Phone", 1_000_000, 1, null);
+        item.setVariantId(variantId);
+        item.setVariantShortName("Stress");
+
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUserId(userId);
+        order.setCustomerInfo(new CustomerInfo("Stress Buyer", "0900000000", "stress@example.com", "HCM"));
+        order.setItems(Collections.singletonList(item));
+        order.setPricing(new PricingInfo(1_000_000, 30_000, 0));
+        order.setPaymentInfo(new PaymentInfo(PaymentMethod.COD, PaymentStatus.PENDING));
+        order.setOrderStatus(OrderStatus.PENDING);
+        return order;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.phoneshopapp.repositories;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.phoneshopapp.data.variant.StockShards;
+import com.example.phoneshopapp.models.Order;
+import com.example.phoneshopapp.repositories.callbacks.OrderCreationCallback;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark throughput của placeOrder trên Firestore emulator cho một SKU hot: tồn kho trong
+ * document variant so với tồn kho chia STOCK_SHARDS shard. In số đơn/giây của mỗi cách và
+ * kiểm tra tổng tồn kho còn lại khớp số đơn đã đặt.
+ *
+ * Emulator không áp giới hạn ghi mỗi document như Firestore thật, nên con số chỉ phản ánh
+ * mức tranh chấp transaction; trên production chênh lệch sẽ lớn hơn.
+ * Chạy emulator trước: firebase emulators:start --only firestore (cổng 8080).
+ */
+@RunWith(AndroidJUnit4.class)
+public class StockShardBenchmarkTest {
+
+    private static final int CLIENTS = 8;
+    private static final int ORDERS = 200;
+    private static final int INITIAL_STOCK = 10_000;
+    private static final int STOCK_SHARDS = 10;
+    private static final long TIMEOUT_SECONDS = 300;
+
+    private static List<FirebaseFirestore> clients;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        clients = EmulatorClients.connect("bench", CLIENTS);
+    }
+
+    @Test
+    public void shardedStock_placesEveryOrderWithoutLosingStock() throws Exception {
+        String runId = String.valueOf(System.currentTimeMillis());
+        String singleVariant = "bench_single_" + runId;
+        String shardedVariant = "bench_sharded_" + runId;
+        createVariant(singleVariant, 0);
+        createVariant(shardedVariant, STOCK_SHARDS);
+
+        Run single = placeOrders("single", runId, singleVariant);
+        Run sharded = placeOrders("sharded", runId, shardedVariant);
+
+        System.out.println(String.format("placeOrder throughput: single %.1f orders/s, %d shards %.1f orders/s",
+                single.ordersPerSecond(), STOCK_SHARDS, sharded.ordersPerSecond()));
+
+        // Tồn kho dư thừa nên mọi đơn phải thành công; lỗi nghĩa là transaction hết lượt thử lại
+        assertTrue("single errors: " + single.errors, single.errors.isEmpty());
+        assertTrue("sharded errors: " + sharded.errors, sharded.errors.isEmpty());
+        assertEquals(ORDERS, single.placed);
+        assertEquals(ORDERS, sharded.placed);
+
+        assertEquals(INITIAL_STOCK - ORDERS, totalStock(singleVariant));
+        assertEquals(INITIAL_STOCK - ORDERS, totalStock(shardedVariant));
+    }
+
+    private static final class Run {
+        final int placed;
+        final List<String> errors;
+        final double seconds;
+
+        Run(int placed, List<String> errors, double seconds) {
+            this.placed = placed;
+            this.errors = errors;
+            this.seconds = seconds;
+        }
+
+        double ordersPerSecond() {
+            return placed / seconds;
+        }
+    }
+
+    private void createVariant(String variantId, int shards) throws Exception {
+        FirebaseFirestore admin = clients.get(0);
+        Map<String, Object> inventory = new HashMap<>();
+        inventory.put("isAvailable", true);
+        inventory.put("stockQuantity", shards > 0 ? 0 : INITIAL_STOCK);
+        inventory.put("shardCount", shards);
+        Map<String, Object> variant = new HashMap<>();
+        variant.put("productId", "bench_product");
+        variant.put("inventory", inventory);
+
+        WriteBatch batch = admin.batch();
+        batch.set(admin.collection("product_variants").document(variantId), variant);
+        if (shards > 0) {
+            long[] perShard = StockShards.distribute(INITIAL_STOCK, shards);
+            for (int i = 0; i < shards; i++) {
+                batch.set(StockShards.shardRef(admin, variantId, i),
+                        Collections.singletonMap(StockShards.FIELD_STOCK, perShard[i]));
+            }
+        }
+        Tasks.await(batch.commit());
+    }
+
+    private Run placeOrders(String label, String runId, String variantId) throws Exception {
+        CountDownLatch done = new CountDownLatch(ORDERS);
+        AtomicInteger placed = new AtomicInteger();
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            FirebaseOrderRepository repository = new FirebaseOrderRepository(clients.get(i % CLIENTS));
+            Order order = PlaceOrderStressTest.newOrder("bench_user_" + i, "BENCH_" + label + "_" + runId + "_" + i,
+                    "bench_product", variantId);
+            repository.placeOrder(order, Collections.emptyList(), new OrderCreationCallback() {
+                @Override
+                public void onSuccess(Order created) {
+                    placed.incrementAndGet();
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    errors.add(errorMessage);
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(label + " run did not finish in time", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(String.format("placeOrder %s: %d/%d placed in %.2fs (%.1f orders/s), %d errors",
+                label, placed.get(), ORDERS, seconds, placed.get() / seconds, errors.size()));
+        return new Run(placed.get(), new ArrayList<>(errors), seconds);
+    }
+
+    private long totalStock(String variantId) throws Exception {
+        FirebaseFirestore admin = clients.get(0);
+        DocumentSnapshot variant = Tasks.await(
+                admin.collection("product_variants").document(variantId).get(Source.SERVER));
+        if (StockShards.shardCount(variant) == 0) {
+            return variant.getLong("inventory.stockQuantity");
+        }
+        QuerySnapshot shards = Tasks.await(admin.collection("product_variants").document(variantId)
+                .collection(StockShards.SUBCOLLECTION).get(Source.SERVER));
+        long total = 0;
+        for (DocumentSnapshot shard : shards.getDocuments()) {
+            total += shard.getLong(StockShards.FIELD_STOCK);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.phoneshopapp.ui.home;
+
+import android.os.SystemClock;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.phoneshopapp.MainActivity;
+import com.example.phoneshopapp.utils.AppLog;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Đo time-to-first-frame và số item view inflate của trang chủ bằng HomeRenderStats.
+ * Lần mở đầu tiên chờ catalog từ Firestore, lần thứ hai dùng catalog đã có trong bộ nhớ.
+ * Số đo in ra logcat (System.out) để so sánh giữa các bản build.
+ *
+ * HomeRenderStats chỉ chạy ở bản debug nên test chạy bằng connectedDebugAndroidTest.
+ * Bản trước ConcatAdapter (NestedScrollView + các RecyclerView lồng) không có HomeRenderStats:
+ * lấy mốc time-to-first-frame của bản đó bằng {@code adb shell am start -W} (TotalTime) trên
+ * cùng thiết bị. Lưới sản phẩm phổ biến cũ là RecyclerView wrap_content trong NestedScrollView
+ * nên inflate một view cho mỗi sản phẩm nổi bật; bản hiện tại chỉ inflate số view vừa màn hình.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HomeRenderStatsTest {
+
+    private static final long CONTENT_TIMEOUT_MS = 30_000;
+
+    @Test
+    public void homeScreen_reportsFirstFrameAndInflation() {
+        assumeTrue("HomeRenderStats chỉ bật ở bản debug", AppLog.DEBUG);
+        HomeRenderStats.Report cold = launchAndMeasure();
+        HomeRenderStats.Report warm = launchAndMeasure();
+
+        System.out.println("Home render cold: " + cold);
+        System.out.println("Home render warm: " + warm);
+
+        assertTrue(cold.firstFrameMs >= 0);
+        assertTrue(cold.inflatedViews > 0);
+        assertTrue(warm.contentFrameMs >= 0);
+    }
+
+    private HomeRenderStats.Report launchAndMeasure() {
+        try (ActivityScenario<MainActivity> scenario = ActivityScenario.launch(MainActivity.class)) {
+            long deadline = SystemClock.uptimeMillis() + CONTENT_TIMEOUT_MS;
+            HomeRenderStats.Report report = HomeRenderStats.getLastReport();
+            while ((report == null || report.contentFrameMs < 0) && SystemClock.uptimeMillis() < deadline) {
+                SystemClock.sleep(100);
+                report = HomeRenderStats.getLastReport();
+            }
+            // Không có mạng/Firestore thì không có frame nội dung để đo
+            assumeTrue("Home content did not load", report != null && report.contentFrameMs >= 0);
+            return report;
+        }
+    }
+}
@@ -11,18 +11,21 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.phoneshopapp.adapters.CartAdapter;
+import com.example.phoneshopapp.data.cart.CartChange;
 import com.example.phoneshopapp.data.cart.CartManager;
 import com.example.phoneshopapp.models.CartItem;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.firebase.auth.FirebaseAuth;
 import android.util.Log;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CartActivity extends AppCompatActivity implements
     CartAdapter.OnCartItemActionListener,
-    CartManager.CartUpdateListener {
+    CartManager.CartUpdateListener,
+    CartManager.OnCartChangeListener {
 
   private MaterialToolbar toolbar;
   private RecyclerView recyclerViewCart;
@@ -78,10 +81,13 @@ public class CartActivity extends AppCompatActivity implements
     cartManager = CartManager.getInstance();
     cartManager.initialize(this);
     cartManager.addCartUpdateListener(this);
+    cartManager.addOnCartChangeListener(this);
 
-    Log.d("CartActivity", "CartManager initialized, starting to load cart...");
-    // Load cart data (auto-selection will be handled after cart is loaded)
-    cartManager.refreshCart();
+    // Giỏ hàng đã có trong bộ nhớ thì hiển thị ngay, nếu chưa thì chờ snapshot đầu tiên
+    // (auto-selection được xử lý trong onCartUpdated)
+    if (cartManager.isLoaded()) {
+      onCartUpdated(cartManager.getCartItems());
+    }
   }
   
   /**
@@ -151,16 +157,7 @@ public class CartActivity extends AppCompatActivity implements
     if (itemToSelect != null) {
       Log.d("CartActivity", "✅ Found item to auto-select: " + itemToSelect.getId());
       
-      // Set selection directly on the item object
-      itemToSelect.setSelected(true);
-      
-      // Notify adapter to refresh
-      if (cartAdapter != null) {
-        cartAdapter.notifyDataSetChanged();
-        Log.d("CartActivity", "✅ Adapter notified to refresh");
-      }
-      
-      // Also update in CartManager for consistency
+      // CartManager publish SELECTION_CHANGED, dòng và footer tự cập nhật
       cartManager.updateItemSelection(itemToSelect.getId(), true);
       
       Log.d("CartActivity", "✅ Item selection updated, triggering UI refresh");
@@ -176,11 +173,21 @@ public class CartActivity extends AppCompatActivity implements
     Log.d("CartActivity", "=== AUTO-SELECTION END ===");
   }
 
+  @Override
+  protected void onPause() {
+    super.onPause();
+    // Ghi ngay các thay đổi số lượng còn đang gom trước khi rời màn hình
+    if (cartManager != null) {
+      cartManager.flushPendingUpdates();
+    }
+  }
+
   @Override
   protected void onDestroy() {
     super.onDestroy();
     if (cartManager != null) {
       cartManager.removeCartUpdateListener(this);
+      cartManager.removeOnCartChangeListener(this);
     }
   }
 
@@ -311,38 +318,39 @@ public class CartActivity extends AppCompatActivity implements
       // Update adapter
       cartAdapter.updateCartItems(cartItems);
 
-      // Calculate SELECTED items only
-      double totalPriceSelected = cartManager.getTotalPriceOfSelected();
-      int selectedCount = cartManager.getSelectedItemCount();
-      int uniqueSelectedCount = cartManager.getUniqueSelectedItemCount();
-      int totalUniqueCount = cartManager.getUniqueItemCount();
-
-      // Update "Select All" checkbox state
-      checkboxSelectAll.setOnCheckedChangeListener(null); // Remove listener temporarily
-      checkboxSelectAll.setChecked(cartManager.isAllSelected());
-      checkboxSelectAll.setText(String.format("Chọn tất cả (%d)", totalUniqueCount));
-      checkboxSelectAll.setOnCheckedChangeListener((buttonView, isChecked) -> {
-        if (buttonView.isPressed()) {
-          if (isChecked) {
-            cartManager.selectAllItems();
-          } else {
-            cartManager.deselectAllItems();
-          }
+      renderTotals();
+    }
+  }
+
+  // Footer + "Chọn tất cả" từ các tổng CartManager giữ sẵn, không duyệt lại danh sách
+  private void renderTotals() {
+    int totalUniqueCount = cartManager.getUniqueItemCount();
+    int uniqueSelectedCount = cartManager.getUniqueSelectedItemCount();
+    // Update "Select All" checkbox state
+    checkboxSelectAll.setOnCheckedChangeListener(null); // Remove listener temporarily
+    checkboxSelectAll.setChecked(totalUniqueCount > 0 && uniqueSelectedCount == totalUniqueCount);
+    checkboxSelectAll.setText(String.format("Chọn tất cả (%d)", totalUniqueCount));
+    checkboxSelectAll.setOnCheckedChangeListener((buttonView, isChecked) -> {
+      if (buttonView.isPressed()) {
+        if (isChecked) {
+          cartManager.selectAllItems();
+        } else {
+          cartManager.deselectAllItems();
         }
-      });
+      }
+    });
 
-      // Update price and count (selected items only)
-      textTotalPrice.setText(String.format("₫%.0f", totalPriceSelected));
+    // Update price and count (selected items only)
+    textTotalPrice.setText(DisplayFormatter.price(cartManager.getSelectedTotalDong()));
 
-      if (uniqueSelectedCount > 0) {
-        textItemCount.setText(String.format("Đã chọn %d sản phẩm (%d loại)",
-            selectedCount, uniqueSelectedCount));
-        btnCheckout.setEnabled(true);
-      } else {
-        textItemCount.setText(String.format("Chưa chọn sản phẩm nào (%d sản phẩm trong giỏ)",
-            totalUniqueCount));
-        btnCheckout.setEnabled(false);
-      }
+    if (uniqueSelectedCount > 0) {
+      textItemCount.setText(String.format("Đã chọn %d sản phẩm (%d loại)",
+          cartManager.getSelectedItemCount(), uniqueSelectedCount));
+      btnCheckout.setEnabled(true);
+    } else {
+      textItemCount.setText(String.format("Chưa chọn sản phẩm nào (%d sản phẩm trong giỏ)",
+          totalUniqueCount));
+      btnCheckout.setEnabled(false);
     }
   }
 
@@ -352,16 +360,13 @@ public class CartActivity extends AppCompatActivity implements
     cartManager.updateCartItemQuantity(item.getId(), newQuantity, new CartManager.OnCartOperationListener() {
       @Override
       public void onSuccess(String message) {
-        // UI will be updated via CartUpdateListener
+        // UI đã được cập nhật qua CartChange
       }
 
       @Override
       public void onFailure(String error) {
-        runOnUiThread(() -> {
-          Toast.makeText(CartActivity.this, error, Toast.LENGTH_SHORT).show();
-          // Refresh cart to revert changes
-          cartManager.refreshCart();
-        });
+        // CartManager đã trả lại số lượng cũ và publish CartChange
+        runOnUiThread(() -> Toast.makeText(CartActivity.this, error, Toast.LENGTH_SHORT).show());
       }
     });
   }
@@ -387,8 +392,7 @@ public class CartActivity extends AppCompatActivity implements
 
   @Override
   public void onItemSelectionChanged(CartItem item, boolean isSelected) {
-    // Selection state is already updated in the item
-    // Just trigger UI update
+    // CartManager cập nhật item và publish SELECTION_CHANGED
     cartManager.updateItemSelection(item.getId(), isSelected);
   }
 
@@ -410,6 +414,20 @@ public class CartActivity extends AppCompatActivity implements
     });
   }
 
+  // CartManager.OnCartChangeListener implementation
+  @Override
+  public void onCartChanged(CartChange change) {
+    runOnUiThread(() -> {
+      cartAdapter.applyChange(change);
+
+      if (cartManager.isEmpty()) {
+        updateUI(cartManager.getCartItems());
+      } else {
+        renderTotals();
+      }
+    });
+  }
+
   @Override
   public void onCartCountChanged(int count) {
     Log.d("CartActivity", "onCartCountChanged: " + count);
@@ -8,6 +8,7 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 
 import java.util.List;
 
@@ -59,7 +60,7 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
         }
 
         holder.quantity.setText(String.valueOf(cartItem.getQuantity()));
-        holder.totalPrice.setText("₫" + String.format("%.0f", cartItem.getTotalPrice()));
+        holder.totalPrice.setText(DisplayFormatter.price(cartItem.getTotalPrice()));
 
         // Set click listeners
         holder.increaseBtn.setOnClickListener(v -> {
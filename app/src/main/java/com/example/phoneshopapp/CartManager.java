@@ -1,5 +1,6 @@
 package com.example.phoneshopapp;
 
+import com.example.phoneshopapp.models.Money;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -73,10 +74,9 @@ public class CartManager {
 
     // Tính tổng tiền
     public double getTotalPrice() {
-        double total = 0.0;
+        long total = 0L;
         for (CartItem item : cartItems) {
-            double price = extractPrice(item.getProduct().getPrice());
-            total += price * item.getQuantity();
+            total += item.getTotalDong();
         }
         return total;
     }
@@ -101,16 +101,6 @@ public class CartManager {
         return false;
     }
 
-    // Helper method để chuyển đổi giá từ string sang double
-    private double extractPrice(String priceString) {
-        String numericPrice = priceString.replaceAll("[^0-9.]", "");
-        try {
-            return Double.parseDouble(numericPrice);
-        } catch (NumberFormatException e) {
-            return 0.0;
-        }
-    }
-
     // Inner class để đại diện cho item trong giỏ hàng
     public static class CartItem {
         private Product product;
@@ -134,13 +124,11 @@ public class CartManager {
         }
 
         public double getTotalPrice() {
-            String priceString = product.getPrice().replaceAll("[^0-9.]", "");
-            try {
-                double price = Double.parseDouble(priceString);
-                return price * quantity;
-            } catch (NumberFormatException e) {
-                return 0.0;
-            }
+            return getTotalDong();
+        }
+
+        public long getTotalDong() {
+            return Money.parseDong(product.getPrice()) * quantity;
         }
     }
 }
\ No newline at end of file
@@ -7,13 +7,15 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.phoneshopapp.adapters.DiffCallbacks;
+
 import java.util.List;
 
-public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
+public class CategoryAdapter extends ListAdapter<Category, CategoryAdapter.CategoryViewHolder> {
 
-  public List<Category> categoryList;
   private OnCategoryClickListener onCategoryClickListener;
 
   public interface OnCategoryClickListener {
@@ -21,7 +23,9 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
   }
 
   public CategoryAdapter(List<Category> categoryList) {
-    this.categoryList = categoryList;
+    super(DiffCallbacks.config(DiffCallbacks.CATEGORY));
+    setHasStableIds(true);
+    submitList(categoryList);
   }
 
   public void setOnCategoryClickListener(OnCategoryClickListener listener) {
@@ -38,7 +42,7 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
   @Override
   public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
-    Category category = categoryList.get(position);
+    Category category = getItem(position);
     holder.categoryName.setText(category.getName());
     holder.categoryIcon.setImageResource(category.getIconResourceId());
     
@@ -50,8 +54,14 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
   }
 
   @Override
-  public int getItemCount() {
-    return categoryList.size();
+  public long getItemId(int position) {
+    return DiffCallbacks.stableId(getItem(position).getName());
+  }
+
+  // View type riêng theo layout để dùng chung RecycledViewPool với các hàng khác ở trang chủ
+  @Override
+  public int getItemViewType(int position) {
+    return R.layout.item_category;
   }
 
   static class CategoryViewHolder extends RecyclerView.ViewHolder {
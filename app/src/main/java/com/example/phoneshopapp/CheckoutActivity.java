@@ -20,6 +20,7 @@ import com.example.phoneshopapp.managers.OrderManager;
 import com.example.phoneshopapp.managers.PaymentManager;
 import com.example.phoneshopapp.models.*;
 import com.example.phoneshopapp.repositories.callbacks.OrderCreationCallback;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
@@ -150,11 +151,11 @@ public class CheckoutActivity extends AppCompatActivity {
             String code = editTextDiscountCode.getText().toString().trim();
             if (code.equals("GIAM10")) {
                 // Apply 10% discount
-                double subtotal = 0;
+                long subtotal = 0L;
                 for (CartItem item : cartItems) {
-                    subtotal += item.getProductPriceValue() * item.getQuantity();
+                    subtotal += item.getTotalDong();
                 }
-                discountAmount = subtotal * 0.1;
+                discountAmount = Money.toDong(subtotal * 0.1);
                 updatePricingSummary();
                 Toast.makeText(CheckoutActivity.this, "Mã giảm giá đã được áp dụng!", Toast.LENGTH_SHORT).show();
             } else {
@@ -176,8 +177,7 @@ public class CheckoutActivity extends AppCompatActivity {
     }
 
     private void loadCartData() {
-        cartManager = CartManager.getInstance();
-        cartManager.initialize(this);
+        // Đọc từ giỏ hàng trong bộ nhớ, CartManager đã được initialize ở onCreate
 
         // Get selected item IDs from Intent
         Intent intent = getIntent();
@@ -291,23 +291,23 @@ public class CheckoutActivity extends AppCompatActivity {
         }
 
         int totalItems = 0;
-        double subtotal = 0;
+        long subtotal = 0L;
 
         for (CartItem item : cartItems) {
             totalItems += item.getQuantity();
-            subtotal += item.getProductPriceValue() * item.getQuantity();
+            subtotal += item.getTotalDong();
         }
 
-        double total = subtotal + shippingFee - discountAmount;
+        long total = subtotal + Money.toDong(shippingFee) - Money.toDong(discountAmount);
 
-        textTotalItems.setText(String.format("%d sản phẩm", totalItems));
-        textSubtotal.setText(String.format("₫%.0f", subtotal));
-        textShippingFee.setText(String.format("₫%.0f", shippingFee));
-        textTotal.setText(String.format("₫%.0f", total));
+        textTotalItems.setText(DisplayFormatter.itemCount(totalItems));
+        textSubtotal.setText(DisplayFormatter.price(subtotal));
+        textShippingFee.setText(DisplayFormatter.price(shippingFee));
+        textTotal.setText(DisplayFormatter.price(total));
 
         if (discountAmount > 0) {
             layoutDiscount.setVisibility(View.VISIBLE);
-            textDiscount.setText(String.format("-₫%.0f", discountAmount));
+            textDiscount.setText(DisplayFormatter.discount(discountAmount));
         } else {
             layoutDiscount.setVisibility(View.GONE);
         }
@@ -437,9 +437,9 @@ public class CheckoutActivity extends AppCompatActivity {
         List<OrderItem> orderItems = convertCartItemsToOrderItems(cartItems);
 
         // Create pricing info
-        double subtotal = 0;
+        long subtotal = 0L;
         for (CartItem item : cartItems) {
-            subtotal += item.getProductPriceValue() * item.getQuantity();
+            subtotal += item.getTotalDong();
         }
         PricingInfo pricingInfo = new PricingInfo(subtotal, shippingFee, discountAmount);
 
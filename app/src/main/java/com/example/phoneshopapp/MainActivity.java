@@ -162,9 +162,7 @@ public class MainActivity extends AppCompatActivity implements CartManager.CartU
         // Debug authentication state
         AuthDebugHelper.debugAuthState(this);
 
-        if (cartManager != null) {
-            cartManager.refreshCart();
-        }
+        // Giỏ hàng tự đồng bộ qua snapshot listener của CartManager
         updateCartBadge();
     }
 
@@ -3,7 +3,9 @@ package com.example.phoneshopapp;
 import android.os.Bundle;
 import android.view.MenuItem;
 import android.view.View;
+import android.text.InputType;
 import android.widget.ArrayAdapter;
+import android.widget.EditText;
 import android.widget.Button;
 import android.widget.CheckBox;
 import android.widget.Spinner;
@@ -14,6 +16,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.phoneshopapp.data.variant.StockShards;
 import com.example.phoneshopapp.data.variant.VariantRepository;
 import com.example.phoneshopapp.models.ProductVariant;
 import com.example.phoneshopapp.ui.admin.VariantAdapter;
@@ -62,7 +65,8 @@ public class ManageVariantsActivity extends AppCompatActivity {
     variantRepository = new VariantRepository();
 
     // Setup RecyclerView
-    adapter = new VariantAdapter(variantList, this::onEditVariant, this::onDeleteVariant);
+    adapter = new VariantAdapter(variantList, this::onEditVariant, this::onDeleteVariant,
+        this::onShardVariant);
     recyclerVariants.setLayoutManager(new LinearLayoutManager(this));
     recyclerVariants.setAdapter(adapter);
 
@@ -230,6 +234,8 @@ public class ManageVariantsActivity extends AppCompatActivity {
     editSku.setText(variant.getSku() != null ? variant.getSku() : "");
     editStock.setText(String.valueOf(variant.getStockQuantity()));
     checkAvailable.setChecked(variant.isAvailable());
+    // Tồn kho lúc mở dialog: repository chỉ áp phần chênh lệch admin nhập so với số này
+    int loadedStock = variant.getStockQuantity();
 
     AlertDialog dialog = builder.create();
 
@@ -275,7 +281,7 @@ public class ManageVariantsActivity extends AppCompatActivity {
       variant.setName(name);
 
       // Update in Firestore
-      variantRepository.updateVariant(variant, new VariantRepository.OnVariantSavedListener() {
+      variantRepository.updateVariant(variant, loadedStock, new VariantRepository.OnVariantSavedListener() {
         @Override
         public void onSuccess() {
           Toast.makeText(ManageVariantsActivity.this, "Đã cập nhật phiên bản sản phẩm thành công", Toast.LENGTH_SHORT).show();
@@ -333,4 +339,41 @@ public class ManageVariantsActivity extends AppCompatActivity {
         .setNegativeButton("Hủy", null)
         .show();
   }
+
+  private void onShardVariant(ProductVariant variant) {
+    // Số shard cho SKU bán chạy (flash sale); 0 = gộp lại về một document
+    EditText input = new EditText(this);
+    input.setInputType(InputType.TYPE_CLASS_NUMBER);
+    input.setText(String.valueOf(variant.getStockShardCount()));
+
+    new AlertDialog.Builder(this)
+        .setTitle("Chia shard tồn kho")
+        .setMessage("Số shard (0 - " + StockShards.MAX_SHARDS + ", 0 = không chia). Tổng tồn kho giữ nguyên.")
+        .setView(input)
+        .setPositiveButton("Lưu", (dialog, which) -> {
+          int shardCount;
+          try {
+            shardCount = Integer.parseInt(input.getText().toString().trim());
+          } catch (NumberFormatException e) {
+            Toast.makeText(this, "Số shard không hợp lệ", Toast.LENGTH_SHORT).show();
+            return;
+          }
+          variantRepository.setStockShards(variant.getVariantId(), shardCount,
+              new VariantRepository.OnVariantSavedListener() {
+                @Override
+                public void onSuccess() {
+                  Toast.makeText(ManageVariantsActivity.this, "Đã cập nhật shard tồn kho", Toast.LENGTH_SHORT).show();
+                  loadVariants();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                  Toast.makeText(ManageVariantsActivity.this, "Lỗi chia shard: " + e.getMessage(),
+                      Toast.LENGTH_SHORT).show();
+                }
+              });
+        })
+        .setNegativeButton("Hủy", null)
+        .show();
+  }
 }
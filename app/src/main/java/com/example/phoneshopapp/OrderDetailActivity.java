@@ -14,6 +14,7 @@ import com.example.phoneshopapp.models.*;
 import com.example.phoneshopapp.repositories.callbacks.OrderCallback;
 import com.example.phoneshopapp.repositories.callbacks.OrderCreationCallback;
 import com.example.phoneshopapp.repositories.callbacks.UpdateCallback;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textview.MaterialTextView;
@@ -332,7 +333,7 @@ public class OrderDetailActivity extends AppCompatActivity {
                     cartItem.setUserId(userId);
                     cartItem.setProductId(item.getProductId());
                     cartItem.setProductName(item.getProductName());
-                    cartItem.setProductPrice(String.format("₫%.0f", item.getPrice()));
+                    cartItem.setProductPrice(DisplayFormatter.price(item.getPrice()));
                     cartItem.setProductPriceValue(item.getPrice());
                     cartItem.setQuantity(item.getQuantity());
                     cartItem.setProductImageUrl(item.getImageUrl());
@@ -372,7 +373,7 @@ public class OrderDetailActivity extends AppCompatActivity {
                     cartItem.setUserId(userId);
                     cartItem.setProductId(item.getProductId());
                     cartItem.setProductName(item.getProductName());
-                    cartItem.setProductPrice(String.format("₫%.0f", item.getPrice()));
+                    cartItem.setProductPrice(DisplayFormatter.price(item.getPrice()));
                     cartItem.setProductPriceValue(item.getPrice());
                     cartItem.setQuantity(item.getQuantity());
                     cartItem.setProductImageUrl(item.getImageUrl());
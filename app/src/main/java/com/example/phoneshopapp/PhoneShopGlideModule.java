@@ -0,0 +1,63 @@
+package com.example.phoneshopapp;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.phoneshopapp.utils.ImageCacheStats;
+
+/**
+ * Cấu hình Glide cho toàn app: ngân sách memory cache / bitmap pool, disk cache riêng cho
+ * ảnh sản phẩm và option mặc định decode đúng kích thước view đích.
+ */
+@GlideModule
+public final class PhoneShopGlideModule extends AppGlideModule {
+    private static final String TAG = "PhoneShopGlideModule";
+
+    // Lưới sản phẩm hiển thị nhiều thumbnail nhỏ, giữ khoảng 2 màn hình ảnh đã decode
+    private static final float MEMORY_CACHE_SCREENS = 2f;
+    private static final float BITMAP_POOL_SCREENS = 3f;
+    private static final long DISK_CACHE_BYTES = 200L * 1024 * 1024;
+    private static final String DISK_CACHE_DIR = "product_images";
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+
+        // Ảnh sản phẩm là JPEG không trong suốt: RGB_565 tốn một nửa bộ nhớ; decode
+        // xuống kích thước view thay vì giữ nguyên ảnh gốc
+        builder.setDefaultRequestOptions(new RequestOptions()
+                .format(DecodeFormat.PREFER_RGB_565)
+                .downsample(DownsampleStrategy.CENTER_OUTSIDE));
+
+        boolean debuggable = (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        ImageCacheStats.getInstance().setLoggingEnabled(debuggable);
+        builder.addGlobalRequestListener(ImageCacheStats.getInstance());
+
+        Log.d(TAG, "Glide memory cache " + calculator.getMemoryCacheSize() / 1024 + "KB, bitmap pool "
+                + calculator.getBitmapPoolSize() / 1024 + "KB");
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.phoneshopapp;
 
+import com.example.phoneshopapp.models.Money;
+import com.example.phoneshopapp.utils.DisplayFormatter;
+import com.google.firebase.firestore.Exclude;
+
 public class Product {
     private String id; // Changed from int to String to match Firebase
     private String name;
@@ -77,17 +81,9 @@ public class Product {
         this("", name, price, imageResourceId, "", "Phone", false, false, false);
     }
 
-    // Helper method để parse price string thành number
+    // Helper method để parse price string thành number (không dùng regex, không cấp phát)
     private double parsePrice(String price) {
-        if (price == null)
-            return 0.0;
-        try {
-            // Remove currency symbols and parse
-            String cleanPrice = price.replaceAll("[^\\d.]", "");
-            return Double.parseDouble(cleanPrice);
-        } catch (NumberFormatException e) {
-            return 0.0;
-        }
+        return Money.parseDong(price);
     }
 
     // Getters
@@ -107,6 +103,17 @@ public class Product {
         return priceValue;
     }
 
+    // Giá dạng long đồng, dùng cho cộng/so sánh chính xác
+    @Exclude
+    public long getPriceDong() {
+        return Money.toDong(priceValue);
+    }
+
+    @Exclude
+    public Money getPriceMoney() {
+        return Money.fromDouble(priceValue);
+    }
+
     public int getImageResourceId() {
         return imageResourceId;
     }
@@ -255,7 +262,7 @@ public class Product {
 
     // Helper methods for reviews
     public String getFormattedRating() {
-        return String.format("%.1f", averageRating);
+        return DisplayFormatter.rating(averageRating);
     }
 
     public boolean hasReviews() {
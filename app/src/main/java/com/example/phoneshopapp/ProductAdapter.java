@@ -9,21 +9,29 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.resource.bitmap.CenterCrop;
-import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
+import com.example.phoneshopapp.adapters.DiffCallbacks;
+import com.example.phoneshopapp.utils.ProductImages;
 
 import java.util.List;
 
-public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductViewHolder> {
+public class ProductAdapter extends ListAdapter<Product, ProductAdapter.ProductViewHolder> {
+
+    // Hàng ngang / danh sách: tải trước khoảng một màn hình
+    private static final int PRELOAD_AHEAD = 4;
 
-    public List<Product> productList;
     private Context context;
+    private final ViewPreloadSizeProvider<Product> preloadSizeProvider = new ViewPreloadSizeProvider<>();
 
     public ProductAdapter(List<Product> productList) {
-        this.productList = productList;
+        super(DiffCallbacks.config(DiffCallbacks.PRODUCT));
+        setHasStableIds(true);
+        submitList(productList);
     }
 
     @NonNull
@@ -32,24 +40,21 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
         context = parent.getContext();
         View view = LayoutInflater.from(context)
                 .inflate(R.layout.item_product_grid, parent, false);
-        return new ProductViewHolder(view);
+        ProductViewHolder holder = new ProductViewHolder(view);
+        preloadSizeProvider.setView(holder.image);
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-        Product product = productList.get(position);
+        Product product = getItem(position);
 
         holder.name.setText(product.getName());
         holder.price.setText(product.getPrice());
 
         // Load image from URL if available, otherwise use resource ID
-        if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
-            Glide.with(context)
-                    .load(product.getImageUrl())
-                    .transform(new CenterCrop(), new RoundedCorners(16))
-                    .placeholder(R.drawable.ic_image_placeholder)
-                    .error(R.drawable.ic_image_placeholder)
-                    .into(holder.image);
+        if (ProductImages.hasUrl(product.getImageUrl())) {
+            ProductImages.card(Glide.with(context), product.getImageUrl()).into(holder.image);
         } else {
             holder.image.setImageResource(R.drawable.ic_image_placeholder);
         }
@@ -92,19 +97,28 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
     }
 
     @Override
-    public int getItemCount() {
-        return productList.size();
+    public long getItemId(int position) {
+        return DiffCallbacks.stableId(getItem(position).getId());
+    }
+
+    // View type riêng theo layout để dùng chung RecycledViewPool với các hàng khác ở trang chủ
+    @Override
+    public int getItemViewType(int position) {
+        return R.layout.item_product_grid;
+    }
+
+    public RecyclerView.OnScrollListener createPreloader(RequestManager requestManager) {
+        return ProductImages.preloader(requestManager, ProductImages.itemsOf(this), Product::getImageUrl,
+                ProductImages::card, preloadSizeProvider, PRELOAD_AHEAD);
     }
 
     // Method để update data từ Firebase
     public void updateData(List<Product> newProductList) {
-        this.productList = newProductList;
-        notifyDataSetChanged();
+        submitList(newProductList);
     }
 
     public void filterList(List<Product> filteredList) {
-        this.productList = filteredList;
-        notifyDataSetChanged();
+        submitList(filteredList);
     }
 
     static class ProductViewHolder extends RecyclerView.ViewHolder {
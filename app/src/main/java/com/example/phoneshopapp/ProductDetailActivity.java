@@ -25,8 +25,11 @@ import com.example.phoneshopapp.models.CartItem;
 import com.example.phoneshopapp.models.ProductVariant;
 import com.example.phoneshopapp.managers.ReviewManager;
 import com.example.phoneshopapp.repositories.callbacks.ReviewListCallback;
+import com.example.phoneshopapp.utils.DisplayFormatter;
+import com.example.phoneshopapp.utils.ProductImages;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -183,17 +186,18 @@ public class ProductDetailActivity extends AppCompatActivity {
   }
 
   private void loadProductFromFirebase(String productId) {
-    productManager.loadProductsFromFirebase(new ProductManager.OnProductsLoadedListener() {
-      @Override
-      public void onSuccess(List<Product> products) {
-        // Tìm product theo ID trong danh sách từ Firebase
-        product = findProductById(products, productId);
+    // Có sẵn trong bộ nhớ thì hiển thị ngay, không chờ Firestore
+    Product cached = productManager.getCachedProduct(productId);
+    if (cached != null) {
+      product = cached;
+      displayProductInfo();
+      return;
+    }
 
-        if (product == null) {
-          Toast.makeText(ProductDetailActivity.this, "Không tìm thấy sản phẩm", Toast.LENGTH_SHORT).show();
-          finish();
-          return;
-        }
+    productManager.findProductById(productId, new ProductManager.OnSingleProductLoadedListener() {
+      @Override
+      public void onSuccess(Product loadedProduct) {
+        product = loadedProduct;
 
         // Hiển thị thông tin sản phẩm
         displayProductInfo();
@@ -201,22 +205,19 @@ public class ProductDetailActivity extends AppCompatActivity {
 
       @Override
       public void onFailure(Exception e) {
-        Toast.makeText(ProductDetailActivity.this, "Lỗi tải sản phẩm: " + e.getMessage(), Toast.LENGTH_LONG)
-            .show();
+        boolean notFound = e instanceof FirebaseFirestoreException
+            && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.NOT_FOUND;
+        if (notFound) {
+          Toast.makeText(ProductDetailActivity.this, "Không tìm thấy sản phẩm", Toast.LENGTH_SHORT).show();
+        } else {
+          Toast.makeText(ProductDetailActivity.this, "Lỗi tải sản phẩm: " + e.getMessage(), Toast.LENGTH_LONG)
+              .show();
+        }
         finish();
       }
     });
   }
 
-  private Product findProductById(List<Product> products, String productId) {
-    for (Product product : products) {
-      if (product.getId() != null && product.getId().equals(productId)) {
-        return product;
-      }
-    }
-    return null;
-  }
-
   private void displayProductInfo() {
     Log.d("ProductDetail", "=== DISPLAYING PRODUCT INFO ===");
     Log.d("ProductDetail", "Product Name: " + product.getName());
@@ -241,10 +242,8 @@ public class ProductDetailActivity extends AppCompatActivity {
     // Set product image - handle both resource ID and URL
     if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
       // Load image from URL using Glide
-      com.bumptech.glide.Glide.with(this)
-          .load(product.getImageUrl())
-          .placeholder(R.drawable.ic_image_placeholder) // Skeleton placeholder
-          .error(R.drawable.ic_image_placeholder) // Error fallback to skeleton
+      // Dữ liệu gốc đã nằm trong disk cache nếu ảnh từng hiện ở lưới sản phẩm
+      ProductImages.plain(com.bumptech.glide.Glide.with(this), product.getImageUrl())
           .into(imageProduct);
     } else {
       // Sử dụng ảnh skeleton cho sản phẩm không có URL ảnh
@@ -704,7 +703,7 @@ public class ProductDetailActivity extends AppCompatActivity {
     // Calculate average rating using ReviewManager
     float averageRating = reviewManager.calculateAverageRating(convertToModelReviews(reviewList));
 
-    textAverageRating.setText(String.format("%.1f", averageRating));
+    textAverageRating.setText(DisplayFormatter.rating(averageRating));
     textReviewCount.setText(String.format("(%d đánh giá)", reviewList.size()));
     ratingBarAverage.setRating(averageRating);
   }
@@ -9,21 +9,34 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.resource.bitmap.CenterCrop;
-import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
+import com.example.phoneshopapp.adapters.DiffCallbacks;
+import com.example.phoneshopapp.utils.ProductImages;
 
 import java.util.List;
 
-public class ProductGridAdapter extends RecyclerView.Adapter<ProductGridAdapter.ProductViewHolder> {
+/**
+ * Danh sách sản phẩm dạng lưới. Diff được tính nền qua ListAdapter, list đã submit
+ * không được sửa tại chỗ nữa.
+ */
+public class ProductGridAdapter extends ListAdapter<Product, ProductGridAdapter.ProductViewHolder> {
+
+  // Lưới 2 cột: tải trước khoảng 3 hàng
+  private static final int PRELOAD_AHEAD = 6;
 
-  public List<Product> productList;
   private Context context;
+  private final ViewPreloadSizeProvider<Product> preloadSizeProvider = new ViewPreloadSizeProvider<>();
 
   public ProductGridAdapter(List<Product> productList) {
-    this.productList = productList;
+    super(DiffCallbacks.config(DiffCallbacks.PRODUCT));
+    setHasStableIds(true);
+    submitList(productList);
   }
 
   @NonNull
@@ -32,25 +45,22 @@ public class ProductGridAdapter extends RecyclerView.Adapter<ProductGridAdapter.
     context = parent.getContext();
     View view = LayoutInflater.from(context)
         .inflate(R.layout.item_product_grid, parent, false);
-    return new ProductViewHolder(view);
+    ProductViewHolder holder = new ProductViewHolder(view);
+    preloadSizeProvider.setView(holder.image);
+    return holder;
   }
 
   @Override
   public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-    Product product = productList.get(position);
+    Product product = getItem(position);
 
     holder.name.setText(product.getName());
     holder.price.setText(product.getPrice());
 
     // Load image from URL if available, otherwise use resource ID
-    if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
+    if (ProductImages.hasUrl(product.getImageUrl())) {
       // Load image from Firebase URL using Glide
-      Glide.with(context)
-          .load(product.getImageUrl())
-          .transform(new CenterCrop(), new RoundedCorners(16))
-          .placeholder(R.drawable.ic_image_placeholder) // Skeleton placeholder
-          .error(R.drawable.ic_image_placeholder) // Error fallback to skeleton
-          .into(holder.image);
+      ProductImages.card(Glide.with(context), product.getImageUrl()).into(holder.image);
     } else {
       // Sử dụng ảnh skeleton cho sản phẩm không có URL ảnh
       holder.image.setImageResource(R.drawable.ic_image_placeholder);
@@ -65,21 +75,30 @@ public class ProductGridAdapter extends RecyclerView.Adapter<ProductGridAdapter.
   }
 
   @Override
-  public int getItemCount() {
-    return productList.size();
+  public long getItemId(int position) {
+    return DiffCallbacks.stableId(getItem(position).getId());
   }
 
   // Method để update data từ Firebase
   public void updateData(List<Product> newProductList) {
-    this.productList = newProductList;
-    notifyDataSetChanged();
+    submitList(newProductList);
+  }
+
+  public void filterList(List<Product> filteredList) {
+    submitList(filteredList);
+  }
+
+  public RecyclerView.OnScrollListener createPreloader(RequestManager requestManager) {
+    return ProductImages.preloader(requestManager, ProductImages.itemsOf(this), Product::getImageUrl,
+        ProductImages::card, preloadSizeProvider, PRELOAD_AHEAD);
+  }
+
+  // Cho RecyclerView cha tự dựng preloader khi adapter nằm trong ConcatAdapter
+  public ListPreloader.PreloadSizeProvider<Product> getPreloadSizeProvider() {
+    return preloadSizeProvider;
   }
 
-      public void filterList(List<Product> filteredList) {
-          this.productList = filteredList;
-          notifyDataSetChanged();
-      }
-  
+
   static class ProductViewHolder extends RecyclerView.ViewHolder {
     TextView name, price;
     ImageView image;
@@ -1,7 +1,7 @@
 package com.example.phoneshopapp;
 
-import android.util.Log;
 import com.example.phoneshopapp.data.ProductData;
+import com.example.phoneshopapp.utils.AppLog;
 import java.util.List;
 
 public class ProductManager {
@@ -29,18 +29,18 @@ public class ProductManager {
 
   // Load products từ Firebase (method chính)
   public void loadProductsFromFirebase(OnProductsLoadedListener listener) {
-    Log.d(TAG, "Loading products from Firebase via ProductManager...");
+    AppLog.d(TAG, "Loading products from Firebase via ProductManager...");
 
     ProductData.loadProductsFromFirebase(new ProductData.OnProductsLoadedListener() {
       @Override
       public void onSuccess(List<Product> products) {
-        Log.d(TAG, "ProductManager received " + products.size() + " products from Firebase");
+        AppLog.d(TAG, () -> "ProductManager received " + products.size() + " products from Firebase");
         listener.onSuccess(products);
       }
 
       @Override
       public void onFailure(Exception e) {
-        Log.e(TAG, "ProductManager failed to load from Firebase", e);
+        AppLog.e(TAG, "ProductManager failed to load from Firebase", e);
         listener.onFailure(e);
       }
     });
@@ -48,17 +48,17 @@ public class ProductManager {
 
   // Force refresh từ Firebase
   public void forceRefreshFromFirebase(OnProductsLoadedListener listener) {
-    Log.d(TAG, "Force refreshing products from Firebase...");
+    AppLog.d(TAG, "Force refreshing products from Firebase...");
     ProductData.forceRefreshFromFirebase(new ProductData.OnProductsLoadedListener() {
       @Override
       public void onSuccess(List<Product> products) {
-        Log.d(TAG, "ProductManager force refresh successful - " + products.size() + " products");
+        AppLog.d(TAG, () -> "ProductManager force refresh successful - " + products.size() + " products");
         listener.onSuccess(products);
       }
 
       @Override
       public void onFailure(Exception e) {
-        Log.e(TAG, "ProductManager force refresh failed", e);
+        AppLog.e(TAG, "ProductManager force refresh failed", e);
         listener.onFailure(e);
       }
     });
@@ -71,27 +71,24 @@ public class ProductManager {
     void onFailure(Exception e);
   }
 
-  // Find product by ID
+  // Tra cứu trong bộ nhớ theo ID (O(1)), null nếu chưa có
+  public Product getCachedProduct(String productId) {
+    return ProductData.getCachedProduct(productId);
+  }
+
+  // Find product by ID: dùng bản trong bộ nhớ nếu có, nếu không chỉ đọc document PhoneDB/{id}
   public void findProductById(String productId, OnSingleProductLoadedListener listener) {
-    Log.d(TAG, "Finding product by ID: " + productId);
+    AppLog.d(TAG, () -> "Finding product by ID: " + productId);
 
-    loadProductsFromFirebase(new OnProductsLoadedListener() {
+    ProductData.loadProductById(productId, new ProductData.OnProductLoadedListener() {
       @Override
-      public void onSuccess(List<Product> products) {
-        for (Product product : products) {
-          if (product != null && product.getId() != null && product.getId().equals(productId)) {
-            Log.d(TAG, "Product found: " + product.getName());
-            listener.onSuccess(product);
-            return;
-          }
-        }
-        Log.w(TAG, "Product not found with ID: " + productId);
-        listener.onFailure(new Exception("Product not found with ID: " + productId));
+      public void onSuccess(Product product) {
+        listener.onSuccess(product);
       }
 
       @Override
       public void onFailure(Exception e) {
-        Log.e(TAG, "Failed to find product by ID", e);
+        AppLog.e(TAG, "Failed to find product by ID", e);
         listener.onFailure(e);
       }
     });
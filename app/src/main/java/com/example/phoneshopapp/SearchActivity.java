@@ -7,10 +7,12 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SearchView;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.ProductGridAdapter;
 import com.example.phoneshopapp.ProductManager;
+import com.example.phoneshopapp.data.search.ProductSearchIndex;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,6 +23,9 @@ public class SearchActivity extends AppCompatActivity {
     private ProductGridAdapter productAdapter;
     private List<Product> productList;
     private ProgressBar progressBar;
+    private final ProductSearchIndex searchIndex = ProductSearchIndex.getInstance();
+    // false cho tới khi index build xong trên background, trước đó search trả kết quả cũ
+    private boolean indexReady = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -35,6 +40,7 @@ public class SearchActivity extends AppCompatActivity {
         productAdapter = new ProductGridAdapter(productList);
         recyclerView.setLayoutManager(new GridLayoutManager(this, 2));
         recyclerView.setAdapter(productAdapter);
+        recyclerView.addOnScrollListener(productAdapter.createPreloader(Glide.with(this)));
 
         loadProducts(getIntent().getStringExtra("search_query"));
 
@@ -61,15 +67,24 @@ public class SearchActivity extends AppCompatActivity {
         ProductManager.getInstance().loadProductsFromFirebase(new ProductManager.OnProductsLoadedListener() {
             @Override
             public void onSuccess(List<Product> products) {
-                productList.clear();
-                productList.addAll(products);
+                productList = products;
                 if (initialQuery != null && !initialQuery.isEmpty()) {
                     searchView.setQuery(initialQuery, false);
-                    filter(initialQuery);
                 } else {
                     productAdapter.filterList(productList);
                 }
-                progressBar.setVisibility(View.GONE);
+                searchIndex.ensureIndexedAsync(products, () -> {
+                    if (isDestroyed()) {
+                        return;
+                    }
+                    indexReady = true;
+                    // Áp query người dùng đã gõ trong lúc chờ index
+                    String query = searchView.getQuery().toString();
+                    if (!query.isEmpty()) {
+                        filter(query);
+                    }
+                    progressBar.setVisibility(View.GONE);
+                });
             }
 
             @Override
@@ -81,12 +96,9 @@ public class SearchActivity extends AppCompatActivity {
     }
 
     private void filter(String text) {
-        List<Product> filteredList = new ArrayList<>();
-        for (Product item : productList) {
-            if (item.getName().toLowerCase().contains(text.toLowerCase())) {
-                filteredList.add(item);
-            }
+        if (!indexReady) {
+            return;
         }
-        productAdapter.filterList(filteredList);
+        productAdapter.filterList(searchIndex.searchProducts(text));
     }
 }
\ No newline at end of file
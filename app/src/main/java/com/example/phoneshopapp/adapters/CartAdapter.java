@@ -10,12 +10,18 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.example.phoneshopapp.R;
+import com.example.phoneshopapp.data.cart.CartChange;
 import com.example.phoneshopapp.models.CartItem;
 import com.google.android.material.button.MaterialButton;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder> {
+  // Payload cho rebind một phần: chỉ đụng tới text/checkbox, không load lại ảnh
+  static final Object PAYLOAD_QUANTITY = "quantity";
+  static final Object PAYLOAD_SELECTION = "selection";
+
   private List<CartItem> cartItems;
   private OnCartItemActionListener listener;
 
@@ -30,6 +36,7 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
   public CartAdapter(OnCartItemActionListener listener) {
     this.cartItems = new ArrayList<>();
     this.listener = listener;
+    setHasStableIds(true);
   }
 
   @NonNull
@@ -46,11 +53,67 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     holder.bind(item);
   }
 
+  @Override
+  public void onBindViewHolder(@NonNull CartViewHolder holder, int position, @NonNull List<Object> payloads) {
+    if (payloads.isEmpty()) {
+      onBindViewHolder(holder, position);
+      return;
+    }
+    CartItem item = cartItems.get(position);
+    for (Object payload : payloads) {
+      if (payload == PAYLOAD_QUANTITY) {
+        holder.bindQuantity(item);
+      } else if (payload == PAYLOAD_SELECTION) {
+        holder.bindSelection(item);
+      }
+    }
+  }
+
   @Override
   public int getItemCount() {
     return cartItems.size();
   }
 
+  @Override
+  public long getItemId(int position) {
+    return DiffCallbacks.stableId(cartItems.get(position).getId());
+  }
+
+  /**
+   * Áp dụng một thay đổi từ CartManager lên đúng dòng bị ảnh hưởng.
+   */
+  public void applyChange(CartChange change) {
+    int position = indexOf(change.getItemId());
+    if (position < 0) {
+      return;
+    }
+    switch (change.getType()) {
+      case QUANTITY_CHANGED:
+        cartItems.set(position, change.getItem());
+        notifyItemChanged(position, PAYLOAD_QUANTITY);
+        break;
+      case SELECTION_CHANGED:
+        cartItems.set(position, change.getItem());
+        notifyItemChanged(position, PAYLOAD_SELECTION);
+        break;
+      case ITEM_REMOVED:
+        removeItem(position);
+        break;
+    }
+  }
+
+  private int indexOf(String cartItemId) {
+    if (cartItemId == null) {
+      return -1;
+    }
+    for (int i = 0; i < cartItems.size(); i++) {
+      if (cartItemId.equals(cartItems.get(i).getId())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   public void updateCartItems(List<CartItem> newItems) {
     this.cartItems.clear();
     this.cartItems.addAll(newItems);
@@ -97,29 +160,13 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     }
 
     public void bind(CartItem item) {
-      // Bind checkbox selection state
-      checkboxSelectItem.setOnCheckedChangeListener(null); // Remove old listener
-      checkboxSelectItem.setChecked(item.isSelected());
-      
-      // Handle checkbox selection change
-      checkboxSelectItem.setOnCheckedChangeListener((buttonView, isChecked) -> {
-        if (buttonView.isPressed()) { // Only handle user interaction, not programmatic changes
-          item.setSelected(isChecked);
-          if (listener != null) {
-            listener.onItemSelectionChanged(item, isChecked);
-          }
-        }
-      });
+      bindSelection(item);
 
       // Set product info
       textProductName.setText(item.getProductName());
       textProductCategory.setText(item.getProductCategory());
       textProductPrice.setText(item.getProductPrice());
-      textQuantity.setText(String.valueOf(item.getQuantity()));
-
-      // Calculate and display total price
-      double totalPrice = item.getTotalPrice();
-      textTotalPrice.setText(String.format("Tổng: ₫%.0f", totalPrice));
+      bindQuantity(item);
 
       // Display variant info if available
       if (item.getVariantId() != null && item.getVariantShortName() != null) {
@@ -168,31 +215,18 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
       }
 
       // Set click listeners
+      // CartManager cập nhật item và publish CartChange, dòng này được rebind qua payload
       btnMinus.setOnClickListener(v -> {
         int currentQuantity = item.getQuantity();
-        if (currentQuantity > 1) {
-          int newQuantity = currentQuantity - 1;
-          item.setQuantity(newQuantity); // Update local object
-          textQuantity.setText(String.valueOf(newQuantity));
-          textTotalPrice.setText(String.format("Tổng: ₫%.0f", item.getTotalPrice()));
-
-          if (listener != null) {
-            listener.onQuantityChanged(item, newQuantity);
-          }
+        if (currentQuantity > 1 && listener != null) {
+          listener.onQuantityChanged(item, currentQuantity - 1);
         }
       });
 
       btnPlus.setOnClickListener(v -> {
         int currentQuantity = item.getQuantity();
-        if (currentQuantity < 99) {
-          int newQuantity = currentQuantity + 1;
-          item.setQuantity(newQuantity); // Update local object
-          textQuantity.setText(String.valueOf(newQuantity));
-          textTotalPrice.setText(String.format("Tổng: ₫%.0f", item.getTotalPrice()));
-
-          if (listener != null) {
-            listener.onQuantityChanged(item, newQuantity);
-          }
+        if (currentQuantity < 99 && listener != null) {
+          listener.onQuantityChanged(item, currentQuantity + 1);
         }
       });
 
@@ -202,5 +236,22 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
         }
       });
     }
+
+    void bindQuantity(CartItem item) {
+      textQuantity.setText(String.valueOf(item.getQuantity()));
+      textTotalPrice.setText(DisplayFormatter.lineTotal(item.getTotalPrice()));
+    }
+
+    void bindSelection(CartItem item) {
+      checkboxSelectItem.setOnCheckedChangeListener(null); // Remove old listener
+      checkboxSelectItem.setChecked(item.isSelected());
+
+      // Handle checkbox selection change
+      checkboxSelectItem.setOnCheckedChangeListener((buttonView, isChecked) -> {
+        if (buttonView.isPressed() && listener != null) { // Only handle user interaction
+          listener.onItemSelectionChanged(item, isChecked);
+        }
+      });
+    }
   }
 }
\ No newline at end of file
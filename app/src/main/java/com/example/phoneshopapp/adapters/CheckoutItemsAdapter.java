@@ -10,6 +10,7 @@ import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.models.OrderItem;
 import com.google.android.material.textview.MaterialTextView;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -73,7 +74,7 @@ public class CheckoutItemsAdapter extends RecyclerView.Adapter<CheckoutItemsAdap
         public void bind(OrderItem item) {
             textProductName.setText(item.getProductName());
             textPrice.setText(item.getFormattedPrice());
-            textQuantity.setText(String.format("x%d", item.getQuantity()));
+            textQuantity.setText(DisplayFormatter.quantity(item.getQuantity()));
             textTotalPrice.setText(item.getFormattedTotalPrice());
 
             // Display variant info if available
@@ -0,0 +1,113 @@
+package com.example.phoneshopapp.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import com.example.phoneshopapp.Category;
+import com.example.phoneshopapp.Product;
+import com.example.phoneshopapp.models.FavoriteItem;
+import com.example.phoneshopapp.models.Order;
+import com.example.phoneshopapp.utils.AppExecutors;
+import java.util.Objects;
+
+/**
+ * DiffCallbacks - ItemCallback dùng chung cho các ListAdapter của sản phẩm, đơn hàng,
+ * yêu thích và danh mục, cùng với stable ID sinh từ ID Firestore.
+ *
+ * Diff được tính trên background pool của AppExecutors, chỉ kết quả (các thao tác
+ * insert/remove/move/change) được áp dụng trên main thread.
+ */
+public final class DiffCallbacks {
+
+    private DiffCallbacks() {
+    }
+
+    public static <T> AsyncDifferConfig<T> config(@NonNull DiffUtil.ItemCallback<T> callback) {
+        return new AsyncDifferConfig.Builder<>(callback)
+                .setBackgroundThreadExecutor(AppExecutors.background())
+                .build();
+    }
+
+    /**
+     * Stable ID 64-bit (FNV-1a) từ document ID. Trả về RecyclerView.NO_ID (-1) nếu id null.
+     */
+    public static long stableId(String id) {
+        if (id == null) {
+            return -1L;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == -1L ? 0L : hash;
+    }
+
+    public static final DiffUtil.ItemCallback<Product> PRODUCT = new DiffUtil.ItemCallback<Product>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+            if (oldItem == newItem) {
+                return true;
+            }
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getPrice(), newItem.getPrice())
+                    && Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl())
+                    && Objects.equals(oldItem.getCategory(), newItem.getCategory())
+                    && Objects.equals(oldItem.getBrand(), newItem.getBrand())
+                    && oldItem.getImageResourceId() == newItem.getImageResourceId()
+                    && oldItem.getStockQuantity() == newItem.getStockQuantity();
+        }
+    };
+
+    public static final DiffUtil.ItemCallback<Order> ORDER = new DiffUtil.ItemCallback<Order>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+            return Objects.equals(oldItem.getOrderId(), newItem.getOrderId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Order oldItem, @NonNull Order newItem) {
+            if (oldItem == newItem) {
+                return true;
+            }
+            return oldItem.getOrderStatus() == newItem.getOrderStatus()
+                    && Objects.equals(oldItem.getUpdatedAt(), newItem.getUpdatedAt())
+                    && Objects.equals(oldItem.getCreatedAt(), newItem.getCreatedAt())
+                    && oldItem.getTotalAmount() == newItem.getTotalAmount()
+                    && oldItem.getTotalItemCount() == newItem.getTotalItemCount()
+                    && Objects.equals(oldItem.getReviewId(), newItem.getReviewId());
+        }
+    };
+
+    public static final DiffUtil.ItemCallback<FavoriteItem> FAVORITE = new DiffUtil.ItemCallback<FavoriteItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull FavoriteItem oldItem, @NonNull FavoriteItem newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull FavoriteItem oldItem, @NonNull FavoriteItem newItem) {
+            return Objects.equals(oldItem.getProductName(), newItem.getProductName())
+                    && Objects.equals(oldItem.getProductPrice(), newItem.getProductPrice())
+                    && Objects.equals(oldItem.getProductImageUrl(), newItem.getProductImageUrl())
+                    && Objects.equals(oldItem.getProductCategory(), newItem.getProductCategory());
+        }
+    };
+
+    public static final DiffUtil.ItemCallback<Category> CATEGORY = new DiffUtil.ItemCallback<Category>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Category oldItem, @NonNull Category newItem) {
+            return oldItem.getIconResourceId() == newItem.getIconResourceId();
+        }
+    };
+}
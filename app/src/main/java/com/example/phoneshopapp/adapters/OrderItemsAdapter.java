@@ -12,6 +12,7 @@ import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.models.OrderItem;
 import com.google.android.material.textview.MaterialTextView;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -75,7 +76,7 @@ public class OrderItemsAdapter extends RecyclerView.Adapter<OrderItemsAdapter.Vi
         public void bind(OrderItem item) {
             textProductName.setText(item.getProductName());
             textPrice.setText(item.getFormattedPrice());
-            textQuantity.setText(String.format("Số lượng: %d", item.getQuantity()));
+            textQuantity.setText(DisplayFormatter.quantityLabel(item.getQuantity()));
             textTotalPrice.setText(item.getFormattedTotalPrice());
 
             // Display variant info if available
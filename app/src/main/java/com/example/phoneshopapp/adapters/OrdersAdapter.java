@@ -9,6 +9,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.models.Order;
 import com.example.phoneshopapp.models.OrderStatus;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.textview.MaterialTextView;
@@ -80,7 +81,7 @@ public class OrdersAdapter extends RecyclerView.Adapter<OrdersAdapter.ViewHolder
 
         public void bind(Order order, OnOrderClickListener listener) {
             textOrderId.setText(order.getFormattedOrderId());
-            textTotalAmount.setText(String.format("₫%.0f", order.getTotalAmount()));
+            textTotalAmount.setText(DisplayFormatter.price(order.getTotalAmount()));
 
             // Format date
             if (order.getCreatedAt() != null) {
@@ -94,7 +95,7 @@ public class OrdersAdapter extends RecyclerView.Adapter<OrdersAdapter.ViewHolder
 
             // Use real item count from order
             int itemCount = order.getTotalItemCount();
-            textItemCount.setText(String.format("%d sản phẩm", itemCount));
+            textItemCount.setText(DisplayFormatter.itemCount(itemCount));
 
             // Set click listener
             cardOrder.setOnClickListener(v -> {
@@ -0,0 +1,51 @@
+package com.example.phoneshopapp.data;
+
+import com.example.phoneshopapp.Product;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tập thay đổi của catalog PhoneDB sau một snapshot Firestore.
+ * Chỉ chứa các document được thêm, sửa hoặc xóa, kèm theo snapshot đầy đủ
+ * (immutable) của catalog sau khi đã áp dụng các thay đổi.
+ */
+public class CatalogChangeSet {
+
+  private final List<Product> added;
+  private final List<Product> modified;
+  private final List<String> removedIds;
+  private final List<Product> snapshot;
+
+  public CatalogChangeSet(List<Product> added, List<Product> modified, List<String> removedIds,
+      List<Product> snapshot) {
+    this.added = Collections.unmodifiableList(added);
+    this.modified = Collections.unmodifiableList(modified);
+    this.removedIds = Collections.unmodifiableList(removedIds);
+    this.snapshot = snapshot;
+  }
+
+  public List<Product> getAdded() {
+    return added;
+  }
+
+  public List<Product> getModified() {
+    return modified;
+  }
+
+  public List<String> getRemovedIds() {
+    return removedIds;
+  }
+
+  // Catalog đầy đủ sau khi áp dụng thay đổi
+  public List<Product> getSnapshot() {
+    return snapshot;
+  }
+
+  public boolean isEmpty() {
+    return added.isEmpty() && modified.isEmpty() && removedIds.isEmpty();
+  }
+
+  public int size() {
+    return added.size() + modified.size() + removedIds.size();
+  }
+}
@@ -0,0 +1,143 @@
+package com.example.phoneshopapp.data;
+
+import com.example.phoneshopapp.Product;
+import com.example.phoneshopapp.utils.AppLog;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Danh sách category của catalog, đọc từ một document nhỏ thay vì cả collection PhoneDB.
+ *
+ * Document {@code catalog_meta/categories} giữ mảng {@code names}; admin thêm category bằng
+ * arrayUnion mỗi khi lưu sản phẩm. Khi catalog đầy đủ đã sync sẵn thì lấy từ bộ nhớ và ghi
+ * lại đúng danh sách đó (bỏ luôn category đã hết sản phẩm). Document chưa có (catalog có từ
+ * trước) thì tải catalog đầy đủ một lần để dựng lại.
+ */
+public final class ProductCategories {
+
+  private static final String TAG = "ProductCategories";
+  private static final String META_COLLECTION = "catalog_meta";
+  private static final String CATEGORIES_DOCUMENT = "categories";
+  private static final String FIELD_NAMES = "names";
+
+  public static final String ALL = "All";
+
+  // Danh sách đã ghi lên document trong process này, tránh ghi lại khi không đổi
+  private static volatile List<String> lastWritten = null;
+
+  public interface OnCategoriesLoadedListener {
+    // categories: đã sắp xếp, "All" luôn đứng đầu
+    void onCategoriesLoaded(List<String> categories);
+
+    void onFailure(Exception e);
+  }
+
+  private ProductCategories() {
+  }
+
+  public static void load(OnCategoriesLoadedListener listener) {
+    List<Product> synced = ProductData.getSyncedProducts();
+    if (synced != null) {
+      List<String> categories = fromProducts(synced);
+      writeBack(categories);
+      listener.onCategoriesLoaded(categories);
+      return;
+    }
+
+    FirebaseFirestore.getInstance()
+        .collection(META_COLLECTION)
+        .document(CATEGORIES_DOCUMENT)
+        .get()
+        .addOnSuccessListener(doc -> {
+          Object names = doc.get(FIELD_NAMES);
+          if (!(names instanceof List) || ((List<?>) names).isEmpty()) {
+            AppLog.i(TAG, "Categories document missing, rebuilding from catalog");
+            loadFromCatalog(listener);
+            return;
+          }
+          List<String> categories = sorted((List<?>) names);
+          AppLog.d(TAG, () -> "Loaded " + categories.size() + " categories");
+          listener.onCategoriesLoaded(categories);
+        })
+        .addOnFailureListener(e -> {
+          AppLog.e(TAG, "Error loading categories: " + e.getMessage());
+          listener.onFailure(e);
+        });
+  }
+
+  private static void loadFromCatalog(OnCategoriesLoadedListener listener) {
+    ProductData.loadProductsFromFirebase(new ProductData.OnProductsLoadedListener() {
+      @Override
+      public void onSuccess(List<Product> products) {
+        List<String> categories = fromProducts(products);
+        writeBack(categories);
+        listener.onCategoriesLoaded(categories);
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        listener.onFailure(e);
+      }
+    });
+  }
+
+  // Ghi đè document bằng danh sách lấy từ catalog đầy đủ
+  private static void writeBack(List<String> categories) {
+    if (categories.equals(lastWritten)) {
+      return;
+    }
+    lastWritten = categories;
+    Map<String, Object> data = new HashMap<>();
+    data.put(FIELD_NAMES, new ArrayList<>(categories.subList(1, categories.size())));
+    FirebaseFirestore.getInstance()
+        .collection(META_COLLECTION)
+        .document(CATEGORIES_DOCUMENT)
+        .set(data, SetOptions.merge())
+        .addOnFailureListener(e -> {
+          lastWritten = null;
+          AppLog.w(TAG, "Error writing categories: " + e.getMessage());
+        });
+  }
+
+  // Gọi sau khi admin lưu sản phẩm để category mới xuất hiện ở màn hình duyệt
+  public static void record(String category) {
+    if (category == null || category.trim().isEmpty()) {
+      return;
+    }
+    Map<String, Object> update = new HashMap<>();
+    update.put(FIELD_NAMES, FieldValue.arrayUnion(category.trim()));
+    FirebaseFirestore.getInstance()
+        .collection(META_COLLECTION)
+        .document(CATEGORIES_DOCUMENT)
+        .set(update, SetOptions.merge())
+        .addOnFailureListener(e -> AppLog.w(TAG, "Error recording category: " + e.getMessage()));
+  }
+
+  public static List<String> fromProducts(List<Product> products) {
+    List<String> names = new ArrayList<>();
+    for (Product product : products) {
+      names.add(product.getCategory());
+    }
+    return sorted(names);
+  }
+
+  private static List<String> sorted(Collection<?> names) {
+    TreeSet<String> set = new TreeSet<>();
+    for (Object name : names) {
+      if (name instanceof String && !((String) name).isEmpty() && !ALL.equals(name)) {
+        set.add((String) name);
+      }
+    }
+    List<String> categories = new ArrayList<>(set.size() + 1);
+    categories.add(ALL);
+    categories.addAll(set);
+    return categories;
+  }
+}
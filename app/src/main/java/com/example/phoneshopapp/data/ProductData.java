@@ -1,23 +1,54 @@
 package com.example.phoneshopapp.data;
 
-import android.util.Log;
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.R;
+import com.example.phoneshopapp.utils.AppLog;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ProductData {
 
   private static final String TAG = "ProductData";
   private static final String FIREBASE_COLLECTION = "PhoneDB";
 
-  // Static list để giữ dữ liệu giữa các lần gọi
+  // Catalog trong bộ nhớ, được cập nhật theo từng document change của snapshot listener
+  private static final Map<String, Product> catalog = new LinkedHashMap<>();
+  // Snapshot immutable của catalog, chia sẻ cho mọi caller (null khi chưa sync xong lần đầu)
   private static List<Product> productList = null;
-  private static boolean isLoadingFromFirebase = false;
-  private static long lastFirebaseLoadTime = 0;
-  private static final long FIREBASE_CACHE_DURATION = 1 * 60 * 1000; // 1 phút cache Firebase data để data luôn mới
+  private static ListenerRegistration syncRegistration = null;
+  // Snapshot đầu tiên của listener vừa gắn luôn là toàn bộ collection; nếu catalog cũ còn
+  // giữ (gắn lại sau lỗi) thì phải đối chiếu với nó để biết sản phẩm nào đã bị xóa
+  private static boolean awaitingFullSnapshot = false;
+
+  // Single-flight state: khác null nghĩa là đang chờ snapshot đầu tiên của PhoneDB,
+  // mọi caller gọi vào trong lúc đó sẽ được gom vào danh sách này
+  private static final Object LOCK = new Object();
+  private static List<OnProductsLoadedListener> inFlightListeners = null;
+  private static int lastCoalescedCallers = 0;
+  private static int totalCoalescedCallers = 0;
+
+  private static final List<OnCatalogChangedListener> catalogListeners = new CopyOnWriteArrayList<>();
+
+  // Sản phẩm lấy lẻ (PhoneDB/{id} hoặc từ trang phân trang) khi catalog chưa sync, giới hạn theo LRU
+  private static final int LOOKUP_CACHE_SIZE = 200;
+  private static final Map<String, Product> lookupCache = new LinkedHashMap<String, Product>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Product> eldest) {
+      return size() > LOOKUP_CACHE_SIZE;
+    }
+  };
 
   // Interface cho callback khi load data từ Firebase
   public interface OnProductsLoadedListener {
@@ -26,172 +57,364 @@ public class ProductData {
     void onFailure(Exception e);
   }
 
-  // Kiểm tra xem có nên load lại từ Firebase không
-  private static boolean shouldReloadFromFirebase() {
-    return productList == null ||
-        (System.currentTimeMillis() - lastFirebaseLoadTime) > FIREBASE_CACHE_DURATION;
+  // Interface cho callback khi load một sản phẩm theo ID
+  public interface OnProductLoadedListener {
+    void onSuccess(Product product);
+
+    void onFailure(Exception e);
   }
 
-  // Load products từ Firebase
+  // Interface nhận các thay đổi incremental của catalog (gọi trên main thread)
+  public interface OnCatalogChangedListener {
+    void onCatalogChanged(CatalogChangeSet changeSet);
+  }
+
+  /**
+   * Listener được gọi theo thứ tự đăng ký. Các index (ProductSearchIndex, ProductFacetIndex)
+   * đăng ký ngay khi được tạo, trước các ViewModel đọc chúng, nên khi ViewModel nhận thay đổi
+   * thì index đã được cập nhật.
+   */
+  public static void addOnCatalogChangedListener(OnCatalogChangedListener listener) {
+    if (!catalogListeners.contains(listener)) {
+      catalogListeners.add(listener);
+    }
+  }
+
+  public static void removeOnCatalogChangedListener(OnCatalogChangedListener listener) {
+    catalogListeners.remove(listener);
+  }
+
+  // Load products từ Firebase.
+  // Lần đầu sẽ gắn một snapshot listener duy nhất lên PhoneDB; các lần sau trả về
+  // catalog trong bộ nhớ vì listener luôn giữ catalog đồng bộ với server.
   public static void loadProductsFromFirebase(OnProductsLoadedListener listener) {
-    // Nếu đang loading thì đợi
-    if (isLoadingFromFirebase) {
-      Log.d(TAG, "Already loading from Firebase, please wait...");
-      return;
+    List<Product> cached = null;
+
+    synchronized (LOCK) {
+      // Nếu đang chờ snapshot đầu tiên thì join vào thay vì bỏ qua listener
+      if (inFlightListeners != null) {
+        inFlightListeners.add(listener);
+        AppLog.d(TAG, () -> "Joining in-flight Firebase sync (" + inFlightListeners.size() + " callers)");
+        return;
+      }
+
+      if (syncRegistration != null && productList != null && !productList.isEmpty()) {
+        cached = productList;
+      } else {
+        inFlightListeners = new ArrayList<>();
+        inFlightListeners.add(listener);
+      }
     }
 
-    // Nếu có cache và chưa hết hạn thì dùng cache
-    if (!shouldReloadFromFirebase() && productList != null && !productList.isEmpty()) {
-      Log.d(TAG, "Using cached Firebase data (" + productList.size() + " products)");
-      listener.onSuccess(new ArrayList<>(productList));
+    if (cached != null) {
+      List<Product> snapshot = cached;
+      AppLog.d(TAG, () -> "Using live-synced catalog (" + snapshot.size() + " products)");
+      listener.onSuccess(snapshot);
       return;
     }
 
-    isLoadingFromFirebase = true;
-    FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-    Log.d(TAG, "Loading products from Firebase PhoneDB collection...");
-    Log.d(TAG, "Firebase instance: " + db.toString());
-
-    db.collection(FIREBASE_COLLECTION)
-        .get()
-        .addOnSuccessListener(queryDocumentSnapshots -> {
-          List<Product> firebaseProducts = new ArrayList<>();
-
-          Log.d(TAG, "Firebase query successful. Documents count: " + queryDocumentSnapshots.size());
-
-          for (DocumentSnapshot doc : queryDocumentSnapshots) {
-            try {
-              // Log raw data from Firebase for debugging
-              Log.d(TAG, "Raw Firebase document ID: " + doc.getId());
-              Log.d(TAG, "Raw Firebase data: " + doc.getData());
-
-              Product product = documentToProduct(doc);
-              if (product != null) {
-                firebaseProducts.add(product);
-                Log.d(TAG, "Loaded product: ID=" + product.getId() + ", Name=" + product.getName() +
-                    ", DocID=" + doc.getId() + ", Brand=" + product.getBrand() +
-                    ", HasVariants=" + product.isHasVariants());
-              } else {
-                Log.e(TAG, "Failed to convert document to Product object. Document ID: " + doc.getId());
-              }
-            } catch (Exception e) {
-              Log.e(TAG, "Error parsing document " + doc.getId(), e);
-              Log.e(TAG, "Document data: " + doc.getData());
-            }
-          }
+    startSync();
+  }
 
-          // Cập nhật static list với dữ liệu từ Firebase
-          productList = firebaseProducts;
-          lastFirebaseLoadTime = System.currentTimeMillis();
-          isLoadingFromFirebase = false;
+  // Tra cứu O(1) theo ID trong bộ nhớ, trả về null nếu chưa có
+  public static Product getCachedProduct(String productId) {
+    if (productId == null) {
+      return null;
+    }
+    synchronized (LOCK) {
+      Product product = catalog.get(productId);
+      return product != null ? product : lookupCache.get(productId);
+    }
+  }
 
-          Log.d(TAG, "Successfully loaded " + firebaseProducts.size() + " products from Firebase");
+  // Load một sản phẩm: lấy từ bộ nhớ nếu có, nếu không thì chỉ đọc document PhoneDB/{id}
+  public static void loadProductById(String productId, OnProductLoadedListener listener) {
+    Product cached = getCachedProduct(productId);
+    if (cached != null) {
+      listener.onSuccess(cached);
+      return;
+    }
 
-          // Chỉ dùng dữ liệu Firebase - nếu Firebase trống thì báo lỗi
-          if (firebaseProducts.isEmpty()) {
-            Log.w(TAG, "No products found in Firebase database");
-            listener.onFailure(new Exception("Không tìm thấy sản phẩm nào trên hệ thống. Vui lòng thử lại sau."));
-          } else {
-            listener.onSuccess(new ArrayList<>(firebaseProducts));
+    AppLog.d(TAG, () -> "Product " + productId + " not in memory, fetching single document");
+    FirebaseFirestore.getInstance()
+        .collection(FIREBASE_COLLECTION)
+        .document(productId)
+        .get()
+        .addOnSuccessListener(doc -> {
+          Product product = doc.exists() ? documentToProduct(doc) : null;
+          if (product == null) {
+            listener.onFailure(new FirebaseFirestoreException("Product not found with ID: " + productId,
+                FirebaseFirestoreException.Code.NOT_FOUND));
+            return;
           }
+          cacheProduct(product);
+          listener.onSuccess(product);
         })
         .addOnFailureListener(e -> {
-          Log.e(TAG, "Error loading products from Firebase", e);
-          isLoadingFromFirebase = false;
-
-          // Chỉ trả về lỗi thực tế, không có fallback
-          String errorMessage = "Không thể kết nối đến máy chủ. Vui lòng kiểm tra kết nối mạng và thử lại.";
-          if (e.getMessage() != null && e.getMessage().contains("offline")) {
-            errorMessage = "Thiết bị đang offline. Vui lòng kết nối mạng và thử lại.";
-          }
-
-          listener.onFailure(new Exception(errorMessage));
+          AppLog.e(TAG, "Error fetching product " + productId, e);
+          listener.onFailure(e);
         });
   }
 
-  // Clear cache để force reload từ Firebase
-  public static void clearCache() {
-    productList = null;
-    lastFirebaseLoadTime = 0;
-    isLoadingFromFirebase = false;
-    Log.d(TAG, "ProductData cache cleared");
+  // Ghi nhớ sản phẩm lấy lẻ để lần tra cứu sau không phải đọc lại
+  static void cacheProduct(Product product) {
+    if (product == null || product.getId() == null) {
+      return;
+    }
+    synchronized (LOCK) {
+      if (!catalog.containsKey(product.getId())) {
+        lookupCache.put(product.getId(), product);
+      }
+    }
   }
 
-  // Force refresh từ Firebase
-  public static void forceRefreshFromFirebase(OnProductsLoadedListener listener) {
-    clearCache();
-    loadProductsFromFirebase(listener);
-  }
+  // Gắn snapshot listener lên PhoneDB (chỉ gọi khi đang giữ vai trò in-flight)
+  private static void startSync() {
+    FirebaseFirestore db = FirebaseFirestore.getInstance();
 
-  // Helper method to convert Firestore document to Product object
-  private static Product documentToProduct(DocumentSnapshot doc) {
-    try {
-      Product product = new Product();
+    AppLog.d(TAG, "Attaching snapshot listener to Firebase PhoneDB collection...");
+    synchronized (LOCK) {
+      awaitingFullSnapshot = true;
+    }
 
-      // Set document ID as product ID
-      String documentId = doc.getId();
-      product.setId(documentId);
+    ListenerRegistration registration = db.collection(FIREBASE_COLLECTION)
+        .addSnapshotListener((snapshots, e) -> {
+          if (e != null) {
+            onSyncFailed(e);
+            return;
+          }
+          if (snapshots != null) {
+            applySnapshot(snapshots);
+          }
+        });
 
-      // Set all other fields from document
-      product.setName(doc.getString("name"));
-      product.setPrice(doc.getString("price"));
-      product.setImageUrl(doc.getString("imageUrl"));
-      product.setDescription(doc.getString("description"));
-      product.setCategory(doc.getString("category"));
-      product.setBrand(doc.getString("brand"));
-      product.setSpecScreen(doc.getString("specScreen"));
-      product.setSpecProcessor(doc.getString("specProcessor"));
-      product.setSpecRam(doc.getString("specRam"));
-      product.setSpecStorage(doc.getString("specStorage"));
+    synchronized (LOCK) {
+      if (syncRegistration != null) {
+        syncRegistration.remove();
+      }
+      syncRegistration = registration;
+    }
+  }
 
-      // Handle nullable boolean fields
-      Boolean isFeatured = doc.getBoolean("isFeatured");
-      if (isFeatured != null) {
-        product.setFeatured(isFeatured);
+  // Áp dụng chỉ các document added/modified/removed vào catalog.
+  // Decode chạy song song trên worker pool, chỉ bước cập nhật catalog chạy trên main thread.
+  private static void applySnapshot(QuerySnapshot snapshots) {
+    List<DocumentSnapshot> changedDocs = new ArrayList<>();
+    List<Boolean> changedIsAdded = new ArrayList<>();
+    List<String> removedIds = new ArrayList<>();
+
+    // Gắn lại sau lỗi: mọi document đều đến dưới dạng ADDED, sản phẩm bị xóa trong lúc
+    // listener hỏng thì không có REMOVED nên phải tự tìm những ID không còn trong snapshot
+    Set<String> previousIds = null;
+    synchronized (LOCK) {
+      if (awaitingFullSnapshot) {
+        awaitingFullSnapshot = false;
+        if (!catalog.isEmpty()) {
+          previousIds = new HashSet<>(catalog.keySet());
+        }
+      }
+    }
+    boolean resync = previousIds != null;
+
+    for (DocumentChange change : snapshots.getDocumentChanges()) {
+      DocumentSnapshot doc = change.getDocument();
+      if (change.getType() == DocumentChange.Type.REMOVED) {
+        removedIds.add(doc.getId());
+      } else {
+        changedDocs.add(doc);
+        boolean known = resync && previousIds.contains(doc.getId());
+        changedIsAdded.add(change.getType() == DocumentChange.Type.ADDED && !known);
       }
+    }
+    if (resync) {
+      for (DocumentSnapshot doc : snapshots.getDocuments()) {
+        previousIds.remove(doc.getId());
+      }
+      removedIds.addAll(previousIds);
+    }
+    boolean fromCache = snapshots.getMetadata().isFromCache();
+
+    ProductDecoder.decodeInBackground(changedDocs, decoded -> {
+      List<Product> added = new ArrayList<>();
+      List<Product> modified = new ArrayList<>();
+      List<String> dropped = new ArrayList<>(removedIds);
+      for (int i = 0; i < decoded.size(); i++) {
+        Product product = decoded.get(i);
+        if (product == null) {
+          String id = changedDocs.get(i).getId();
+          AppLog.e(TAG, "Failed to convert document to Product object. Document ID: " + id);
+          // Bản sửa không đọc được thì gỡ sản phẩm khỏi catalog và các index, không giữ bản cũ
+          if (!changedIsAdded.get(i)) {
+            dropped.add(id);
+          }
+        } else if (changedIsAdded.get(i)) {
+          added.add(product);
+        } else {
+          modified.add(product);
+        }
+      }
+      applyDecodedChanges(added, modified, dropped, fromCache, resync);
+    });
+  }
 
-      Boolean isBestDeal = doc.getBoolean("isBestDeal");
-      if (isBestDeal != null) {
-        product.setBestDeal(isBestDeal);
+  private static void applyDecodedChanges(List<Product> added, List<Product> modified, List<String> removedIds,
+      boolean fromCache, boolean resync) {
+    List<Product> result;
+    List<OnProductsLoadedListener> waiters = null;
+    synchronized (LOCK) {
+      for (Product product : added) {
+        catalog.put(product.getId(), product);
+      }
+      for (Product product : modified) {
+        catalog.put(product.getId(), product);
       }
+      for (String id : removedIds) {
+        catalog.remove(id);
+      }
+      // Catalog đã sync thì bản lấy lẻ không còn cần
+      lookupCache.clear();
+      result = Collections.unmodifiableList(new ArrayList<>(catalog.values()));
+      productList = result;
+      // Snapshot rỗng lấy từ cache offline chưa phải kết quả thật, tiếp tục chờ server
+      boolean pendingServer = result.isEmpty() && fromCache;
+      if (inFlightListeners != null && !pendingServer) {
+        waiters = finishInFlight();
+      }
+    }
 
-      Boolean hasVariants = doc.getBoolean("hasVariants");
-      if (hasVariants != null) {
-        product.setHasVariants(hasVariants);
+    AppLog.d(TAG, () -> "Catalog sync: +" + added.size() + " ~" + modified.size() + " -" + removedIds.size()
+        + " (total " + result.size() + ", fromCache=" + fromCache + ")");
+
+    if (waiters != null) {
+      // Lần sync đầu tiên: trả kết quả cho các caller đang chờ
+      if (result.isEmpty()) {
+        AppLog.w(TAG, "No products found in Firebase database");
+        Exception error = new Exception("Không tìm thấy sản phẩm nào trên hệ thống. Vui lòng thử lại sau.");
+        for (OnProductsLoadedListener waiter : waiters) {
+          waiter.onFailure(error);
+        }
+      } else {
+        for (OnProductsLoadedListener waiter : waiters) {
+          waiter.onSuccess(result);
+        }
       }
+      // Lần sync đầu chỉ cần trả cho caller; sync lại sau lỗi thì các index / ViewModel đang
+      // giữ catalog cũ vẫn phải nhận phần chênh lệch
+      if (!resync) {
+        return;
+      }
+    }
 
-      // Handle numeric fields
-      Long stockQuantity = doc.getLong("stockQuantity");
-      if (stockQuantity != null) {
-        product.setStockQuantity(stockQuantity.intValue());
+    CatalogChangeSet changeSet = new CatalogChangeSet(added, modified, removedIds, result);
+    if (!changeSet.isEmpty()) {
+      for (OnCatalogChangedListener observer : catalogListeners) {
+        observer.onCatalogChanged(changeSet);
       }
+    }
+  }
+
+  private static void onSyncFailed(Exception e) {
+    AppLog.e(TAG, "Error syncing products from Firebase", e);
 
-      Long imageResourceId = doc.getLong("imageResourceId");
-      if (imageResourceId != null) {
-        product.setImageResourceId(imageResourceId.intValue());
+    List<OnProductsLoadedListener> waiters = null;
+    synchronized (LOCK) {
+      // Listener đã hỏng: gỡ ra để lần load sau gắn lại
+      if (syncRegistration != null) {
+        syncRegistration.remove();
+        syncRegistration = null;
+      }
+      if (inFlightListeners != null) {
+        waiters = finishInFlight();
       }
+    }
+    if (waiters == null) {
+      return;
+    }
 
-      // Calculate priceValue from price string
-      product.setPriceValue(parsePrice(product.getPrice()));
+    // Chỉ trả về lỗi thực tế, không có fallback
+    String errorMessage = "Không thể kết nối đến máy chủ. Vui lòng kiểm tra kết nối mạng và thử lại.";
+    if (e.getMessage() != null && e.getMessage().contains("offline")) {
+      errorMessage = "Thiết bị đang offline. Vui lòng kết nối mạng và thử lại.";
+    }
 
-      return product;
-    } catch (Exception e) {
-      Log.e(TAG, "Error converting document to Product: " + doc.getId(), e);
-      return null;
+    Exception error = new Exception(errorMessage);
+    for (OnProductsLoadedListener waiter : waiters) {
+      waiter.onFailure(error);
+    }
+  }
+
+  // Kết thúc lần fetch hiện tại và trả về các caller đã join (gọi trong LOCK)
+  private static List<OnProductsLoadedListener> finishInFlight() {
+    List<OnProductsLoadedListener> waiters = inFlightListeners;
+    inFlightListeners = null;
+    lastCoalescedCallers = waiters.size() - 1;
+    totalCoalescedCallers += lastCoalescedCallers;
+    AppLog.d(TAG, () -> "Firebase fetch served " + waiters.size() + " callers (" + lastCoalescedCallers + " coalesced)");
+    return waiters;
+  }
+
+  // Số caller được gom vào lần fetch gần nhất (không tính caller khởi tạo fetch)
+  public static int getLastCoalescedCallerCount() {
+    synchronized (LOCK) {
+      return lastCoalescedCallers;
     }
   }
 
-  // Helper method để parse price string thành number (replicate from
-  // Product.java)
-  private static double parsePrice(String price) {
-    if (price == null)
-      return 0.0;
+  // Tổng số caller đã được gom từ khi app khởi động
+  public static int getTotalCoalescedCallerCount() {
+    synchronized (LOCK) {
+      return totalCoalescedCallers;
+    }
+  }
+
+  // Catalog đầy đủ nếu snapshot listener đã sync, null nếu chưa (không kích hoạt tải)
+  public static List<Product> getSyncedProducts() {
+    synchronized (LOCK) {
+      return syncRegistration != null ? productList : null;
+    }
+  }
+
+  // Đang có lần fetch PhoneDB nào chạy không
+  public static boolean isLoadingFromFirebase() {
+    synchronized (LOCK) {
+      return inFlightListeners != null;
+    }
+  }
+
+  // Gỡ snapshot listener và xóa catalog để lần load sau sync lại từ đầu.
+  // Không reset lần sync đang chờ: caller mới sẽ join vào lần đó.
+  public static void clearCache() {
+    synchronized (LOCK) {
+      if (syncRegistration != null && inFlightListeners == null) {
+        syncRegistration.remove();
+        syncRegistration = null;
+      }
+      catalog.clear();
+      lookupCache.clear();
+      productList = null;
+    }
+    AppLog.d(TAG, "ProductData cache cleared");
+  }
+
+  // Force refresh từ Firebase.
+  // Khi snapshot listener đang hoạt động thì catalog đã luôn mới, không cần đọc lại cả collection.
+  public static void forceRefreshFromFirebase(OnProductsLoadedListener listener) {
+    synchronized (LOCK) {
+      if (syncRegistration == null) {
+        catalog.clear();
+        productList = null;
+      }
+    }
+    loadProductsFromFirebase(listener);
+  }
+
+  // Helper method to convert Firestore document to Product object
+  static Product documentToProduct(DocumentSnapshot doc) {
     try {
-      String cleanPrice = price.replaceAll("[^\\d.]", "");
-      return Double.parseDouble(cleanPrice);
-    } catch (NumberFormatException e) {
-      return 0.0;
+      return ProductDecoder.fromDocument(doc);
+    } catch (Exception e) {
+      AppLog.e(TAG, "Error converting document to Product: " + doc.getId(), e);
+      return null;
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.example.phoneshopapp.data;
+
+import com.example.phoneshopapp.Product;
+import com.example.phoneshopapp.utils.AppExecutors;
+import com.example.phoneshopapp.utils.AppLog;
+import com.google.firebase.firestore.DocumentSnapshot;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Chuyển document PhoneDB thành Product.
+ *
+ * Việc decode snapshot lớn được chia thành các chunk chạy song song trên background pool;
+ * chỉ danh sách đã decode xong mới được đưa về main thread. Một coordinator đơn luồng
+ * giữ đúng thứ tự giữa các snapshot liên tiếp.
+ */
+public final class ProductDecoder {
+
+  private static final String TAG = "ProductDecoder";
+
+  // Dưới ngưỡng này decode luôn trên coordinator, không đáng chia chunk
+  static final int CHUNK_SIZE = 128;
+
+  private static final ExecutorService COORDINATOR = Executors.newSingleThreadExecutor(
+      runnable -> new Thread(runnable, "phoneshop-decode"));
+
+  public interface OnDecodedListener {
+    // products cùng thứ tự với documents, phần tử null nếu document lỗi
+    void onDecoded(List<Product> products);
+  }
+
+  private ProductDecoder() {
+  }
+
+  /**
+   * Decode các document ngoài main thread rồi trả kết quả về main thread.
+   */
+  public static void decodeInBackground(List<DocumentSnapshot> documents, OnDecodedListener listener) {
+    COORDINATOR.execute(() -> {
+      long start = System.nanoTime();
+      Product[] decoded = decodeChunked(documents, ProductDecoder::fromDocument, AppExecutors.background());
+      List<Product> products = Arrays.asList(decoded);
+      AppLog.d(TAG, () -> "Decoded " + documents.size() + " documents in " +
+          (System.nanoTime() - start) / 1_000_000 + "ms");
+      AppExecutors.mainThread().execute(() -> listener.onDecoded(products));
+    });
+  }
+
+  /**
+   * Decode song song theo chunk trên pool, giữ nguyên thứ tự đầu vào.
+   */
+  static <T> Product[] decodeChunked(List<T> items, Function<T, Product> decoder, ExecutorService pool) {
+    Product[] result = new Product[items.size()];
+    if (items.size() <= CHUNK_SIZE) {
+      decodeRange(items, decoder, result, 0, items.size());
+      return result;
+    }
+
+    List<Future<?>> chunks = new ArrayList<>();
+    for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+      final int start = from;
+      final int end = Math.min(items.size(), from + CHUNK_SIZE);
+      chunks.add(pool.submit(() -> decodeRange(items, decoder, result, start, end)));
+    }
+    for (Future<?> chunk : chunks) {
+      try {
+        chunk.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (ExecutionException e) {
+        // decodeRange đã tự bắt lỗi từng document, lỗi ở đây là bất thường
+        AppLog.e(TAG, "Decode chunk failed", e.getCause());
+      }
+    }
+    return result;
+  }
+
+  private static <T> void decodeRange(List<T> items, Function<T, Product> decoder, Product[] out,
+      int start, int end) {
+    for (int i = start; i < end; i++) {
+      try {
+        out[i] = decoder.apply(items.get(i));
+      } catch (RuntimeException e) {
+        out[i] = null;
+      }
+    }
+  }
+
+  public static Product fromDocument(DocumentSnapshot doc) {
+    return fromMap(doc.getId(), doc.getData());
+  }
+
+  /**
+   * Decode từ map field của document (một lần getData() thay vì nhiều lần getString()).
+   */
+  public static Product fromMap(String documentId, Map<String, Object> data) {
+    if (data == null) {
+      return null;
+    }
+
+    Product product = new Product();
+
+    // Set document ID as product ID
+    product.setId(documentId);
+
+    // Set all other fields from document (setPrice cũng tính priceValue)
+    product.setName(asString(data.get("name")));
+    product.setPrice(asString(data.get("price")));
+    product.setImageUrl(asString(data.get("imageUrl")));
+    product.setDescription(asString(data.get("description")));
+    product.setCategory(asString(data.get("category")));
+    product.setBrand(asString(data.get("brand")));
+    product.setSpecScreen(asString(data.get("specScreen")));
+    product.setSpecProcessor(asString(data.get("specProcessor")));
+    product.setSpecRam(asString(data.get("specRam")));
+    product.setSpecStorage(asString(data.get("specStorage")));
+
+    // Handle nullable boolean fields
+    Object isFeatured = data.get("isFeatured");
+    if (isFeatured instanceof Boolean) {
+      product.setFeatured((Boolean) isFeatured);
+    }
+
+    Object isBestDeal = data.get("isBestDeal");
+    if (isBestDeal instanceof Boolean) {
+      product.setBestDeal((Boolean) isBestDeal);
+    }
+
+    Object hasVariants = data.get("hasVariants");
+    if (hasVariants instanceof Boolean) {
+      product.setHasVariants((Boolean) hasVariants);
+    }
+
+    // Handle numeric fields
+    Object stockQuantity = data.get("stockQuantity");
+    if (stockQuantity instanceof Number) {
+      product.setStockQuantity(((Number) stockQuantity).intValue());
+    }
+
+    Object imageResourceId = data.get("imageResourceId");
+    if (imageResourceId instanceof Number) {
+      product.setImageResourceId(((Number) imageResourceId).intValue());
+    }
+
+    return product;
+  }
+
+  private static String asString(Object value) {
+    if (value == null) {
+      return null;
+    }
+    return value instanceof String ? (String) value : value.toString();
+  }
+}
@@ -0,0 +1,208 @@
+package com.example.phoneshopapp.data;
+
+import com.example.phoneshopapp.Product;
+import com.example.phoneshopapp.utils.AppLog;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Phân trang catalog PhoneDB bằng cursor Firestore (orderBy / startAfter / limit).
+ *
+ * Chỉ giữ tối đa {@code maxPagesInMemory} trang liền nhau trong bộ nhớ; khi cuộn quá
+ * cửa sổ, trang xa nhất bị bỏ và có thể tải lại bằng cursor đầu/cuối của trang đó.
+ * Sắp xếp theo giá dùng field số {@code priceValue}; lọc category cùng với sắp xếp giá cần
+ * composite index trong firestore.indexes.json. Không hỗ trợ sắp xếp theo tên: Firestore so
+ * byte UTF-8 còn ProductFacetIndex dùng Collator tiếng Việt, nên sort tên luôn đi qua facet index.
+ */
+public class ProductPager {
+
+  private static final String TAG = "ProductPager";
+  private static final String FIREBASE_COLLECTION = "PhoneDB";
+
+  public static final int DEFAULT_PAGE_SIZE = 20;
+  public static final int DEFAULT_MAX_PAGES = 5;
+
+  public interface OnPageLoadedListener {
+    // window: các sản phẩm đang giữ; windowOffset: vị trí tuyệt đối của phần tử đầu tiên
+    void onPageLoaded(List<Product> window, int windowOffset);
+
+    void onFailure(Exception e);
+  }
+
+  private final Query baseQuery;
+  private final int pageSize;
+  private final int maxPagesInMemory;
+
+  // Các trang đang giữ, pages.get(0) là trang tuyệt đối firstPageIndex
+  private final List<List<Product>> pages = new ArrayList<>();
+  private int firstPageIndex = 0;
+  // Cursor đầu/cuối của mọi trang đã từng tải (theo chỉ số tuyệt đối), chỉ là tham chiếu nhỏ
+  private final List<DocumentSnapshot> pageStartCursors = new ArrayList<>();
+  private final List<DocumentSnapshot> pageEndCursors = new ArrayList<>();
+
+  private boolean isLoading = false;
+  private boolean endReached = false;
+
+  // Sort key phân trang được bằng cursor Firestore
+  public static boolean supportsSort(String sortKey) {
+    return sortKey == null || sortKey.equals("default")
+        || sortKey.equals("price_asc") || sortKey.equals("price_desc");
+  }
+
+  public ProductPager(String category, String sortKey) {
+    this(category, sortKey, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES);
+  }
+
+  public ProductPager(String category, String sortKey, int pageSize, int maxPagesInMemory) {
+    this.baseQuery = buildQuery(category, sortKey);
+    this.pageSize = pageSize;
+    this.maxPagesInMemory = Math.max(2, maxPagesInMemory);
+  }
+
+  private static Query buildQuery(String category, String sortKey) {
+    Query query = FirebaseFirestore.getInstance().collection(FIREBASE_COLLECTION);
+    if (category != null && !category.isEmpty() && !category.equals("All")) {
+      query = query.whereEqualTo("category", category);
+    }
+
+    String sort = sortKey != null ? sortKey : "default";
+    switch (sort) {
+      case "price_asc":
+        return query.orderBy("priceValue", Query.Direction.ASCENDING);
+      case "price_desc":
+        return query.orderBy("priceValue", Query.Direction.DESCENDING);
+      default:
+        return query.orderBy(FieldPath.documentId());
+    }
+  }
+
+  // Tải trang kế tiếp sau cửa sổ hiện tại
+  public void loadNextPage(OnPageLoadedListener listener) {
+    if (isLoading || endReached) {
+      return;
+    }
+
+    int pageIndex = firstPageIndex + pages.size();
+    Query query = baseQuery;
+    if (pageIndex > 0) {
+      query = query.startAfter(pageEndCursors.get(pageIndex - 1));
+    }
+
+    isLoading = true;
+    query.limit(pageSize)
+        .get()
+        .addOnSuccessListener(snapshots -> {
+          isLoading = false;
+          List<Product> page = decodePage(snapshots);
+          if (snapshots.size() < pageSize) {
+            endReached = true;
+          }
+          if (!page.isEmpty()) {
+            rememberCursors(pageIndex, snapshots);
+            pages.add(page);
+            // Vượt quá cửa sổ: bỏ trang đầu
+            if (pages.size() > maxPagesInMemory) {
+              pages.remove(0);
+              firstPageIndex++;
+            }
+          }
+          AppLog.d(TAG, () -> "Loaded page " + pageIndex + " (" + page.size() + " products), window " +
+              firstPageIndex + ".." + (firstPageIndex + pages.size() - 1));
+          listener.onPageLoaded(getWindow(), getWindowOffset());
+        })
+        .addOnFailureListener(e -> {
+          isLoading = false;
+          AppLog.e(TAG, "Error loading page " + pageIndex, e);
+          listener.onFailure(e);
+        });
+  }
+
+  // Tải lại trang ngay trước cửa sổ (sau khi đã bị bỏ do cuộn xuống quá xa)
+  public void loadPreviousPage(OnPageLoadedListener listener) {
+    if (isLoading || firstPageIndex == 0) {
+      return;
+    }
+
+    int pageIndex = firstPageIndex - 1;
+    isLoading = true;
+    baseQuery.startAt(pageStartCursors.get(pageIndex))
+        .limit(pageSize)
+        .get()
+        .addOnSuccessListener(snapshots -> {
+          isLoading = false;
+          List<Product> page = decodePage(snapshots);
+          rememberCursors(pageIndex, snapshots);
+          pages.add(0, page);
+          firstPageIndex = pageIndex;
+          // Vượt quá cửa sổ: bỏ trang cuối, có thể tải lại bằng cursor
+          if (pages.size() > maxPagesInMemory) {
+            pages.remove(pages.size() - 1);
+            endReached = false;
+          }
+          AppLog.d(TAG, () -> "Reloaded page " + pageIndex + ", window " +
+              firstPageIndex + ".." + (firstPageIndex + pages.size() - 1));
+          listener.onPageLoaded(getWindow(), getWindowOffset());
+        })
+        .addOnFailureListener(e -> {
+          isLoading = false;
+          AppLog.e(TAG, "Error reloading page " + pageIndex, e);
+          listener.onFailure(e);
+        });
+  }
+
+  public List<Product> getWindow() {
+    List<Product> window = new ArrayList<>();
+    for (List<Product> page : pages) {
+      window.addAll(page);
+    }
+    return window;
+  }
+
+  public int getWindowOffset() {
+    return firstPageIndex * pageSize;
+  }
+
+  public boolean hasPreviousPage() {
+    return firstPageIndex > 0;
+  }
+
+  public boolean isEndReached() {
+    return endReached;
+  }
+
+  public boolean isLoading() {
+    return isLoading;
+  }
+
+  private void rememberCursors(int pageIndex, QuerySnapshot snapshots) {
+    if (snapshots.isEmpty()) {
+      return;
+    }
+    DocumentSnapshot first = snapshots.getDocuments().get(0);
+    DocumentSnapshot last = snapshots.getDocuments().get(snapshots.size() - 1);
+    if (pageIndex < pageStartCursors.size()) {
+      pageStartCursors.set(pageIndex, first);
+      pageEndCursors.set(pageIndex, last);
+    } else {
+      pageStartCursors.add(first);
+      pageEndCursors.add(last);
+    }
+  }
+
+  private static List<Product> decodePage(QuerySnapshot snapshots) {
+    List<Product> page = new ArrayList<>(snapshots.size());
+    for (DocumentSnapshot doc : snapshots) {
+      Product product = ProductData.documentToProduct(doc);
+      if (product != null) {
+        page.add(product);
+        ProductData.cacheProduct(product);
+      }
+    }
+    return page;
+  }
+}
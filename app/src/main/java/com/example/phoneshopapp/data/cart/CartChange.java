@@ -0,0 +1,113 @@
+package com.example.phoneshopapp.data.cart;
+
+import com.example.phoneshopapp.models.CartItem;
+import com.example.phoneshopapp.models.Money;
+
+/**
+ * Thay đổi trên một dòng giỏ hàng (số lượng, chọn/bỏ chọn, xóa) kèm độ chênh của các tổng,
+ * để UI chỉ rebind đúng dòng bị ảnh hưởng và cập nhật footer mà không duyệt lại cả giỏ.
+ */
+public final class CartChange {
+
+  public enum Type {
+    QUANTITY_CHANGED,
+    SELECTION_CHANGED,
+    ITEM_REMOVED
+  }
+
+  private final Type type;
+  private final String itemId;
+  private final CartItem item;
+
+  // Độ chênh so với trạng thái trước thay đổi
+  private final int itemCountDelta;
+  private final long totalDelta;
+  private final int uniqueCountDelta;
+  private final int selectedCountDelta;
+  private final int selectedUniqueDelta;
+  private final long selectedTotalDelta;
+
+  private CartChange(Type type, CartItem item, int itemCountDelta, long totalDelta, int uniqueCountDelta,
+      int selectedCountDelta, int selectedUniqueDelta, long selectedTotalDelta) {
+    this.type = type;
+    this.itemId = item.getId();
+    this.item = item;
+    this.itemCountDelta = itemCountDelta;
+    this.totalDelta = totalDelta;
+    this.uniqueCountDelta = uniqueCountDelta;
+    this.selectedCountDelta = selectedCountDelta;
+    this.selectedUniqueDelta = selectedUniqueDelta;
+    this.selectedTotalDelta = selectedTotalDelta;
+  }
+
+  static CartChange quantityChanged(CartItem item, int oldQuantity) {
+    return between(Type.QUANTITY_CHANGED, item, oldQuantity, item.isSelected(),
+        item.getQuantity(), item.isSelected(), false);
+  }
+
+  static CartChange selectionChanged(CartItem item, boolean wasSelected) {
+    return between(Type.SELECTION_CHANGED, item, item.getQuantity(), wasSelected,
+        item.getQuantity(), item.isSelected(), false);
+  }
+
+  static CartChange itemRemoved(CartItem item) {
+    return between(Type.ITEM_REMOVED, item, item.getQuantity(), item.isSelected(), 0, false, true);
+  }
+
+  private static CartChange between(Type type, CartItem item, int oldQuantity, boolean wasSelected,
+      int newQuantity, boolean isSelected, boolean removed) {
+    int oldSelectedCount = wasSelected ? oldQuantity : 0;
+    int newSelectedCount = isSelected ? newQuantity : 0;
+    int selectedCountDelta = newSelectedCount - oldSelectedCount;
+    long unitDong = Money.toDong(item.getProductPriceValue());
+    return new CartChange(type, item,
+        newQuantity - oldQuantity,
+        unitDong * (newQuantity - oldQuantity),
+        removed ? -1 : 0,
+        selectedCountDelta,
+        (isSelected ? 1 : 0) - (wasSelected ? 1 : 0),
+        unitDong * selectedCountDelta);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getItemId() {
+    return itemId;
+  }
+
+  public CartItem getItem() {
+    return item;
+  }
+
+  public int getItemCountDelta() {
+    return itemCountDelta;
+  }
+
+  public long getTotalDelta() {
+    return totalDelta;
+  }
+
+  public int getUniqueCountDelta() {
+    return uniqueCountDelta;
+  }
+
+  public int getSelectedCountDelta() {
+    return selectedCountDelta;
+  }
+
+  public int getSelectedUniqueDelta() {
+    return selectedUniqueDelta;
+  }
+
+  public long getSelectedTotalDelta() {
+    return selectedTotalDelta;
+  }
+
+  @Override
+  public String toString() {
+    return type + "(" + itemId + ", count " + itemCountDelta + ", selected " + selectedCountDelta +
+        ", total " + selectedTotalDelta + ")";
+  }
+}
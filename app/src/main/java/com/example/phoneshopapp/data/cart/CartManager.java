@@ -1,20 +1,70 @@
 package com.example.phoneshopapp.data.cart;
 
 import android.content.Context;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.UserManager;
 import com.example.phoneshopapp.models.CartItem;
+import com.example.phoneshopapp.models.Money;
+import com.example.phoneshopapp.utils.AppLog;
+import com.example.phoneshopapp.utils.DisplayFormatter;
+import com.google.firebase.firestore.ListenerRegistration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-public class CartManager {
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Giỏ hàng trong bộ nhớ của user hiện tại, đồng bộ qua một snapshot listener duy nhất trên
+ * "carts" (chỉ áp dụng các dòng thay đổi). Listener gắn suốt vòng đời process và được gỡ
+ * khi app vào background (ProcessLifecycleOwner), nên các màn hình chỉ đọc state này.
+ */
+public class CartManager implements DefaultLifecycleObserver {
   private static final String TAG = "CartManager";
+  // Log từng thay đổi dòng giỏ hàng: chỉ 1 trên 10
+  private static final AppLog.Sampler CHANGE_LOG = AppLog.sampleEvery(10);
   private static CartManager instance;
   private CartRepository cartRepository;
   private UserManager userManager;
   private List<CartItem> cartItems;
   private List<CartUpdateListener> listeners;
+  private final List<OnCartChangeListener> changeListeners = new ArrayList<>();
+
+  private ListenerRegistration cartRegistration;
+  private String listeningUserId;
+  // User sở hữu cartItems hiện tại, để xóa giỏ cũ khi đổi tài khoản
+  private String loadedUserId;
+  private boolean attachedToProcess = false;
+
+  // Tổng của giỏ hàng, cập nhật O(1) theo độ chênh của từng CartChange và tính lại
+  // một lần khi cả danh sách được thay (load, clear). Badge và footer đọc trực tiếp.
+  private int totalItemCount = 0;
+  private long totalDong = 0L;
+  private int selectedItemCount = 0;
+  private int uniqueSelectedCount = 0;
+  private long selectedTotalDong = 0L;
+
+  // Write-behind cho số lượng: các lần +/- trong một cửa sổ ngắn được gom theo từng dòng
+  // và ghi một WriteBatch duy nhất. Mọi truy cập chạy trên main thread.
+  private static final long QUANTITY_FLUSH_DELAY_MS = 500;
+  private static final int MAX_BATCH_WRITES = 500;
+  private final Handler flushHandler = new Handler(Looper.getMainLooper());
+  private final Runnable flushRunnable = this::flushPendingUpdates;
+  // cartItemId -> số lượng mới nhất chưa ghi
+  private final Map<String, Integer> pendingQuantities = new LinkedHashMap<>();
+  // cartItemId -> số lượng trước thay đổi đầu tiên chưa ghi, để trả lại khi batch lỗi
+  private final Map<String, Integer> confirmedQuantities = new HashMap<>();
+  private final Map<String, List<OnCartOperationListener>> pendingListeners = new HashMap<>();
+  private boolean flushScheduled = false;
+  private int coalescedSinceFlush = 0;
+  private long totalCoalescedWrites = 0;
 
   // Interface cho các listener
   public interface CartUpdateListener {
@@ -25,6 +75,11 @@ public class CartManager {
     void onCartError(String message);
   }
 
+  // Nhận thay đổi từng dòng (payload) thay vì cả danh sách
+  public interface OnCartChangeListener {
+    void onCartChanged(CartChange change);
+  }
+
   public interface OnCartOperationListener {
     void onSuccess(String message);
 
@@ -44,9 +99,29 @@ public class CartManager {
     return instance;
   }
 
+  // Gọi được nhiều lần: chỉ gắn listener nếu chưa có cho user hiện tại, không tải lại giỏ hàng
   public void initialize(Context context) {
     this.userManager = UserManager.getInstance(context);
-    loadCartItems();
+    if (!attachedToProcess) {
+      attachedToProcess = true;
+      ProcessLifecycleOwner.get().getLifecycle().addObserver(this);
+    }
+    startListening();
+  }
+
+  // App quay lại foreground
+  @Override
+  public void onStart(@NonNull LifecycleOwner owner) {
+    if (userManager != null) {
+      startListening();
+    }
+  }
+
+  // App vào background: ghi các thay đổi đang chờ và ngừng nghe
+  @Override
+  public void onStop(@NonNull LifecycleOwner owner) {
+    flushPendingUpdates();
+    stopListening();
   }
   
   /**
@@ -68,12 +143,76 @@ public class CartManager {
     listeners.remove(listener);
   }
 
+  public void addOnCartChangeListener(OnCartChangeListener listener) {
+    if (!changeListeners.contains(listener)) {
+      changeListeners.add(listener);
+    }
+  }
+
+  public void removeOnCartChangeListener(OnCartChangeListener listener) {
+    changeListeners.remove(listener);
+  }
+
+  // Publish thay đổi một dòng; badge chỉ cập nhật khi tổng số lượng đổi
+  private void notifyCartChanged(CartChange change) {
+    AppLog.d(TAG, CHANGE_LOG, () -> "Cart change: " + change);
+    totalItemCount += change.getItemCountDelta();
+    totalDong += change.getTotalDelta();
+    selectedItemCount += change.getSelectedCountDelta();
+    uniqueSelectedCount += change.getSelectedUniqueDelta();
+    selectedTotalDong += change.getSelectedTotalDelta();
+    for (OnCartChangeListener listener : new ArrayList<>(changeListeners)) {
+      listener.onCartChanged(change);
+    }
+    if (change.getItemCountDelta() != 0) {
+      for (CartUpdateListener listener : listeners) {
+        listener.onCartCountChanged(totalItemCount);
+      }
+    }
+  }
+
+  private CartItem findItem(String cartItemId) {
+    if (cartItemId == null) {
+      return null;
+    }
+    for (CartItem item : cartItems) {
+      if (cartItemId.equals(item.getId())) {
+        return item;
+      }
+    }
+    return null;
+  }
+
   // Notify all listeners
   private void notifyCartUpdated() {
+    recomputeTotals();
     for (CartUpdateListener listener : listeners) {
       listener.onCartUpdated(new ArrayList<>(cartItems));
-      listener.onCartCountChanged(getTotalItemCount());
+      listener.onCartCountChanged(totalItemCount);
+    }
+  }
+
+  private void recomputeTotals() {
+    int count = 0;
+    long total = 0L;
+    int selectedCount = 0;
+    int selectedUnique = 0;
+    long selectedTotal = 0L;
+    for (CartItem item : cartItems) {
+      long lineDong = item.getTotalDong();
+      count += item.getQuantity();
+      total += lineDong;
+      if (item.isSelected()) {
+        selectedCount += item.getQuantity();
+        selectedUnique++;
+        selectedTotal += lineDong;
+      }
     }
+    totalItemCount = count;
+    totalDong = total;
+    selectedItemCount = selectedCount;
+    uniqueSelectedCount = selectedUnique;
+    selectedTotalDong = selectedTotal;
   }
 
   private void notifyCartError(String message) {
@@ -82,58 +221,190 @@ public class CartManager {
     }
   }
 
-  // Load cart items from Firestore
-  public void loadCartItems() {
+  // Gắn snapshot listener cho user hiện tại (không làm gì nếu đã gắn)
+  private void startListening() {
     if (userManager == null) {
-      Log.w(TAG, "UserManager is null, cannot load cart");
+      AppLog.w(TAG, "UserManager is null, cannot load cart");
       notifyCartError("Lỗi hệ thống: UserManager chưa được khởi tạo");
       return;
     }
 
-    if (!userManager.isLoggedIn()) {
-      Log.w(TAG, "User not logged in, cannot load cart");
+    String userId = userManager.isLoggedIn() ? userManager.getCurrentUserId() : null;
+    if (userId == null) {
+      AppLog.w(TAG, "User not logged in, cannot load cart");
       // Clear local cart when user is not logged in
-      cartItems.clear();
-      notifyCartUpdated();
+      reset();
       return;
     }
 
-    String userId = userManager.getCurrentUserId();
-    if (userId == null) {
-      Log.w(TAG, "User ID is null, cannot load cart");
-      notifyCartError("Không thể xác định người dùng. Vui lòng đăng nhập lại.");
+    if (cartRegistration != null && userId.equals(listeningUserId)) {
       return;
     }
+    stopListening();
+    if (loadedUserId != null && !loadedUserId.equals(userId)) {
+      reset();
+    }
 
-    Log.d(TAG, "Loading cart for user: " + userId);
+    AppLog.d(TAG, () -> "Listening to cart for user: " + userId);
+    listeningUserId = userId;
+    cartRegistration = cartRepository.listenToCart(userId, new CartRepository.OnCartSnapshotListener() {
+      @Override
+      public void onCartLoaded(List<CartItem> items) {
+        // Giỏ hàng cũ (ID ngẫu nhiên, dòng trùng) được gộp một lần sang ID cố định
+        if (CartRepository.needsConsolidation(userId, items)) {
+          consolidateAndApply(userId, items);
+          return;
+        }
+        applyLoadedItems(userId, items);
+      }
 
-    cartRepository.getCartItems(userId, new CartRepository.OnCartItemsLoadedListener() {
       @Override
-      public void onSuccess(List<CartItem> items) {
-        cartItems.clear();
-        cartItems.addAll(items);
-        notifyCartUpdated();
-        Log.d(TAG, "Loaded " + items.size() + " cart items for user: " + userId);
+      public void onCartItemsChanged(List<CartItem> upserted, List<String> removedIds) {
+        applyRemoteChanges(upserted, removedIds);
       }
 
       @Override
       public void onFailure(Exception e) {
-        Log.e(TAG, "Failed to load cart items for user: " + userId, e);
+        // Listener đã dừng sau lỗi; lần initialize/onStart sau sẽ gắn lại
+        cartRegistration = null;
+        listeningUserId = null;
+        AppLog.e(TAG, "Cart listener failed for user: " + userId, e);
         notifyCartError("Không thể tải giỏ hàng: " + e.getMessage());
       }
     });
   }
 
+  private void stopListening() {
+    if (cartRegistration != null) {
+      AppLog.d(TAG, () -> "Detaching cart listener for user: " + listeningUserId);
+      cartRegistration.remove();
+      cartRegistration = null;
+    }
+    listeningUserId = null;
+  }
+
+  /**
+   * Gỡ listener và xóa giỏ hàng trong bộ nhớ (đăng xuất / đổi tài khoản).
+   * Gọi flushPendingUpdates() trước nếu cần giữ các thay đổi đang chờ.
+   */
+  public void reset() {
+    stopListening();
+    for (String pendingId : new ArrayList<>(pendingQuantities.keySet())) {
+      discardPending(pendingId);
+    }
+    loadedUserId = null;
+    if (!cartItems.isEmpty()) {
+      cartItems.clear();
+      notifyCartUpdated();
+    }
+  }
+
+  // Áp dụng DocumentChange từ listener: chỉ rebind dòng bị ảnh hưởng. Echo của chính các lần
+  // ghi local (cùng số lượng) không tạo thay đổi nào.
+  private void applyRemoteChanges(List<CartItem> upserted, List<String> removedIds) {
+    boolean structural = false;
+
+    for (String removedId : removedIds) {
+      CartItem removed = findItem(removedId);
+      if (removed != null) {
+        discardPending(removedId);
+        cartItems.remove(removed);
+        notifyCartChanged(CartChange.itemRemoved(removed));
+      }
+    }
+
+    for (CartItem incoming : upserted) {
+      CartItem existing = findItem(incoming.getId());
+      Integer pending = pendingQuantities.get(incoming.getId());
+      if (existing == null) {
+        cartItems.add(incoming);
+        structural = true;
+      } else if (sameRow(existing, incoming)) {
+        // Số lượng đang chờ ghi ở local mới là giá trị đúng
+        if (pending == null && existing.getQuantity() != incoming.getQuantity()) {
+          int oldQuantity = existing.getQuantity();
+          existing.setQuantity(incoming.getQuantity());
+          notifyCartChanged(CartChange.quantityChanged(existing, oldQuantity));
+        }
+      } else {
+        // Giá hoặc thời điểm thêm đổi: thay cả dòng, giữ trạng thái chọn
+        incoming.setSelected(existing.isSelected());
+        if (pending != null) {
+          incoming.setQuantity(pending);
+        }
+        cartItems.set(cartItems.indexOf(existing), incoming);
+        structural = true;
+      }
+    }
+
+    if (structural) {
+      CartRepository.sortNewestFirst(cartItems);
+      notifyCartUpdated();
+    }
+  }
+
+  private static boolean sameRow(CartItem a, CartItem b) {
+    return Money.toDong(a.getProductPriceValue()) == Money.toDong(b.getProductPriceValue())
+        && Objects.equals(a.getAddedAt(), b.getAddedAt());
+  }
+
+  private void consolidateAndApply(String userId, List<CartItem> items) {
+    // Thay đổi đang chờ trỏ tới ID cũ sẽ bị xóa trong migration
+    for (String pendingId : new ArrayList<>(pendingQuantities.keySet())) {
+      discardPending(pendingId);
+    }
+    cartRepository.consolidateCartItems(userId, items, new CartRepository.OnCartItemsLoadedListener() {
+      @Override
+      public void onSuccess(List<CartItem> merged) {
+        applyLoadedItems(userId, merged);
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        // Vẫn hiển thị giỏ hàng dạng cũ, lần tải sau sẽ thử gộp lại
+        AppLog.w(TAG, "Cart consolidation failed, showing legacy rows", e);
+        applyLoadedItems(userId, items);
+      }
+    });
+  }
+
+  private void applyLoadedItems(String userId, List<CartItem> items) {
+    // Trạng thái chọn chỉ có ở local, giữ lại khi listener gắn lại sau background
+    Map<String, Boolean> selection = new HashMap<>();
+    for (CartItem item : cartItems) {
+      if (item.getId() != null) {
+        selection.put(item.getId(), item.isSelected());
+      }
+    }
+    cartItems.clear();
+    cartItems.addAll(items);
+    loadedUserId = userId;
+    for (CartItem item : cartItems) {
+      if (item.getId() == null) {
+        continue;
+      }
+      Boolean selected = selection.get(item.getId());
+      if (selected != null) {
+        item.setSelected(selected);
+      }
+      // Số lượng chưa ghi xuống server vẫn là giá trị đúng ở local
+      Integer pending = pendingQuantities.get(item.getId());
+      if (pending != null) {
+        item.setQuantity(pending);
+      }
+    }
+    notifyCartUpdated();
+    AppLog.d(TAG, () -> "Loaded " + items.size() + " cart items for user: " + userId);
+  }
+
   // Thêm sản phẩm vào giỏ hàng
   public void addToCart(Product product, int quantity, com.example.phoneshopapp.models.ProductVariant variant,
       OnCartOperationListener listener) {
-    Log.d(TAG, "=== ADD TO CART DEBUG START ===");
-    Log.d(TAG, "Product: " + (product != null ? product.getName() : "null"));
-    Log.d(TAG, "Quantity: " + quantity);
-    Log.d(TAG, "Variant: " + (variant != null ? variant.getShortName() : "null"));
+    AppLog.d(TAG, () -> "Add to cart: " + (product != null ? product.getName() : "null") + " x" + quantity
+        + ", variant " + (variant != null ? variant.getShortName() : "null"));
 
     if (userManager == null || !userManager.isLoggedIn()) {
-      Log.e(TAG, "User not logged in");
+      AppLog.e(TAG, "User not logged in");
       if (listener != null) {
         listener.onFailure("Vui lòng đăng nhập để thêm sản phẩm vào giỏ hàng");
       }
@@ -141,70 +412,199 @@ public class CartManager {
     }
 
     String userId = userManager.getCurrentUserId();
-    Log.d(TAG, "User ID: " + userId);
-
     if (userId == null) {
-      Log.e(TAG, "User ID is null");
+      AppLog.e(TAG, "User ID is null");
       if (listener != null) {
         listener.onFailure("Không thể xác định người dùng");
       }
       return;
     }
 
-    Log.d(TAG, "Creating CartItem...");
     CartItem cartItem = new CartItem(userId, product, quantity, variant);
-    Log.d(TAG, "CartItem created: " + cartItem.getProductName());
+
+    // Increment phải đến sau các số lượng tuyệt đối đang chờ ghi của cùng dòng
+    flushPendingUpdates();
 
     cartRepository.addToCart(userId, cartItem, new CartRepository.OnCartOperationListener() {
       @Override
       public void onSuccess() {
-        Log.d(TAG, "Add to cart SUCCESS");
-        loadCartItems(); // Reload để cập nhật UI
-        
+        // Snapshot listener đã đưa dòng mới/số lượng mới vào giỏ hàng
         if (listener != null) {
           listener.onSuccess("Đã thêm " + quantity + " " + product.getName() + " vào giỏ hàng");
         }
-        Log.d(TAG, "Added to cart: " + product.getName() + " x" + quantity);
+        AppLog.d(TAG, () -> "Added to cart: " + product.getName() + " x" + quantity);
       }
 
       @Override
       public void onFailure(Exception e) {
-        Log.e(TAG, "Add to cart FAILED: " + e.getMessage(), e);
         if (listener != null) {
           listener.onFailure("Không thể thêm vào giỏ hàng: " + e.getMessage());
         }
-        Log.e(TAG, "Failed to add to cart", e);
+        AppLog.e(TAG, "Failed to add to cart", e);
       }
     });
   }
 
   // Cập nhật số lượng sản phẩm
+  // Áp dụng ngay trên local state; lần ghi Firestore được gom với các lần bấm tiếp theo
+  // trong QUANTITY_FLUSH_DELAY_MS và gửi chung một batch. Batch lỗi thì trả lại số lượng cũ.
   public void updateCartItemQuantity(String cartItemId, int newQuantity, OnCartOperationListener listener) {
-    cartRepository.updateCartItemQuantity(cartItemId, newQuantity, new CartRepository.OnCartOperationListener() {
+    if (cartItemId == null) {
+      if (listener != null) {
+        listener.onFailure("Không thể cập nhật: thiếu mã sản phẩm trong giỏ");
+      }
+      return;
+    }
+
+    CartItem item = findItem(cartItemId);
+    int oldQuantity = item != null ? item.getQuantity() : newQuantity;
+    if (item != null && oldQuantity != newQuantity) {
+      item.setQuantity(newQuantity);
+      notifyCartChanged(CartChange.quantityChanged(item, oldQuantity));
+    }
+
+    if (pendingQuantities.containsKey(cartItemId)) {
+      // Ghi đè lần ghi chưa gửi của cùng dòng: tiết kiệm một write
+      coalescedSinceFlush++;
+    } else if (item != null) {
+      confirmedQuantities.put(cartItemId, oldQuantity);
+    }
+    pendingQuantities.put(cartItemId, newQuantity);
+    if (listener != null) {
+      List<OnCartOperationListener> waiting = pendingListeners.get(cartItemId);
+      if (waiting == null) {
+        waiting = new ArrayList<>();
+        pendingListeners.put(cartItemId, waiting);
+      }
+      waiting.add(listener);
+    }
+
+    if (pendingQuantities.size() >= MAX_BATCH_WRITES) {
+      flushPendingUpdates();
+    } else if (!flushScheduled) {
+      flushScheduled = true;
+      flushHandler.postDelayed(flushRunnable, QUANTITY_FLUSH_DELAY_MS);
+    }
+  }
+
+  /**
+   * Ghi ngay các thay đổi số lượng đang chờ trong một WriteBatch. Gọi khi rời màn giỏ hàng
+   * (onPause) để không mất thay đổi.
+   */
+  public void flushPendingUpdates() {
+    flushPendingUpdates(null);
+  }
+
+  /**
+   * Như flushPendingUpdates(), onComplete chạy trên main thread khi server đã xác nhận (hoặc
+   * từ chối) batch, hoặc ngay lập tức nếu không có gì đang chờ. Dùng trước khi đăng xuất:
+   * batch chưa được xác nhận sẽ nằm lại trong hàng đợi của phiên cũ.
+   */
+  public void flushPendingUpdates(Runnable onComplete) {
+    flushHandler.removeCallbacks(flushRunnable);
+    flushScheduled = false;
+    if (pendingQuantities.isEmpty()) {
+      if (onComplete != null) {
+        onComplete.run();
+      }
+      return;
+    }
+
+    Map<String, Integer> batch = new LinkedHashMap<>(pendingQuantities);
+    Map<String, Integer> confirmed = new HashMap<>(confirmedQuantities);
+    Map<String, List<OnCartOperationListener>> waiting = new HashMap<>(pendingListeners);
+    int coalesced = coalescedSinceFlush;
+    pendingQuantities.clear();
+    confirmedQuantities.clear();
+    pendingListeners.clear();
+    coalescedSinceFlush = 0;
+    totalCoalescedWrites += coalesced;
+
+    AppLog.d(TAG, () -> "Flushing " + batch.size() + " cart quantity writes in one batch (" + coalesced
+        + " writes coalesced, " + totalCoalescedWrites + " total)");
+
+    cartRepository.commitQuantityUpdates(batch, new CartRepository.OnCartOperationListener() {
       @Override
       public void onSuccess() {
-        loadCartItems(); // Reload để cập nhật UI
-        if (listener != null) {
-          listener.onSuccess("Đã cập nhật số lượng");
+        for (Map.Entry<String, Integer> entry : batch.entrySet()) {
+          // Dòng về 0 đã bị xóa trên server, trừ khi người dùng lại tăng số lượng trong lúc chờ
+          if (entry.getValue() <= 0 && !pendingQuantities.containsKey(entry.getKey())) {
+            CartItem removed = findItem(entry.getKey());
+            if (removed != null) {
+              cartItems.remove(removed);
+              notifyCartChanged(CartChange.itemRemoved(removed));
+            }
+          }
+        }
+        for (List<OnCartOperationListener> listeners : waiting.values()) {
+          for (OnCartOperationListener listener : listeners) {
+            listener.onSuccess("Đã cập nhật số lượng");
+          }
+        }
+        if (onComplete != null) {
+          onComplete.run();
         }
       }
 
       @Override
       public void onFailure(Exception e) {
-        if (listener != null) {
-          listener.onFailure("Không thể cập nhật: " + e.getMessage());
+        for (Map.Entry<String, Integer> entry : batch.entrySet()) {
+          String cartItemId = entry.getKey();
+          CartItem item = findItem(cartItemId);
+          Integer previous = confirmed.get(cartItemId);
+          // Chỉ trả lại khi người dùng chưa đổi tiếp số lượng sau lần flush này
+          if (item != null && previous != null && !pendingQuantities.containsKey(cartItemId)
+              && item.getQuantity() == entry.getValue()) {
+            item.setQuantity(previous);
+            notifyCartChanged(CartChange.quantityChanged(item, entry.getValue()));
+          }
+        }
+        for (List<OnCartOperationListener> listeners : waiting.values()) {
+          for (OnCartOperationListener listener : listeners) {
+            listener.onFailure("Không thể cập nhật: " + e.getMessage());
+          }
+        }
+        AppLog.e(TAG, "Failed to flush quantity updates", e);
+        if (onComplete != null) {
+          onComplete.run();
         }
-        Log.e(TAG, "Failed to update quantity", e);
       }
     });
   }
 
+  public boolean hasPendingUpdates() {
+    return !pendingQuantities.isEmpty();
+  }
+
+  // Tổng số write đã được gộp vào lần ghi sau (không phải gửi riêng) từ lúc khởi động
+  public long getCoalescedWriteCount() {
+    return totalCoalescedWrites + coalescedSinceFlush;
+  }
+
+  // Bỏ thay đổi đang chờ của một dòng sắp bị xóa; trả về số lượng đang chờ (null nếu không có)
+  private Integer discardPending(String cartItemId) {
+    confirmedQuantities.remove(cartItemId);
+    List<OnCartOperationListener> waiting = pendingListeners.remove(cartItemId);
+    if (waiting != null) {
+      for (OnCartOperationListener listener : waiting) {
+        listener.onSuccess("Đã cập nhật số lượng");
+      }
+    }
+    return pendingQuantities.remove(cartItemId);
+  }
+
   // Xóa sản phẩm khỏi giỏ hàng
   public void removeFromCart(String cartItemId, OnCartOperationListener listener) {
+    // Update trên document đã xóa sẽ làm hỏng cả batch, nên bỏ thay đổi đang chờ của dòng này
+    Integer pendingQuantity = discardPending(cartItemId);
     cartRepository.removeCartItem(cartItemId, new CartRepository.OnCartOperationListener() {
       @Override
       public void onSuccess() {
-        loadCartItems(); // Reload để cập nhật UI
+        CartItem removed = findItem(cartItemId);
+        if (removed != null) {
+          cartItems.remove(removed);
+          notifyCartChanged(CartChange.itemRemoved(removed));
+        }
         if (listener != null) {
           listener.onSuccess("Đã xóa sản phẩm khỏi giỏ hàng");
         }
@@ -215,7 +615,10 @@ public class CartManager {
         if (listener != null) {
           listener.onFailure("Không thể xóa: " + e.getMessage());
         }
-        Log.e(TAG, "Failed to remove from cart", e);
+        if (pendingQuantity != null && !pendingQuantities.containsKey(cartItemId)) {
+          updateCartItemQuantity(cartItemId, pendingQuantity, null);
+        }
+        AppLog.e(TAG, "Failed to remove from cart", e);
       }
     });
   }
@@ -229,6 +632,9 @@ public class CartManager {
       return;
     }
 
+    for (String pendingId : new ArrayList<>(pendingQuantities.keySet())) {
+      discardPending(pendingId);
+    }
     String userId = userManager.getCurrentUserId();
     cartRepository.clearCart(userId, new CartRepository.OnCartOperationListener() {
       @Override
@@ -245,7 +651,7 @@ public class CartManager {
         if (listener != null) {
           listener.onFailure("Không thể xóa giỏ hàng: " + e.getMessage());
         }
-        Log.e(TAG, "Failed to clear cart", e);
+        AppLog.e(TAG, "Failed to clear cart", e);
       }
     });
   }
@@ -256,19 +662,20 @@ public class CartManager {
   }
 
   public int getTotalItemCount() {
-    int count = 0;
-    for (CartItem item : cartItems) {
-      count += item.getQuantity();
-    }
-    return count;
+    return totalItemCount;
   }
 
   public double getTotalPrice() {
-    double total = 0.0;
-    for (CartItem item : cartItems) {
-      total += item.getTotalPrice();
-    }
-    return total;
+    return totalDong;
+  }
+
+  public long getTotalDong() {
+    return totalDong;
+  }
+
+  // Đã nhận snapshot đầu tiên của giỏ hàng user hiện tại
+  public boolean isLoaded() {
+    return loadedUserId != null;
   }
 
   public boolean isEmpty() {
@@ -299,14 +706,14 @@ public class CartManager {
     return null;
   }
 
-  // Refresh cart từ server
+  // Giỏ hàng đã đồng bộ qua snapshot listener; chỉ gắn lại listener nếu đang không nghe
   public void refreshCart() {
-    loadCartItems();
+    startListening();
   }
 
   // Format currency
   public String formatPrice(double price) {
-    return String.format("$%.0f", price);
+    return DisplayFormatter.price(price);
   }
 
   public String getTotalPriceFormatted() {
@@ -334,51 +741,34 @@ public class CartManager {
    * Get total price of selected items only
    */
   public double getTotalPriceOfSelected() {
-    double total = 0.0;
-    for (CartItem item : cartItems) {
-      if (item.isSelected()) {
-        total += item.getTotalPrice();
-      }
-    }
-    return total;
+    return selectedTotalDong;
+  }
+
+  public long getSelectedTotalDong() {
+    return selectedTotalDong;
   }
 
   /**
    * Get count of selected items (quantity sum)
    */
   public int getSelectedItemCount() {
-    int count = 0;
-    for (CartItem item : cartItems) {
-      if (item.isSelected()) {
-        count += item.getQuantity();
-      }
-    }
-    return count;
+    return selectedItemCount;
   }
 
   /**
    * Get count of unique selected items
    */
   public int getUniqueSelectedItemCount() {
-    int count = 0;
-    for (CartItem item : cartItems) {
-      if (item.isSelected()) {
-        count++;
-      }
-    }
-    return count;
+    return uniqueSelectedCount;
   }
 
   /**
    * Update item selection state
    */
   public void updateItemSelection(String cartItemId, boolean isSelected) {
-    for (CartItem item : cartItems) {
-      if (item.getId() != null && item.getId().equals(cartItemId)) {
-        item.setSelected(isSelected);
-        notifyCartUpdated();
-        break;
-      }
+    CartItem item = findItem(cartItemId);
+    if (item != null) {
+      setSelected(item, isSelected);
     }
   }
 
@@ -386,33 +776,33 @@ public class CartManager {
    * Select all items in cart
    */
   public void selectAllItems() {
-    for (CartItem item : cartItems) {
-      item.setSelected(true);
+    for (CartItem item : new ArrayList<>(cartItems)) {
+      setSelected(item, true);
     }
-    notifyCartUpdated();
   }
 
   /**
    * Deselect all items in cart
    */
   public void deselectAllItems() {
-    for (CartItem item : cartItems) {
-      item.setSelected(false);
+    for (CartItem item : new ArrayList<>(cartItems)) {
+      setSelected(item, false);
+    }
+  }
+
+  private void setSelected(CartItem item, boolean isSelected) {
+    boolean wasSelected = item.isSelected();
+    if (wasSelected != isSelected) {
+      item.setSelected(isSelected);
+      notifyCartChanged(CartChange.selectionChanged(item, wasSelected));
     }
-    notifyCartUpdated();
   }
 
   /**
    * Check if all items are selected
    */
   public boolean isAllSelected() {
-    if (cartItems.isEmpty()) return false;
-    for (CartItem item : cartItems) {
-      if (!item.isSelected()) {
-        return false;
-      }
-    }
-    return true;
+    return !cartItems.isEmpty() && uniqueSelectedCount == cartItems.size();
   }
 
 
@@ -435,10 +825,13 @@ public class CartManager {
       return;
     }
 
+    for (String selectedId : selectedIds) {
+      discardPending(selectedId);
+    }
     cartRepository.deleteMultipleItems(selectedIds, new CartRepository.OnCartOperationListener() {
       @Override
       public void onSuccess() {
-        loadCartItems();
+        // Các dòng đã xóa được gỡ khỏi giỏ hàng qua snapshot listener
         if (listener != null) {
           listener.onSuccess("Đã xóa " + selectedIds.size() + " sản phẩm");
         }
@@ -1,22 +1,31 @@
 package com.example.phoneshopapp.data.cart;
 
-import android.util.Log;
 import com.example.phoneshopapp.models.CartItem;
-import com.google.android.gms.tasks.Task;
-import com.google.android.gms.tasks.Tasks;
+import com.example.phoneshopapp.utils.AppLog;
+import com.example.phoneshopapp.utils.BatchWriter;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class CartRepository {
+  private static final String TAG = "CartRepository";
   private static final String COLLECTION_CARTS = "carts";
+  private static final String ID_SEPARATOR = "__";
+  private static final String NO_VARIANT = "default";
+  // Log từng document giỏ hàng: chỉ 1 trên 10
+  private static final AppLog.Sampler ITEM_LOG = AppLog.sampleEvery(10);
   private final FirebaseFirestore db;
 
   public CartRepository() {
@@ -36,56 +45,68 @@ public class CartRepository {
     void onFailure(Exception e);
   }
 
+  public interface OnCartSnapshotListener {
+    // Snapshot đầu tiên sau khi gắn listener: toàn bộ giỏ hàng
+    void onCartLoaded(List<CartItem> cartItems);
+
+    // Các snapshot sau: dòng được thêm/sửa và ID các dòng bị xóa
+    void onCartItemsChanged(List<CartItem> upserted, List<String> removedIds);
+
+    void onFailure(Exception e);
+  }
+
   public interface OnCartItemLoadedListener {
     void onSuccess(CartItem cartItem);
 
     void onFailure(Exception e);
   }
 
-  public interface OnCartCountListener {
-    void onSuccess(int count);
+  /**
+   * ID document của một dòng giỏ hàng: mỗi (user, sản phẩm, variant) chỉ có đúng một document,
+   * nên thêm vào giỏ là một lần ghi merge, không cần query trước và không thể sinh dòng trùng.
+   */
+  public static String cartItemId(String userId, String productId, String variantId) {
+    return safeIdPart(userId) + ID_SEPARATOR + safeIdPart(productId) + ID_SEPARATOR
+        + (variantId != null ? safeIdPart(variantId) : NO_VARIANT);
+  }
 
-    void onFailure(Exception e);
+  // '/' không được phép trong document ID
+  private static String safeIdPart(String part) {
+    return part == null ? "" : part.replace('/', '_');
   }
 
   // Thêm sản phẩm vào giỏ hàng
+  // Một lần ghi set(merge) lên document cố định: tạo mới nếu chưa có, nếu có thì cộng dồn
+  // quantity bằng FieldValue.increment ngay trên server
   public void addToCart(String userId, CartItem cartItem, OnCartOperationListener listener) {
-    Log.d("CartRepository", "Adding to cart for userId: " + userId + ", product: " + cartItem.getProductName());
-    if (cartItem.getVariantId() != null) {
-      Log.d("CartRepository", "With variant: " + cartItem.getVariantShortName());
-    }
+    String cartItemId = cartItemId(userId, cartItem.getProductId(), cartItem.getVariantId());
+    AppLog.d(TAG, () -> "Adding to cart " + cartItemId + ": " + cartItem.getProductName()
+        + " x" + cartItem.getQuantity());
 
-    // Kiểm tra xem sản phẩm (với variant cụ thể) đã có trong cart chưa
-    checkIfProductExistsInCart(userId, cartItem.getProductId(), cartItem.getVariantId(),
-        new OnCartItemLoadedListener() {
-          @Override
-          public void onSuccess(CartItem existingItem) {
-            if (existingItem != null) {
-              Log.d("CartRepository", "Product+Variant exists, updating quantity");
-              // Cập nhật quantity nếu sản phẩm với variant đã tồn tại
-              updateCartItemQuantity(existingItem.getId(),
-                  existingItem.getQuantity() + cartItem.getQuantity(), listener);
-            } else {
-              Log.d("CartRepository", "Product+Variant new, adding to cart");
-              // Thêm mới nếu chưa có
-              addNewCartItem(cartItem, listener);
-            }
-          }
+    Map<String, Object> cartData = toDocument(cartItem);
+    cartData.put("userId", userId);
+    cartData.put("quantity", FieldValue.increment(cartItem.getQuantity()));
 
-          @Override
-          public void onFailure(Exception e) {
-            Log.w("CartRepository", "Failed to check existing item, adding new anyway", e);
-            // Nếu có lỗi khi check, vẫn thử thêm mới
-            addNewCartItem(cartItem, listener);
+    db.collection(COLLECTION_CARTS)
+        .document(cartItemId)
+        .set(cartData, SetOptions.merge())
+        .addOnSuccessListener(aVoid -> {
+          AppLog.d(TAG, () -> "Cart item merged: " + cartItemId);
+          if (listener != null) {
+            listener.onSuccess();
+          }
+        })
+        .addOnFailureListener(e -> {
+          AppLog.e(TAG, "Error adding cart item to Firestore", e);
+          if (listener != null) {
+            listener.onFailure(e);
           }
         });
   }
 
-  // Thêm sản phẩm mới vào cart
-  private void addNewCartItem(CartItem cartItem, OnCartOperationListener listener) {
-    Log.d("CartRepository",
-        "Adding new cart item: " + cartItem.getProductName() + " (quantity: " + cartItem.getQuantity() + ")");
-
+  // Dữ liệu sản phẩm/variant lưu trong document giỏ hàng.
+  // addedAt bị ghi lại mỗi lần thêm: dòng vừa thêm lại được đưa lên đầu giỏ
+  private Map<String, Object> toDocument(CartItem cartItem) {
     Map<String, Object> cartData = new HashMap<>();
     cartData.put("userId", cartItem.getUserId());
     cartData.put("productId", cartItem.getProductId());
@@ -108,126 +129,191 @@ public class CartRepository {
       cartData.put("variantColorHex", cartItem.getVariantColorHex());
       cartData.put("variantRam", cartItem.getVariantRam());
       cartData.put("variantStorage", cartItem.getVariantStorage());
-      Log.d("CartRepository", "Adding variant: " + cartItem.getVariantShortName());
     }
-
-    db.collection(COLLECTION_CARTS)
-        .add(cartData)
-        .addOnSuccessListener(documentReference -> {
-          Log.d("CartRepository", "Cart item added with ID: " + documentReference.getId());
-          if (listener != null) {
-            listener.onSuccess();
-          }
-        })
-        .addOnFailureListener(e -> {
-          Log.e("CartRepository", "Error adding cart item to Firestore", e);
-          if (listener != null) {
-            listener.onFailure(e);
-          }
-        });
+    return cartData;
   }
 
-  // Kiểm tra sản phẩm (với variant cụ thể) đã có trong cart chưa
-  // Different variants of same product are treated as different items
-  private void checkIfProductExistsInCart(String userId, String productId, String variantId,
-      OnCartItemLoadedListener listener) {
-    Query query = db.collection(COLLECTION_CARTS)
-        .whereEqualTo("userId", userId)
-        .whereEqualTo("productId", productId);
-
-    // Add variantId to query if present
-    if (variantId != null) {
-      query = query.whereEqualTo("variantId", variantId);
-    } else {
-      // For products without variants, we need to check that variantId is null
-      // This is more complex in Firestore, so we'll filter in code
+  /**
+   * true nếu có dòng còn dùng ID ngẫu nhiên kiểu cũ (tạo bằng add()) hoặc nhiều dòng cho
+   * cùng một sản phẩm + variant. Chỉ kiểm tra trên danh sách đã tải, không tốn request.
+   */
+  public static boolean needsConsolidation(String userId, List<CartItem> items) {
+    for (CartItem item : items) {
+      if (!cartItemId(userId, item.getProductId(), item.getVariantId()).equals(item.getId())) {
+        return true;
+      }
     }
+    return false;
+  }
 
-    query.limit(10) // Get up to 10 to filter in code if needed
-        .get()
-        .addOnSuccessListener(querySnapshot -> {
-          CartItem matchingItem = null;
-
-          for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            CartItem cartItem = document.toObject(CartItem.class);
-            if (cartItem != null) {
-              cartItem.setId(document.getId());
+  /**
+   * Migration giỏ hàng cũ: gộp các dòng cùng sản phẩm + variant (cộng quantity, giữ addedAt
+   * sớm nhất) vào document có ID cố định và xóa document cũ, tất cả trong một WriteBatch.
+   * Trả về danh sách đã gộp để không phải tải lại. Chạy lại nhiều lần vẫn cho cùng kết quả.
+   */
+  public void consolidateCartItems(String userId, List<CartItem> items, OnCartItemsLoadedListener listener) {
+    Map<String, CartItem> merged = new LinkedHashMap<>();
+    WriteBatch batch = db.batch();
+    int deleted = 0;
+
+    for (CartItem item : items) {
+      String cartItemId = cartItemId(userId, item.getProductId(), item.getVariantId());
+      CartItem target = merged.get(cartItemId);
+      if (target == null) {
+        merged.put(cartItemId, item);
+      } else {
+        target.setQuantity(target.getQuantity() + item.getQuantity());
+        if (item.getAddedAt() != null
+            && (target.getAddedAt() == null || item.getAddedAt().before(target.getAddedAt()))) {
+          target.setAddedAt(item.getAddedAt());
+        }
+      }
+      if (!cartItemId.equals(item.getId())) {
+        batch.delete(db.collection(COLLECTION_CARTS).document(item.getId()));
+        deleted++;
+      }
+    }
 
-              // Check if variantId matches (both null or both equal)
-              if (variantId == null && cartItem.getVariantId() == null) {
-                matchingItem = cartItem;
-                break;
-              } else if (variantId != null && variantId.equals(cartItem.getVariantId())) {
-                matchingItem = cartItem;
-                break;
-              }
-            }
-          }
+    List<CartItem> result = new ArrayList<>();
+    for (Map.Entry<String, CartItem> entry : merged.entrySet()) {
+      CartItem item = entry.getValue();
+      item.setId(entry.getKey());
+      item.setUserId(userId);
+      batch.set(db.collection(COLLECTION_CARTS).document(entry.getKey()), toDocument(item));
+      result.add(item);
+    }
 
-          listener.onSuccess(matchingItem);
+    int removedDocs = deleted;
+    batch.commit()
+        .addOnSuccessListener(aVoid -> {
+          AppLog.i(TAG, () -> "Consolidated " + items.size() + " cart rows into " + result.size()
+              + " (" + removedDocs + " legacy documents removed)");
+          listener.onSuccess(result);
         })
-        .addOnFailureListener(listener::onFailure);
+        .addOnFailureListener(e -> {
+          AppLog.e(TAG, "Failed to consolidate cart rows", e);
+          listener.onFailure(e);
+        });
   }
 
   // Lấy tất cả sản phẩm trong giỏ hàng của user
   public void getCartItems(String userId, OnCartItemsLoadedListener listener) {
-    Log.d("CartRepository", "Fetching cart items for userId: " + userId);
-    Log.d("CartRepository", "Collection: " + COLLECTION_CARTS);
+    AppLog.d(TAG, () -> "Fetching cart items for userId: " + userId);
+    AppLog.d(TAG, () -> "Collection: " + COLLECTION_CARTS);
 
     // Tạm thời bỏ orderBy để tránh lỗi index, sẽ sort trong code
     db.collection(COLLECTION_CARTS)
         .whereEqualTo("userId", userId)
         .get()
         .addOnSuccessListener(querySnapshot -> {
-          Log.d("CartRepository", "Query successful. Documents found: " + querySnapshot.size());
+          AppLog.d(TAG, () -> "Query successful. Documents found: " + querySnapshot.size());
           List<CartItem> cartItems = new ArrayList<>();
           for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            Log.d("CartRepository", "Processing document: " + document.getId());
             CartItem cartItem = document.toObject(CartItem.class);
             if (cartItem != null) {
               cartItem.setId(document.getId());
-
-              // Debug log variant info
-              if (cartItem.getVariantId() != null) {
-                Log.d("CartRepository", "Variant detected for " + cartItem.getProductName() +
-                    ": " + cartItem.getVariantShortName());
-              } else {
-                Log.d("CartRepository", "No variant for " + cartItem.getProductName());
-              }
-
               cartItems.add(cartItem);
-              Log.d("CartRepository", "Added cart item: " + cartItem.getProductName());
+              AppLog.d(TAG, ITEM_LOG, () -> "Added cart item " + document.getId() + ": " + cartItem.getProductName()
+                  + (cartItem.getVariantId() != null ? " (" + cartItem.getVariantShortName() + ")" : ""));
             }
           }
 
-          // Sort in memory by addedAt (newest first)
-          cartItems.sort((item1, item2) -> {
-            if (item1.getAddedAt() == null && item2.getAddedAt() == null)
-              return 0;
-            if (item1.getAddedAt() == null)
-              return 1;
-            if (item2.getAddedAt() == null)
-              return -1;
-            return item2.getAddedAt().compareTo(item1.getAddedAt());
-          });
-
-          Log.d("CartRepository", "Total cart items loaded: " + cartItems.size());
+          sortNewestFirst(cartItems);
+
+          AppLog.d(TAG, () -> "Total cart items loaded: " + cartItems.size());
           listener.onSuccess(cartItems);
         })
         .addOnFailureListener(e -> {
-          Log.e("CartRepository", "Failed to fetch cart items for userId: " + userId, e);
-          Log.e("CartRepository", "Error type: " + e.getClass().getSimpleName());
-          Log.e("CartRepository", "Error message: " + e.getMessage());
+          AppLog.e(TAG, "Failed to fetch cart items for userId: " + userId, e);
+          AppLog.e(TAG, "Error type: " + e.getClass().getSimpleName());
+          AppLog.e(TAG, "Error message: " + e.getMessage());
           listener.onFailure(e);
         });
   }
 
+  // Sort in memory by addedAt (newest first)
+  static void sortNewestFirst(List<CartItem> cartItems) {
+    cartItems.sort((item1, item2) -> {
+      if (item1.getAddedAt() == null && item2.getAddedAt() == null)
+        return 0;
+      if (item1.getAddedAt() == null)
+        return 1;
+      if (item2.getAddedAt() == null)
+        return -1;
+      return item2.getAddedAt().compareTo(item1.getAddedAt());
+    });
+  }
+
+  /**
+   * Lắng nghe giỏ hàng của user. Snapshot đầu tiên trả về toàn bộ danh sách qua
+   * onCartLoaded, các snapshot sau chỉ trả về những dòng thay đổi (DocumentChange).
+   * Gọi remove() trên ListenerRegistration để ngừng nghe.
+   */
+  public ListenerRegistration listenToCart(String userId, OnCartSnapshotListener listener) {
+    AppLog.d(TAG, () -> "Attaching cart listener for userId: " + userId);
+    boolean[] initial = {true};
+    return db.collection(COLLECTION_CARTS)
+        .whereEqualTo("userId", userId)
+        .addSnapshotListener((querySnapshot, e) -> {
+          if (e != null) {
+            AppLog.e(TAG, "Cart listener failed for userId: " + userId, e);
+            listener.onFailure(e);
+            return;
+          }
+          if (querySnapshot == null) {
+            return;
+          }
+
+          if (initial[0]) {
+            initial[0] = false;
+            List<CartItem> cartItems = new ArrayList<>();
+            for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+              CartItem cartItem = toCartItem(document);
+              if (cartItem != null) {
+                cartItems.add(cartItem);
+              }
+            }
+            sortNewestFirst(cartItems);
+            AppLog.d(TAG, () -> "Cart listener initial snapshot: " + cartItems.size() + " items"
+                + (querySnapshot.getMetadata().isFromCache() ? " (cache)" : ""));
+            listener.onCartLoaded(cartItems);
+            return;
+          }
+
+          List<CartItem> upserted = new ArrayList<>();
+          List<String> removedIds = new ArrayList<>();
+          for (DocumentChange change : querySnapshot.getDocumentChanges()) {
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+              removedIds.add(change.getDocument().getId());
+            } else {
+              CartItem cartItem = toCartItem(change.getDocument());
+              if (cartItem != null) {
+                upserted.add(cartItem);
+              }
+            }
+          }
+          if (!upserted.isEmpty() || !removedIds.isEmpty()) {
+            AppLog.d(TAG, () -> "Cart listener changes: " + upserted.size() + " upserted, "
+                + removedIds.size() + " removed");
+            listener.onCartItemsChanged(upserted, removedIds);
+          }
+        });
+  }
+
+  private static CartItem toCartItem(DocumentSnapshot document) {
+    CartItem cartItem = document.toObject(CartItem.class);
+    if (cartItem != null) {
+      cartItem.setId(document.getId());
+    }
+    return cartItem;
+  }
+
   // Cập nhật số lượng sản phẩm trong giỏ hàng
   public void updateCartItemQuantity(String cartItemId, int newQuantity, OnCartOperationListener listener) {
-    Log.d("CartRepository", "Updating cart item quantity: " + cartItemId + " to quantity: " + newQuantity);
+    AppLog.d(TAG, () -> "Updating cart item quantity: " + cartItemId + " to quantity: " + newQuantity);
 
     if (newQuantity <= 0) {
-      Log.d("CartRepository", "Quantity <= 0, removing item instead");
+      AppLog.d(TAG, "Quantity <= 0, removing item instead");
       removeCartItem(cartItemId, listener);
       return;
     }
@@ -240,34 +326,74 @@ public class CartRepository {
         .document(cartItemId)
         .update(updates)
         .addOnSuccessListener(aVoid -> {
-          Log.d("CartRepository", "Cart item quantity updated successfully");
+          AppLog.d(TAG, "Cart item quantity updated successfully");
           if (listener != null) {
             listener.onSuccess();
           }
         })
         .addOnFailureListener(e -> {
-          Log.e("CartRepository", "Error updating cart item quantity", e);
+          AppLog.e(TAG, "Error updating cart item quantity", e);
           if (listener != null) {
             listener.onFailure(e);
           }
         });
   }
 
+  /**
+   * Ghi số lượng cuối cùng của nhiều dòng giỏ hàng trong một WriteBatch (một round trip,
+   * tất cả cùng thành công hoặc cùng thất bại). Số lượng <= 0 thì xóa dòng đó.
+   * CartManager giữ mỗi lần flush trong 500 thao tác (một chunk của BatchWriter); lỗi tạm
+   * thời được thử lại với backoff.
+   */
+  public void commitQuantityUpdates(Map<String, Integer> quantities, OnCartOperationListener listener) {
+    BatchWriter writer = new BatchWriter(db);
+    Date now = new Date();
+    for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+      DocumentReference ref = db.collection(COLLECTION_CARTS).document(entry.getKey());
+      if (entry.getValue() <= 0) {
+        writer.delete(ref);
+      } else {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("quantity", entry.getValue());
+        updates.put("updatedAt", now);
+        writer.update(ref, updates);
+      }
+    }
+
+    writer.commit(new BatchWriter.Callback() {
+      @Override
+      public void onSuccess(int writeCount) {
+        AppLog.d(TAG, () -> "Committed " + writeCount + " cart quantity updates in one batch");
+        if (listener != null) {
+          listener.onSuccess();
+        }
+      }
+
+      @Override
+      public void onFailure(Exception e, int committedCount) {
+        AppLog.e(TAG, "Error committing cart quantity batch", e);
+        if (listener != null) {
+          listener.onFailure(e);
+        }
+      }
+    });
+  }
+
   // Xóa sản phẩm khỏi giỏ hàng
   public void removeCartItem(String cartItemId, OnCartOperationListener listener) {
-    Log.d("CartRepository", "Removing cart item: " + cartItemId);
+    AppLog.d(TAG, () -> "Removing cart item: " + cartItemId);
 
     db.collection(COLLECTION_CARTS)
         .document(cartItemId)
         .delete()
         .addOnSuccessListener(aVoid -> {
-          Log.d("CartRepository", "Cart item removed successfully");
+          AppLog.d(TAG, "Cart item removed successfully");
           if (listener != null) {
             listener.onSuccess();
           }
         })
         .addOnFailureListener(e -> {
-          Log.e("CartRepository", "Error removing cart item", e);
+          AppLog.e(TAG, "Error removing cart item", e);
           if (listener != null) {
             listener.onFailure(e);
           }
@@ -280,30 +406,11 @@ public class CartRepository {
         .whereEqualTo("userId", userId)
         .get()
         .addOnSuccessListener(querySnapshot -> {
-          if (querySnapshot.isEmpty()) {
-            if (listener != null) {
-              listener.onSuccess();
-            }
-            return;
-          }
-
-          // Xóa tất cả documents
-          List<Task<Void>> deleteTasks = new ArrayList<>();
+          BatchWriter writer = new BatchWriter(db);
           for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            deleteTasks.add(document.getReference().delete());
+            writer.delete(document.getReference());
           }
-
-          Tasks.whenAll(deleteTasks)
-              .addOnSuccessListener(aVoid -> {
-                if (listener != null) {
-                  listener.onSuccess();
-                }
-              })
-              .addOnFailureListener(e -> {
-                if (listener != null) {
-                  listener.onFailure(e);
-                }
-              });
+          commitDeletes(writer, listener);
         })
         .addOnFailureListener(e -> {
           if (listener != null) {
@@ -312,44 +419,9 @@ public class CartRepository {
         });
   }
 
-  // Đếm số lượng sản phẩm trong giỏ hàng
-  public void getCartItemCount(String userId, OnCartCountListener listener) {
-    db.collection(COLLECTION_CARTS)
-        .whereEqualTo("userId", userId)
-        .get()
-        .addOnSuccessListener(querySnapshot -> {
-          int totalCount = 0;
-          for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            CartItem cartItem = document.toObject(CartItem.class);
-            if (cartItem != null) {
-              totalCount += cartItem.getQuantity();
-            }
-          }
-          listener.onSuccess(totalCount);
-        })
-        .addOnFailureListener(listener::onFailure);
-  }
-
-  // Tính tổng giá trị giỏ hàng
-  public void getCartTotalValue(String userId, OnCartCountListener listener) {
-    db.collection(COLLECTION_CARTS)
-        .whereEqualTo("userId", userId)
-        .get()
-        .addOnSuccessListener(querySnapshot -> {
-          double totalValue = 0.0;
-          for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-            CartItem cartItem = document.toObject(CartItem.class);
-            if (cartItem != null) {
-              totalValue += cartItem.getTotalPrice();
-            }
-          }
-          listener.onSuccess((int) totalValue);
-        })
-        .addOnFailureListener(listener::onFailure);
-  }
-
   /**
    * Delete multiple cart items at once (for clearing selected items after checkout)
+   * Ghi bằng WriteBatch tối đa 500 thao tác mỗi chunk, chunk lỗi tạm thời được thử lại.
    * @param cartItemIds List of cart item IDs to delete
    * @param listener Callback for operation result
    */
@@ -361,29 +433,32 @@ public class CartRepository {
       return;
     }
 
-    Log.d("CartRepository", "Deleting " + cartItemIds.size() + " cart items");
-
-    List<Task<Void>> deleteTasks = new ArrayList<>();
+    AppLog.d(TAG, () -> "Deleting " + cartItemIds.size() + " cart items");
 
+    BatchWriter writer = new BatchWriter(db);
     for (String itemId : cartItemIds) {
-      Task<Void> deleteTask = db.collection(COLLECTION_CARTS)
-          .document(itemId)
-          .delete();
-      deleteTasks.add(deleteTask);
+      writer.delete(db.collection(COLLECTION_CARTS).document(itemId));
     }
+    commitDeletes(writer, listener);
+  }
 
-    Tasks.whenAll(deleteTasks)
-        .addOnSuccessListener(aVoid -> {
-          Log.d("CartRepository", "Successfully deleted " + cartItemIds.size() + " items");
-          if (listener != null) {
-            listener.onSuccess();
-          }
-        })
-        .addOnFailureListener(e -> {
-          Log.e("CartRepository", "Failed to delete items", e);
-          if (listener != null) {
-            listener.onFailure(e);
-          }
-        });
+  private void commitDeletes(BatchWriter writer, OnCartOperationListener listener) {
+    writer.commit(new BatchWriter.Callback() {
+      @Override
+      public void onSuccess(int writeCount) {
+        AppLog.d(TAG, () -> "Successfully deleted " + writeCount + " cart items");
+        if (listener != null) {
+          listener.onSuccess();
+        }
+      }
+
+      @Override
+      public void onFailure(Exception e, int committedCount) {
+        AppLog.e(TAG, "Failed to delete cart items (" + committedCount + " already deleted)", e);
+        if (listener != null) {
+          listener.onFailure(e);
+        }
+      }
+    });
   }
-}
\ No newline at end of file
+}
@@ -1,10 +1,10 @@
 package com.example.phoneshopapp.data.favorite;
 
 import android.content.Context;
-import android.util.Log;
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.UserManager;
 import com.example.phoneshopapp.models.FavoriteItem;
+import com.example.phoneshopapp.utils.AppLog;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -113,13 +113,13 @@ public class FavoriteManager {
      */
     public void loadFavorites() {
         if (userManager == null) {
-            Log.w(TAG, "UserManager is null, cannot load favorites");
+            AppLog.w(TAG, "UserManager is null, cannot load favorites");
             notifyError("Lỗi hệ thống: UserManager chưa được khởi tạo");
             return;
         }
 
         if (!userManager.isLoggedIn()) {
-            Log.w(TAG, "User not logged in, cannot load favorites");
+            AppLog.w(TAG, "User not logged in, cannot load favorites");
             favoriteItems.clear();
             notifyFavoritesUpdated();
             return;
@@ -127,12 +127,12 @@ public class FavoriteManager {
 
         String userId = userManager.getCurrentUserId();
         if (userId == null) {
-            Log.w(TAG, "User ID is null, cannot load favorites");
+            AppLog.w(TAG, "User ID is null, cannot load favorites");
             notifyError("Không thể xác định người dùng. Vui lòng đăng nhập lại.");
             return;
         }
 
-        Log.d(TAG, "Loading favorites for user: " + userId);
+        AppLog.d(TAG, () -> "Loading favorites for user: " + userId);
 
         repository.getFavorites(userId, new FavoriteRepository.OnFavoritesLoadedListener() {
             @Override
@@ -140,12 +140,12 @@ public class FavoriteManager {
                 favoriteItems.clear();
                 favoriteItems.addAll(items);
                 notifyFavoritesUpdated();
-                Log.d(TAG, "Loaded " + items.size() + " favorites for user: " + userId);
+                AppLog.d(TAG, () -> "Loaded " + items.size() + " favorites for user: " + userId);
             }
 
             @Override
             public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to load favorites for user: " + userId, e);
+                AppLog.e(TAG, "Failed to load favorites for user: " + userId, e);
                 notifyError("Không thể tải danh sách yêu thích: " + e.getMessage());
             }
         });
@@ -156,7 +156,7 @@ public class FavoriteManager {
      */
     public void addFavorite(Product product, OnFavoriteOperationListener listener) {
         if (userManager == null || !userManager.isLoggedIn()) {
-            Log.e(TAG, "User not logged in");
+            AppLog.e(TAG, "User not logged in");
             if (listener != null) {
                 listener.onFailure("Vui lòng đăng nhập để thêm sản phẩm yêu thích");
             }
@@ -165,20 +165,20 @@ public class FavoriteManager {
 
         String userId = userManager.getCurrentUserId();
         if (userId == null) {
-            Log.e(TAG, "User ID is null");
+            AppLog.e(TAG, "User ID is null");
             if (listener != null) {
                 listener.onFailure("Không thể xác định người dùng");
             }
             return;
         }
 
-        Log.d(TAG, "Adding product to favorites: " + product.getName());
+        AppLog.d(TAG, () -> "Adding product to favorites: " + product.getName());
         FavoriteItem favoriteItem = new FavoriteItem(userId, product);
 
         repository.addFavorite(userId, favoriteItem, new FavoriteRepository.OnFavoriteOperationListener() {
             @Override
             public void onSuccess() {
-                Log.d(TAG, "Successfully added to favorites");
+                AppLog.d(TAG, "Successfully added to favorites");
                 loadFavorites(); // Reload to update UI
                 if (listener != null) {
                     listener.onSuccess("Đã thêm vào yêu thích");
@@ -187,7 +187,7 @@ public class FavoriteManager {
 
             @Override
             public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to add to favorites", e);
+                AppLog.e(TAG, "Failed to add to favorites", e);
                 if (listener != null) {
                     listener.onFailure("Không thể thêm vào yêu thích: " + e.getMessage());
                 }
@@ -202,7 +202,7 @@ public class FavoriteManager {
         repository.removeFavorite(favoriteId, new FavoriteRepository.OnFavoriteOperationListener() {
             @Override
             public void onSuccess() {
-                Log.d(TAG, "Successfully removed from favorites");
+                AppLog.d(TAG, "Successfully removed from favorites");
                 loadFavorites(); // Reload to update UI
                 if (listener != null) {
                     listener.onSuccess("Đã xóa khỏi yêu thích");
@@ -211,7 +211,7 @@ public class FavoriteManager {
 
             @Override
             public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to remove from favorites", e);
+                AppLog.e(TAG, "Failed to remove from favorites", e);
                 if (listener != null) {
                     listener.onFailure("Không thể xóa khỏi yêu thích: " + e.getMessage());
                 }
@@ -234,7 +234,7 @@ public class FavoriteManager {
         repository.removeByProductId(userId, productId, new FavoriteRepository.OnFavoriteOperationListener() {
             @Override
             public void onSuccess() {
-                Log.d(TAG, "Successfully removed from favorites");
+                AppLog.d(TAG, "Successfully removed from favorites");
                 loadFavorites(); // Reload to update UI
                 if (listener != null) {
                     listener.onSuccess("Đã xóa khỏi yêu thích");
@@ -243,7 +243,7 @@ public class FavoriteManager {
 
             @Override
             public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to remove from favorites", e);
+                AppLog.e(TAG, "Failed to remove from favorites", e);
                 if (listener != null) {
                     listener.onFailure("Không thể xóa khỏi yêu thích: " + e.getMessage());
                 }
@@ -281,7 +281,7 @@ public class FavoriteManager {
                     repository.removeFavorite(favoriteId, new FavoriteRepository.OnFavoriteOperationListener() {
                         @Override
                         public void onSuccess() {
-                            Log.d(TAG, "Successfully removed from favorites");
+                            AppLog.d(TAG, "Successfully removed from favorites");
                             loadFavorites(); // Reload to update UI
                             if (listener != null) {
                                 listener.onSuccess("Đã xóa khỏi yêu thích");
@@ -290,7 +290,7 @@ public class FavoriteManager {
 
                         @Override
                         public void onFailure(Exception e) {
-                            Log.e(TAG, "Failed to remove from favorites", e);
+                            AppLog.e(TAG, "Failed to remove from favorites", e);
                             if (listener != null) {
                                 listener.onFailure("Không thể xóa: " + e.getMessage());
                             }
@@ -302,7 +302,7 @@ public class FavoriteManager {
                     repository.addFavorite(userId, favoriteItem, new FavoriteRepository.OnFavoriteOperationListener() {
                         @Override
                         public void onSuccess() {
-                            Log.d(TAG, "Successfully added to favorites");
+                            AppLog.d(TAG, "Successfully added to favorites");
                             loadFavorites(); // Reload to update UI
                             if (listener != null) {
                                 listener.onSuccess("Đã thêm vào yêu thích");
@@ -311,7 +311,7 @@ public class FavoriteManager {
 
                         @Override
                         public void onFailure(Exception e) {
-                            Log.e(TAG, "Failed to add to favorites", e);
+                            AppLog.e(TAG, "Failed to add to favorites", e);
                             if (listener != null) {
                                 listener.onFailure("Không thể thêm: " + e.getMessage());
                             }
@@ -322,7 +322,7 @@ public class FavoriteManager {
 
             @Override
             public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to check favorite status", e);
+                AppLog.e(TAG, "Failed to check favorite status", e);
                 if (listener != null) {
                     listener.onFailure("Không thể kiểm tra trạng thái: " + e.getMessage());
                 }
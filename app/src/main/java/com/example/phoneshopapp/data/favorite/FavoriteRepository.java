@@ -1,7 +1,8 @@
 package com.example.phoneshopapp.data.favorite;
 
-import android.util.Log;
 import com.example.phoneshopapp.models.FavoriteItem;
+import com.example.phoneshopapp.utils.AppLog;
+import com.example.phoneshopapp.utils.BatchWriter;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
@@ -45,14 +46,14 @@ public class FavoriteRepository {
      * If product already exists in favorites, this will fail
      */
     public void addFavorite(String userId, FavoriteItem item, OnFavoriteOperationListener listener) {
-        Log.d(TAG, "Adding favorite for user: " + userId + ", product: " + item.getProductName());
+        AppLog.d(TAG, () -> "Adding favorite for user: " + userId + ", product: " + item.getProductName());
 
         // Check if already exists first
         isFavorite(userId, item.getProductId(), new OnFavoriteCheckListener() {
             @Override
             public void onResult(boolean isFavorite, String favoriteId) {
                 if (isFavorite) {
-                    Log.w(TAG, "Product already in favorites");
+                    AppLog.w(TAG, "Product already in favorites");
                     if (listener != null) {
                         listener.onFailure(new Exception("Sản phẩm đã có trong danh sách yêu thích"));
                     }
@@ -64,7 +65,7 @@ public class FavoriteRepository {
 
             @Override
             public void onFailure(Exception e) {
-                Log.w(TAG, "Failed to check existing favorite, adding anyway", e);
+                AppLog.w(TAG, "Failed to check existing favorite, adding anyway", e);
                 addNewFavorite(item, listener);
             }
         });
@@ -88,13 +89,13 @@ public class FavoriteRepository {
         db.collection(COLLECTION_FAVORITES)
                 .add(favoriteData)
                 .addOnSuccessListener(documentReference -> {
-                    Log.d(TAG, "Favorite added with ID: " + documentReference.getId());
+                    AppLog.d(TAG, () -> "Favorite added with ID: " + documentReference.getId());
                     if (listener != null) {
                         listener.onSuccess();
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error adding favorite", e);
+                    AppLog.e(TAG, "Error adding favorite", e);
                     if (listener != null) {
                         listener.onFailure(e);
                     }
@@ -105,19 +106,19 @@ public class FavoriteRepository {
      * Remove a favorite by document ID
      */
     public void removeFavorite(String favoriteId, OnFavoriteOperationListener listener) {
-        Log.d(TAG, "Removing favorite: " + favoriteId);
+        AppLog.d(TAG, () -> "Removing favorite: " + favoriteId);
 
         db.collection(COLLECTION_FAVORITES)
                 .document(favoriteId)
                 .delete()
                 .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Favorite removed successfully");
+                    AppLog.d(TAG, "Favorite removed successfully");
                     if (listener != null) {
                         listener.onSuccess();
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error removing favorite", e);
+                    AppLog.e(TAG, "Error removing favorite", e);
                     if (listener != null) {
                         listener.onFailure(e);
                     }
@@ -127,41 +128,99 @@ public class FavoriteRepository {
     /**
      * Remove a favorite by userId and productId
      * Useful when you don't have the document ID
+     * Xóa mọi document khớp (kể cả bản trùng do thêm hai lần) trong một batch
      */
     public void removeByProductId(String userId, String productId, OnFavoriteOperationListener listener) {
-        Log.d(TAG, "Removing favorite by productId: " + productId);
+        AppLog.d(TAG, () -> "Removing favorite by productId: " + productId);
 
         db.collection(COLLECTION_FAVORITES)
                 .whereEqualTo("userId", userId)
                 .whereEqualTo("productId", productId)
-                .limit(1)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        removeFavorite(document.getId(), listener);
+                    if (querySnapshot.size() == 1) {
+                        removeFavorite(querySnapshot.getDocuments().get(0).getId(), listener);
+                    } else if (!querySnapshot.isEmpty()) {
+                        List<String> favoriteIds = new ArrayList<>();
+                        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                            favoriteIds.add(document.getId());
+                        }
+                        removeFavorites(favoriteIds, listener);
                     } else {
-                        Log.w(TAG, "Favorite not found for productId: " + productId);
+                        AppLog.w(TAG, "Favorite not found for productId: " + productId);
                         if (listener != null) {
                             listener.onFailure(new Exception("Không tìm thấy sản phẩm trong danh sách yêu thích"));
                         }
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error finding favorite to remove", e);
+                    AppLog.e(TAG, "Error finding favorite to remove", e);
                     if (listener != null) {
                         listener.onFailure(e);
                     }
                 });
     }
 
+    /**
+     * Remove several favorites by document ID using chunked WriteBatches (see BatchWriter)
+     */
+    public void removeFavorites(List<String> favoriteIds, OnFavoriteOperationListener listener) {
+        BatchWriter writer = new BatchWriter(db);
+        for (String favoriteId : favoriteIds) {
+            writer.delete(db.collection(COLLECTION_FAVORITES).document(favoriteId));
+        }
+        commit(writer, listener);
+    }
+
+    /**
+     * Remove all favorites of a user
+     */
+    public void clearFavorites(String userId, OnFavoriteOperationListener listener) {
+        db.collection(COLLECTION_FAVORITES)
+                .whereEqualTo("userId", userId)
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    BatchWriter writer = new BatchWriter(db);
+                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                        writer.delete(document.getReference());
+                    }
+                    commit(writer, listener);
+                })
+                .addOnFailureListener(e -> {
+                    AppLog.e(TAG, "Error loading favorites to clear", e);
+                    if (listener != null) {
+                        listener.onFailure(e);
+                    }
+                });
+    }
+
+    private void commit(BatchWriter writer, OnFavoriteOperationListener listener) {
+        writer.commit(new BatchWriter.Callback() {
+            @Override
+            public void onSuccess(int writeCount) {
+                AppLog.d(TAG, () -> "Removed " + writeCount + " favorites");
+                if (listener != null) {
+                    listener.onSuccess();
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e, int committedCount) {
+                AppLog.e(TAG, "Error removing favorites (" + committedCount + " already removed)", e);
+                if (listener != null) {
+                    listener.onFailure(e);
+                }
+            }
+        });
+    }
+
     /**
      * Get all favorites for a user
      * Sorted by addedAt in descending order (most recent first)
      * Note: Sorting done in-memory to avoid needing Firestore composite index
      */
     public void getFavorites(String userId, OnFavoritesLoadedListener listener) {
-        Log.d(TAG, "Loading favorites for user: " + userId);
+        AppLog.d(TAG, () -> "Loading favorites for user: " + userId);
 
         db.collection(COLLECTION_FAVORITES)
                 .whereEqualTo("userId", userId)
@@ -183,13 +242,13 @@ public class FavoriteRepository {
                         return b.getAddedAt().compareTo(a.getAddedAt());
                     });
                     
-                    Log.d(TAG, "Loaded " + favorites.size() + " favorites");
+                    AppLog.d(TAG, () -> "Loaded " + favorites.size() + " favorites");
                     if (listener != null) {
                         listener.onSuccess(favorites);
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading favorites", e);
+                    AppLog.e(TAG, "Error loading favorites", e);
                     if (listener != null) {
                         listener.onFailure(e);
                     }
@@ -219,7 +278,7 @@ public class FavoriteRepository {
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error checking favorite status", e);
+                    AppLog.e(TAG, "Error checking favorite status", e);
                     if (listener != null) {
                         listener.onFailure(e);
                     }
@@ -260,7 +319,7 @@ public class FavoriteRepository {
             
             return item;
         } catch (Exception e) {
-            Log.e(TAG, "Error converting document to FavoriteItem", e);
+            AppLog.e(TAG, "Error converting document to FavoriteItem", e);
             return null;
         }
     }
@@ -278,7 +337,7 @@ public class FavoriteRepository {
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting favorite count", e);
+                    AppLog.e(TAG, "Error getting favorite count", e);
                     if (listener != null) {
                         listener.onFailure(e);
                     }
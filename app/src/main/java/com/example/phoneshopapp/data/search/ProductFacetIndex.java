@@ -0,0 +1,482 @@
+package com.example.phoneshopapp.data.search;
+
+import com.example.phoneshopapp.Product;
+import com.example.phoneshopapp.data.CatalogChangeSet;
+import com.example.phoneshopapp.data.ProductData;
+import com.example.phoneshopapp.utils.AppLog;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Facet index cho bộ lọc của DashboardViewModel.
+ *
+ * Mỗi category và mỗi brand có một BitSet các ordinal sản phẩm; giá được lưu trong
+ * mảng đã sắp xếp để lọc theo khoảng bằng binary search. Một lần đổi bộ lọc chỉ còn
+ * là phép AND các BitSet, và số lượng theo từng facet ("Apple (12)") là cardinality
+ * của phép AND với tập kết quả hiện tại.
+ *
+ * Index cũng giữ sẵn các thứ tự sắp xếp (permutation của ordinal) cho từng sort key;
+ * kết quả lọc được lấy ra đã sắp xếp bằng cách duyệt permutation và giữ lại các
+ * ordinal có trong BitSet, O(n) và không cần so sánh.
+ *
+ * Index tự cập nhật incremental theo CatalogChangeSet của ProductData.
+ */
+public class ProductFacetIndex {
+
+  private static final String TAG = "ProductFacetIndex";
+  public static final String ALL_CATEGORIES = "All";
+
+  public static final String SORT_DEFAULT = "default";
+  public static final String SORT_PRICE_ASC = "price_asc";
+  public static final String SORT_PRICE_DESC = "price_desc";
+  public static final String SORT_NAME_ASC = "name_asc";
+  public static final String SORT_NAME_DESC = "name_desc";
+  private static ProductFacetIndex instance;
+
+  // ordinal -> product (null khi sản phẩm đã bị xóa)
+  private final List<Product> products = new ArrayList<>();
+  private final Map<String, Integer> ordinalsById = new HashMap<>();
+  private final BitSet live = new BitSet();
+  private final Map<String, BitSet> categoryBits = new TreeMap<>();
+  private final Map<String, BitSet> brandBits = new TreeMap<>();
+
+  // Giá (long đồng) tăng dần và ordinal tương ứng, dùng cho range query
+  private long[] sortedPrices = new long[0];
+  private int[] sortedOrdinals = new int[0];
+  private int priceCount = 0;
+
+  // Snapshot catalog mà index đang phản ánh
+  private List<Product> indexedSnapshot = null;
+
+  // Sort key -> comparator; tên sản phẩm dùng collation key tiếng Việt nên xử lý riêng
+  private final Map<String, Comparator<Product>> sortComparators = new HashMap<>();
+  // Sort key -> ordinal đã sắp xếp, tính lười và bỏ đi mỗi khi catalog thay đổi
+  private final Map<String, int[]> sortOrders = new HashMap<>();
+  private final Collator nameCollator;
+
+  public static synchronized ProductFacetIndex getInstance() {
+    if (instance == null) {
+      instance = new ProductFacetIndex();
+    }
+    return instance;
+  }
+
+  private ProductFacetIndex() {
+    nameCollator = Collator.getInstance(new Locale("vi", "VN"));
+    nameCollator.setStrength(Collator.SECONDARY); // không phân biệt hoa thường
+
+    sortComparators.put(SORT_PRICE_ASC, (a, b) -> Long.compare(a.getPriceDong(), b.getPriceDong()));
+    sortComparators.put(SORT_PRICE_DESC, (a, b) -> Long.compare(b.getPriceDong(), a.getPriceDong()));
+
+    // Xem thứ tự gọi ở ProductData.addOnCatalogChangedListener
+    ProductData.addOnCatalogChangedListener(this::onCatalogChanged);
+  }
+
+  /**
+   * Đảm bảo index phản ánh đúng snapshot catalog (snapshot của ProductData là immutable).
+   */
+  public synchronized void ensureIndexed(List<Product> snapshot) {
+    if (snapshot == null || snapshot == indexedSnapshot) {
+      return;
+    }
+    rebuild(snapshot);
+  }
+
+  /**
+   * Giao của các bộ lọc. Category null/"All" và brands rỗng nghĩa là không lọc theo facet đó.
+   */
+  public synchronized BitSet filter(String category, Set<String> brands, double minPrice, double maxPrice) {
+    BitSet result = priceRange(minPrice, maxPrice);
+    if (category != null && !category.equals(ALL_CATEGORIES)) {
+      BitSet bits = categoryBits.get(category);
+      if (bits == null) {
+        return new BitSet();
+      }
+      result.and(bits);
+    }
+    if (brands != null && !brands.isEmpty()) {
+      result.and(brandUnion(brands));
+    }
+    return result;
+  }
+
+  public synchronized BitSet all() {
+    return (BitSet) live.clone();
+  }
+
+  public synchronized BitSet category(String category) {
+    if (category == null || category.equals(ALL_CATEGORIES)) {
+      return all();
+    }
+    BitSet bits = categoryBits.get(category);
+    return bits != null ? (BitSet) bits.clone() : new BitSet();
+  }
+
+  // Sản phẩm có giá trong [minPrice, maxPrice]
+  public synchronized BitSet priceRange(double minPrice, double maxPrice) {
+    BitSet result = new BitSet(products.size());
+    for (int i = lowerBound((long) Math.ceil(minPrice)); i < priceCount && sortedPrices[i] <= maxPrice; i++) {
+      result.set(sortedOrdinals[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Số sản phẩm của từng brand trong tập base (thường là kết quả lọc category + giá).
+   */
+  public synchronized Map<String, Integer> brandCounts(BitSet base) {
+    return facetCounts(brandBits, base);
+  }
+
+  public synchronized Map<String, Integer> categoryCounts(BitSet base) {
+    return facetCounts(categoryBits, base);
+  }
+
+  public synchronized Set<String> getBrands() {
+    return new TreeSet<>(brandBits.keySet());
+  }
+
+  public synchronized double getMaxPrice() {
+    return priceCount > 0 ? sortedPrices[priceCount - 1] : 0;
+  }
+
+  // Chuyển danh sách sản phẩm (vd. kết quả tìm kiếm) sang BitSet ordinal
+  public synchronized BitSet toBitSet(List<Product> subset) {
+    BitSet result = new BitSet(products.size());
+    for (Product product : subset) {
+      Integer ordinal = ordinalsById.get(product.getId());
+      if (ordinal != null) {
+        result.set(ordinal);
+      }
+    }
+    return result;
+  }
+
+  // Sản phẩm theo thứ tự catalog
+  public synchronized List<Product> toProducts(BitSet bits) {
+    List<Product> result = new ArrayList<>(bits.cardinality());
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      Product product = products.get(i);
+      if (product != null) {
+        result.add(product);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sản phẩm trong bits theo thứ tự của sort key. Sort key "default" hoặc chưa đăng ký
+   * thì trả về theo thứ tự catalog.
+   */
+  public synchronized List<Product> toSortedProducts(BitSet bits, String sortKey) {
+    int[] order = getSortOrder(sortKey);
+    if (order == null) {
+      return toProducts(bits);
+    }
+
+    List<Product> result = new ArrayList<>(bits.cardinality());
+    for (int ordinal : order) {
+      if (bits.get(ordinal)) {
+        result.add(products.get(ordinal));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Đăng ký sort key mới (vd. "rating_desc", "newest"). Thứ tự được tính một lần cho
+   * mỗi phiên bản catalog rồi dùng lại cho mọi lần lọc.
+   */
+  public synchronized void registerSortKey(String sortKey, Comparator<Product> comparator) {
+    sortComparators.put(sortKey, comparator);
+    sortOrders.remove(sortKey);
+  }
+
+  private int[] getSortOrder(String sortKey) {
+    if (sortKey == null || sortKey.equals(SORT_DEFAULT)) {
+      return null;
+    }
+    int[] order = sortOrders.get(sortKey);
+    if (order == null) {
+      order = buildSortOrder(sortKey);
+      if (order != null) {
+        sortOrders.put(sortKey, order);
+      }
+    }
+    return order;
+  }
+
+  private int[] buildSortOrder(String sortKey) {
+    Comparator<Integer> ordinalComparator;
+    if (sortKey.equals(SORT_NAME_ASC) || sortKey.equals(SORT_NAME_DESC)) {
+      // Tính collation key một lần cho mỗi sản phẩm thay vì compareToIgnoreCase mỗi lần so sánh
+      CollationKey[] keys = new CollationKey[products.size()];
+      for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+        String name = products.get(i).getName();
+        keys[i] = nameCollator.getCollationKey(name != null ? name : "");
+      }
+      ordinalComparator = sortKey.equals(SORT_NAME_ASC)
+          ? (a, b) -> keys[a].compareTo(keys[b])
+          : (a, b) -> keys[b].compareTo(keys[a]);
+    } else {
+      Comparator<Product> comparator = sortComparators.get(sortKey);
+      if (comparator == null) {
+        return null;
+      }
+      ordinalComparator = (a, b) -> comparator.compare(products.get(a), products.get(b));
+    }
+
+    Integer[] ordinals = new Integer[live.cardinality()];
+    int index = 0;
+    for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+      ordinals[index++] = i;
+    }
+    Arrays.sort(ordinals, ordinalComparator);
+
+    int[] order = new int[ordinals.length];
+    for (int i = 0; i < ordinals.length; i++) {
+      order[i] = ordinals[i];
+    }
+    return order;
+  }
+
+  public synchronized Product getProduct(int ordinal) {
+    return ordinal >= 0 && ordinal < products.size() ? products.get(ordinal) : null;
+  }
+
+  public synchronized int getOrdinal(String productId) {
+    Integer ordinal = ordinalsById.get(productId);
+    return ordinal != null ? ordinal : -1;
+  }
+
+  private Map<String, Integer> facetCounts(Map<String, BitSet> facets, BitSet base) {
+    Map<String, Integer> counts = new TreeMap<>();
+    for (Map.Entry<String, BitSet> entry : facets.entrySet()) {
+      BitSet bits = (BitSet) entry.getValue().clone();
+      bits.and(base);
+      counts.put(entry.getKey(), bits.cardinality());
+    }
+    return counts;
+  }
+
+  private BitSet brandUnion(Set<String> brands) {
+    BitSet result = new BitSet(products.size());
+    for (String brand : brands) {
+      BitSet bits = brandBits.get(brand);
+      if (bits != null) {
+        result.or(bits);
+      }
+    }
+    return result;
+  }
+
+  private void onCatalogChanged(CatalogChangeSet changeSet) {
+    synchronized (this) {
+      // Chưa từng build thì để lần lọc đầu tiên build từ snapshot
+      if (indexedSnapshot == null) {
+        return;
+      }
+
+      for (String id : changeSet.getRemovedIds()) {
+        removeProduct(id);
+      }
+      for (Product product : changeSet.getModified()) {
+        indexProduct(product);
+      }
+      for (Product product : changeSet.getAdded()) {
+        indexProduct(product);
+      }
+      indexedSnapshot = changeSet.getSnapshot();
+      sortOrders.clear();
+
+      // Quá nhiều ordinal trống thì build lại cho gọn
+      if (products.size() - live.cardinality() > products.size() / 2) {
+        rebuild(indexedSnapshot);
+      }
+    }
+    AppLog.d(TAG, () -> "Facets updated incrementally: " + changeSet.size() + " changes");
+  }
+
+  private void rebuild(List<Product> snapshot) {
+    products.clear();
+    ordinalsById.clear();
+    live.clear();
+    categoryBits.clear();
+    brandBits.clear();
+    sortOrders.clear();
+    sortedPrices = new long[Math.max(16, snapshot.size())];
+    sortedOrdinals = new int[sortedPrices.length];
+    priceCount = 0;
+
+    for (Product product : snapshot) {
+      if (product == null || product.getId() == null || ordinalsById.containsKey(product.getId())) {
+        continue;
+      }
+      int ordinal = products.size();
+      ordinalsById.put(product.getId(), ordinal);
+      products.add(product);
+      addFacets(ordinal, product);
+      sortedPrices[priceCount] = product.getPriceDong();
+      sortedOrdinals[priceCount] = ordinal;
+      priceCount++;
+    }
+    sortPrices();
+    indexedSnapshot = snapshot;
+
+    AppLog.d(TAG, () -> "Facets built: " + categoryBits.size() + " categories, " + brandBits.size() + " brands");
+  }
+
+  // Thêm mới hoặc index lại sản phẩm (giữ nguyên ordinal nếu đã tồn tại)
+  private void indexProduct(Product product) {
+    if (product == null || product.getId() == null) {
+      return;
+    }
+
+    Integer existing = ordinalsById.get(product.getId());
+    int ordinal;
+    if (existing != null) {
+      ordinal = existing;
+      removeFacets(ordinal, products.get(ordinal));
+      removePrice(ordinal, products.get(ordinal).getPriceDong());
+      products.set(ordinal, product);
+    } else {
+      ordinal = products.size();
+      ordinalsById.put(product.getId(), ordinal);
+      products.add(product);
+    }
+    addFacets(ordinal, product);
+    insertPrice(ordinal, product.getPriceDong());
+  }
+
+  private void removeProduct(String id) {
+    Integer ordinal = ordinalsById.remove(id);
+    if (ordinal == null) {
+      return;
+    }
+    Product product = products.get(ordinal);
+    removeFacets(ordinal, product);
+    removePrice(ordinal, product.getPriceDong());
+    products.set(ordinal, null);
+  }
+
+  private void addFacets(int ordinal, Product product) {
+    live.set(ordinal);
+    addToFacet(categoryBits, product.getCategory(), ordinal);
+    addToFacet(brandBits, product.getBrand(), ordinal);
+  }
+
+  private void removeFacets(int ordinal, Product product) {
+    live.clear(ordinal);
+    removeFromFacet(categoryBits, product.getCategory(), ordinal);
+    removeFromFacet(brandBits, product.getBrand(), ordinal);
+  }
+
+  private static void addToFacet(Map<String, BitSet> facets, String value, int ordinal) {
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+    BitSet bits = facets.get(value);
+    if (bits == null) {
+      bits = new BitSet();
+      facets.put(value, bits);
+    }
+    bits.set(ordinal);
+  }
+
+  private static void removeFromFacet(Map<String, BitSet> facets, String value, int ordinal) {
+    if (value == null) {
+      return;
+    }
+    BitSet bits = facets.get(value);
+    if (bits != null) {
+      bits.clear(ordinal);
+      if (bits.isEmpty()) {
+        facets.remove(value);
+      }
+    }
+  }
+
+  // Sắp xếp cặp (giá, ordinal) sau khi build toàn bộ
+  private void sortPrices() {
+    Integer[] order = new Integer[priceCount];
+    for (int i = 0; i < priceCount; i++) {
+      order[i] = i;
+    }
+    final long[] prices = sortedPrices;
+    Arrays.sort(order, (a, b) -> Long.compare(prices[a], prices[b]));
+
+    long[] newPrices = new long[sortedPrices.length];
+    int[] newOrdinals = new int[sortedOrdinals.length];
+    for (int i = 0; i < priceCount; i++) {
+      newPrices[i] = sortedPrices[order[i]];
+      newOrdinals[i] = sortedOrdinals[order[i]];
+    }
+    sortedPrices = newPrices;
+    sortedOrdinals = newOrdinals;
+  }
+
+  private void insertPrice(int ordinal, long price) {
+    if (priceCount == sortedPrices.length) {
+      sortedPrices = Arrays.copyOf(sortedPrices, Math.max(16, priceCount * 2));
+      sortedOrdinals = Arrays.copyOf(sortedOrdinals, sortedPrices.length);
+    }
+    int position = upperBound(price);
+    System.arraycopy(sortedPrices, position, sortedPrices, position + 1, priceCount - position);
+    System.arraycopy(sortedOrdinals, position, sortedOrdinals, position + 1, priceCount - position);
+    sortedPrices[position] = price;
+    sortedOrdinals[position] = ordinal;
+    priceCount++;
+  }
+
+  private void removePrice(int ordinal, long price) {
+    for (int i = lowerBound(price); i < priceCount && sortedPrices[i] == price; i++) {
+      if (sortedOrdinals[i] == ordinal) {
+        System.arraycopy(sortedPrices, i + 1, sortedPrices, i, priceCount - i - 1);
+        System.arraycopy(sortedOrdinals, i + 1, sortedOrdinals, i, priceCount - i - 1);
+        priceCount--;
+        return;
+      }
+    }
+  }
+
+  // Vị trí đầu tiên có giá >= price
+  private int lowerBound(long price) {
+    int low = 0;
+    int high = priceCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sortedPrices[mid] < price) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  // Vị trí đầu tiên có giá > price
+  private int upperBound(long price) {
+    int low = 0;
+    int high = priceCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sortedPrices[mid] <= price) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,373 @@
+package com.example.phoneshopapp.data.search;
+
+import com.example.phoneshopapp.Product;
+import com.example.phoneshopapp.data.CatalogChangeSet;
+import com.example.phoneshopapp.data.ProductData;
+import com.example.phoneshopapp.utils.AppExecutors;
+import com.example.phoneshopapp.utils.AppLog;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm sản phẩm, dùng chung cho SearchActivity
+ * và DashboardViewModel.
+ *
+ * Mỗi sản phẩm được gán một ordinal; mỗi token (đã bỏ dấu) của name/brand/category/spec
+ * trỏ tới một BitSet các ordinal chứa token đó. Các token được lưu thêm trong prefix trie
+ * để gõ dở ("iph") vẫn khớp "iphone". Query nhiều từ = AND các BitSet.
+ * Prefix 1-2 ký tự khớp gần hết trie, nên hợp postings của chúng được giữ sẵn
+ * thay vì OR lại cả subtree mỗi lần gõ.
+ *
+ * Index tự cập nhật incremental theo CatalogChangeSet của ProductData. Lần build đầu (hàng
+ * chục ms với catalog lớn) chạy trên background qua {@link #ensureIndexedAsync}; kết quả
+ * được dựng trong một instance riêng rồi mới gắn vào, nên search trên main thread không
+ * phải chờ lock trong lúc build.
+ */
+public class ProductSearchIndex {
+
+  private static final String TAG = "ProductSearchIndex";
+  private static ProductSearchIndex instance;
+
+  // Prefix ngắn hơn hoặc bằng độ dài này được tra thẳng trong shortPrefixPostings
+  private static final int SHORT_PREFIX_LENGTH = 2;
+
+  // ordinal -> product (null khi sản phẩm đã bị xóa)
+  private List<Product> products = new ArrayList<>();
+  // ordinal -> các token của sản phẩm, dùng để gỡ postings khi sửa/xóa
+  private List<Set<String>> productTerms = new ArrayList<>();
+  private Map<String, Integer> ordinalsById = new HashMap<>();
+  private Map<String, BitSet> postings = new HashMap<>();
+  // prefix ngắn -> OR postings của mọi token bắt đầu bằng prefix đó
+  private Map<String, BitSet> shortPrefixPostings = new HashMap<>();
+  private TrieNode trieRoot = new TrieNode();
+  private int removedCount = 0;
+
+  // Snapshot catalog mà index đang phản ánh
+  private List<Product> indexedSnapshot = null;
+
+  // Snapshot mới nhất đang build trên background và các listener chờ nó
+  private List<Product> buildingSnapshot = null;
+  private final List<OnIndexedListener> pendingListeners = new ArrayList<>();
+
+  public interface OnIndexedListener {
+    // Gọi trên main thread khi index đã phản ánh snapshot được yêu cầu
+    void onIndexed();
+  }
+
+  private static class TrieNode {
+    final Map<Character, TrieNode> children = new HashMap<>();
+    String term; // khác null nếu có token kết thúc tại node này
+  }
+
+  public static synchronized ProductSearchIndex getInstance() {
+    if (instance == null) {
+      instance = new ProductSearchIndex();
+    }
+    return instance;
+  }
+
+  private ProductSearchIndex() {
+    // Xem thứ tự gọi ở ProductData.addOnCatalogChangedListener
+    ProductData.addOnCatalogChangedListener(this::onCatalogChanged);
+  }
+
+  // Instance tạm để build ngoài lock, không nghe CatalogChangeSet
+  private ProductSearchIndex(List<Product> snapshot) {
+    rebuild(snapshot);
+  }
+
+  /**
+   * Đảm bảo index phản ánh đúng snapshot catalog, build ngay trên thread đang gọi.
+   * Snapshot của ProductData là immutable và được chia sẻ, nên cùng một list thì không
+   * cần build lại. Trên main thread dùng {@link #ensureIndexedAsync}.
+   */
+  public synchronized void ensureIndexed(List<Product> snapshot) {
+    if (snapshot == null || snapshot == indexedSnapshot) {
+      return;
+    }
+    rebuild(snapshot);
+  }
+
+  /**
+   * Build index cho snapshot trên AppExecutors.background() rồi gọi listener trên main thread.
+   * Index đã phản ánh snapshot thì gọi listener ngay. Nhiều yêu cầu trong lúc đang build
+   * dùng chung một lần build; snapshot cũ hơn bị bỏ khi đã có yêu cầu cho snapshot mới.
+   */
+  public void ensureIndexedAsync(List<Product> snapshot, OnIndexedListener listener) {
+    synchronized (this) {
+      if (snapshot != null && snapshot != indexedSnapshot) {
+        pendingListeners.add(listener);
+        if (snapshot != buildingSnapshot) {
+          buildingSnapshot = snapshot;
+          AppExecutors.background().execute(() -> buildInBackground(snapshot));
+        }
+        return;
+      }
+    }
+    listener.onIndexed();
+  }
+
+  private void buildInBackground(List<Product> snapshot) {
+    ProductSearchIndex built = new ProductSearchIndex(snapshot);
+    List<OnIndexedListener> listeners;
+    synchronized (this) {
+      if (snapshot != buildingSnapshot) {
+        return;
+      }
+      adopt(built);
+      buildingSnapshot = null;
+      listeners = new ArrayList<>(pendingListeners);
+      pendingListeners.clear();
+    }
+    AppExecutors.mainThread().execute(() -> {
+      for (OnIndexedListener listener : listeners) {
+        listener.onIndexed();
+      }
+    });
+  }
+
+  // Thay toàn bộ dữ liệu bằng index vừa build. CatalogChangeSet tới trong lúc build không
+  // có trong bản này; snapshot mới hơn ở lần ensureIndexed sau sẽ build lại.
+  private void adopt(ProductSearchIndex built) {
+    products = built.products;
+    productTerms = built.productTerms;
+    ordinalsById = built.ordinalsById;
+    postings = built.postings;
+    shortPrefixPostings = built.shortPrefixPostings;
+    trieRoot = built.trieRoot;
+    removedCount = built.removedCount;
+    indexedSnapshot = built.indexedSnapshot;
+  }
+
+  /**
+   * Tìm kiếm và trả về danh sách ID sản phẩm theo thứ tự catalog.
+   */
+  public synchronized List<String> search(String query) {
+    List<String> ids = new ArrayList<>();
+    for (Product product : searchProducts(query)) {
+      ids.add(product.getId());
+    }
+    return ids;
+  }
+
+  /**
+   * Tìm kiếm và trả về sản phẩm theo thứ tự catalog. Query rỗng trả về toàn bộ catalog.
+   */
+  public synchronized List<Product> searchProducts(String query) {
+    List<String> tokens = SearchTextNormalizer.tokenize(query);
+    if (tokens.isEmpty()) {
+      return indexedSnapshot != null ? new ArrayList<>(indexedSnapshot) : new ArrayList<>();
+    }
+
+    BitSet matches = null;
+    for (String token : tokens) {
+      BitSet tokenMatches = prefixMatches(token);
+      if (matches == null) {
+        matches = tokenMatches;
+      } else {
+        matches.and(tokenMatches);
+      }
+      if (matches.isEmpty()) {
+        return new ArrayList<>();
+      }
+    }
+
+    List<Product> results = new ArrayList<>(matches.cardinality());
+    for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+      results.add(products.get(i));
+    }
+    return results;
+  }
+
+  // OR postings của mọi token bắt đầu bằng prefix
+  private BitSet prefixMatches(String prefix) {
+    if (prefix.length() <= SHORT_PREFIX_LENGTH) {
+      BitSet cached = shortPrefixPostings.get(prefix);
+      // Trả bản sao vì searchProducts AND trực tiếp lên kết quả
+      return cached != null ? (BitSet) cached.clone() : new BitSet();
+    }
+
+    BitSet result = new BitSet(products.size());
+
+    TrieNode node = trieRoot;
+    for (int i = 0; i < prefix.length() && node != null; i++) {
+      node = node.children.get(prefix.charAt(i));
+    }
+    if (node == null) {
+      return result;
+    }
+
+    List<TrieNode> stack = new ArrayList<>();
+    stack.add(node);
+    while (!stack.isEmpty()) {
+      TrieNode current = stack.remove(stack.size() - 1);
+      if (current.term != null) {
+        BitSet posting = postings.get(current.term);
+        if (posting != null) {
+          result.or(posting);
+        }
+      }
+      stack.addAll(current.children.values());
+    }
+    return result;
+  }
+
+  private void onCatalogChanged(CatalogChangeSet changeSet) {
+    synchronized (this) {
+      // Chưa từng build thì để lần search đầu tiên build từ snapshot
+      if (indexedSnapshot == null) {
+        return;
+      }
+
+      for (String id : changeSet.getRemovedIds()) {
+        removeProduct(id);
+      }
+      for (Product product : changeSet.getModified()) {
+        indexProduct(product);
+      }
+      for (Product product : changeSet.getAdded()) {
+        indexProduct(product);
+      }
+      indexedSnapshot = changeSet.getSnapshot();
+
+      // Quá nhiều ordinal trống thì build lại cho gọn
+      if (removedCount > products.size() / 2) {
+        rebuild(indexedSnapshot);
+      }
+    }
+    AppLog.d(TAG, () -> "Index updated incrementally: " + changeSet.size() + " changes");
+  }
+
+  private void rebuild(List<Product> snapshot) {
+    long start = System.nanoTime();
+
+    products.clear();
+    productTerms.clear();
+    ordinalsById.clear();
+    postings.clear();
+    shortPrefixPostings.clear();
+    trieRoot = new TrieNode();
+    removedCount = 0;
+
+    for (Product product : snapshot) {
+      indexProduct(product);
+    }
+    indexedSnapshot = snapshot;
+
+    AppLog.d(TAG, () -> "Index built: " + snapshot.size() + " products, " + postings.size() + " terms in "
+        + (System.nanoTime() - start) / 1_000_000 + "ms");
+  }
+
+  // Thêm mới hoặc index lại sản phẩm (giữ nguyên ordinal nếu đã tồn tại)
+  private void indexProduct(Product product) {
+    if (product == null || product.getId() == null) {
+      return;
+    }
+
+    Integer existing = ordinalsById.get(product.getId());
+    int ordinal;
+    if (existing != null) {
+      ordinal = existing;
+      removeTerms(ordinal);
+      products.set(ordinal, product);
+    } else {
+      ordinal = products.size();
+      ordinalsById.put(product.getId(), ordinal);
+      products.add(product);
+      productTerms.add(null);
+    }
+
+    Set<String> terms = new HashSet<>();
+    addTokens(terms, product.getName());
+    addTokens(terms, product.getBrand());
+    addTokens(terms, product.getCategory());
+    addTokens(terms, product.getSpecScreen());
+    addTokens(terms, product.getSpecProcessor());
+    addTokens(terms, product.getSpecRam());
+    addTokens(terms, product.getSpecStorage());
+
+    for (String term : terms) {
+      BitSet posting = postings.get(term);
+      if (posting == null) {
+        posting = new BitSet();
+        postings.put(term, posting);
+        insertTerm(term);
+      }
+      posting.set(ordinal);
+      for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, term.length()); length++) {
+        String prefix = term.substring(0, length);
+        BitSet prefixPosting = shortPrefixPostings.get(prefix);
+        if (prefixPosting == null) {
+          prefixPosting = new BitSet();
+          shortPrefixPostings.put(prefix, prefixPosting);
+        }
+        prefixPosting.set(ordinal);
+      }
+    }
+    productTerms.set(ordinal, terms);
+  }
+
+  private void removeProduct(String id) {
+    Integer ordinal = ordinalsById.remove(id);
+    if (ordinal == null) {
+      return;
+    }
+    removeTerms(ordinal);
+    products.set(ordinal, null);
+    productTerms.set(ordinal, null);
+    removedCount++;
+  }
+
+  private void removeTerms(int ordinal) {
+    Set<String> terms = productTerms.get(ordinal);
+    if (terms == null) {
+      return;
+    }
+    for (String term : terms) {
+      BitSet posting = postings.get(term);
+      if (posting != null) {
+        posting.clear(ordinal);
+        // Term trong trie vẫn giữ lại, prefixMatches bỏ qua term không còn posting
+        if (posting.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+      // Gỡ cả sản phẩm nên bỏ ordinal khỏi mọi prefix của nó là đúng, kể cả prefix chung nhiều term
+      for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, term.length()); length++) {
+        String prefix = term.substring(0, length);
+        BitSet prefixPosting = shortPrefixPostings.get(prefix);
+        if (prefixPosting != null) {
+          prefixPosting.clear(ordinal);
+          if (prefixPosting.isEmpty()) {
+            shortPrefixPostings.remove(prefix);
+          }
+        }
+      }
+    }
+  }
+
+  private void insertTerm(String term) {
+    TrieNode node = trieRoot;
+    for (int i = 0; i < term.length(); i++) {
+      char c = term.charAt(i);
+      TrieNode child = node.children.get(c);
+      if (child == null) {
+        child = new TrieNode();
+        node.children.put(c, child);
+      }
+      node = child;
+    }
+    node.term = term;
+  }
+
+  private static void addTokens(Set<String> terms, String text) {
+    if (text != null && !text.isEmpty()) {
+      terms.addAll(SearchTextNormalizer.tokenize(text));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.example.phoneshopapp.data.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chuẩn hóa text tiếng Việt cho tìm kiếm: lowercase, bỏ dấu và tách token.
+ * "Điện Thoại" -> ["dien", "thoai"]
+ */
+public final class SearchTextNormalizer {
+
+  private SearchTextNormalizer() {
+  }
+
+  // Bỏ dấu tiếng Việt và lowercase. "đ"/"Đ" không tách được bằng NFD nên xử lý riêng.
+  public static String fold(String text) {
+    if (text == null || text.isEmpty()) {
+      return "";
+    }
+
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    StringBuilder builder = new StringBuilder(decomposed.length());
+    for (int i = 0; i < decomposed.length(); i++) {
+      char c = decomposed.charAt(i);
+      if (Character.getType(c) == Character.NON_SPACING_MARK) {
+        continue;
+      }
+      if (c == 'đ' || c == 'Đ') {
+        builder.append('d');
+      } else {
+        builder.append(Character.toLowerCase(c));
+      }
+    }
+    return builder.toString();
+  }
+
+  // Tách text đã fold thành các token chữ/số
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    String folded = fold(text);
+
+    int start = -1;
+    for (int i = 0; i < folded.length(); i++) {
+      if (Character.isLetterOrDigit(folded.charAt(i))) {
+        if (start < 0) {
+          start = i;
+        }
+      } else if (start >= 0) {
+        tokens.add(folded.substring(start, i));
+        start = -1;
+      }
+    }
+    if (start >= 0) {
+      tokens.add(folded.substring(start));
+    }
+    return tokens;
+  }
+}
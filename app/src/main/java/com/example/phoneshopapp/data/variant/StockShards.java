@@ -0,0 +1,131 @@
+package com.example.phoneshopapp.data.variant;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tồn kho chia shard cho variant "hot" (flash sale).
+ *
+ * Variant có inventory.shardCount = N > 0 không giữ tồn kho trong document chính mà trong
+ * product_variants/{id}/stock_shards/{0..N-1}.stockQuantity. Mỗi lần đặt hàng chỉ ghi vào
+ * một (hoặc vài) shard chọn ngẫu nhiên, nên các checkout song song không cùng tranh một
+ * document. Tồn kho thực tế là tổng các shard.
+ */
+public final class StockShards {
+
+  public static final String SUBCOLLECTION = "stock_shards";
+  public static final String FIELD_STOCK = "stockQuantity";
+  public static final String FIELD_SHARD_COUNT = "inventory.shardCount";
+  public static final int MAX_SHARDS = 50;
+
+  private StockShards() {
+  }
+
+  public static DocumentReference shardRef(FirebaseFirestore db, String variantId, int index) {
+    return db.collection("product_variants").document(variantId)
+        .collection(SUBCOLLECTION).document(String.valueOf(index));
+  }
+
+  // Shard ngẫu nhiên để cộng tồn kho (hoàn kho, admin nhập thêm) mà không tranh cùng một shard
+  public static DocumentReference randomShardRef(FirebaseFirestore db, String variantId, int shardCount) {
+    return shardRef(db, variantId, ThreadLocalRandom.current().nextInt(shardCount));
+  }
+
+  public static int shardCount(DocumentSnapshot variant) {
+    Long count = variant.getLong(FIELD_SHARD_COUNT);
+    return count != null ? (int) Math.max(0, Math.min(MAX_SHARDS, count)) : 0;
+  }
+
+  // Chia đều total cho n shard, phần dư dồn vào các shard đầu
+  public static long[] distribute(long total, int shards) {
+    long[] result = new long[shards];
+    long base = total / shards;
+    long remainder = total % shards;
+    for (int i = 0; i < shards; i++) {
+      result[i] = base + (i < remainder ? 1 : 0);
+    }
+    return result;
+  }
+
+  /**
+   * Kết quả đọc shard trong transaction: tồn kho mới của các shard sẽ bị trừ, hoặc
+   * available (tổng các shard đã đọc) nếu không đủ.
+   */
+  public static final class Reservation {
+    public final Map<DocumentReference, Long> newStock;
+    public final long available;
+
+    Reservation(Map<DocumentReference, Long> newStock, long available) {
+      this.newStock = newStock;
+      this.available = available;
+    }
+
+    public boolean isSatisfied() {
+      return newStock != null;
+    }
+  }
+
+  /**
+   * Phần đọc của việc giữ hàng: bắt đầu từ một shard ngẫu nhiên, bỏ qua shard đã hết và
+   * đọc tiếp vòng tròn cho tới khi gom đủ quantity. Chỉ đọc, phần ghi do transaction gọi
+   * sau khi mọi lệnh đọc đã xong.
+   */
+  public static Reservation reserve(Transaction transaction, FirebaseFirestore db, String variantId,
+      int shardCount, long quantity) throws FirebaseFirestoreException {
+    int start = ThreadLocalRandom.current().nextInt(shardCount);
+    Map<DocumentReference, Long> newStock = new LinkedHashMap<>();
+    long remaining = quantity;
+    long seen = 0;
+
+    for (int i = 0; i < shardCount && remaining > 0; i++) {
+      DocumentReference ref = shardRef(db, variantId, (start + i) % shardCount);
+      Long stock = transaction.get(ref).getLong(FIELD_STOCK);
+      long inShard = stock != null ? Math.max(0, stock) : 0;
+      seen += inShard;
+      if (inShard == 0) {
+        continue;
+      }
+      long take = Math.min(inShard, remaining);
+      newStock.put(ref, inShard - take);
+      remaining -= take;
+    }
+    return remaining == 0 ? new Reservation(newStock, seen) : new Reservation(null, seen);
+  }
+
+  /**
+   * Phần đọc của việc admin chỉnh tồn kho variant chia shard: đọc mọi shard, cộng delta
+   * dương vào một shard ngẫu nhiên, delta âm trừ dần từ một shard ngẫu nhiên và không để
+   * shard nào âm. Trả về tồn kho mới của các shard cần ghi.
+   */
+  public static Map<DocumentReference, Long> adjust(Transaction transaction, FirebaseFirestore db,
+      String variantId, int shardCount, long delta) throws FirebaseFirestoreException {
+    int start = ThreadLocalRandom.current().nextInt(shardCount);
+    long[] stock = new long[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      Long value = transaction.get(shardRef(db, variantId, i)).getLong(FIELD_STOCK);
+      stock[i] = value != null ? Math.max(0, value) : 0;
+    }
+
+    Map<DocumentReference, Long> newStock = new LinkedHashMap<>();
+    if (delta > 0) {
+      newStock.put(shardRef(db, variantId, start), stock[start] + delta);
+      return newStock;
+    }
+    long remaining = -delta;
+    for (int i = 0; i < shardCount && remaining > 0; i++) {
+      int index = (start + i) % shardCount;
+      long take = Math.min(stock[index], remaining);
+      if (take > 0) {
+        newStock.put(shardRef(db, variantId, index), stock[index] - take);
+        remaining -= take;
+      }
+    }
+    return newStock;
+  }
+}
@@ -1,9 +1,16 @@
 package com.example.phoneshopapp.data.variant;
 
-import android.util.Log;
 import com.example.phoneshopapp.models.ProductVariant;
+import com.example.phoneshopapp.utils.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,6 +20,7 @@ import java.util.List;
 public class VariantRepository {
   private static final String TAG = "VariantRepository";
   private static final String COLLECTION_VARIANTS = "product_variants";
+  private static final AppLog.Sampler ITEM_LOG = AppLog.sampleEvery(10);
 
   private final FirebaseFirestore firestore;
 
@@ -48,7 +56,7 @@ public class VariantRepository {
    * @param listener  Callback listener
    */
   public void loadVariantsByProductId(String productId, OnVariantsLoadedListener listener) {
-    Log.d(TAG, "Loading variants for product: " + productId);
+    AppLog.d(TAG, () -> "Loading variants for product: " + productId);
 
     firestore.collection(COLLECTION_VARIANTS)
         .whereEqualTo("productId", productId)
@@ -61,18 +69,18 @@ public class VariantRepository {
               ProductVariant variant = documentToVariant(document);
               if (variant != null) {
                 variants.add(variant);
-                Log.d(TAG, "Loaded variant: " + variant.getShortName());
+                AppLog.d(TAG, ITEM_LOG, () -> "Loaded variant: " + variant.getShortName());
               }
             } catch (Exception e) {
-              Log.e(TAG, "Error parsing variant document: " + document.getId(), e);
+              AppLog.e(TAG, "Error parsing variant document: " + document.getId(), e);
             }
           }
 
-          Log.d(TAG, "Successfully loaded " + variants.size() + " variants for product: " + productId);
-          listener.onSuccess(variants);
+          AppLog.d(TAG, () -> "Successfully loaded " + variants.size() + " variants for product: " + productId);
+          sumShardedStock(variants, listener);
         })
         .addOnFailureListener(e -> {
-          Log.e(TAG, "Failed to load variants for product: " + productId, e);
+          AppLog.e(TAG, "Failed to load variants for product: " + productId, e);
           listener.onFailure(e);
         });
   }
@@ -129,6 +137,8 @@ public class VariantRepository {
       } else {
         variant.setStockQuantity(0);
       }
+
+      variant.setStockShardCount(StockShards.shardCount(document));
     }
 
     return variant;
@@ -153,41 +163,66 @@ public class VariantRepository {
         .document(variant.getVariantId())
         .set(variantMap)
         .addOnSuccessListener(aVoid -> {
-          Log.d(TAG, "Variant created successfully: " + variant.getVariantId());
+          AppLog.d(TAG, () -> "Variant created successfully: " + variant.getVariantId());
           listener.onSuccess();
         })
         .addOnFailureListener(e -> {
-          Log.e(TAG, "Failed to create variant", e);
+          AppLog.e(TAG, "Failed to create variant", e);
           listener.onFailure(e);
         });
   }
 
   /**
    * Update an existing variant in Firestore
-   * 
-   * @param variant  The variant to update
-   * @param listener Callback listener
+   *
+   * Tồn kho không ghi đè bằng số admin đã thấy lúc mở màn hình (đơn bán sau đó sẽ bị mất):
+   * chỉ phần chênh lệch admin nhập (stock mới - loadedStock) được cộng vào tồn kho hiện tại,
+   * đọc lại trong transaction và không cho xuống dưới 0. Số shard do setStockShards quản lý.
+   *
+   * @param variant     The variant to update
+   * @param loadedStock Stock quantity the admin saw before editing
+   * @param listener    Callback listener
    */
-  public void updateVariant(ProductVariant variant, OnVariantSavedListener listener) {
+  public void updateVariant(ProductVariant variant, int loadedStock, OnVariantSavedListener listener) {
     if (variant.getVariantId() == null || variant.getVariantId().isEmpty()) {
       listener.onFailure(new IllegalArgumentException("Variant ID is required for update"));
       return;
     }
 
-    // Convert variant to Firestore map
-    java.util.Map<String, Object> variantMap = variantToMap(variant);
+    String variantId = variant.getVariantId();
+    long stockDelta = (long) variant.getStockQuantity() - loadedStock;
+    java.util.Map<String, Object> fields = variantFields(variant);
+    DocumentReference variantRef = firestore.collection(COLLECTION_VARIANTS).document(variantId);
 
-    firestore.collection(COLLECTION_VARIANTS)
-        .document(variant.getVariantId())
-        .set(variantMap)
-        .addOnSuccessListener(aVoid -> {
-          Log.d(TAG, "Variant updated successfully: " + variant.getVariantId());
-          listener.onSuccess();
-        })
-        .addOnFailureListener(e -> {
-          Log.e(TAG, "Failed to update variant", e);
-          listener.onFailure(e);
-        });
+    firestore.runTransaction(transaction -> {
+      DocumentSnapshot current = transaction.get(variantRef);
+      if (!current.exists()) {
+        throw new FirebaseFirestoreException("Variant not found: " + variantId,
+            FirebaseFirestoreException.Code.NOT_FOUND);
+      }
+
+      // Tất cả lệnh đọc (variant, shard) phải đứng trước lệnh ghi
+      int shardCount = StockShards.shardCount(current);
+      java.util.Map<DocumentReference, Long> shardStock = java.util.Collections.emptyMap();
+      if (stockDelta != 0 && shardCount > 0) {
+        shardStock = StockShards.adjust(transaction, firestore, variantId, shardCount, stockDelta);
+      } else if (stockDelta != 0) {
+        Long stock = current.getLong("inventory.stockQuantity");
+        fields.put("inventory.stockQuantity", Math.max(0, (stock != null ? stock : 0) + stockDelta));
+      }
+
+      transaction.update(variantRef, fields);
+      for (java.util.Map.Entry<DocumentReference, Long> entry : shardStock.entrySet()) {
+        transaction.update(entry.getKey(), StockShards.FIELD_STOCK, entry.getValue());
+      }
+      return null;
+    }).addOnSuccessListener(result -> {
+      AppLog.d(TAG, () -> "Variant updated successfully: " + variantId + " (stock " + stockDelta + ")");
+      listener.onSuccess();
+    }).addOnFailureListener(e -> {
+      AppLog.e(TAG, "Failed to update variant", e);
+      listener.onFailure(e);
+    });
   }
 
   /**
@@ -197,19 +232,120 @@ public class VariantRepository {
    * @param listener  Callback listener
    */
   public void deleteVariant(String variantId, OnVariantDeletedListener listener) {
-    firestore.collection(COLLECTION_VARIANTS)
-        .document(variantId)
-        .delete()
+    // Xóa cả các shard tồn kho (nếu có); xóa document không tồn tại không lỗi
+    WriteBatch batch = firestore.batch();
+    for (int i = 0; i < StockShards.MAX_SHARDS; i++) {
+      batch.delete(StockShards.shardRef(firestore, variantId, i));
+    }
+    batch.delete(firestore.collection(COLLECTION_VARIANTS).document(variantId));
+
+    batch.commit()
         .addOnSuccessListener(aVoid -> {
-          Log.d(TAG, "Variant deleted successfully: " + variantId);
+          AppLog.d(TAG, () -> "Variant deleted successfully: " + variantId);
           listener.onSuccess();
         })
         .addOnFailureListener(e -> {
-          Log.e(TAG, "Failed to delete variant", e);
+          AppLog.e(TAG, "Failed to delete variant", e);
           listener.onFailure(e);
         });
   }
 
+  /**
+   * Chia (shardCount > 0) hoặc gộp lại (shardCount = 0) tồn kho của một variant trong một
+   * transaction: đọc tồn kho hiện tại (document chính hoặc tổng các shard cũ), ghi lại theo
+   * số shard mới và xóa các shard thừa. Tổng tồn kho không đổi.
+   *
+   * @param variantId  The variant ID
+   * @param shardCount Number of shards, 0 to unshard
+   * @param listener   Callback listener
+   */
+  public void setStockShards(String variantId, int shardCount, OnVariantSavedListener listener) {
+    if (shardCount < 0 || shardCount > StockShards.MAX_SHARDS) {
+      listener.onFailure(new IllegalArgumentException(
+          "Số shard phải trong khoảng 0 - " + StockShards.MAX_SHARDS));
+      return;
+    }
+
+    DocumentReference variantRef = firestore.collection(COLLECTION_VARIANTS).document(variantId);
+    firestore.runTransaction(transaction -> {
+      DocumentSnapshot variant = transaction.get(variantRef);
+      if (!variant.exists()) {
+        throw new FirebaseFirestoreException("Variant not found: " + variantId,
+            FirebaseFirestoreException.Code.NOT_FOUND);
+      }
+
+      int oldCount = StockShards.shardCount(variant);
+      long total = 0;
+      if (oldCount > 0) {
+        for (int i = 0; i < oldCount; i++) {
+          Long stock = transaction.get(StockShards.shardRef(firestore, variantId, i))
+              .getLong(StockShards.FIELD_STOCK);
+          total += stock != null ? stock : 0;
+        }
+      } else {
+        Long stock = variant.getLong("inventory.stockQuantity");
+        total = stock != null ? stock : 0;
+      }
+
+      if (shardCount > 0) {
+        long[] perShard = StockShards.distribute(total, shardCount);
+        for (int i = 0; i < shardCount; i++) {
+          transaction.set(StockShards.shardRef(firestore, variantId, i),
+              java.util.Collections.singletonMap(StockShards.FIELD_STOCK, perShard[i]));
+        }
+        transaction.update(variantRef, "inventory.stockQuantity", 0, StockShards.FIELD_SHARD_COUNT, shardCount);
+      } else {
+        transaction.update(variantRef, "inventory.stockQuantity", total, StockShards.FIELD_SHARD_COUNT, 0);
+      }
+      for (int i = shardCount; i < oldCount; i++) {
+        transaction.delete(StockShards.shardRef(firestore, variantId, i));
+      }
+
+      long movedStock = total;
+      AppLog.i(TAG, () -> "Variant " + variantId + " stock shards " + oldCount + " -> " + shardCount
+          + " (total " + movedStock + ")");
+      return null;
+    }).addOnSuccessListener(result -> listener.onSuccess())
+        .addOnFailureListener(e -> {
+          AppLog.e(TAG, "Failed to reshard variant stock: " + variantId, e);
+          listener.onFailure(e);
+        });
+  }
+
+  // Tồn kho của variant chia shard = tổng các shard; đọc song song rồi mới trả kết quả
+  private void sumShardedStock(List<ProductVariant> variants, OnVariantsLoadedListener listener) {
+    List<ProductVariant> sharded = new ArrayList<>();
+    List<Task<QuerySnapshot>> reads = new ArrayList<>();
+    for (ProductVariant variant : variants) {
+      if (variant.isStockSharded()) {
+        sharded.add(variant);
+        reads.add(firestore.collection(COLLECTION_VARIANTS).document(variant.getVariantId())
+            .collection(StockShards.SUBCOLLECTION).get());
+      }
+    }
+    if (sharded.isEmpty()) {
+      listener.onSuccess(variants);
+      return;
+    }
+
+    Tasks.whenAllComplete(reads).addOnCompleteListener(done -> {
+      for (int i = 0; i < sharded.size(); i++) {
+        Task<QuerySnapshot> read = reads.get(i);
+        if (!read.isSuccessful() || read.getResult() == null) {
+          AppLog.w(TAG, "Failed to read stock shards of " + sharded.get(i).getVariantId(), read.getException());
+          continue;
+        }
+        long total = 0;
+        for (DocumentSnapshot shard : read.getResult().getDocuments()) {
+          Long stock = shard.getLong(StockShards.FIELD_STOCK);
+          total += stock != null ? stock : 0;
+        }
+        sharded.get(i).setStockQuantity((int) Math.min(Integer.MAX_VALUE, total));
+      }
+      listener.onSuccess(variants);
+    });
+  }
+
   /**
    * Generate unique variant ID
    * 
@@ -221,6 +357,20 @@ public class VariantRepository {
     return productId + "-variant-" + timestamp;
   }
 
+  // Các field admin sửa được, dạng field path để update không đụng tới tồn kho / số shard
+  private java.util.Map<String, Object> variantFields(ProductVariant variant) {
+    java.util.Map<String, Object> fields = new java.util.HashMap<>();
+    fields.put("attributes.color", variant.getColor());
+    fields.put("attributes.colorHex", variant.getColorHex());
+    fields.put("attributes.ram", variant.getRam());
+    fields.put("attributes.storage", variant.getStorage());
+    fields.put("display.name", variant.getName());
+    fields.put("display.shortName", variant.getShortName());
+    fields.put("inventory.isAvailable", variant.isAvailable());
+    fields.put("inventory.sku", variant.getSku());
+    return fields;
+  }
+
   /**
    * Convert ProductVariant to Firestore map with nested structure
    */
@@ -248,7 +398,9 @@ public class VariantRepository {
     java.util.Map<String, Object> inventory = new java.util.HashMap<>();
     inventory.put("isAvailable", variant.isAvailable());
     inventory.put("sku", variant.getSku());
-    inventory.put("stockQuantity", variant.getStockQuantity());
+    // Variant chia shard giữ tồn kho trong các shard, document chính để 0
+    inventory.put("stockQuantity", variant.isStockSharded() ? 0 : variant.getStockQuantity());
+    inventory.put("shardCount", variant.getStockShardCount());
     map.put("inventory", inventory);
 
     return map;
@@ -1,13 +1,13 @@
 package com.example.phoneshopapp.managers;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.example.phoneshopapp.models.Address;
 import com.example.phoneshopapp.repositories.AddressRepository;
 import com.example.phoneshopapp.repositories.callbacks.AddressesCallback;
 import com.example.phoneshopapp.repositories.callbacks.AddressCallback;
 import com.example.phoneshopapp.repositories.callbacks.UpdateCallback;
+import com.example.phoneshopapp.utils.AppLog;
 
 import java.util.Date;
 import java.util.List;
@@ -27,11 +27,11 @@ public class AddressManager {
         this.context = context.getApplicationContext();
         try {
             // Use simple Firebase implementation instead of null
-            Log.d(TAG, "Initializing SimpleFirebaseAddressRepository");
+            AppLog.d(TAG, "Initializing SimpleFirebaseAddressRepository");
             this.addressRepository = new com.example.phoneshopapp.repositories.SimpleFirebaseAddressRepository();
-            Log.d(TAG, "SimpleFirebaseAddressRepository initialized successfully");
+            AppLog.d(TAG, "SimpleFirebaseAddressRepository initialized successfully");
         } catch (Exception e) {
-            Log.e(TAG, "Failed to initialize SimpleFirebaseAddressRepository", e);
+            AppLog.e(TAG, "Failed to initialize SimpleFirebaseAddressRepository", e);
             throw new RuntimeException("Failed to initialize AddressRepository", e);
         }
     }
@@ -276,7 +276,7 @@ public class AddressManager {
 
                             @Override
                             public void onError(String errorMessage) {
-                                Log.w(TAG, "Failed to update address: " + errorMessage);
+                                AppLog.w(TAG, "Failed to update address: " + errorMessage);
                             }
                         });
                     }
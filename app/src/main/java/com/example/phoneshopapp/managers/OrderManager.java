@@ -1,7 +1,6 @@
 package com.example.phoneshopapp.managers;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.example.phoneshopapp.models.Order;
 import com.example.phoneshopapp.models.OrderItem;
@@ -9,6 +8,7 @@ import com.example.phoneshopapp.models.OrderStatus;
 import com.example.phoneshopapp.models.PaymentStatus;
 import com.example.phoneshopapp.models.CartItem;
 import com.example.phoneshopapp.models.CustomerInfo;
+import com.example.phoneshopapp.models.Money;
 import com.example.phoneshopapp.models.PricingInfo;
 import com.example.phoneshopapp.models.PaymentInfo;
 import com.example.phoneshopapp.models.PaymentMethod;
@@ -18,13 +18,14 @@ import com.example.phoneshopapp.repositories.callbacks.OrderCreationCallback;
 import com.example.phoneshopapp.repositories.callbacks.OrderCallback;
 import com.example.phoneshopapp.repositories.callbacks.OrdersCallback;
 import com.example.phoneshopapp.repositories.callbacks.UpdateCallback;
-import com.example.phoneshopapp.data.cart.CartManager;
-import com.example.phoneshopapp.data.cart.CartRepository;
+import com.example.phoneshopapp.utils.AppLog;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Singleton class quản lý logic đơn hàng
@@ -34,6 +35,8 @@ public class OrderManager {
     private static final String TAG = "OrderManager";
     private static final double SHIPPING_FEE = 30000.0; // Fixed shipping fee: 30,000 VND
     private static final int ESTIMATED_DELIVERY_DAYS = 3; // 3 days delivery time
+    private static final Set<OrderStatus> CANCELLABLE_STATUSES =
+            EnumSet.of(OrderStatus.PENDING, OrderStatus.CONFIRMED);
 
     private static OrderManager instance;
     private final OrderRepository orderRepository;
@@ -67,7 +70,7 @@ public class OrderManager {
             return;
         }
         
-        Log.d(TAG, "Creating order with " + cartItems.size() + " items");
+        AppLog.d(TAG, () -> "Creating order with " + cartItems.size() + " items");
 
         // Validate customer info
         if (!isValidCustomerInfo(customerInfo)) {
@@ -100,42 +103,26 @@ public class OrderManager {
         order.setOrderStatus(OrderStatus.PENDING);
         order.setEstimatedDelivery(calculateEstimatedDelivery());
         
-        // Create order in repository
-        orderRepository.createOrder(order, new OrderCreationCallback() {
+        // Dòng giỏ hàng được dùng cho đơn này
+        List<String> cartItemIds = new ArrayList<>();
+        for (CartItem item : cartItems) {
+            if (item.getId() != null) {
+                cartItemIds.add(item.getId());
+            }
+        }
+
+        // Trừ tồn kho, tạo đơn và xóa dòng giỏ hàng trong cùng một transaction;
+        // CartManager nhận các dòng bị xóa qua snapshot listener
+        orderRepository.placeOrder(order, cartItemIds, new OrderCreationCallback() {
             @Override
             public void onSuccess(Order createdOrder) {
-                Log.d(TAG, "Order created successfully: " + createdOrder.getOrderId());
-                
-                // Clear the items that were used for this order
-                CartManager cartManager = CartManager.getInstance();
-                List<String> itemIdsToRemove = new ArrayList<>();
-                for (CartItem item : cartItems) {
-                    if (item.getId() != null) {
-                        itemIdsToRemove.add(item.getId());
-                    }
-                }
-                
-                if (!itemIdsToRemove.isEmpty()) {
-                    cartManager.getCartRepository().deleteMultipleItems(itemIdsToRemove, new CartRepository.OnCartOperationListener() {
-                        @Override
-                        public void onSuccess() {
-                            Log.d(TAG, "Cart items cleared after order creation: " + itemIdsToRemove.size() + " items");
-                            cartManager.refreshCart(); // Refresh to update UI
-                        }
-
-                        @Override
-                        public void onFailure(Exception e) {
-                            Log.w(TAG, "Failed to clear cart items: " + e.getMessage());
-                        }
-                    });
-                }
-                
+                AppLog.d(TAG, () -> "Order created successfully: " + createdOrder.getOrderId());
                 callback.onSuccess(createdOrder);
             }
 
             @Override
             public void onError(String errorMessage) {
-                Log.e(TAG, "Failed to create order: " + errorMessage);
+                AppLog.e(TAG, "Failed to create order: " + errorMessage);
                 callback.onError(errorMessage);
             }
         });
@@ -220,22 +207,8 @@ public class OrderManager {
             return;
         }
         
-        // First check if order can be cancelled
-        orderRepository.getOrderById(orderId, new OrderCallback() {
-            @Override
-            public void onSuccess(Order order) {
-                if (canCancelOrder(order)) {
-                    orderRepository.updateOrderStatus(orderId, OrderStatus.CANCELLED, callback);
-                } else {
-                    callback.onError("Không thể hủy đơn hàng ở trạng thái hiện tại");
-                }
-            }
-
-            @Override
-            public void onError(String errorMessage) {
-                callback.onError(errorMessage);
-            }
-        });
+        // Kiểm tra trạng thái và hủy trong cùng một transaction
+        orderRepository.transitionOrderStatus(orderId, CANCELLABLE_STATUSES, OrderStatus.CANCELLED, callback);
     }
 
     /**
@@ -291,21 +264,13 @@ public class OrderManager {
     }
 
     private PricingInfo calculatePricing(List<OrderItem> orderItems) {
-        double subtotal = 0.0;
+        long subtotal = 0L;
         for (OrderItem item : orderItems) {
-            subtotal += item.getTotalPrice();
+            subtotal += item.getTotalDong();
         }
-        
-        double discount = 0.0; // No discount for now
-        double total = subtotal + SHIPPING_FEE - discount;
-        
-        PricingInfo pricingInfo = new PricingInfo();
-        pricingInfo.setSubtotal(subtotal);
-        pricingInfo.setShippingFee(SHIPPING_FEE);
-        pricingInfo.setDiscount(discount);
-        pricingInfo.setTotal(total);
-        
-        return pricingInfo;
+
+        Money discount = Money.ZERO; // No discount for now
+        return new PricingInfo(Money.ofDong(subtotal), Money.fromDouble(SHIPPING_FEE), discount);
     }
 
     private Date calculateEstimatedDelivery() {
@@ -314,11 +279,6 @@ public class OrderManager {
         return calendar.getTime();
     }
 
-    private boolean canCancelOrder(Order order) {
-        OrderStatus status = order.getOrderStatus();
-        return status == OrderStatus.PENDING || status == OrderStatus.CONFIRMED;
-    }
-
     private String getUserId() {
         // Get current user ID from UserManager
         com.example.phoneshopapp.UserManager userManager = 
@@ -1,13 +1,13 @@
 package com.example.phoneshopapp.managers;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.example.phoneshopapp.models.Order;
 import com.example.phoneshopapp.models.PaymentInfo;
 import com.example.phoneshopapp.models.PaymentMethod;
 import com.example.phoneshopapp.models.PaymentStatus;
 import com.example.phoneshopapp.repositories.callbacks.PaymentCallback;
+import com.example.phoneshopapp.utils.AppLog;
 
 import java.util.Date;
 import java.util.Random;
@@ -41,7 +41,7 @@ public class PaymentManager {
      * @param callback Callback for success/error handling
      */
     public void processCODPayment(Order order, PaymentCallback callback) {
-        Log.d(TAG, "Processing COD payment for order: " + order.getOrderId());
+        AppLog.d(TAG, () -> "Processing COD payment for order: " + order.getOrderId());
         
         if (!validatePaymentInfo(order.getPaymentInfo())) {
             callback.onError("Thông tin thanh toán không hợp lệ");
@@ -58,11 +58,11 @@ public class PaymentManager {
                 updatedPaymentInfo.setStatus(PaymentStatus.PENDING); // COD remains pending until delivery
                 updatedPaymentInfo.setTransactionId("COD_" + order.getOrderId());
                 
-                Log.d(TAG, "COD payment processed successfully");
+                AppLog.d(TAG, "COD payment processed successfully");
                 callback.onSuccess(updatedPaymentInfo);
                 
             } catch (InterruptedException e) {
-                Log.e(TAG, "COD payment processing interrupted", e);
+                AppLog.e(TAG, "COD payment processing interrupted", e);
                 callback.onError("Lỗi xử lý thanh toán COD");
             }
         }).start();
@@ -74,7 +74,7 @@ public class PaymentManager {
      * @param callback Callback for success/error handling
      */
     public void processBankTransfer(Order order, PaymentCallback callback) {
-        Log.d(TAG, "Processing bank transfer payment for order: " + order.getOrderId());
+        AppLog.d(TAG, () -> "Processing bank transfer payment for order: " + order.getOrderId());
         
         if (!validatePaymentInfo(order.getPaymentInfo())) {
             callback.onError("Thông tin thanh toán không hợp lệ");
@@ -96,17 +96,17 @@ public class PaymentManager {
                     updatedPaymentInfo.setPaidAt(new Date());
                     updatedPaymentInfo.setTransactionId("BANK_" + generateTransactionId());
                     
-                    Log.d(TAG, "Bank transfer payment successful");
+                    AppLog.d(TAG, "Bank transfer payment successful");
                     callback.onSuccess(updatedPaymentInfo);
                 } else {
                     updatedPaymentInfo.setStatus(PaymentStatus.FAILED);
                     
-                    Log.w(TAG, "Bank transfer payment failed");
+                    AppLog.w(TAG, "Bank transfer payment failed");
                     callback.onError("Giao dịch chuyển khoản thất bại. Vui lòng thử lại sau.");
                 }
                 
             } catch (InterruptedException e) {
-                Log.e(TAG, "Bank transfer processing interrupted", e);
+                AppLog.e(TAG, "Bank transfer processing interrupted", e);
                 callback.onError("Lỗi xử lý thanh toán chuyển khoản");
             }
         }).start();
@@ -118,7 +118,7 @@ public class PaymentManager {
      * @param callback Callback for success/error handling
      */
     public void processEWalletPayment(Order order, PaymentCallback callback) {
-        Log.d(TAG, "Processing e-wallet payment for order: " + order.getOrderId());
+        AppLog.d(TAG, () -> "Processing e-wallet payment for order: " + order.getOrderId());
         
         if (!validatePaymentInfo(order.getPaymentInfo())) {
             callback.onError("Thông tin thanh toán không hợp lệ");
@@ -140,17 +140,17 @@ public class PaymentManager {
                     updatedPaymentInfo.setPaidAt(new Date());
                     updatedPaymentInfo.setTransactionId("EWALLET_" + generateTransactionId());
                     
-                    Log.d(TAG, "E-wallet payment successful");
+                    AppLog.d(TAG, "E-wallet payment successful");
                     callback.onSuccess(updatedPaymentInfo);
                 } else {
                     updatedPaymentInfo.setStatus(PaymentStatus.FAILED);
                     
-                    Log.w(TAG, "E-wallet payment failed");
+                    AppLog.w(TAG, "E-wallet payment failed");
                     callback.onError("Thanh toán ví điện tử thất bại. Vui lòng kiểm tra số dư và thử lại.");
                 }
                 
             } catch (InterruptedException e) {
-                Log.e(TAG, "E-wallet processing interrupted", e);
+                AppLog.e(TAG, "E-wallet processing interrupted", e);
                 callback.onError("Lỗi xử lý thanh toán ví điện tử");
             }
         }).start();
@@ -163,12 +163,12 @@ public class PaymentManager {
      */
     public boolean validatePaymentInfo(PaymentInfo paymentInfo) {
         if (paymentInfo == null) {
-            Log.w(TAG, "Payment info is null");
+            AppLog.w(TAG, "Payment info is null");
             return false;
         }
 
         if (paymentInfo.getMethod() == null) {
-            Log.w(TAG, "Payment method is null");
+            AppLog.w(TAG, "Payment method is null");
             return false;
         }
 
@@ -187,7 +187,7 @@ public class PaymentManager {
                 return true;
                 
             default:
-                Log.w(TAG, "Unknown payment method: " + paymentInfo.getMethod());
+                AppLog.w(TAG, "Unknown payment method: " + paymentInfo.getMethod());
                 return false;
         }
     }
@@ -288,7 +288,7 @@ public class PaymentManager {
             return;
         }
 
-        Log.d(TAG, "Processing refund for order: " + order.getOrderId());
+        AppLog.d(TAG, () -> "Processing refund for order: " + order.getOrderId());
 
         // Simulate refund processing
         new Thread(() -> {
@@ -299,11 +299,11 @@ public class PaymentManager {
                 PaymentInfo updatedPaymentInfo = order.getPaymentInfo();
                 updatedPaymentInfo.setTransactionId("REFUND_" + updatedPaymentInfo.getTransactionId());
                 
-                Log.d(TAG, "Refund processed successfully");
+                AppLog.d(TAG, "Refund processed successfully");
                 callback.onSuccess(updatedPaymentInfo);
                 
             } catch (InterruptedException e) {
-                Log.e(TAG, "Refund processing interrupted", e);
+                AppLog.e(TAG, "Refund processing interrupted", e);
                 callback.onError("Lỗi xử lý hoàn tiền");
             }
         }).start();
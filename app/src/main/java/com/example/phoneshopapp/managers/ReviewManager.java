@@ -1,7 +1,6 @@
 package com.example.phoneshopapp.managers;
 
 import android.content.Context;
-import android.util.Log;
 
 import com.example.phoneshopapp.models.Review;
 import com.example.phoneshopapp.repositories.ReviewRepository;
@@ -9,6 +8,7 @@ import com.example.phoneshopapp.repositories.impl.ReviewRepositoryImpl;
 import com.example.phoneshopapp.repositories.callbacks.BooleanCallback;
 import com.example.phoneshopapp.repositories.callbacks.ReviewCallback;
 import com.example.phoneshopapp.repositories.callbacks.ReviewListCallback;
+import com.example.phoneshopapp.utils.AppLog;
 
 import java.util.List;
 
@@ -63,7 +63,7 @@ public class ReviewManager {
         // 1. Validate input
         String validationError = validateReviewInput(review);
         if (validationError != null) {
-            Log.w(TAG, "Review validation failed: " + validationError);
+            AppLog.w(TAG, "Review validation failed: " + validationError);
             callback.onError(validationError);
             return;
         }
@@ -75,18 +75,18 @@ public class ReviewManager {
             public void onResult(boolean hasReviewed) {
                 if (hasReviewed) {
                     // Đã review rồi - không cho submit
-                    Log.w(TAG, "Order already reviewed: " + orderId);
+                    AppLog.w(TAG, "Order already reviewed: " + orderId);
                     callback.onError("Đơn hàng này đã được đánh giá rồi");
                 } else {
                     // Chưa review - cho phép submit
-                    Log.d(TAG, "Submitting review for orderId: " + orderId);
+                    AppLog.d(TAG, () -> "Submitting review for orderId: " + orderId);
                     reviewRepository.createReview(review, callback);
                 }
             }
 
             @Override
             public void onError(String error) {
-                Log.e(TAG, "Error checking order review status", new Exception(error));
+                AppLog.e(TAG, "Error checking order review status: " + error);
                 callback.onError("Lỗi kiểm tra đánh giá: " + error);
             }
         });
@@ -160,7 +160,7 @@ public class ReviewManager {
             return;
         }
 
-        Log.d(TAG, "Loading reviews for productId: " + productId);
+        AppLog.d(TAG, () -> "Loading reviews for productId: " + productId);
         reviewRepository.getReviewsByProductId(productId, callback);
     }
 
@@ -176,7 +176,7 @@ public class ReviewManager {
             return;
         }
 
-        Log.d(TAG, "Loading reviews for userId: " + userId);
+        AppLog.d(TAG, () -> "Loading reviews for userId: " + userId);
         reviewRepository.getUserReviews(userId, callback);
     }
 
@@ -202,13 +202,13 @@ public class ReviewManager {
                 // hasReviewed = false → canReview = true
                 boolean canReview = !hasReviewed;
                 
-                Log.d(TAG, String.format("Check canReview: orderId=%s, canReview=%b", orderId, canReview));
+                AppLog.d(TAG, () -> String.format("Check canReview: orderId=%s, canReview=%b", orderId, canReview));
                 callback.onResult(canReview);
             }
 
             @Override
             public void onError(String error) {
-                Log.e(TAG, "Error checking canReview for orderId: " + orderId, new Exception(error));
+                AppLog.e(TAG, "Error checking canReview for orderId " + orderId + ": " + error);
                 callback.onError(error);
             }
         });
@@ -2,6 +2,7 @@ package com.example.phoneshopapp.models;
 
 import java.util.Date;
 import android.util.Log;
+import com.google.firebase.firestore.Exclude;
 
 public class CartItem {
   private String id; // Firestore document ID
@@ -264,7 +265,18 @@ public class CartItem {
 
   // Helper methods
   public double getTotalPrice() {
-    return productPriceValue * quantity;
+    return getTotalDong();
+  }
+
+  // Thành tiền dạng long đồng, cộng dồn không sai số
+  @Exclude
+  public long getTotalDong() {
+    return Money.toDong(productPriceValue) * quantity;
+  }
+
+  @Exclude
+  public Money getTotalMoney() {
+    return Money.ofDong(getTotalDong());
   }
 
   public void increaseQuantity(int amount) {
@@ -0,0 +1,145 @@
+package com.example.phoneshopapp.models;
+
+/**
+ * Số tiền VND, lưu dưới dạng long đồng để cộng/so sánh chính xác.
+ *
+ * Các model vẫn giữ field double cho Firestore; Money chỉ dùng khi tính toán.
+ * Những vòng lặp nóng (tổng giỏ hàng, sort) nên cộng trực tiếp trên long qua
+ * {@link #parseDong(CharSequence)} / {@link #toDong(double)} để không tạo object.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0L);
+
+    private final long dong;
+
+    private Money(long dong) {
+        this.dong = dong;
+    }
+
+    public static Money ofDong(long dong) {
+        return dong == 0L ? ZERO : new Money(dong);
+    }
+
+    // Giá trị double từ Firestore (luôn là số đồng nguyên) -> Money
+    public static Money fromDouble(double value) {
+        return ofDong(toDong(value));
+    }
+
+    public static Money parse(CharSequence text) {
+        return ofDong(parseDong(text));
+    }
+
+    public static long toDong(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return 0L;
+        }
+        return Math.round(value);
+    }
+
+    /**
+     * Parse giá hiển thị ("₫25.990.000", "25,990,000 VND", "25990000", "$999.99") thành số đồng
+     * mà không cấp phát object.
+     *
+     * Dấu '.', ',' hoặc khoảng trắng theo sau đúng 3 chữ số là phân cách hàng nghìn;
+     * '.' hoặc ',' theo sau 1-2 chữ số là phần thập phân (làm tròn). Ký tự khác trước số
+     * (ký hiệu tiền tệ, chữ) được bỏ qua, sau số thì kết thúc. Trả về 0 nếu không có chữ số.
+     */
+    public static long parseDong(CharSequence text) {
+        if (text == null) {
+            return 0L;
+        }
+        final int length = text.length();
+        long value = 0L;
+        boolean seenDigit = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (value > (Long.MAX_VALUE - 9) / 10) {
+                    return Long.MAX_VALUE;
+                }
+                value = value * 10 + (c - '0');
+                seenDigit = true;
+                continue;
+            }
+            if (!seenDigit) {
+                continue;
+            }
+
+            boolean decimalMark = c == '.' || c == ',';
+            if (!decimalMark && c != ' ' && c != '\u00A0' && c != '\u202F') {
+                break;
+            }
+
+            int digits = countDigits(text, i + 1);
+            if (digits == 3) {
+                continue; // phân cách hàng nghìn, các chữ số sẽ được đọc ở vòng sau
+            }
+            if (decimalMark && digits > 0 && text.charAt(i + 1) >= '5') {
+                value++;
+            }
+            break;
+        }
+        return value;
+    }
+
+    private static int countDigits(CharSequence text, int from) {
+        int end = from;
+        while (end < text.length() && text.charAt(end) >= '0' && text.charAt(end) <= '9') {
+            end++;
+        }
+        return end - from;
+    }
+
+    public long getDong() {
+        return dong;
+    }
+
+    public double toDouble() {
+        return dong;
+    }
+
+    public Money plus(Money other) {
+        return ofDong(Math.addExact(dong, other.dong));
+    }
+
+    public Money minus(Money other) {
+        return ofDong(Math.subtractExact(dong, other.dong));
+    }
+
+    public Money times(int quantity) {
+        return ofDong(Math.multiplyExact(dong, (long) quantity));
+    }
+
+    public boolean isPositive() {
+        return dong > 0;
+    }
+
+    public boolean isZero() {
+        return dong == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(dong, other.dong);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        return dong == ((Money) o).dong;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(dong);
+    }
+
+    // Dạng "₫25990000", giống String.format("₫%.0f") đang dùng trong app
+    @Override
+    public String toString() {
+        return "₫" + dong;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.phoneshopapp.models;
 
+import com.example.phoneshopapp.utils.DisplayFormatter;
+import com.google.firebase.firestore.Exclude;
+
 public class OrderItem {
     private String productId;
     private String productName;
@@ -28,7 +31,7 @@ public class OrderItem {
         this.price = price;
         this.quantity = quantity;
         this.imageUrl = imageUrl;
-        this.totalPrice = price * quantity;
+        this.totalPrice = Money.toDong(price) * quantity;
     }
 
     // Getters and setters
@@ -54,7 +57,7 @@ public class OrderItem {
 
     public void setPrice(double price) {
         this.price = price;
-        this.totalPrice = price * quantity;
+        this.totalPrice = Money.toDong(price) * quantity;
     }
 
     public int getQuantity() {
@@ -63,7 +66,7 @@ public class OrderItem {
 
     public void setQuantity(int quantity) {
         this.quantity = quantity;
-        this.totalPrice = price * quantity;
+        this.totalPrice = Money.toDong(price) * quantity;
     }
 
     public String getImageUrl() {
@@ -82,6 +85,12 @@ public class OrderItem {
         this.totalPrice = totalPrice;
     }
 
+    // Thành tiền dạng long đồng cho việc cộng tổng đơn hàng
+    @Exclude
+    public long getTotalDong() {
+        return Money.toDong(totalPrice);
+    }
+
     // Variant getters and setters
     public String getVariantId() {
         return variantId;
@@ -141,15 +150,15 @@ public class OrderItem {
 
     // Helper methods
     public String getFormattedPrice() {
-        return String.format("₫%.0f", price);
+        return DisplayFormatter.price(price);
     }
 
     public String getFormattedTotalPrice() {
-        return String.format("₫%.0f", totalPrice);
+        return DisplayFormatter.price(totalPrice);
     }
 
     public void calculateTotalPrice() {
-        this.totalPrice = price * quantity;
+        this.totalPrice = Money.toDong(price) * quantity;
     }
 
     // Convert from CartItem
@@ -1,5 +1,8 @@
 package com.example.phoneshopapp.models;
 
+import com.example.phoneshopapp.utils.DisplayFormatter;
+import com.google.firebase.firestore.Exclude;
+
 public class PricingInfo {
     private double subtotal;
     private double shippingFee;
@@ -14,7 +17,11 @@ public class PricingInfo {
         this.subtotal = subtotal;
         this.shippingFee = shippingFee;
         this.discount = discount;
-        this.total = subtotal + shippingFee - discount;
+        calculateTotal();
+    }
+
+    public PricingInfo(Money subtotal, Money shippingFee, Money discount) {
+        this(subtotal.toDouble(), shippingFee.toDouble(), discount.toDouble());
     }
 
     // Getters and setters
@@ -41,23 +48,29 @@ public class PricingInfo {
 
     // Helper methods
     public void calculateTotal() {
-        this.total = subtotal + shippingFee - discount;
+        // Cộng trên long đồng để tổng không bị sai số double
+        this.total = Money.toDong(subtotal) + Money.toDong(shippingFee) - Money.toDong(discount);
+    }
+
+    @Exclude
+    public Money getTotalMoney() {
+        return Money.fromDouble(total);
     }
 
     public String getFormattedSubtotal() {
-        return String.format("₫%.0f", subtotal);
+        return DisplayFormatter.price(subtotal);
     }
 
     public String getFormattedShippingFee() {
-        return String.format("₫%.0f", shippingFee);
+        return DisplayFormatter.price(shippingFee);
     }
 
     public String getFormattedDiscount() {
-        return String.format("₫%.0f", discount);
+        return DisplayFormatter.price(discount);
     }
 
     public String getFormattedTotal() {
-        return String.format("₫%.0f", total);
+        return DisplayFormatter.price(total);
     }
 
     public boolean hasDiscount() {
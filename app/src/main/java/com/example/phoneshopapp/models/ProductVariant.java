@@ -25,6 +25,8 @@ public class ProductVariant {
   private boolean isAvailable;
   private String sku;
   private int stockQuantity;
+  // > 0: tồn kho nằm trong N shard (StockShards), stockQuantity là tổng các shard khi tải
+  private int stockShardCount;
 
   // Default constructor required for Firebase
   public ProductVariant() {
@@ -92,6 +94,14 @@ public class ProductVariant {
     return stockQuantity;
   }
 
+  public int getStockShardCount() {
+    return stockShardCount;
+  }
+
+  public boolean isStockSharded() {
+    return stockShardCount > 0;
+  }
+
   // Setters
   public void setVariantId(String variantId) {
     this.variantId = variantId;
@@ -137,6 +147,10 @@ public class ProductVariant {
     this.stockQuantity = stockQuantity;
   }
 
+  public void setStockShardCount(int stockShardCount) {
+    this.stockShardCount = stockShardCount;
+  }
+
   // Helper methods
   public boolean isInStock() {
     return isAvailable && stockQuantity > 0;
@@ -1,5 +1,6 @@
 package com.example.phoneshopapp.models;
 
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
@@ -282,7 +283,7 @@ public class Review {
      * @return String như "4.5"
      */
     public String getFormattedRating() {
-        return String.format(Locale.getDefault(), "%.1f", rating);
+        return DisplayFormatter.rating(rating);
     }
 
     /**
@@ -1,51 +1,122 @@
 package com.example.phoneshopapp.repositories;
 
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.phoneshopapp.data.variant.StockShards;
 import com.example.phoneshopapp.models.Order;
+import com.example.phoneshopapp.models.OrderItem;
 import com.example.phoneshopapp.models.OrderStatus;
 import com.example.phoneshopapp.models.PaymentStatus;
 import com.example.phoneshopapp.models.StatusHistory;
 import com.example.phoneshopapp.repositories.callbacks.OrderCreationCallback;
 import com.example.phoneshopapp.repositories.callbacks.OrderCallback;
+import com.example.phoneshopapp.repositories.callbacks.OrderIdCallback;
 import com.example.phoneshopapp.repositories.callbacks.OrdersCallback;
 import com.example.phoneshopapp.repositories.callbacks.UpdateCallback;
+import com.example.phoneshopapp.utils.AppLog;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.TransactionOptions;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class FirebaseOrderRepository implements OrderRepository {
     private static final String TAG = "FirebaseOrderRepository";
     private static final String COLLECTION_ORDERS = "orders";
-    private static final String COLLECTION_ORDER_SEQUENCE = "order_sequence";
-    private static final String SEQUENCE_DOC_ID = "counter";
+    private static final String COLLECTION_VARIANTS = "product_variants";
+    private static final String COLLECTION_CARTS = "carts";
+    private static final String FIELD_VARIANT_STOCK = "inventory.stockQuantity";
+
+    // runTransaction tự thử lại khi xung đột (backoff của SDK); khi hết lượt vẫn ABORTED thì
+    // chạy lại cả transaction thêm vài lần với backoff + jitter
+    private static final int TRANSACTION_MAX_ATTEMPTS = 5;
+    private static final int PLACE_ORDER_MAX_RUNS = 3;
+    private static final long PLACE_ORDER_BACKOFF_MS = 200;
+
+    // Mã cho lỗi nghiệp vụ ném từ trong transaction (hết hàng, giỏ hàng đã đổi, trạng thái
+    // đơn không cho phép). SDK tự chạy lại transaction khi gặp ABORTED/FAILED_PRECONDITION/
+    // ALREADY_EXISTS; OUT_OF_RANGE là lỗi vĩnh viễn nên bị từ chối là trả kết quả ngay
+    private static final FirebaseFirestoreException.Code REJECTION_CODE =
+            FirebaseFirestoreException.Code.OUT_OF_RANGE;
+
+    private static final Handler RETRY_HANDLER = new Handler(Looper.getMainLooper());
 
     private final FirebaseFirestore db;
     private final CollectionReference ordersRef;
-    private final CollectionReference sequenceRef;
+    private final OrderIdAllocator orderIds;
 
     public FirebaseOrderRepository() {
-        db = FirebaseFirestore.getInstance();
+        this(FirebaseFirestore.getInstance());
+    }
+
+    // Cho phép trỏ tới Firestore emulator trong instrumented test
+    public FirebaseOrderRepository(FirebaseFirestore db) {
+        this.db = db;
         ordersRef = db.collection(COLLECTION_ORDERS);
-        sequenceRef = db.collection(COLLECTION_ORDER_SEQUENCE);
+        orderIds = OrderIdAllocator.getInstance(db);
     }
 
     @Override
     public void createOrder(Order order, OrderCreationCallback callback) {
-        // Generate order ID if not set
-        if (order.getOrderId() == null || order.getOrderId().isEmpty()) {
-            order.setOrderId(generateOrderId());
+        withOrderId(order, callback, () -> writeNewOrder(order, callback));
+    }
+
+    private void writeNewOrder(Order order, OrderCreationCallback callback) {
+        prepareNewOrder(order);
+
+        // Convert order to Map for Firestore
+        Map<String, Object> orderData = orderToMap(order);
+
+        ordersRef.document(order.getOrderId())
+                .set(orderData)
+                .addOnSuccessListener(aVoid -> {
+                    AppLog.d(TAG, () -> "Order created successfully: " + order.getOrderId());
+                    callback.onSuccess(order);
+                })
+                .addOnFailureListener(e -> {
+                    AppLog.e(TAG, "Error creating order", e);
+                    callback.onError("Lỗi tạo đơn hàng: " + e.getMessage());
+                });
+    }
+
+    // Đơn chưa có mã thì lấy mã từ OrderIdAllocator (thường không cần round trip) rồi mới ghi
+    private void withOrderId(Order order, OrderCreationCallback callback, Runnable write) {
+        if (order.getOrderId() != null && !order.getOrderId().isEmpty()) {
+            write.run();
+            return;
         }
+        allocateOrderId(new OrderIdCallback() {
+            @Override
+            public void onSuccess(String orderId) {
+                order.setOrderId(orderId);
+                write.run();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                callback.onError(errorMessage);
+            }
+        });
+    }
 
+    // Timestamps and initial status history for a new order
+    private void prepareNewOrder(Order order) {
         // Set creation timestamp
         Date now = new Date();
         order.setCreatedAt(now);
@@ -58,20 +129,178 @@ public class FirebaseOrderRepository implements OrderRepository {
                 now,
                 "Đơn hàng được tạo"));
         order.setStatusHistory(statusHistory);
+    }
 
-        // Convert order to Map for Firestore
+    @Override
+    public void placeOrder(Order order, List<String> cartItemIds, OrderCreationCallback callback) {
+        withOrderId(order, callback, () -> reserveAndPlaceOrder(order, cartItemIds, callback));
+    }
+
+    private void reserveAndPlaceOrder(Order order, List<String> cartItemIds, OrderCreationCallback callback) {
+        prepareNewOrder(order);
         Map<String, Object> orderData = orderToMap(order);
 
-        ordersRef.document(order.getOrderId())
-                .set(orderData)
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Order created successfully: " + order.getOrderId());
-                    callback.onSuccess(order);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error creating order", e);
-                    callback.onError("Lỗi tạo đơn hàng: " + e.getMessage());
-                });
+        Map<String, Integer> variantQuantities = variantQuantities(order.getItems());
+        Map<String, String> variantNames = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            if (item.getVariantId() != null) {
+                variantNames.put(item.getVariantId(), item.getProductName()
+                        + (item.getVariantShortName() != null ? " (" + item.getVariantShortName() + ")" : ""));
+            }
+        }
+
+        runPlaceOrder(order, orderData, variantQuantities, variantNames, cartItemIds, 1, callback);
+    }
+
+    // Gộp số lượng theo variant: nhiều dòng cùng variant chỉ đọc/ghi một document
+    private static Map<String, Integer> variantQuantities(List<OrderItem> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        if (items == null) {
+            return quantities;
+        }
+        for (OrderItem item : items) {
+            if (item.getVariantId() == null) {
+                continue;
+            }
+            Integer current = quantities.get(item.getVariantId());
+            quantities.put(item.getVariantId(), (current != null ? current : 0) + item.getQuantity());
+        }
+        return quantities;
+    }
+
+    private void runPlaceOrder(Order order, Map<String, Object> orderData, Map<String, Integer> variantQuantities,
+                               Map<String, String> variantNames, List<String> cartItemIds, int run,
+                               OrderCreationCallback callback) {
+        TransactionOptions options = new TransactionOptions.Builder()
+                .setMaxAttempts(TRANSACTION_MAX_ATTEMPTS)
+                .build();
+
+        db.runTransaction(options, transaction -> {
+            // Lần chạy trước đã commit nhưng mất phản hồi (UNAVAILABLE, SDK hoặc RETRY_HANDLER
+            // chạy lại): mã đơn cố định từ trước lần đầu nên đơn đã tồn tại nghĩa là đã đặt xong
+            DocumentReference orderRef = ordersRef.document(order.getOrderId());
+            if (transaction.get(orderRef).exists()) {
+                return null;
+            }
+
+            // Tất cả lệnh đọc phải đứng trước lệnh ghi
+            Map<DocumentReference, Long> stockByRef = new LinkedHashMap<>();
+            Map<DocumentReference, Long> shardStockByRef = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : variantQuantities.entrySet()) {
+                DocumentReference variantRef = db.collection(COLLECTION_VARIANTS).document(entry.getKey());
+                DocumentSnapshot variant = transaction.get(variantRef);
+                Boolean available = variant.getBoolean("inventory.isAvailable");
+                boolean sellable = variant.exists() && !Boolean.FALSE.equals(available);
+
+                // SKU hot chia shard: chỉ đọc/ghi vài shard thay vì document variant
+                int shardCount = StockShards.shardCount(variant);
+                if (sellable && shardCount > 0) {
+                    StockShards.Reservation reservation = StockShards.reserve(transaction, db, entry.getKey(),
+                            shardCount, entry.getValue());
+                    if (!reservation.isSatisfied()) {
+                        throw new InsufficientStockException(variantNames.get(entry.getKey()), entry.getValue(),
+                                reservation.available);
+                    }
+                    shardStockByRef.putAll(reservation.newStock);
+                    continue;
+                }
+
+                Long stock = variant.getLong(FIELD_VARIANT_STOCK);
+                long inStock = sellable && stock != null ? stock : 0L;
+                if (inStock < entry.getValue()) {
+                    throw new InsufficientStockException(variantNames.get(entry.getKey()), entry.getValue(), inStock);
+                }
+                stockByRef.put(variantRef, inStock - entry.getValue());
+            }
+
+            // Dòng giỏ hàng đã bị xóa (đơn trùng do bấm hai lần, thiết bị khác đã đặt) thì dừng
+            List<DocumentReference> cartRefs = new ArrayList<>();
+            for (String cartItemId : cartItemIds) {
+                DocumentReference cartRef = db.collection(COLLECTION_CARTS).document(cartItemId);
+                if (!transaction.get(cartRef).exists()) {
+                    throw new FirebaseFirestoreException("Giỏ hàng đã thay đổi, vui lòng kiểm tra lại",
+                            REJECTION_CODE);
+                }
+                cartRefs.add(cartRef);
+            }
+
+            for (Map.Entry<DocumentReference, Long> entry : stockByRef.entrySet()) {
+                transaction.update(entry.getKey(), FIELD_VARIANT_STOCK, entry.getValue());
+            }
+            for (Map.Entry<DocumentReference, Long> entry : shardStockByRef.entrySet()) {
+                transaction.update(entry.getKey(), StockShards.FIELD_STOCK, entry.getValue());
+            }
+            transaction.set(orderRef, orderData);
+            for (DocumentReference cartRef : cartRefs) {
+                transaction.delete(cartRef);
+            }
+            return null;
+        }).addOnSuccessListener(result -> {
+            AppLog.d(TAG, () -> "Order placed: " + order.getOrderId() + " (" + variantQuantities.size()
+                    + " variants reserved, " + cartItemIds.size() + " cart lines consumed)");
+            callback.onSuccess(order);
+        }).addOnFailureListener(e -> {
+            FirebaseFirestoreException rejected = findRejection(e);
+            if (rejected != null) {
+                AppLog.w(TAG, "Order rejected: " + rejected.getMessage());
+                callback.onError(rejected.getMessage());
+                return;
+            }
+            if (isContention(e) && run < PLACE_ORDER_MAX_RUNS) {
+                long delay = (PLACE_ORDER_BACKOFF_MS << (run - 1))
+                        + ThreadLocalRandom.current().nextLong(PLACE_ORDER_BACKOFF_MS);
+                AppLog.w(TAG, "Order transaction contended (run " + run + "), retrying in " + delay + "ms");
+                RETRY_HANDLER.postDelayed(() -> runPlaceOrder(order, orderData, variantQuantities, variantNames,
+                        cartItemIds, run + 1, callback), delay);
+                return;
+            }
+            AppLog.e(TAG, "Error placing order", e);
+            callback.onError("Lỗi tạo đơn hàng: " + e.getMessage());
+        });
+    }
+
+    // Lỗi nghiệp vụ ném từ trong transaction (hết hàng, giỏ hàng đã đổi), có thể bị bọc trong cause
+    private static FirebaseFirestoreException findRejection(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof FirebaseFirestoreException
+                    && ((FirebaseFirestoreException) t).getCode() == REJECTION_CODE) {
+                return (FirebaseFirestoreException) t;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isContention(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) {
+            return false;
+        }
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.ABORTED
+                || code == FirebaseFirestoreException.Code.UNAVAILABLE;
+    }
+
+    /**
+     * Không đủ tồn kho cho một variant; transaction dừng mà không ghi gì
+     */
+    public static class InsufficientStockException extends FirebaseFirestoreException {
+        private final long requested;
+        private final long available;
+
+        InsufficientStockException(String name, long requested, long available) {
+            super(available > 0
+                    ? name + " chỉ còn " + available + " sản phẩm"
+                    : name + " đã hết hàng", REJECTION_CODE);
+            this.requested = requested;
+            this.available = available;
+        }
+
+        public long getRequested() {
+            return requested;
+        }
+
+        public long getAvailable() {
+            return available;
+        }
     }
 
     @Override
@@ -85,7 +314,7 @@ public class FirebaseOrderRepository implements OrderRepository {
                             Order order = documentToOrder(document);
                             orders.add(order);
                         } catch (Exception e) {
-                            Log.e(TAG, "Error converting document to Order: " + document.getId(), e);
+                            AppLog.e(TAG, "Error converting document to Order: " + document.getId(), e);
                         }
                     }
 
@@ -100,11 +329,11 @@ public class FirebaseOrderRepository implements OrderRepository {
                         return o2.getCreatedAt().compareTo(o1.getCreatedAt());
                     });
 
-                    Log.d(TAG, "Retrieved " + orders.size() + " orders for user: " + userId);
+                    AppLog.d(TAG, () -> "Retrieved " + orders.size() + " orders for user: " + userId);
                     callback.onSuccess(orders);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting user orders", e);
+                    AppLog.e(TAG, "Error getting user orders", e);
                     callback.onError("Lỗi tải danh sách đơn hàng: " + e.getMessage());
                 });
     }
@@ -120,12 +349,7 @@ public class FirebaseOrderRepository implements OrderRepository {
         // Convert orderStatus from String to enum
         String statusStr = document.getString("orderStatus");
         if (statusStr != null) {
-            try {
-                order.setOrderStatus(OrderStatus.valueOf(statusStr));
-            } catch (IllegalArgumentException e) {
-                Log.e(TAG, "Invalid order status: " + statusStr);
-                order.setOrderStatus(OrderStatus.PENDING);
-            }
+            order.setOrderStatus(parseOrderStatus(statusStr));
         }
 
         // Convert dates
@@ -170,74 +394,147 @@ public class FirebaseOrderRepository implements OrderRepository {
                     if (documentSnapshot.exists()) {
                         try {
                             Order order = documentToOrder(documentSnapshot);
-                            Log.d(TAG, "Order retrieved: " + orderId);
+                            AppLog.d(TAG, () -> "Order retrieved: " + orderId);
                             callback.onSuccess(order);
                         } catch (Exception e) {
-                            Log.e(TAG, "Error converting order", e);
+                            AppLog.e(TAG, "Error converting order", e);
                             callback.onError("Lỗi xử lý thông tin đơn hàng");
                         }
                     } else {
-                        Log.w(TAG, "Order not found: " + orderId);
+                        AppLog.w(TAG, "Order not found: " + orderId);
                         callback.onError("Không tìm thấy đơn hàng");
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting order", e);
+                    AppLog.e(TAG, "Error getting order", e);
                     callback.onError("Lỗi tải thông tin đơn hàng: " + e.getMessage());
                 });
     }
 
     @Override
     public void updateOrderStatus(String orderId, OrderStatus status, UpdateCallback callback) {
-        DocumentReference orderRef = ordersRef.document(orderId);
-
-        // First get the current order to update status history
-        orderRef.get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        Order order = documentSnapshot.toObject(Order.class);
-                        if (order != null) {
-                            // Update order status
-                            order.setOrderStatus(status);
-                            order.setUpdatedAt(new Date());
-
-                            // Add to status history
-                            List<StatusHistory> statusHistory = order.getStatusHistory();
-                            if (statusHistory == null) {
-                                statusHistory = new ArrayList<>();
-                            }
-                            statusHistory.add(new StatusHistory(
-                                    status,
-                                    new Date(),
-                                    "Cập nhật trạng thái: " + status.getDisplayName()));
-                            order.setStatusHistory(statusHistory);
-
-                            // Update in Firestore
-                            Map<String, Object> updates = new HashMap<>();
-                            updates.put("orderStatus", status.name());
-                            updates.put("updatedAt", new Date());
-                            updates.put("statusHistory", statusHistoryToMapList(statusHistory));
-
-                            orderRef.update(updates)
-                                    .addOnSuccessListener(aVoid -> {
-                                        Log.d(TAG, "Order status updated: " + orderId);
-                                        callback.onSuccess();
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Log.e(TAG, "Error updating order status", e);
-                                        callback.onError("Lỗi cập nhật trạng thái: " + e.getMessage());
-                                    });
-                        }
-                    } else {
-                        callback.onError("Không tìm thấy đơn hàng");
-                    }
+        // Hủy đơn phải hoàn kho trong cùng transaction, và chỉ một lần
+        if (status == OrderStatus.CANCELLED) {
+            transitionOrderStatus(orderId, EnumSet.complementOf(EnumSet.of(OrderStatus.CANCELLED)), status, callback);
+            return;
+        }
+        // Một lệnh ghi: không đọc lại đơn, lịch sử chỉ được nối thêm một phần tử nên các
+        // cập nhật đồng thời của admin không ghi đè lẫn nhau
+        ordersRef.document(orderId)
+                .update(statusUpdate(status))
+                .addOnSuccessListener(aVoid -> {
+                    AppLog.d(TAG, () -> "Order status updated: " + orderId + " -> " + status);
+                    callback.onSuccess();
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting order for status update", e);
+                    if (e instanceof FirebaseFirestoreException
+                            && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.NOT_FOUND) {
+                        callback.onError("Không tìm thấy đơn hàng");
+                        return;
+                    }
+                    AppLog.e(TAG, "Error updating order status", e);
                     callback.onError("Lỗi cập nhật trạng thái: " + e.getMessage());
                 });
     }
 
+    @Override
+    public void transitionOrderStatus(String orderId, Set<OrderStatus> allowedFrom, OrderStatus status,
+                                      UpdateCallback callback) {
+        DocumentReference orderRef = ordersRef.document(orderId);
+
+        // Chỉ khi trạng thái mới phụ thuộc trạng thái hiện tại mới cần transaction
+        db.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(orderRef);
+            if (!snapshot.exists()) {
+                throw new FirebaseFirestoreException("Không tìm thấy đơn hàng",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+            OrderStatus current = parseOrderStatus(snapshot.getString("orderStatus"));
+            if (!allowedFrom.contains(current)) {
+                throw new FirebaseFirestoreException("Đơn hàng đang ở trạng thái \"" + current.getDisplayName()
+                        + "\", không thể chuyển sang \"" + status.getDisplayName() + "\"",
+                        REJECTION_CODE);
+            }
+            // Chỉ hoàn kho khi đơn thực sự chuyển vào CANCELLED (đơn đã hủy bị chặn ở trên)
+            if (status == OrderStatus.CANCELLED && current != OrderStatus.CANCELLED) {
+                restoreStock(transaction, documentToOrder(snapshot).getItems());
+            }
+            transaction.update(orderRef, statusUpdate(status));
+            return null;
+        }).addOnSuccessListener(result -> {
+            AppLog.d(TAG, () -> "Order status transitioned: " + orderId + " -> " + status);
+            callback.onSuccess();
+        }).addOnFailureListener(e -> {
+            FirebaseFirestoreException rejected = findRejection(e);
+            if (rejected != null) {
+                callback.onError(rejected.getMessage());
+                return;
+            }
+            if (e instanceof FirebaseFirestoreException
+                    && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.NOT_FOUND) {
+                callback.onError(e.getMessage());
+                return;
+            }
+            AppLog.e(TAG, "Error transitioning order status", e);
+            callback.onError("Lỗi cập nhật trạng thái: " + e.getMessage());
+        });
+    }
+
+    /**
+     * Trả lại tồn kho đã giữ lúc đặt hàng: cộng vào inventory.stockQuantity, hoặc vào một shard
+     * ngẫu nhiên nếu variant chia shard. Đọc variant trước mọi lệnh ghi của transaction;
+     * variant đã bị xóa thì bỏ qua.
+     */
+    private void restoreStock(Transaction transaction, List<OrderItem> items) throws FirebaseFirestoreException {
+        Map<String, Integer> quantities = variantQuantities(items);
+        Map<DocumentReference, Integer> restockByRef = new LinkedHashMap<>();
+        Map<DocumentReference, Integer> shardRestockByRef = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            DocumentReference variantRef = db.collection(COLLECTION_VARIANTS).document(entry.getKey());
+            DocumentSnapshot variant = transaction.get(variantRef);
+            if (!variant.exists()) {
+                continue;
+            }
+            int shardCount = StockShards.shardCount(variant);
+            if (shardCount > 0) {
+                shardRestockByRef.put(StockShards.randomShardRef(db, entry.getKey(), shardCount), entry.getValue());
+            } else {
+                restockByRef.put(variantRef, entry.getValue());
+            }
+        }
+
+        for (Map.Entry<DocumentReference, Integer> entry : restockByRef.entrySet()) {
+            transaction.update(entry.getKey(), FIELD_VARIANT_STOCK, FieldValue.increment(entry.getValue()));
+        }
+        for (Map.Entry<DocumentReference, Integer> entry : shardRestockByRef.entrySet()) {
+            transaction.update(entry.getKey(), StockShards.FIELD_STOCK, FieldValue.increment(entry.getValue()));
+        }
+    }
+
+    private static OrderStatus parseOrderStatus(String statusStr) {
+        if (statusStr != null) {
+            try {
+                return OrderStatus.valueOf(statusStr);
+            } catch (IllegalArgumentException e) {
+                AppLog.e(TAG, "Invalid order status: " + statusStr);
+            }
+        }
+        return OrderStatus.PENDING;
+    }
+
+    // orderStatus, updatedAt và một phần tử statusHistory nối thêm bằng arrayUnion
+    private Map<String, Object> statusUpdate(OrderStatus status) {
+        Date now = new Date();
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("orderStatus", status.name());
+        updates.put("updatedAt", now);
+        updates.put("statusHistory", FieldValue.arrayUnion(statusHistoryToMap(new StatusHistory(
+                status,
+                now,
+                "Cập nhật trạng thái: " + status.getDisplayName()))));
+        return updates;
+    }
+
     @Override
     public void updatePaymentStatus(String orderId, PaymentStatus status, UpdateCallback callback) {
         Map<String, Object> updates = new HashMap<>();
@@ -251,21 +548,18 @@ public class FirebaseOrderRepository implements OrderRepository {
         ordersRef.document(orderId)
                 .update(updates)
                 .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Payment status updated: " + orderId);
+                    AppLog.d(TAG, () -> "Payment status updated: " + orderId);
                     callback.onSuccess();
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error updating payment status", e);
+                    AppLog.e(TAG, "Error updating payment status", e);
                     callback.onError("Lỗi cập nhật trạng thái thanh toán: " + e.getMessage());
                 });
     }
 
     @Override
-    public String generateOrderId() {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd", Locale.getDefault());
-        String datePart = dateFormat.format(new Date());
-        long timestamp = System.currentTimeMillis();
-        return "ORD_" + datePart + "_" + String.valueOf(timestamp).substring(8);
+    public void allocateOrderId(OrderIdCallback callback) {
+        orderIds.nextId(callback);
     }
 
     @Override
@@ -278,7 +572,7 @@ public class FirebaseOrderRepository implements OrderRepository {
                             Order order = documentToOrder(document);
                             orders.add(order);
                         } catch (Exception e) {
-                            Log.e(TAG, "Error converting document to Order: " + document.getId(), e);
+                            AppLog.e(TAG, "Error converting document to Order: " + document.getId(), e);
                         }
                     }
 
@@ -293,11 +587,11 @@ public class FirebaseOrderRepository implements OrderRepository {
                         return o2.getCreatedAt().compareTo(o1.getCreatedAt());
                     });
 
-                    Log.d(TAG, "Retrieved " + orders.size() + " orders (all)");
+                    AppLog.d(TAG, () -> "Retrieved " + orders.size() + " orders (all)");
                     callback.onSuccess(orders);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting all orders", e);
+                    AppLog.e(TAG, "Error getting all orders", e);
                     callback.onError("Error loading orders: " + e.getMessage());
                 });
     }
@@ -379,16 +673,20 @@ public class FirebaseOrderRepository implements OrderRepository {
         List<Map<String, Object>> list = new ArrayList<>();
         if (statusHistory != null) {
             for (StatusHistory history : statusHistory) {
-                Map<String, Object> map = new HashMap<>();
-                map.put("status", history.getStatus());
-                map.put("timestamp", history.getTimestamp());
-                map.put("note", history.getNote());
-                list.add(map);
+                list.add(statusHistoryToMap(history));
             }
         }
         return list;
     }
 
+    private Map<String, Object> statusHistoryToMap(StatusHistory history) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("status", history.getStatus() != null ? history.getStatus().name() : null);
+        map.put("timestamp", history.getTimestamp());
+        map.put("note", history.getNote());
+        return map;
+    }
+
     // Reverse conversion methods: Map to Object
     private com.example.phoneshopapp.models.CustomerInfo mapToCustomerInfo(Map<String, Object> map) {
         com.example.phoneshopapp.models.CustomerInfo info = new com.example.phoneshopapp.models.CustomerInfo();
@@ -475,7 +773,7 @@ public class FirebaseOrderRepository implements OrderRepository {
             try {
                 payment.setMethod(com.example.phoneshopapp.models.PaymentMethod.valueOf(methodStr));
             } catch (IllegalArgumentException e) {
-                Log.e(TAG, "Invalid payment method: " + methodStr);
+                AppLog.e(TAG, "Invalid payment method: " + methodStr);
             }
         }
 
@@ -484,7 +782,7 @@ public class FirebaseOrderRepository implements OrderRepository {
             try {
                 payment.setStatus(com.example.phoneshopapp.models.PaymentStatus.valueOf(statusStr));
             } catch (IllegalArgumentException e) {
-                Log.e(TAG, "Invalid payment status: " + statusStr);
+                AppLog.e(TAG, "Invalid payment status: " + statusStr);
             }
         }
 
@@ -510,7 +808,7 @@ public class FirebaseOrderRepository implements OrderRepository {
                 try {
                     status = OrderStatus.valueOf(statusStr);
                 } catch (IllegalArgumentException e) {
-                    Log.e(TAG, "Invalid status in history: " + statusStr);
+                    AppLog.e(TAG, "Invalid status in history: " + statusStr);
                 }
             }
 
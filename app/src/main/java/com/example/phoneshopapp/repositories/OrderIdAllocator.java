@@ -0,0 +1,154 @@
+package com.example.phoneshopapp.repositories;
+
+import com.example.phoneshopapp.repositories.callbacks.OrderIdCallback;
+import com.example.phoneshopapp.utils.AppLog;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cấp mã đơn hàng theo kiểu hi/lo: mỗi client giữ trước một khối BLOCK_SIZE số thứ tự từ
+ * order_sequence/counter bằng một transaction, sau đó phát từng số tại chỗ không cần round
+ * trip. Hai client không bao giờ nhận cùng khối nên mã đơn là duy nhất kể cả khi đặt hàng
+ * đồng thời; số bị bỏ dở khi app tắt chỉ để lại khoảng trống trong dãy.
+ *
+ * Mã dạng ORD_yyyyMMdd_000123: ngày để dễ đọc, phần số thứ tự bảo đảm duy nhất.
+ */
+public class OrderIdAllocator {
+    private static final String TAG = "OrderIdAllocator";
+    private static final String COLLECTION_ORDER_SEQUENCE = "order_sequence";
+    private static final String SEQUENCE_DOC_ID = "counter";
+    private static final String FIELD_NEXT = "next";
+
+    static final int BLOCK_SIZE = 20;
+    // Còn ít hơn ngần này số thì giữ trước khối tiếp theo, để lần đặt hàng sau không phải chờ
+    private static final int PREFETCH_THRESHOLD = BLOCK_SIZE / 4;
+
+    // Một allocator cho mỗi Firestore instance (app mặc định, client emulator trong test)
+    private static final Map<FirebaseFirestore, OrderIdAllocator> INSTANCES = new HashMap<>();
+
+    private final DocumentReference counterRef;
+    private final List<OrderIdCallback> waiting = new ArrayList<>();
+
+    // Khối hiện tại: [next, end)
+    private long next;
+    private long end;
+    // Khối giữ trước, chỉ dùng khi khối hiện tại hết; 0 = chưa có (dãy bắt đầu từ 1)
+    private long queuedStart;
+    private boolean reserving;
+
+    private OrderIdAllocator(FirebaseFirestore db) {
+        counterRef = db.collection(COLLECTION_ORDER_SEQUENCE).document(SEQUENCE_DOC_ID);
+    }
+
+    public static synchronized OrderIdAllocator getInstance(FirebaseFirestore db) {
+        OrderIdAllocator allocator = INSTANCES.get(db);
+        if (allocator == null) {
+            allocator = new OrderIdAllocator(db);
+            INSTANCES.put(db, allocator);
+        }
+        return allocator;
+    }
+
+    /**
+     * Trả mã đơn ngay nếu khối hiện tại còn số, ngược lại chờ giữ khối mới.
+     */
+    public void nextId(OrderIdCallback callback) {
+        long sequence;
+        synchronized (this) {
+            if (!hasNumber()) {
+                waiting.add(callback);
+                reserveBlock();
+                return;
+            }
+            sequence = takeNumber();
+        }
+        callback.onSuccess(format(sequence));
+    }
+
+    // Các hàm dưới gọi trong synchronized(this)
+    private boolean hasNumber() {
+        if (next >= end && queuedStart > 0) {
+            next = queuedStart;
+            end = queuedStart + BLOCK_SIZE;
+            queuedStart = 0;
+        }
+        return next < end;
+    }
+
+    private long takeNumber() {
+        long sequence = next++;
+        if (end - next < PREFETCH_THRESHOLD) {
+            reserveBlock();
+        }
+        return sequence;
+    }
+
+    private void reserveBlock() {
+        if (reserving || queuedStart > 0) {
+            return;
+        }
+        reserving = true;
+
+        counterRef.getFirestore().runTransaction(transaction -> {
+            DocumentSnapshot counter = transaction.get(counterRef);
+            Long stored = counter.getLong(FIELD_NEXT);
+            long start = stored != null && stored > 0 ? stored : 1L;
+            Map<String, Object> data = new HashMap<>();
+            data.put(FIELD_NEXT, start + BLOCK_SIZE);
+            transaction.set(counterRef, data);
+            return start;
+        }).addOnSuccessListener(start -> {
+            AppLog.d(TAG, () -> "Reserved order numbers [" + start + ", " + (start + BLOCK_SIZE) + ")");
+            onBlockReserved(start);
+        }).addOnFailureListener(e -> {
+            AppLog.e(TAG, "Failed to reserve order numbers", e);
+            onReserveFailed(e);
+        });
+    }
+
+    private void onBlockReserved(long start) {
+        List<OrderIdCallback> ready = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        synchronized (this) {
+            reserving = false;
+            // Khối hiện tại còn số thì xếp khối mới vào hàng đợi, dùng hết khối cũ trước
+            queuedStart = start;
+            while (!waiting.isEmpty() && hasNumber()) {
+                ready.add(waiting.remove(0));
+                sequences.add(takeNumber());
+            }
+            if (!waiting.isEmpty()) {
+                reserveBlock();
+            }
+        }
+        for (int i = 0; i < ready.size(); i++) {
+            ready.get(i).onSuccess(format(sequences.get(i)));
+        }
+    }
+
+    private void onReserveFailed(Exception e) {
+        List<OrderIdCallback> failed;
+        synchronized (this) {
+            reserving = false;
+            failed = new ArrayList<>(waiting);
+            waiting.clear();
+        }
+        for (OrderIdCallback callback : failed) {
+            callback.onError("Không thể tạo mã đơn hàng: " + e.getMessage());
+        }
+    }
+
+    private static String format(long sequence) {
+        String datePart = new SimpleDateFormat("yyyyMMdd", Locale.US).format(new Date());
+        return String.format(Locale.US, "ORD_%s_%06d", datePart, sequence);
+    }
+}
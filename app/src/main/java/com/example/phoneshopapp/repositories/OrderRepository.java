@@ -5,9 +5,13 @@ import com.example.phoneshopapp.models.OrderStatus;
 import com.example.phoneshopapp.models.PaymentStatus;
 import com.example.phoneshopapp.repositories.callbacks.OrderCreationCallback;
 import com.example.phoneshopapp.repositories.callbacks.OrderCallback;
+import com.example.phoneshopapp.repositories.callbacks.OrderIdCallback;
 import com.example.phoneshopapp.repositories.callbacks.OrdersCallback;
 import com.example.phoneshopapp.repositories.callbacks.UpdateCallback;
 
+import java.util.List;
+import java.util.Set;
+
 public interface OrderRepository {
 
     /**
@@ -18,6 +22,16 @@ public interface OrderRepository {
      */
     void createOrder(Order order, OrderCreationCallback callback);
 
+    /**
+     * Place an order atomically: verify and decrement variant stock, create the order
+     * and delete the consumed cart lines in one transaction
+     *
+     * @param order       Order object to create
+     * @param cartItemIds Cart document IDs consumed by this order
+     * @param callback    Callback for success/error handling
+     */
+    void placeOrder(Order order, List<String> cartItemIds, OrderCreationCallback callback);
+
     /**
      * Get all orders for a specific user
      * 
@@ -43,6 +57,17 @@ public interface OrderRepository {
      */
     void updateOrderStatus(String orderId, OrderStatus status, UpdateCallback callback);
 
+    /**
+     * Update order status only if the current status is one of allowedFrom (checked in a transaction)
+     * 
+     * @param orderId     Order ID to update
+     * @param allowedFrom Statuses the order may currently be in
+     * @param status      New order status
+     * @param callback    Callback for success/error handling
+     */
+    void transitionOrderStatus(String orderId, Set<OrderStatus> allowedFrom, OrderStatus status,
+                               UpdateCallback callback);
+
     /**
      * Update payment status
      * 
@@ -53,11 +78,11 @@ public interface OrderRepository {
     void updatePaymentStatus(String orderId, PaymentStatus status, UpdateCallback callback);
 
     /**
-     * Generate unique order ID
+     * Allocate a unique, date-prefixed order ID (ORD_yyyyMMdd_000123)
      * 
-     * @return Unique order ID string
+     * @param callback Receives the ID, usually without a network round trip
      */
-    String generateOrderId();
+    void allocateOrderId(OrderIdCallback callback);
 
     /**
      * Get all orders (for admin)
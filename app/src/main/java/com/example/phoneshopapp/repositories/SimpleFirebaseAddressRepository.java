@@ -1,10 +1,11 @@
 package com.example.phoneshopapp.repositories;
 
-import android.util.Log;
 import com.example.phoneshopapp.models.Address;
 import com.example.phoneshopapp.repositories.callbacks.AddressesCallback;
 import com.example.phoneshopapp.repositories.callbacks.AddressCallback;
 import com.example.phoneshopapp.repositories.callbacks.UpdateCallback;
+import com.example.phoneshopapp.utils.AppLog;
+import com.example.phoneshopapp.utils.BatchWriter;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
@@ -27,14 +28,14 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
     
     public SimpleFirebaseAddressRepository() {
         try {
-            Log.d(TAG, "Initializing FirebaseFirestore instance");
+            AppLog.d(TAG, "Initializing FirebaseFirestore instance");
             this.db = FirebaseFirestore.getInstance();
             if (this.db == null) {
                 throw new RuntimeException("FirebaseFirestore.getInstance() returned null");
             }
-            Log.d(TAG, "FirebaseFirestore initialized successfully");
+            AppLog.d(TAG, "FirebaseFirestore initialized successfully");
         } catch (Exception e) {
-            Log.e(TAG, "Failed to initialize FirebaseFirestore", e);
+            AppLog.e(TAG, "Failed to initialize FirebaseFirestore", e);
             throw new RuntimeException("Failed to initialize FirebaseFirestore", e);
         }
     }
@@ -55,19 +56,19 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
                                 addresses.add(address);
                             }
                         } catch (Exception e) {
-                            Log.e(TAG, "Error parsing address document", e);
+                            AppLog.e(TAG, "Error parsing address document", e);
                         }
                     }
                     
                     callback.onSuccess(addresses);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting addresses", e);
+                    AppLog.e(TAG, "Error getting addresses", e);
                     callback.onError("Lỗi khi tải địa chỉ: " + e.getMessage());
                 });
                 
         } catch (Exception e) {
-            Log.e(TAG, "Error in getUserAddresses", e);
+            AppLog.e(TAG, "Error in getUserAddresses", e);
             callback.onError("Lỗi khi tải địa chỉ: " + e.getMessage());
         }
     }
@@ -95,7 +96,7 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
             }
             
         } catch (Exception e) {
-            Log.e(TAG, "Error in addAddress", e);
+            AppLog.e(TAG, "Error in addAddress", e);
             callback.onError("Lỗi khi thêm địa chỉ: " + e.getMessage());
         }
     }
@@ -116,7 +117,7 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
             }
             
         } catch (Exception e) {
-            Log.e(TAG, "Error in updateAddress", e);
+            AppLog.e(TAG, "Error in updateAddress", e);
             callback.onError("Lỗi khi cập nhật địa chỉ: " + e.getMessage());
         }
     }
@@ -128,16 +129,16 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
                 .document(addressId)
                 .delete()
                 .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Address deleted successfully");
+                    AppLog.d(TAG, "Address deleted successfully");
                     callback.onSuccess();
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error deleting address", e);
+                    AppLog.e(TAG, "Error deleting address", e);
                     callback.onError("Lỗi khi xóa địa chỉ: " + e.getMessage());
                 });
                 
         } catch (Exception e) {
-            Log.e(TAG, "Error in deleteAddress", e);
+            AppLog.e(TAG, "Error in deleteAddress", e);
             callback.onError("Lỗi khi xóa địa chỉ: " + e.getMessage());
         }
     }
@@ -152,17 +153,17 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
                     .document(addressId)
                     .update("isDefault", true)
                     .addOnSuccessListener(aVoid -> {
-                        Log.d(TAG, "Default address set successfully");
+                        AppLog.d(TAG, "Default address set successfully");
                         callback.onSuccess();
                     })
                     .addOnFailureListener(e -> {
-                        Log.e(TAG, "Error setting default address", e);
+                        AppLog.e(TAG, "Error setting default address", e);
                         callback.onError("Lỗi khi set địa chỉ mặc định: " + e.getMessage());
                     });
             }, callback);
             
         } catch (Exception e) {
-            Log.e(TAG, "Error in setDefaultAddress", e);
+            AppLog.e(TAG, "Error in setDefaultAddress", e);
             callback.onError("Lỗi khi set địa chỉ mặc định: " + e.getMessage());
         }
     }
@@ -189,12 +190,12 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting default address", e);
+                    AppLog.e(TAG, "Error getting default address", e);
                     callback.onError("Lỗi khi lấy địa chỉ mặc định: " + e.getMessage());
                 });
                 
         } catch (Exception e) {
-            Log.e(TAG, "Error in getDefaultAddress", e);
+            AppLog.e(TAG, "Error in getDefaultAddress", e);
             callback.onError("Lỗi khi lấy địa chỉ mặc định: " + e.getMessage());
         }
     }
@@ -208,11 +209,11 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
             .document(address.getAddressId())
             .set(addressData)
             .addOnSuccessListener(aVoid -> {
-                Log.d(TAG, "Address saved successfully");
+                AppLog.d(TAG, "Address saved successfully");
                 callback.onSuccess();
             })
             .addOnFailureListener(e -> {
-                Log.e(TAG, "Error saving address", e);
+                AppLog.e(TAG, "Error saving address", e);
                 callback.onError("Lỗi khi lưu địa chỉ: " + e.getMessage());
             });
     }
@@ -224,11 +225,11 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
             .document(address.getAddressId())
             .update(addressData)
             .addOnSuccessListener(aVoid -> {
-                Log.d(TAG, "Address updated successfully");
+                AppLog.d(TAG, "Address updated successfully");
                 callback.onSuccess();
             })
             .addOnFailureListener(e -> {
-                Log.e(TAG, "Error updating address", e);
+                AppLog.e(TAG, "Error updating address", e);
                 callback.onError("Lỗi khi cập nhật địa chỉ: " + e.getMessage());
             });
     }
@@ -239,37 +240,27 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
             .whereEqualTo("isDefault", true)
             .get()
             .addOnSuccessListener(queryDocumentSnapshots -> {
-                if (queryDocumentSnapshots.isEmpty()) {
-                    onSuccess.run();
-                    return;
-                }
-                
-                // Count how many updates we need to complete
-                final int totalUpdates = queryDocumentSnapshots.size();
-                final int[] completedUpdates = {0};
-                
-                // Update all existing default addresses to non-default
+                // Update all existing default addresses to non-default in one batch
+                BatchWriter writer = new BatchWriter(db);
                 for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                    db.collection(COLLECTION_ADDRESSES)
-                        .document(document.getId())
-                        .update("isDefault", false)
-                        .addOnSuccessListener(aVoid -> {
-                            completedUpdates[0]++;
-                            if (completedUpdates[0] == totalUpdates) {
-                                onSuccess.run();
-                            }
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.w(TAG, "Failed to update address to non-default: " + e.getMessage());
-                            completedUpdates[0]++;
-                            if (completedUpdates[0] == totalUpdates) {
-                                onSuccess.run();
-                            }
-                        });
+                    writer.update(document.getReference(), "isDefault", false);
                 }
+                writer.commit(new BatchWriter.Callback() {
+                    @Override
+                    public void onSuccess(int writeCount) {
+                        onSuccess.run();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e, int committedCount) {
+                        // Giữ hành vi cũ: vẫn tiếp tục đặt địa chỉ mặc định mới
+                        AppLog.w(TAG, "Failed to update addresses to non-default: " + e.getMessage());
+                        onSuccess.run();
+                    }
+                });
             })
             .addOnFailureListener(e -> {
-                Log.e(TAG, "Error setting other addresses as non-default", e);
+                AppLog.e(TAG, "Error setting other addresses as non-default", e);
                 callback.onError("Lỗi khi cập nhật địa chỉ mặc định: " + e.getMessage());
             });
     }
@@ -309,7 +300,7 @@ public class SimpleFirebaseAddressRepository implements AddressRepository {
             address.setUpdatedAt(document.getDate("updatedAt"));
             return address;
         } catch (Exception e) {
-            Log.e(TAG, "Error converting document to Address", e);
+            AppLog.e(TAG, "Error converting document to Address", e);
             return null;
         }
     }
@@ -0,0 +1,6 @@
+package com.example.phoneshopapp.repositories.callbacks;
+
+public interface OrderIdCallback {
+    void onSuccess(String orderId);
+    void onError(String errorMessage);
+}
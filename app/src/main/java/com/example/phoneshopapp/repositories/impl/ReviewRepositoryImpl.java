@@ -1,12 +1,12 @@
 package com.example.phoneshopapp.repositories.impl;
 
-import android.util.Log;
 
 import com.example.phoneshopapp.models.Review;
 import com.example.phoneshopapp.repositories.ReviewRepository;
 import com.example.phoneshopapp.repositories.callbacks.BooleanCallback;
 import com.example.phoneshopapp.repositories.callbacks.ReviewCallback;
 import com.example.phoneshopapp.repositories.callbacks.ReviewListCallback;
+import com.example.phoneshopapp.utils.AppLog;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -35,6 +35,8 @@ public class ReviewRepositoryImpl implements ReviewRepository {
     private static final String COLLECTION_REVIEWS = "reviews";
     private static final String COLLECTION_ORDERS = "orders";
     private static final String COLLECTION_PHONES = "PhoneDB";  // ✅ Bảng sản phẩm chính
+    // Log từng document review: chỉ 1 trên 10
+    private static final AppLog.Sampler DOC_LOG = AppLog.sampleEvery(10);
 
     private final FirebaseFirestore db;
     private final CollectionReference reviewsRef;
@@ -83,7 +85,7 @@ public class ReviewRepositoryImpl implements ReviewRepository {
             reviewsRef.document(review.getReviewId())
                     .set(reviewData)
                     .addOnSuccessListener(aVoid -> {
-                        Log.d(TAG, "Review created successfully: " + review.getReviewId());
+                        AppLog.d(TAG, () -> "Review created successfully: " + review.getReviewId());
 
                         // 6. Update Order hasReview = true
                         updateOrderHasReview(review.getOrderId(), review.getReviewId());
@@ -94,12 +96,12 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                         callback.onSuccess(review);
                     })
                     .addOnFailureListener(e -> {
-                        Log.e(TAG, "Error creating review", e);
+                        AppLog.e(TAG, "Error creating review", e);
                         callback.onError("Lỗi tạo đánh giá: " + e.getMessage());
                     });
 
         } catch (Exception e) {
-            Log.e(TAG, "Exception in createReview", e);
+            AppLog.e(TAG, "Exception in createReview", e);
             callback.onError("Lỗi: " + e.getMessage());
         }
     }
@@ -110,7 +112,7 @@ public class ReviewRepositoryImpl implements ReviewRepository {
      */
     private void updateOrderHasReview(String orderId, String reviewId) {
         if (orderId == null || orderId.isEmpty()) {
-            Log.w(TAG, "Cannot update order: orderId is null or empty");
+            AppLog.w(TAG, "Cannot update order: orderId is null or empty");
             return;
         }
 
@@ -122,10 +124,10 @@ public class ReviewRepositoryImpl implements ReviewRepository {
         ordersRef.document(orderId)
                 .update(updates)
                 .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "✅ Updated order hasReview = true for orderId: " + orderId);
+                    AppLog.d(TAG, () -> "✅ Updated order hasReview = true for orderId: " + orderId);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Failed to update order hasReview for orderId: " + orderId, e);
+                    AppLog.e(TAG, "❌ Failed to update order hasReview for orderId: " + orderId, e);
                 });
     }
 
@@ -140,7 +142,7 @@ public class ReviewRepositoryImpl implements ReviewRepository {
      */
     private void updateProductStats(String productId) {
         if (productId == null || productId.isEmpty()) {
-            Log.w(TAG, "Cannot update product stats: productId is null or empty");
+            AppLog.w(TAG, "Cannot update product stats: productId is null or empty");
             return;
         }
 
@@ -156,7 +158,7 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                                 reviews.add(review);
                             }
                         } catch (Exception e) {
-                            Log.e(TAG, "Error converting review document", e);
+                            AppLog.e(TAG, "Error converting review document", e);
                         }
                     }
 
@@ -177,18 +179,18 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                         phonesRef.document(productId)
                                 .update(updates)
                                 .addOnSuccessListener(aVoid -> {
-                                    Log.d(TAG, String.format("✅ Updated product stats: productId=%s, avgRating=%.1f, totalReviews=%d",
+                                    AppLog.d(TAG, () -> String.format("✅ Updated product stats: productId=%s, avgRating=%.1f, totalReviews=%d",
                                             productId, avgRating, totalReviews));
                                 })
                                 .addOnFailureListener(e -> {
-                                    Log.e(TAG, "❌ Failed to update product stats for productId: " + productId, e);
+                                    AppLog.e(TAG, "❌ Failed to update product stats for productId: " + productId, e);
                                 });
                     } else {
-                        Log.w(TAG, "No reviews found for productId: " + productId);
+                        AppLog.w(TAG, "No reviews found for productId: " + productId);
                     }
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error querying reviews for product stats", e);
+                    AppLog.e(TAG, "Error querying reviews for product stats", e);
                 });
     }
 
@@ -198,47 +200,40 @@ public class ReviewRepositoryImpl implements ReviewRepository {
      */
     @Override
     public void getReviewsByProductId(String productId, ReviewListCallback callback) {
-        Log.d(TAG, "========== QUERYING REVIEWS ==========");
-        Log.d(TAG, "Searching for productId: " + productId);
-        Log.d(TAG, "Collection: " + COLLECTION_REVIEWS);
+        AppLog.d(TAG, "========== QUERYING REVIEWS ==========");
+        AppLog.d(TAG, () -> "Searching for productId: " + productId);
+        AppLog.d(TAG, () -> "Collection: " + COLLECTION_REVIEWS);
         
         reviewsRef.whereEqualTo("productId", productId)
                 .orderBy("createdAt", Query.Direction.DESCENDING)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
-                    Log.d(TAG, "Query SUCCESS - Total documents returned: " + querySnapshot.size());
+                    AppLog.d(TAG, () -> "Query SUCCESS - Total documents returned: " + querySnapshot.size());
                     
                     List<Review> reviews = new ArrayList<>();
-                    int docIndex = 0;
                     for (QueryDocumentSnapshot doc : querySnapshot) {
-                        docIndex++;
                         try {
-                            Log.d(TAG, "--- Document #" + docIndex + " ---");
-                            Log.d(TAG, "Document ID: " + doc.getId());
-                            Log.d(TAG, "Raw data: " + doc.getData());
-                            
                             Review review = documentToReview(doc);
                             if (review != null) {
                                 reviews.add(review);
-                                Log.d(TAG, "✅ Converted successfully: " + review.getUserName() + " - " + review.getRating() + " stars");
                             } else {
-                                Log.w(TAG, "❌ documentToReview returned null for doc: " + doc.getId());
+                                AppLog.w(TAG, "❌ documentToReview returned null for doc: " + doc.getId());
                             }
                         } catch (Exception ex) {
-                            Log.e(TAG, "❌ Error converting review document: " + doc.getId(), ex);
+                            AppLog.e(TAG, "❌ Error converting review document: " + doc.getId(), ex);
                         }
                     }
 
-                    Log.d(TAG, "========== QUERY COMPLETE ==========");
-                    Log.d(TAG, "Total reviews converted: " + reviews.size() + " / " + querySnapshot.size());
+                    AppLog.d(TAG, "========== QUERY COMPLETE ==========");
+                    AppLog.d(TAG, () -> "Total reviews converted: " + reviews.size() + " / " + querySnapshot.size());
                     callback.onSuccess(reviews);
                 })
                 .addOnFailureListener(e -> {
                     // Fallback if missing composite index for (productId + createdAt)
                     String msg = e != null ? String.valueOf(e.getMessage()) : "";
-                    Log.e(TAG, "Error getting reviews by productId (with orderBy)", e);
+                    AppLog.e(TAG, "Error getting reviews by productId (with orderBy)", e);
                     if (msg.contains("FAILED_PRECONDITION") || msg.toLowerCase().contains("index")) {
-                        Log.w(TAG, "Missing index detected. Falling back to query without orderBy(createdAt)...");
+                        AppLog.w(TAG, "Missing index detected. Falling back to query without orderBy(createdAt)...");
                         reviewsRef.whereEqualTo("productId", productId)
                                 .get()
                                 .addOnSuccessListener(qs -> {
@@ -250,7 +245,7 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                                                 reviews.add(review);
                                             }
                                         } catch (Exception ex) {
-                                            Log.e(TAG, "Error converting review document", ex);
+                                            AppLog.e(TAG, "Error converting review document", ex);
                                         }
                                     }
                                     // Sort in-memory by createdAt desc if available
@@ -264,14 +259,14 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                                             return db.compareTo(da);
                                         });
                                     } catch (Exception sortEx) {
-                                        Log.w(TAG, "Failed to sort reviews in-memory", sortEx);
+                                        AppLog.w(TAG, "Failed to sort reviews in-memory", sortEx);
                                     }
 
-                                    Log.d(TAG, "Retrieved (fallback) " + reviews.size() + " reviews for productId: " + productId);
+                                    AppLog.d(TAG, () -> "Retrieved (fallback) " + reviews.size() + " reviews for productId: " + productId);
                                     callback.onSuccess(reviews);
                                 })
                                 .addOnFailureListener(e2 -> {
-                                    Log.e(TAG, "Fallback query without orderBy failed", e2);
+                                    AppLog.e(TAG, "Fallback query without orderBy failed", e2);
                                     callback.onError("Lỗi tải đánh giá (fallback): " + e2.getMessage());
                                 });
                     } else {
@@ -298,19 +293,19 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                                 reviews.add(review);
                             }
                         } catch (Exception ex) {
-                            Log.e(TAG, "Error converting review document", ex);
+                            AppLog.e(TAG, "Error converting review document", ex);
                         }
                     }
 
-                    Log.d(TAG, "Retrieved " + reviews.size() + " reviews for userId: " + userId);
+                    AppLog.d(TAG, () -> "Retrieved " + reviews.size() + " reviews for userId: " + userId);
                     callback.onSuccess(reviews);
                 })
                 .addOnFailureListener(e -> {
                     // Fallback if missing composite index for (userId + createdAt)
                     String msg = e != null ? String.valueOf(e.getMessage()) : "";
-                    Log.e(TAG, "Error getting user reviews (with orderBy)", e);
+                    AppLog.e(TAG, "Error getting user reviews (with orderBy)", e);
                     if (msg.contains("FAILED_PRECONDITION") || msg.toLowerCase().contains("index")) {
-                        Log.w(TAG, "Missing index detected. Falling back to query without orderBy(createdAt)...");
+                        AppLog.w(TAG, "Missing index detected. Falling back to query without orderBy(createdAt)...");
                         reviewsRef.whereEqualTo("userId", userId)
                                 .get()
                                 .addOnSuccessListener(qs -> {
@@ -322,7 +317,7 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                                                 reviews.add(review);
                                             }
                                         } catch (Exception ex) {
-                                            Log.e(TAG, "Error converting review document", ex);
+                                            AppLog.e(TAG, "Error converting review document", ex);
                                         }
                                     }
                                     // Sort in-memory by createdAt desc if available
@@ -336,14 +331,14 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                                             return db.compareTo(da);
                                         });
                                     } catch (Exception sortEx) {
-                                        Log.w(TAG, "Failed to sort reviews in-memory", sortEx);
+                                        AppLog.w(TAG, "Failed to sort reviews in-memory", sortEx);
                                     }
 
-                                    Log.d(TAG, "Retrieved (fallback) " + reviews.size() + " reviews for userId: " + userId);
+                                    AppLog.d(TAG, () -> "Retrieved (fallback) " + reviews.size() + " reviews for userId: " + userId);
                                     callback.onSuccess(reviews);
                                 })
                                 .addOnFailureListener(e2 -> {
-                                    Log.e(TAG, "Fallback user reviews query without orderBy failed", e2);
+                                    AppLog.e(TAG, "Fallback user reviews query without orderBy failed", e2);
                                     callback.onError("Lỗi tải đánh giá của bạn (fallback): " + e2.getMessage());
                                 });
                     } else {
@@ -370,11 +365,11 @@ public class ReviewRepositoryImpl implements ReviewRepository {
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
                     boolean hasReviewed = !querySnapshot.isEmpty();
-                    Log.d(TAG, "Check order reviewed: orderId=" + orderId + ", hasReviewed=" + hasReviewed);
+                    AppLog.d(TAG, () -> "Check order reviewed: orderId=" + orderId + ", hasReviewed=" + hasReviewed);
                     callback.onResult(hasReviewed);
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error checking order reviewed status", e);
+                    AppLog.e(TAG, "Error checking order reviewed status", e);
                     callback.onError("Lỗi kiểm tra đánh giá: " + e.getMessage());
                 });
     }
@@ -419,14 +414,11 @@ public class ReviewRepositoryImpl implements ReviewRepository {
      */
     private Review documentToReview(DocumentSnapshot doc) {
         if (!doc.exists()) {
-            Log.w(TAG, "Document does not exist: " + doc.getId());
+            AppLog.w(TAG, "Document does not exist: " + doc.getId());
             return null;
         }
 
         try {
-            Log.d(TAG, "Converting document: " + doc.getId());
-            Log.d(TAG, "All fields in document: " + doc.getData());
-            
             Review review = new Review();
             review.setReviewId(doc.getString("reviewId"));
             review.setOrderId(doc.getString("orderId"));
@@ -444,13 +436,11 @@ public class ReviewRepositoryImpl implements ReviewRepository {
             Object ratingObj = doc.get("rating");
             if (ratingObj instanceof Number) {
                 review.setRating(((Number) ratingObj).floatValue());
-                Log.d(TAG, "Rating: " + review.getRating());
             } else {
-                Log.w(TAG, "Rating field is missing or not a number");
+                AppLog.w(TAG, "Rating field is missing or not a number");
             }
 
             review.setComment(doc.getString("comment"));
-            Log.d(TAG, "Comment: " + (doc.getString("comment") != null ? doc.getString("comment").substring(0, Math.min(50, doc.getString("comment").length())) : "null"));
 
             // Handle reviewImages
             List<String> reviewImages = (List<String>) doc.get("reviewImages");
@@ -464,11 +454,12 @@ public class ReviewRepositoryImpl implements ReviewRepository {
             review.setCreatedAt(doc.getDate("createdAt"));
             review.setUpdatedAt(doc.getDate("updatedAt"));
 
-            Log.d(TAG, "✅ Successfully converted review: " + review.getUserName() + " - Rating: " + review.getRating());
+            AppLog.d(TAG, DOC_LOG, () -> "✅ Converted review " + doc.getId() + ": " + review.getUserName()
+                    + " - Rating: " + review.getRating() + ", fields: " + doc.getData());
             return review;
         } catch (Exception e) {
-            Log.e(TAG, "❌ Error converting document to Review: " + doc.getId(), e);
-            Log.e(TAG, "Document data was: " + doc.getData());
+            AppLog.e(TAG, "❌ Error converting document to Review: " + doc.getId(), e);
+            AppLog.e(TAG, "Document data was: " + doc.getData());
             return null;
         }
     }
@@ -7,11 +7,13 @@ import android.widget.Button;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.phoneshopapp.R;
+import com.example.phoneshopapp.adapters.DiffCallbacks;
 import com.example.phoneshopapp.models.Order;
 import com.example.phoneshopapp.models.OrderItem;
-import java.text.NumberFormat;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.Locale;
@@ -19,8 +21,7 @@ import java.util.Locale;
 /**
  * Adapter for displaying orders in admin panel
  */
-public class OrderAdminAdapter extends RecyclerView.Adapter<OrderAdminAdapter.OrderViewHolder> {
-  private final List<Order> orders;
+public class OrderAdminAdapter extends ListAdapter<Order, OrderAdminAdapter.OrderViewHolder> {
   private final OnChangeStatusListener onChangeStatusListener;
 
   public interface OnChangeStatusListener {
@@ -28,8 +29,10 @@ public class OrderAdminAdapter extends RecyclerView.Adapter<OrderAdminAdapter.Or
   }
 
   public OrderAdminAdapter(List<Order> orders, OnChangeStatusListener onChangeStatusListener) {
-    this.orders = orders;
+    super(DiffCallbacks.config(DiffCallbacks.ORDER));
     this.onChangeStatusListener = onChangeStatusListener;
+    setHasStableIds(true);
+    submitList(orders);
   }
 
   @NonNull
@@ -41,7 +44,7 @@ public class OrderAdminAdapter extends RecyclerView.Adapter<OrderAdminAdapter.Or
 
   @Override
   public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-    Order order = orders.get(position);
+    Order order = getItem(position);
 
     // Display order ID
     holder.textOrderId.setText("Đơn hàng: " + order.getOrderId());
@@ -65,9 +68,7 @@ public class OrderAdminAdapter extends RecyclerView.Adapter<OrderAdminAdapter.Or
     }
 
     // Display total amount
-    NumberFormat currencyFormat = NumberFormat
-        .getCurrencyInstance(new Locale.Builder().setLanguage("vi").setRegion("VN").build());
-    holder.textOrderTotal.setText("Tổng cộng: " + currencyFormat.format(order.getTotalAmount()));
+    holder.textOrderTotal.setText(DisplayFormatter.orderTotal(order.getTotalAmount()));
 
     // Setup product items recycler view
     if (order.getItems() != null && !order.getItems().isEmpty()) {
@@ -90,8 +91,8 @@ public class OrderAdminAdapter extends RecyclerView.Adapter<OrderAdminAdapter.Or
   }
 
   @Override
-  public int getItemCount() {
-    return orders.size();
+  public long getItemId(int position) {
+    return DiffCallbacks.stableId(getItem(position).getOrderId());
   }
 
   static class OrderViewHolder extends RecyclerView.ViewHolder {
@@ -10,6 +10,8 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.models.OrderItem;
+import com.example.phoneshopapp.utils.DisplayFormatter;
+import com.example.phoneshopapp.utils.ProductImages;
 import java.util.List;
 
 /**
@@ -56,16 +58,12 @@ public class OrderItemMiniAdapter extends RecyclerView.Adapter<OrderItemMiniAdap
       }
 
       // Show quantity
-      holder.textQuantity.setText("x" + item.getQuantity());
+      holder.textQuantity.setText(DisplayFormatter.quantity(item.getQuantity()));
 
       // Load image using Glide
       if (item.getImageUrl() != null && !item.getImageUrl().isEmpty()) {
         try {
-          Glide.with(holder.imageProduct.getContext())
-              .load(item.getImageUrl())
-              .placeholder(R.drawable.ic_image_placeholder)
-              .error(R.drawable.ic_image_placeholder)
-              .centerCrop()
+          ProductImages.thumbnail(Glide.with(holder.imageProduct.getContext()), item.getImageUrl())
               .into(holder.imageProduct);
         } catch (Exception e) {
           // Fallback if loading fails
@@ -26,7 +26,6 @@ import java.util.List;
 public class OrdersTabFragment extends Fragment {
   private RecyclerView recyclerOrders;
   private OrderAdminAdapter adapter;
-  private List<Order> orderList = new ArrayList<>();
   private OrderRepository orderRepository;
 
   @Override
@@ -39,7 +38,7 @@ public class OrdersTabFragment extends Fragment {
     orderRepository = new FirebaseOrderRepository();
 
     // Setup RecyclerView
-    adapter = new OrderAdminAdapter(orderList, this::onChangeOrderStatus);
+    adapter = new OrderAdminAdapter(new ArrayList<>(), this::onChangeOrderStatus);
     recyclerOrders.setLayoutManager(new LinearLayoutManager(getContext()));
     recyclerOrders.setAdapter(adapter);
 
@@ -53,9 +52,7 @@ public class OrdersTabFragment extends Fragment {
     orderRepository.getAllOrders(new OrdersCallback() {
       @Override
       public void onSuccess(List<Order> orders) {
-        orderList.clear();
-        orderList.addAll(orders);
-        adapter.notifyDataSetChanged();
+        adapter.submitList(orders);
 
         if (orders.isEmpty()) {
           Toast.makeText(getContext(), "Không có đơn hàng nào", Toast.LENGTH_SHORT).show();
@@ -6,13 +6,21 @@ import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.R;
+import com.example.phoneshopapp.adapters.DiffCallbacks;
+import com.example.phoneshopapp.utils.ProductImages;
 import java.util.List;
 
-public class ProductAdminAdapter extends RecyclerView.Adapter<ProductAdminAdapter.ProductViewHolder> {
-  private final List<Product> products;
+public class ProductAdminAdapter extends ListAdapter<Product, ProductAdminAdapter.ProductViewHolder> {
+  private static final int PRELOAD_AHEAD = 6;
+
+  private final ViewPreloadSizeProvider<Product> preloadSizeProvider = new ViewPreloadSizeProvider<>();
   private final OnEditListener onEditListener;
   private final OnDeleteListener onDeleteListener;
   private final OnManageVariantsListener onManageVariantsListener;
@@ -31,33 +39,33 @@ public class ProductAdminAdapter extends RecyclerView.Adapter<ProductAdminAdapte
 
   public ProductAdminAdapter(List<Product> products, OnEditListener onEditListener,
       OnDeleteListener onDeleteListener, OnManageVariantsListener onManageVariantsListener) {
-    this.products = products;
+    super(DiffCallbacks.config(DiffCallbacks.PRODUCT));
     this.onEditListener = onEditListener;
     this.onDeleteListener = onDeleteListener;
     this.onManageVariantsListener = onManageVariantsListener;
+    setHasStableIds(true);
+    submitList(products);
   }
 
   @NonNull
   @Override
   public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
     View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_admin_product, parent, false);
-    return new ProductViewHolder(view);
+    ProductViewHolder holder = new ProductViewHolder(view);
+    preloadSizeProvider.setView(holder.imageProduct);
+    return holder;
   }
 
   @Override
   public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-    Product product = products.get(position);
+    Product product = getItem(position);
     holder.textName.setText(product.getName());
     holder.textPrice.setText("Giá: " + product.getPrice());
     // Hiển thị ảnh sản phẩm
     android.widget.ImageView imageView = holder.imageProduct;
-    if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
+    if (ProductImages.hasUrl(product.getImageUrl())) {
       // Sử dụng Glide để load ảnh từ URL
-      com.bumptech.glide.Glide.with(imageView.getContext())
-          .load(product.getImageUrl())
-          .placeholder(R.drawable.ic_image_placeholder)
-          .error(R.drawable.ic_image_placeholder)
-          .into(imageView);
+      ProductImages.plain(Glide.with(imageView.getContext()), product.getImageUrl()).into(imageView);
     } else {
       // Hiển thị ảnh skeleton cho sản phẩm không có URL ảnh
       imageView.setImageResource(R.drawable.ic_image_placeholder);
@@ -72,8 +80,13 @@ public class ProductAdminAdapter extends RecyclerView.Adapter<ProductAdminAdapte
   }
 
   @Override
-  public int getItemCount() {
-    return products.size();
+  public long getItemId(int position) {
+    return DiffCallbacks.stableId(getItem(position).getId());
+  }
+
+  public RecyclerView.OnScrollListener createPreloader(RequestManager requestManager) {
+    return ProductImages.preloader(requestManager, ProductImages.itemsOf(this), Product::getImageUrl,
+        ProductImages::plain, preloadSizeProvider, PRELOAD_AHEAD);
   }
 
   static class ProductViewHolder extends RecyclerView.ViewHolder {
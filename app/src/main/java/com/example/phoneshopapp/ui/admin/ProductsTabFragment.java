@@ -11,10 +11,12 @@ import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.ManageVariantsActivity;
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.ProductManager;
 import com.example.phoneshopapp.R;
+import com.example.phoneshopapp.data.ProductCategories;
 import com.google.firebase.firestore.FirebaseFirestore;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,7 +28,6 @@ public class ProductsTabFragment extends Fragment {
   private RecyclerView recyclerProducts;
   private Button btnAddProduct;
   private ProductAdminAdapter adapter;
-  private List<Product> productList = new ArrayList<>();
 
   @Override
   public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -35,9 +36,10 @@ public class ProductsTabFragment extends Fragment {
     recyclerProducts = root.findViewById(R.id.recyclerProducts);
     btnAddProduct = root.findViewById(R.id.btnAddProduct);
 
-    adapter = new ProductAdminAdapter(productList, this::onEditProduct, this::onDeleteProduct, this::onManageVariants);
+    adapter = new ProductAdminAdapter(new ArrayList<>(), this::onEditProduct, this::onDeleteProduct, this::onManageVariants);
     recyclerProducts.setLayoutManager(new LinearLayoutManager(getContext()));
     recyclerProducts.setAdapter(adapter);
+    recyclerProducts.addOnScrollListener(adapter.createPreloader(Glide.with(this)));
 
     btnAddProduct.setOnClickListener(v -> onAddProduct());
 
@@ -50,9 +52,7 @@ public class ProductsTabFragment extends Fragment {
         .loadProductsFromFirebase(new ProductManager.OnProductsLoadedListener() {
           @Override
           public void onSuccess(List<Product> products) {
-            productList.clear();
-            productList.addAll(products);
-            adapter.notifyDataSetChanged();
+            adapter.submitList(products);
           }
 
           @Override
@@ -67,9 +67,7 @@ public class ProductsTabFragment extends Fragment {
         .forceRefreshFromFirebase(new ProductManager.OnProductsLoadedListener() {
           @Override
           public void onSuccess(List<Product> products) {
-            productList.clear();
-            productList.addAll(products);
-            adapter.notifyDataSetChanged();
+            adapter.submitList(products);
           }
 
           @Override
@@ -196,6 +194,7 @@ public class ProductsTabFragment extends Fragment {
           .set(product)
           .addOnSuccessListener(aVoid -> {
             Toast.makeText(getContext(), "Đã cập nhật sản phẩm: " + product.getName(), Toast.LENGTH_SHORT).show();
+            ProductCategories.record(product.getCategory());
             forceRefreshProducts();
             dialog.dismiss();
           })
@@ -267,6 +266,7 @@ public class ProductsTabFragment extends Fragment {
         .set(newProduct)
         .addOnSuccessListener(aVoid -> {
           Toast.makeText(getContext(), "Đã thêm sản phẩm. Vui lòng thêm biến thể ngay.", Toast.LENGTH_LONG).show();
+          ProductCategories.record(category);
           forceRefreshProducts();
           dialog.dismiss();
 
@@ -19,6 +19,7 @@ public class VariantAdapter extends RecyclerView.Adapter<VariantAdapter.VariantV
   private final List<ProductVariant> variants;
   private final OnEditListener onEditListener;
   private final OnDeleteListener onDeleteListener;
+  private final OnShardListener onShardListener;
 
   public interface OnEditListener {
     void onEdit(ProductVariant variant);
@@ -28,11 +29,17 @@ public class VariantAdapter extends RecyclerView.Adapter<VariantAdapter.VariantV
     void onDelete(ProductVariant variant);
   }
 
+  // Nhấn giữ một variant để chia/gộp shard tồn kho
+  public interface OnShardListener {
+    void onShard(ProductVariant variant);
+  }
+
   public VariantAdapter(List<ProductVariant> variants, OnEditListener onEditListener,
-      OnDeleteListener onDeleteListener) {
+      OnDeleteListener onDeleteListener, OnShardListener onShardListener) {
     this.variants = variants;
     this.onEditListener = onEditListener;
     this.onDeleteListener = onDeleteListener;
+    this.onShardListener = onShardListener;
   }
 
   @NonNull
@@ -55,6 +62,9 @@ public class VariantAdapter extends RecyclerView.Adapter<VariantAdapter.VariantV
 
     // Display stock quantity with appropriate color based on availability
     String stockText = "Tồn kho: " + variant.getStockQuantity();
+    if (variant.isStockSharded()) {
+      stockText += " (" + variant.getStockShardCount() + " shard)";
+    }
     holder.textVariantStock.setText(stockText);
 
     // Display availability status
@@ -88,6 +98,10 @@ public class VariantAdapter extends RecyclerView.Adapter<VariantAdapter.VariantV
     // Set click listeners
     holder.btnEdit.setOnClickListener(v -> onEditListener.onEdit(variant));
     holder.btnDelete.setOnClickListener(v -> onDeleteListener.onDelete(variant));
+    holder.itemView.setOnLongClickListener(v -> {
+      onShardListener.onShard(variant);
+      return true;
+    });
   }
 
   @Override
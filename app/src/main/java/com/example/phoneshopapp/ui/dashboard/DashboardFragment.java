@@ -23,13 +23,14 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
+import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.ProductAdapter;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.databinding.FragmentDashboardBinding;
 import com.google.android.material.card.MaterialCardView;
 
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class DashboardFragment extends Fragment {
@@ -49,6 +50,10 @@ public class DashboardFragment extends Fragment {
     private ProductAdapter productAdapter;
     private Handler searchHandler;
     private Runnable searchRunnable;
+    // Người dùng bấm lọc khi catalog chưa tải xong: mở dialog ngay khi catalog về
+    private boolean filterDialogPending = false;
+    
+    private static final int PAGE_PREFETCH_DISTANCE = 6;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater,
@@ -120,6 +125,20 @@ public class DashboardFragment extends Fragment {
         recyclerViewProducts.setLayoutManager(layoutManager);
         productAdapter = new ProductAdapter(java.util.Collections.emptyList());
         recyclerViewProducts.setAdapter(productAdapter);
+        recyclerViewProducts.addOnScrollListener(productAdapter.createPreloader(Glide.with(this)));
+        
+        // Tải trang kế tiếp / trang trước khi cuộn gần hai đầu cửa sổ trang đang giữ
+        recyclerViewProducts.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                int itemCount = layoutManager.getItemCount();
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= itemCount - PAGE_PREFETCH_DISTANCE) {
+                    viewModel.loadNextPage();
+                } else if (dy < 0 && layoutManager.findFirstVisibleItemPosition() <= PAGE_PREFETCH_DISTANCE) {
+                    viewModel.loadPreviousPage();
+                }
+            }
+        });
     }
 
     private void setupClickListeners() {
@@ -158,6 +177,8 @@ public class DashboardFragment extends Fragment {
     private void observeViewModel() {
         // Observe filtered products
         viewModel.getFilteredProducts().observe(getViewLifecycleOwner(), products -> {
+            // Diff theo stable ID: khi cửa sổ trang dịch chuyển, các trang bị bỏ ở đầu list
+            // được remove phía trên viewport nên sản phẩm đang nhìn thấy giữ nguyên vị trí
             productAdapter.updateData(products);
             if (products.isEmpty()) {
                 showEmptyView(true, "Không có sản phẩm nào");
@@ -182,6 +203,13 @@ public class DashboardFragment extends Fragment {
             swipeRefreshLayout.setRefreshing(isLoading);
         });
         
+        // Catalog đầy đủ đã về: mở dialog lọc nếu người dùng đang chờ
+        viewModel.getCatalogLoaded().observe(getViewLifecycleOwner(), loaded -> {
+            if (loaded && filterDialogPending) {
+                showFilterDialog();
+            }
+        });
+        
         // Observe result count
         viewModel.getResultCount().observe(getViewLifecycleOwner(), count -> {
             resultCountText.setText("Hiển thị " + count + " sản phẩm");
@@ -291,6 +319,15 @@ public class DashboardFragment extends Fragment {
     }
 
     private void showFilterDialog() {
+        if (!viewModel.isCatalogLoaded()) {
+            // Bộ lọc cần catalog đầy đủ; chế độ duyệt chỉ giữ vài trang nên tải nền trước
+            filterDialogPending = true;
+            viewModel.loadFullCatalog();
+            Toast.makeText(requireContext(), "Đang tải bộ lọc...", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        filterDialogPending = false;
+        
         View dialogView = getLayoutInflater().inflate(R.layout.dialog_filter, null);
         
         // Get max price từ ViewModel
@@ -299,15 +336,18 @@ public class DashboardFragment extends Fragment {
         // TODO: Setup price range slider và brand checkboxes
         // Đơn giản hóa cho dự án học tập - chỉ filter theo brand
         
-        Set<String> allBrands = viewModel.getAllBrands();
+        // Số lượng theo brand lấy từ facet index, không phải quét lại catalog
+        Map<String, Integer> brandCounts = viewModel.getBrandCounts();
         LinearLayout brandContainer = dialogView.findViewById(R.id.brandContainer);
         
-        if (brandContainer != null && !allBrands.isEmpty()) {
-            Set<String> selectedBrands = new HashSet<>();
+        if (brandContainer != null && !brandCounts.isEmpty()) {
+            Set<String> selectedBrands = viewModel.getSelectedBrands();
             
-            for (String brand : allBrands) {
+            for (Map.Entry<String, Integer> entry : brandCounts.entrySet()) {
+                String brand = entry.getKey();
                 android.widget.CheckBox checkBox = new android.widget.CheckBox(requireContext());
-                checkBox.setText(brand);
+                checkBox.setText(brand + " (" + entry.getValue() + ")");
+                checkBox.setChecked(selectedBrands.contains(brand));
                 checkBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
                     if (isChecked) {
                         selectedBrands.add(brand);
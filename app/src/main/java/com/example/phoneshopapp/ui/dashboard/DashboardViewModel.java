@@ -1,6 +1,5 @@
 package com.example.phoneshopapp.ui.dashboard;
 
-import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
@@ -8,12 +7,20 @@ import androidx.lifecycle.ViewModel;
 
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.ProductManager;
+import com.example.phoneshopapp.data.CatalogChangeSet;
+import com.example.phoneshopapp.data.ProductCategories;
+import com.example.phoneshopapp.data.ProductData;
+import com.example.phoneshopapp.data.ProductPager;
+import com.example.phoneshopapp.data.search.ProductFacetIndex;
+import com.example.phoneshopapp.data.search.ProductSearchIndex;
+import com.example.phoneshopapp.utils.AppLog;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class DashboardViewModel extends ViewModel {
@@ -28,11 +35,23 @@ public class DashboardViewModel extends ViewModel {
     private final MutableLiveData<Boolean> isLoading;
     private final MutableLiveData<String> errorMessage;
     private final MutableLiveData<Integer> resultCount;
+    private final MutableLiveData<Integer> windowOffset;
     
     private final ProductManager productManager;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
     private double minPrice = 0;
     private double maxPrice = Double.MAX_VALUE;
     private Set<String> selectedBrands = new HashSet<>();
+    private String currentQuery = "";
+    
+    // Duyệt catalog theo trang khi không tìm kiếm / lọc brand / lọc giá
+    private ProductPager pager;
+    // Đã có catalog đầy đủ (kể cả rỗng) cho tìm kiếm / facet
+    private final MutableLiveData<Boolean> catalogLoaded = new MutableLiveData<>(false);
+    
+    // Nhận thay đổi incremental từ snapshot listener của PhoneDB
+    private final ProductData.OnCatalogChangedListener catalogChangedListener = this::onCatalogChanged;
     
     public DashboardViewModel() {
         allProducts = new MutableLiveData<>(new ArrayList<>());
@@ -43,56 +62,97 @@ public class DashboardViewModel extends ViewModel {
         isLoading = new MutableLiveData<>(false);
         errorMessage = new MutableLiveData<>("");
         resultCount = new MutableLiveData<>(0);
+        windowOffset = new MutableLiveData<>(0);
         
         productManager = ProductManager.getInstance();
+        // Lấy các index trước khi đăng ký listener để index luôn được cập nhật trước ViewModel
+        searchIndex = ProductSearchIndex.getInstance();
+        facetIndex = ProductFacetIndex.getInstance();
         
+        ProductData.addOnCatalogChangedListener(catalogChangedListener);
+        // Trang đầu hiển thị ngay, catalog đầy đủ chỉ tải khi tìm kiếm / lọc cần tới
         loadProducts();
     }
     
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        ProductData.removeOnCatalogChangedListener(catalogChangedListener);
+    }
+    
+    private void onCatalogChanged(CatalogChangeSet changeSet) {
+        AppLog.d(TAG, () -> "Catalog changed: " + changeSet.size() + " products");
+        List<Product> products = changeSet.getSnapshot();
+        catalogLoaded.setValue(true);
+        allProducts.setValue(products);
+        
+        categories.setValue(ProductCategories.fromProducts(products));
+        // Chế độ phân trang đọc trực tiếp từ Firestore, không cần áp lại
+        if (!isBrowseMode()) {
+            searchProducts(currentQuery);
+        }
+    }
+    
+    // Chế độ duyệt chỉ tải trang đầu + danh sách category; catalog đầy đủ chỉ tải khi
+    // tìm kiếm hoặc lọc brand / giá cần tới
     public void loadProducts() {
-        Log.d(TAG, "Loading products from Firebase");
-        isLoading.setValue(true);
+        AppLog.d(TAG, "Loading products from Firebase");
         errorMessage.setValue("");
-        
+        loadCategories();
+        isLoading.setValue(true);
+        if (isBrowseMode()) {
+            startPaging();
+        } else {
+            loadFullCatalog();
+        }
+    }
+    
+    private void loadCategories() {
+        ProductCategories.load(new ProductCategories.OnCategoriesLoadedListener() {
+            @Override
+            public void onCategoriesLoaded(List<String> categoryList) {
+                categories.setValue(categoryList);
+                AppLog.d(TAG, () -> "Categories loaded: " + categoryList.size());
+            }
+            
+            @Override
+            public void onFailure(Exception e) {
+                AppLog.w(TAG, "Failed to load categories: " + e.getMessage());
+            }
+        });
+    }
+    
+    // Catalog đầy đủ cho tìm kiếm và facet; ProductData gom các lần gọi trùng nhau
+    // và trả ngay bản đã sync nên gọi lại nhiều lần không đọc lại collection
+    public void loadFullCatalog() {
         productManager.loadProductsFromFirebase(new ProductManager.OnProductsLoadedListener() {
             @Override
             public void onSuccess(List<Product> products) {
-                Log.d(TAG, "Products loaded successfully: " + products.size());
+                AppLog.d(TAG, () -> "Products loaded successfully: " + products.size());
+                catalogLoaded.setValue(true);
                 allProducts.setValue(products);
-                isLoading.setValue(false);
-                
-                extractCategories(products);
-                applyFiltersAndSort();
+                categories.setValue(ProductCategories.fromProducts(products));
+                if (!isBrowseMode()) {
+                    isLoading.setValue(false);
+                    searchProducts(currentQuery);
+                }
             }
             
             @Override
             public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to load products: " + e.getMessage());
+                AppLog.e(TAG, "Failed to load products: " + e.getMessage());
                 isLoading.setValue(false);
                 errorMessage.setValue("Lỗi tải sản phẩm: " + e.getMessage());
             }
         });
     }
     
-    private void extractCategories(List<Product> products) {
-        Set<String> categorySet = new HashSet<>();
-        categorySet.add("All");
-        
-        for (Product product : products) {
-            if (product.getCategory() != null && !product.getCategory().isEmpty()) {
-                categorySet.add(product.getCategory());
-            }
-        }
-        
-        List<String> categoryList = new ArrayList<>(categorySet);
-        Collections.sort(categoryList, (a, b) -> {
-            if (a.equals("All")) return -1;
-            if (b.equals("All")) return 1;
-            return a.compareTo(b);
-        });
-        
-        categories.setValue(categoryList);
-        Log.d(TAG, "Categories extracted: " + categoryList.size());
+    public boolean isCatalogLoaded() {
+        return Boolean.TRUE.equals(catalogLoaded.getValue());
+    }
+    
+    public LiveData<Boolean> getCatalogLoaded() {
+        return catalogLoaded;
     }
     
     public void setSelectedCategory(String category) {
@@ -126,139 +186,138 @@ public class DashboardViewModel extends ViewModel {
     }
     
     public void searchProducts(String query) {
+        currentQuery = query != null ? query : "";
         if (query == null || query.trim().isEmpty()) {
             applyFiltersAndSort();
             return;
         }
+        pager = null;
+        windowOffset.setValue(0);
         
-        String lowerQuery = query.toLowerCase().trim();
+        if (!isCatalogLoaded()) {
+            // Kết quả được áp lại khi catalog tải xong
+            isLoading.setValue(true);
+            loadFullCatalog();
+            return;
+        }
         List<Product> products = allProducts.getValue();
-        if (products == null) return;
-        
-        List<Product> searchResults = new ArrayList<>();
         
-        for (Product product : products) {
-            boolean matches = false;
-            
-            // Search in name
-            if (product.getName() != null && 
-                product.getName().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
-            
-            // Search in brand
-            if (product.getBrand() != null && 
-                product.getBrand().toLowerCase().contains(lowerQuery)) {
-                matches = true;
+        // Index build trên background ở lần đầu; kết quả áp khi xong nếu query vẫn còn hiệu lực
+        searchIndex.ensureIndexedAsync(products, () -> {
+            if (query.equals(currentQuery) && products == allProducts.getValue()) {
+                showSearchResults(products, query);
             }
-            
-            // Search in category
-            if (product.getCategory() != null && 
-                product.getCategory().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
-            
-            if (matches) {
-                searchResults.add(product);
-            }
-        }
+        });
+    }
+    
+    private void showSearchResults(List<Product> products, String query) {
+        // Tra inverted index dùng chung thay vì quét toàn bộ catalog mỗi lần gõ phím
+        List<Product> searchResults = searchIndex.searchProducts(query);
         
-        // Apply category filter
-        String category = selectedCategory.getValue();
-        if (category != null && !category.equals("All")) {
-            List<Product> categoryFiltered = new ArrayList<>();
-            for (Product p : searchResults) {
-                if (p.getCategory() != null && p.getCategory().equals(category)) {
-                    categoryFiltered.add(p);
-                }
-            }
-            searchResults = categoryFiltered;
-        }
+        // Apply category filter bằng facet bitmap
+        facetIndex.ensureIndexed(products);
+        BitSet matches = facetIndex.toBitSet(searchResults);
+        matches.and(facetIndex.category(selectedCategory.getValue()));
+        // Kết quả lấy ra đã sắp xếp theo permutation có sẵn
+        searchResults = facetIndex.toSortedProducts(matches, selectedSort.getValue());
         
-        applySortToList(searchResults);
+        int count = searchResults.size();
         filteredProducts.setValue(searchResults);
-        resultCount.setValue(searchResults.size());
+        resultCount.setValue(count);
         
-        Log.d(TAG, "Search: " + searchResults.size() + " results for: " + query);
+        AppLog.d(TAG, () -> "Search: " + count + " results for: " + query);
     }
     
-    private void applyFiltersAndSort() {
-        List<Product> products = allProducts.getValue();
-        if (products == null || products.isEmpty()) {
-            filteredProducts.setValue(new ArrayList<>());
-            resultCount.setValue(0);
-            return;
+    // Không có tìm kiếm, lọc brand hay lọc giá: chỉ cần category + sort nên dùng cursor Firestore.
+    // Sort theo tên đi qua facet index để thứ tự theo Collator tiếng Việt giống chế độ lọc
+    private boolean isBrowseMode() {
+        return ProductPager.supportsSort(selectedSort.getValue())
+                && currentQuery.trim().isEmpty()
+                && selectedBrands.isEmpty()
+                && minPrice <= 0
+                && maxPrice == Double.MAX_VALUE;
+    }
+    
+    private void startPaging() {
+        pager = new ProductPager(selectedCategory.getValue(), selectedSort.getValue());
+        windowOffset.setValue(0);
+        loadNextPage();
+    }
+    
+    // Gọi khi RecyclerView cuộn gần cuối danh sách
+    public void loadNextPage() {
+        if (pager != null && isBrowseMode()) {
+            pager.loadNextPage(new PageListener(pager));
         }
+    }
+    
+    // Gọi khi RecyclerView cuộn gần đầu cửa sổ trang đang giữ
+    public void loadPreviousPage() {
+        if (pager != null && isBrowseMode() && pager.hasPreviousPage()) {
+            pager.loadPreviousPage(new PageListener(pager));
+        }
+    }
+    
+    private class PageListener implements ProductPager.OnPageLoadedListener {
+        private final ProductPager source;
         
-        List<Product> filtered = new ArrayList<>();
-        String category = selectedCategory.getValue();
+        PageListener(ProductPager source) {
+            this.source = source;
+        }
         
-        for (Product product : products) {
-            // Category filter
-            if (category != null && !category.equals("All")) {
-                if (product.getCategory() == null || !product.getCategory().equals(category)) {
-                    continue;
-                }
+        @Override
+        public void onPageLoaded(List<Product> window, int offset) {
+            // Bỏ qua kết quả của pager cũ (đã đổi category / sort / bộ lọc)
+            if (source != pager || !isBrowseMode()) {
+                return;
             }
+            isLoading.setValue(false);
+            windowOffset.setValue(offset);
+            filteredProducts.setValue(window);
             
-            // Price filter - FIXED: use getPriceValue() instead of getPrice()
-            if (product.getPriceValue() < minPrice || product.getPriceValue() > maxPrice) {
-                continue;
+            // Tổng số chính xác lấy từ facet index nếu catalog đã có sẵn
+            List<Product> products = allProducts.getValue();
+            if (products != null && !products.isEmpty()) {
+                facetIndex.ensureIndexed(products);
+                resultCount.setValue(facetIndex.category(selectedCategory.getValue()).cardinality());
+            } else {
+                resultCount.setValue(offset + window.size());
             }
-            
-            // Brand filter
-            if (!selectedBrands.isEmpty()) {
-                if (product.getBrand() == null || !selectedBrands.contains(product.getBrand())) {
-                    continue;
-                }
-            }
-            
-            filtered.add(product);
         }
         
-        applySortToList(filtered);
-        filteredProducts.setValue(filtered);
-        resultCount.setValue(filtered.size());
-        
-        Log.d(TAG, "Filters applied: " + filtered.size() + " products");
+        @Override
+        public void onFailure(Exception e) {
+            if (source == pager) {
+                isLoading.setValue(false);
+                errorMessage.setValue("Lỗi tải sản phẩm: " + e.getMessage());
+            }
+        }
     }
     
-    private void applySortToList(List<Product> products) {
-        String sort = selectedSort.getValue();
-        if (sort == null || sort.equals("default")) {
+    private void applyFiltersAndSort() {
+        if (isBrowseMode()) {
+            startPaging();
             return;
         }
+        pager = null;
+        windowOffset.setValue(0);
         
-        Comparator<Product> comparator = null;
-        
-        switch (sort) {
-            case "price_asc":
-                // FIXED: use getPriceValue() instead of getPrice()
-                comparator = (a, b) -> Double.compare(a.getPriceValue(), b.getPriceValue());
-                break;
-            case "price_desc":
-                // FIXED: use getPriceValue() instead of getPrice()
-                comparator = (a, b) -> Double.compare(b.getPriceValue(), a.getPriceValue());
-                break;
-            case "name_asc":
-                comparator = (a, b) -> {
-                    String nameA = a.getName() != null ? a.getName() : "";
-                    String nameB = b.getName() != null ? b.getName() : "";
-                    return nameA.compareToIgnoreCase(nameB);
-                };
-                break;
-            case "name_desc":
-                comparator = (a, b) -> {
-                    String nameA = a.getName() != null ? a.getName() : "";
-                    String nameB = b.getName() != null ? b.getName() : "";
-                    return nameB.compareToIgnoreCase(nameA);
-                };
-                break;
+        if (!isCatalogLoaded()) {
+            isLoading.setValue(true);
+            loadFullCatalog();
+            return;
         }
+        List<Product> products = allProducts.getValue();
         
-        if (comparator != null) {
-            Collections.sort(products, comparator);
-        }
+        // Bộ lọc = giao các bitmap category / brand / khoảng giá
+        facetIndex.ensureIndexed(products);
+        BitSet matches = facetIndex.filter(selectedCategory.getValue(), selectedBrands, minPrice, maxPrice);
+        List<Product> filtered = facetIndex.toSortedProducts(matches, selectedSort.getValue());
+        
+        filteredProducts.setValue(filtered);
+        resultCount.setValue(filtered.size());
+        
+        AppLog.d(TAG, () -> "Filters applied: " + filtered.size() + " products");
     }
     
     // Getters
@@ -286,34 +345,45 @@ public class DashboardViewModel extends ViewModel {
         return resultCount;
     }
     
+    // Vị trí tuyệt đối của phần tử đầu tiên trong danh sách đang hiển thị (khi phân trang)
+    public LiveData<Integer> getWindowOffset() {
+        return windowOffset;
+    }
+    
     public Set<String> getAllBrands() {
-        List<Product> products = allProducts.getValue();
-        Set<String> brands = new HashSet<>();
-        
-        if (products != null) {
-            for (Product p : products) {
-                if (p.getBrand() != null && !p.getBrand().isEmpty()) {
-                    brands.add(p.getBrand());
-                }
-            }
+        // Chưa có catalog thì allProducts chỉ là list rỗng tạm, không được build index từ nó
+        if (!isCatalogLoaded()) {
+            loadFullCatalog();
+            return Collections.emptySet();
         }
-        
-        return brands;
+        facetIndex.ensureIndexed(allProducts.getValue());
+        return facetIndex.getBrands();
+    }
+    
+    /**
+     * Số sản phẩm theo từng brand trong phạm vi category + khoảng giá hiện tại,
+     * dùng để hiển thị "Apple (12)" trong filter sheet
+     */
+    public Map<String, Integer> getBrandCounts() {
+        if (!isCatalogLoaded()) {
+            loadFullCatalog();
+            return Collections.emptyMap();
+        }
+        facetIndex.ensureIndexed(allProducts.getValue());
+        BitSet base = facetIndex.filter(selectedCategory.getValue(), null, minPrice, maxPrice);
+        return facetIndex.brandCounts(base);
+    }
+    
+    public Set<String> getSelectedBrands() {
+        return new HashSet<>(selectedBrands);
     }
     
     public double getMaxProductPrice() {
-        List<Product> products = allProducts.getValue();
-        double max = 0;
-        
-        if (products != null) {
-            for (Product p : products) {
-                // FIXED: use getPriceValue() instead of getPrice()
-                if (p.getPriceValue() > max) {
-                    max = p.getPriceValue();
-                }
-            }
+        if (!isCatalogLoaded()) {
+            loadFullCatalog();
+            return 0;
         }
-        
-        return max;
+        facetIndex.ensureIndexed(allProducts.getValue());
+        return facetIndex.getMaxPrice();
     }
 }
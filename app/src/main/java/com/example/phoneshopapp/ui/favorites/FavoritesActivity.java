@@ -13,6 +13,7 @@ import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.MainActivity;
 import com.example.phoneshopapp.ProductDetailActivity;
 import com.example.phoneshopapp.R;
@@ -97,6 +98,7 @@ public class FavoritesActivity extends AppCompatActivity
 
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(adapter.createPreloader(Glide.with(this)));
 
         // Setup swipe-to-delete
         ItemTouchHelper itemTouchHelper = new ItemTouchHelper(
@@ -8,25 +8,33 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.resource.bitmap.CenterCrop;
-import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.example.phoneshopapp.R;
+import com.example.phoneshopapp.adapters.DiffCallbacks;
 import com.example.phoneshopapp.data.favorite.FavoriteManager;
 import com.example.phoneshopapp.models.FavoriteItem;
+import com.example.phoneshopapp.utils.ProductImages;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Adapter for displaying favorite items in RecyclerView
  * Supports click to view details and remove from favorites
+ * Diff tính nền qua ListAdapter, stable ID theo document ID của favorite
  */
-public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.ViewHolder> {
+public class FavoritesAdapter extends ListAdapter<FavoriteItem, FavoritesAdapter.ViewHolder> {
+
+    // Danh sách dọc: tải trước khoảng nửa màn hình phía dưới
+    private static final int PRELOAD_AHEAD = 5;
 
-    private List<FavoriteItem> items;
     private Context context;
+    private final ViewPreloadSizeProvider<FavoriteItem> preloadSizeProvider = new ViewPreloadSizeProvider<>();
     private OnFavoriteItemClickListener listener;
 
     public interface OnFavoriteItemClickListener {
@@ -35,9 +43,11 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
     }
 
     public FavoritesAdapter(Context context, List<FavoriteItem> items, OnFavoriteItemClickListener listener) {
+        super(DiffCallbacks.config(DiffCallbacks.FAVORITE));
         this.context = context;
-        this.items = items;
         this.listener = listener;
+        setHasStableIds(true);
+        submitList(items);
     }
 
     @NonNull
@@ -45,12 +55,14 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context)
             .inflate(R.layout.item_favorite, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        preloadSizeProvider.setView(holder.imageProduct);
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        FavoriteItem item = items.get(position);
+        FavoriteItem item = getItem(position);
 
         holder.textName.setText(item.getProductName());
         holder.textPrice.setText(item.getProductPrice());
@@ -64,12 +76,8 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
         }
 
         // Load product image
-        if (item.getProductImageUrl() != null && !item.getProductImageUrl().isEmpty()) {
-            Glide.with(context)
-                .load(item.getProductImageUrl())
-                .transform(new CenterCrop(), new RoundedCorners(12))
-                .placeholder(R.drawable.ic_image_placeholder)
-                .error(R.drawable.ic_image_placeholder)
+        if (ProductImages.hasUrl(item.getProductImageUrl())) {
+            ProductImages.compactCard(Glide.with(context), item.getProductImageUrl())
                 .into(holder.imageProduct);
         } else {
             holder.imageProduct.setImageResource(R.drawable.ic_image_placeholder);
@@ -91,29 +99,36 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
     }
 
     @Override
-    public int getItemCount() {
-        return items.size();
+    public long getItemId(int position) {
+        return DiffCallbacks.stableId(getItem(position).getId());
+    }
+
+    public RecyclerView.OnScrollListener createPreloader(RequestManager requestManager) {
+        return ProductImages.preloader(requestManager, ProductImages.itemsOf(this), FavoriteItem::getProductImageUrl,
+                ProductImages::compactCard, preloadSizeProvider, PRELOAD_AHEAD);
     }
 
     /**
      * Update adapter data
      */
     public void updateData(List<FavoriteItem> newItems) {
-        this.items = newItems;
-        notifyDataSetChanged();
+        submitList(newItems);
     }
 
     /**
      * Remove item at position (for swipe-to-delete)
      */
     public void removeItem(int position) {
-        if (position < 0 || position >= items.size()) {
+        List<FavoriteItem> current = getCurrentList();
+        if (position < 0 || position >= current.size()) {
             return;
         }
 
-        FavoriteItem item = items.get(position);
-        items.remove(position);
-        notifyItemRemoved(position);
+        // List đã submit là read-only: submit bản sao không có item này
+        FavoriteItem item = current.get(position);
+        List<FavoriteItem> remaining = new ArrayList<>(current);
+        remaining.remove(position);
+        submitList(remaining);
 
         // Remove from Firestore
         FavoriteManager.getInstance().removeFavorite(item.getId(), 
@@ -126,8 +141,9 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
                 @Override
                 public void onFailure(String error) {
                     // Re-add to list if failed
-                    items.add(position, item);
-                    notifyItemInserted(position);
+                    List<FavoriteItem> restored = new ArrayList<>(getCurrentList());
+                    restored.add(Math.min(position, restored.size()), item);
+                    submitList(restored);
                 }
             });
     }
@@ -136,8 +152,8 @@ public class FavoritesAdapter extends RecyclerView.Adapter<FavoritesAdapter.View
      * Get item at position (for swipe callback)
      */
     public FavoriteItem getItemAt(int position) {
-        if (position >= 0 && position < items.size()) {
-            return items.get(position);
+        if (position >= 0 && position < getItemCount()) {
+            return getItem(position);
         }
         return null;
     }
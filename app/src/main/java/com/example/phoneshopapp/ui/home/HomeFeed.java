@@ -0,0 +1,54 @@
+package com.example.phoneshopapp.ui.home;
+
+import com.example.phoneshopapp.Category;
+import com.example.phoneshopapp.Product;
+import java.util.List;
+
+/**
+ * Kết quả immutable của một lần dựng home feed từ snapshot catalog.
+ */
+public class HomeFeed {
+
+  private final List<Category> categories;
+  private final List<Product> featured;
+  private final List<Product> deals;
+  private final List<Product> flashSale;
+  private final int productCount;
+
+  // Thời gian (ns) duyệt và chia snapshot trong HomeFeedBuilder
+  private final long partitionNanos;
+
+  HomeFeed(List<Category> categories, List<Product> featured, List<Product> deals,
+      List<Product> flashSale, int productCount, long partitionNanos) {
+    this.categories = categories;
+    this.featured = featured;
+    this.deals = deals;
+    this.flashSale = flashSale;
+    this.productCount = productCount;
+    this.partitionNanos = partitionNanos;
+  }
+
+  public List<Category> getCategories() {
+    return categories;
+  }
+
+  public List<Product> getFeatured() {
+    return featured;
+  }
+
+  public List<Product> getDeals() {
+    return deals;
+  }
+
+  public List<Product> getFlashSale() {
+    return flashSale;
+  }
+
+  public int getProductCount() {
+    return productCount;
+  }
+
+  public long getPartitionNanos() {
+    return partitionNanos;
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.phoneshopapp.ui.home;
+
+import com.example.phoneshopapp.Category;
+import com.example.phoneshopapp.Product;
+import com.example.phoneshopapp.R;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dựng home feed (categories, featured, best deals, flash sale) trong một lần duyệt
+ * snapshot catalog. Không đụng tới view hay LiveData nên chạy được trên background thread.
+ */
+final class HomeFeedBuilder {
+
+  private HomeFeedBuilder() {
+  }
+
+  static HomeFeed build(List<Product> products) {
+    long start = System.nanoTime();
+
+    List<Category> categories = new ArrayList<>();
+    Set<String> seenCategories = new HashSet<>();
+    List<Product> featured = new ArrayList<>();
+    List<Product> deals = new ArrayList<>();
+    List<Product> flashSale = new ArrayList<>();
+
+    for (Product product : products) {
+      String category = product.getCategory();
+      if (category != null && !category.isEmpty() && seenCategories.add(category)) {
+        categories.add(new Category(category, getCategoryIcon(category)));
+      }
+      if (product.isFeatured()) {
+        featured.add(product);
+      }
+      if (product.isBestDeal()) {
+        deals.add(product);
+      }
+      if (product.isFlashSale()) {
+        flashSale.add(product);
+      }
+    }
+
+    // Section nào trống thì hiển thị tất cả sản phẩm
+    List<Product> all = Collections.unmodifiableList(new ArrayList<>(products));
+    return new HomeFeed(
+        Collections.unmodifiableList(categories),
+        featured.isEmpty() ? all : Collections.unmodifiableList(featured),
+        deals.isEmpty() ? all : Collections.unmodifiableList(deals),
+        flashSale.isEmpty() ? all : Collections.unmodifiableList(flashSale),
+        products.size(),
+        System.nanoTime() - start);
+  }
+
+  /**
+   * Map category names to appropriate icons
+   */
+  static int getCategoryIcon(String category) {
+    if (category == null) return R.drawable.ic_home_black_24dp;
+
+    String lowerCategory = category.toLowerCase();
+
+    if (lowerCategory.contains("phone") || lowerCategory.contains("smartphone")) {
+      return R.drawable.ic_home_black_24dp;
+    } else if (lowerCategory.contains("tablet") || lowerCategory.contains("ipad")) {
+      return R.drawable.ic_dashboard_black_24dp;
+    } else if (lowerCategory.contains("accessory") || lowerCategory.contains("accessories")) {
+      return R.drawable.ic_notifications_black_24dp;
+    } else if (lowerCategory.contains("watch")) {
+      return R.drawable.ic_home_black_24dp;
+    } else if (lowerCategory.contains("audio") || lowerCategory.contains("headphone")) {
+      return R.drawable.ic_dashboard_black_24dp;
+    } else {
+      return R.drawable.ic_notifications_black_24dp; // Default icon
+    }
+  }
+}
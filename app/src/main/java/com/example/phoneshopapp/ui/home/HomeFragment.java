@@ -14,13 +14,16 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.GridLayoutManager;
-import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.viewpager2.widget.ViewPager2;
 
+import com.bumptech.glide.Glide;
 import com.example.phoneshopapp.CartManager;
 import com.example.phoneshopapp.CategoryAdapter;
 import com.example.phoneshopapp.FlashSaleAdapter;
+import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.ProductAdapter;
 import com.example.phoneshopapp.ProductGridAdapter;
 import com.example.phoneshopapp.ProductManager;
@@ -34,14 +37,25 @@ import android.graphics.PorterDuff;
 
 import com.example.phoneshopapp.databinding.FragmentHomeBinding;
 import com.example.phoneshopapp.models.Banner;
+import com.example.phoneshopapp.utils.ProductImages;
 import androidx.navigation.Navigation;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.IntFunction;
 
 public class HomeFragment extends Fragment {
 
     private static final String TAG = "HomeFragment";
+    private static final int GRID_SPAN_COUNT = 2;
+    private static final int ROW_POOL_SIZE = 10;
+    // Số item prefetch khi một hàng ngang sắp hiện (khoảng số item vừa một màn hình)
+    private static final int CATEGORY_ROW_PREFETCH = 5;
+    private static final int PRODUCT_ROW_PREFETCH = 3;
+    private static final int BEST_DEALS_TITLE_MARGIN_TOP_DP = 24;
+    // Lưới 2 cột: tải trước ảnh khoảng 3 hàng phía dưới
+    private static final int POPULAR_PRELOAD_AHEAD = 6;
 
     private FragmentHomeBinding binding;
     private HomeViewModel homeViewModel;
@@ -49,6 +63,11 @@ public class HomeFragment extends Fragment {
     private ProductGridAdapter popularProductsAdapter;
     private ProductAdapter bestDealsAdapter;
     private FlashSaleAdapter flashSaleAdapter;
+    private HomeRowAdapter flashSaleRow;
+    private HomeRowAdapter bestDealsRow;
+    private ConcatAdapter homeAdapter;
+    // null ở bản release: chỉ đo khi AppLog.DEBUG
+    private HomeRenderStats renderStats;
     private BannerAdapter bannerAdapter;
     private ViewPager2 bannerViewPager;
     private LinearLayout dotsIndicator;
@@ -67,6 +86,9 @@ public class HomeFragment extends Fragment {
 
         setupUI();
         observeData();
+        if (renderStats != null) {
+            renderStats.logFirstFrame(root);
+        }
 
         Log.d(TAG, "✅ HomeFragment setup complete");
         return root;
@@ -74,27 +96,26 @@ public class HomeFragment extends Fragment {
 
     private void setupUI() {
         View root = binding.getRoot();
-        setupBannerSlider(root);
-        
-        binding.homeSearchView.setOnQueryTextListener(new androidx.appcompat.widget.SearchView.OnQueryTextListener() {
-            @Override
-            public boolean onQueryTextSubmit(String query) {
-                Intent intent = new Intent(getActivity(), SearchActivity.class);
-                intent.putExtra("search_query", query);
-                startActivity(intent);
-                return false;
-            }
+        renderStats = HomeRenderStats.createIfEnabled();
 
-            @Override
-            public boolean onQueryTextChange(String newText) {
-                return false;
-            }
-        });
+        // Pool chung cho các hàng ngang; mỗi adapter con có view type riêng theo layout
+        RecyclerView.RecycledViewPool rowPool = new RecyclerView.RecycledViewPool();
+        rowPool.setMaxRecycledViews(R.layout.item_category, ROW_POOL_SIZE);
+        rowPool.setMaxRecycledViews(R.layout.item_flash_sale, ROW_POOL_SIZE);
+        rowPool.setMaxRecycledViews(R.layout.item_product_grid, ROW_POOL_SIZE);
 
-        ImageView searchIcon = binding.homeSearchView.findViewById(androidx.appcompat.R.id.search_mag_icon);
-        searchIcon.setColorFilter(getResources().getColor(R.color.text_secondary), android.graphics.PorterDuff.Mode.SRC_IN);
+        HomeSectionAdapter headerSection = new HomeSectionAdapter(
+                R.layout.layout_home_header, this::setupHeader);
+
+        // Flash Sale
+        flashSaleAdapter = new FlashSaleAdapter(new ArrayList<>());
+        flashSaleRow = new HomeRowAdapter(R.layout.item_home_flash_sale_row, flashSaleAdapter,
+                rowPool, PRODUCT_ROW_PREFETCH, renderStats);
+        flashSaleRow.setRowScrollListener(flashSaleAdapter.createPreloader(Glide.with(this)));
 
-        // Categories RecyclerView
+        HomeSectionAdapter voucherSection = new HomeSectionAdapter(R.layout.layout_home_voucher, null);
+
+        // Categories
         categoryAdapter = new CategoryAdapter(new ArrayList<>());
         categoryAdapter.setOnCategoryClickListener(category -> {
             Log.d(TAG, "📂 Category clicked: " + category.getName());
@@ -109,104 +130,144 @@ public class HomeFragment extends Fragment {
                 Log.e(TAG, "Navigation error: " + e.getMessage());
             }
         });
-        binding.recyclerCategories.setLayoutManager(
-                new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
-        binding.recyclerCategories.setAdapter(categoryAdapter);
+        HomeRowAdapter categoryRow = new HomeRowAdapter(R.layout.item_home_row, categoryAdapter,
+                rowPool, CATEGORY_ROW_PREFETCH, renderStats);
 
-        // Popular Products RecyclerView
+        // Popular Products: item nằm trực tiếp trong lưới 2 cột của RecyclerView cha
         popularProductsAdapter = new ProductGridAdapter(new ArrayList<>());
-        binding.recyclerPopularProducts.setLayoutManager(
-                new GridLayoutManager(getContext(), 2));
-        binding.recyclerPopularProducts.setAdapter(popularProductsAdapter);
 
-        // Best Deals RecyclerView
+        // Best Deals
         bestDealsAdapter = new ProductAdapter(new ArrayList<>());
-        binding.recyclerBestDeals.setLayoutManager(
-                new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
-        binding.recyclerBestDeals.setAdapter(bestDealsAdapter);
+        bestDealsRow = new HomeRowAdapter(R.layout.item_home_row, bestDealsAdapter,
+                rowPool, PRODUCT_ROW_PREFETCH, renderStats);
+        bestDealsRow.setRowScrollListener(bestDealsAdapter.createPreloader(Glide.with(this)));
+
+        homeAdapter = new ConcatAdapter(
+                headerSection,
+                flashSaleRow,
+                voucherSection,
+                sectionTitle("Danh mục", 0),
+                categoryRow,
+                sectionTitle("Sản phẩm phổ biến", 0),
+                popularProductsAdapter,
+                sectionTitle("Ưu đãi tốt nhất", BEST_DEALS_TITLE_MARGIN_TOP_DP),
+                bestDealsRow);
+
+        GridLayoutManager layoutManager = new GridLayoutManager(getContext(), GRID_SPAN_COUNT);
+        layoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+            @Override
+            public int getSpanSize(int position) {
+                return isPopularProductPosition(position) ? 1 : GRID_SPAN_COUNT;
+            }
+        });
 
-        // Flash Sale RecyclerView
-        flashSaleAdapter = new FlashSaleAdapter(new ArrayList<>());
-        binding.recyclerFlashSale.setLayoutManager(
-                new LinearLayoutManager(getContext(), LinearLayoutManager.HORIZONTAL, false));
-        binding.recyclerFlashSale.setAdapter(flashSaleAdapter);
+        binding.recyclerHome.setLayoutManager(layoutManager);
+        binding.recyclerHome.setAdapter(homeAdapter);
+        binding.recyclerHome.addOnScrollListener(createPopularPreloader());
+        if (renderStats != null) {
+            renderStats.track(binding.recyclerHome);
+        }
+    }
+
+    // Vị trí trong RecyclerView cha là vị trí của ConcatAdapter, đổi về vị trí trong lưới phổ biến
+    private RecyclerView.OnScrollListener createPopularPreloader() {
+        IntFunction<Product> popular = ProductImages.itemsOf(popularProductsAdapter);
+        // Cùng request với ProductGridAdapter.onBindViewHolder
+        return ProductImages.preloader(Glide.with(this), position -> popular.apply(position - popularProductsStart()),
+                Product::getImageUrl, ProductImages::card,
+                popularProductsAdapter.getPreloadSizeProvider(), POPULAR_PRELOAD_AHEAD);
+    }
+
+    private void setupHeader(View header) {
+        setupBannerSlider(header);
+
+        androidx.appcompat.widget.SearchView searchView = header.findViewById(R.id.homeSearchView);
+        searchView.setOnQueryTextListener(new androidx.appcompat.widget.SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                Intent intent = new Intent(getActivity(), SearchActivity.class);
+                intent.putExtra("search_query", query);
+                startActivity(intent);
+                return false;
+            }
+
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                return false;
+            }
+        });
+
+        ImageView searchIcon = searchView.findViewById(androidx.appcompat.R.id.search_mag_icon);
+        searchIcon.setColorFilter(getResources().getColor(R.color.text_secondary), android.graphics.PorterDuff.Mode.SRC_IN);
+    }
+
+    private HomeSectionAdapter sectionTitle(String title, int marginTopDp) {
+        return new HomeSectionAdapter(R.layout.item_home_section_title, view -> {
+            TextView textTitle = view.findViewById(R.id.textSectionTitle);
+            textTitle.setText(title);
+            if (marginTopDp > 0) {
+                ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) view.getLayoutParams();
+                params.topMargin = Math.round(marginTopDp * getResources().getDisplayMetrics().density);
+                view.setLayoutParams(params);
+            }
+        });
+    }
+
+    // Item của lưới sản phẩm phổ biến chiếm 1 cột, mọi section khác chiếm cả hàng
+    private boolean isPopularProductPosition(int position) {
+        int start = popularProductsStart();
+        return position >= start && position < start + popularProductsAdapter.getItemCount();
+    }
+
+    private int popularProductsStart() {
+        int start = 0;
+        for (RecyclerView.Adapter<? extends RecyclerView.ViewHolder> adapter : homeAdapter.getAdapters()) {
+            if (adapter == popularProductsAdapter) {
+                return start;
+            }
+            start += adapter.getItemCount();
+        }
+        return start;
     }
 
     private void observeData() {
         // Categories
         homeViewModel.getCategories().observe(getViewLifecycleOwner(), categories -> {
-            Log.d(TAG, "📂 Categories updated: " + categories.size());
-            categoryAdapter.categoryList = categories;
-            categoryAdapter.notifyDataSetChanged();
+            categoryAdapter.submitList(categories);
         });
 
         // Popular Products
         homeViewModel.getPopularProducts().observe(getViewLifecycleOwner(), products -> {
-            Log.d(TAG, "⭐ Popular products updated: " + products.size());
             if (products != null && !products.isEmpty()) {
-                popularProductsAdapter.productList = products;
-                popularProductsAdapter.notifyDataSetChanged();
-                binding.recyclerPopularProducts.setVisibility(View.VISIBLE);
-
-                // Log products for debugging
-                for (int i = 0; i < Math.min(5, products.size()); i++) {
-                    Log.d(TAG, "Popular: " + products.get(i).getName());
+                popularProductsAdapter.submitList(products);
+                if (renderStats != null) {
+                    renderStats.logFirstContentFrame(binding.getRoot());
                 }
             } else {
-                // Không có dữ liệu - ẩn RecyclerView
-                binding.recyclerPopularProducts.setVisibility(View.GONE);
-                Log.d(TAG, "No popular products to display");
+                // Không có dữ liệu - ẩn lưới
+                popularProductsAdapter.submitList(Collections.emptyList());
             }
         });
 
         // Best Deals
         homeViewModel.getBestDeals().observe(getViewLifecycleOwner(), products -> {
-            Log.d(TAG, "🔥 Best deals updated: " + products.size());
             if (products != null && !products.isEmpty()) {
-                bestDealsAdapter.productList = products;
-                bestDealsAdapter.notifyDataSetChanged();
-                binding.recyclerBestDeals.setVisibility(View.VISIBLE);
-
-                // Log products for debugging
-                for (int i = 0; i < Math.min(5, products.size()); i++) {
-                    Log.d(TAG, "Deal: " + products.get(i).getName());
-                }
+                bestDealsAdapter.submitList(products);
+                bestDealsRow.setVisible(true);
             } else {
-                // Không có dữ liệu - ẩn RecyclerView
-                binding.recyclerBestDeals.setVisibility(View.GONE);
-                Log.d(TAG, "No best deals to display");
+                // Không có dữ liệu - ẩn hàng
+                bestDealsRow.setVisible(false);
             }
         });
 
         // Flash Sale Products
         homeViewModel.getFlashSaleProducts().observe(getViewLifecycleOwner(), products -> {
-            Log.d(TAG, "⚡ Flash sale products updated: " + products.size());
             if (products != null && !products.isEmpty()) {
-                flashSaleAdapter.productList = products;
-                flashSaleAdapter.notifyDataSetChanged();
-                binding.recyclerFlashSale.setVisibility(View.VISIBLE);
-
-                // Log products for debugging
-                for (int i = 0; i < Math.min(5, products.size()); i++) {
-                    Log.d(TAG, "Flash Sale: " + products.get(i).getName());
-                }
-            } else {
-                // Không có dữ liệu - ẩn RecyclerView
-                binding.recyclerFlashSale.setVisibility(View.GONE);
-                Log.d(TAG, "No flash sale products to display");
-            }
-        });
-
-        // Loading State
-        homeViewModel.getIsLoading().observe(getViewLifecycleOwner(), isLoading -> {
-            Log.d(TAG, "⏳ Loading: " + isLoading);
-
-            // Hiển thị/ẩn loading indicator
-            if (isLoading) {
-                // Có thể add ProgressBar hoặc loading animation
-                Log.d(TAG, "Showing loading state");
+                flashSaleAdapter.submitList(products);
+                flashSaleRow.setVisible(true);
             } else {
-                Log.d(TAG, "Hiding loading state");
+                // Không có dữ liệu - ẩn hàng
+                flashSaleRow.setVisible(false);
             }
         });
 
@@ -237,10 +298,6 @@ public class HomeFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
-        Log.d(TAG, "📱 Fragment resumed - force refreshing data");
-        // Force refresh data mỗi khi user quay lại trang home
-        homeViewModel.forceRefreshFromFirebase();
-        
         // Restart auto scroll if banner exists
         if (bannerAdapter != null && bannerAdapter.getItemCount() > 1) {
             setupAutoScroll(bannerAdapter.getItemCount());
@@ -264,9 +321,9 @@ public class HomeFragment extends Fragment {
     // Method để hiển thị error state
     private void showErrorState(String errorMessage) {
         Log.d(TAG, "Showing error state: " + errorMessage);
-        // Ẩn tất cả RecyclerViews khi có lỗi
-        binding.recyclerPopularProducts.setVisibility(View.GONE);
-        binding.recyclerBestDeals.setVisibility(View.GONE);
+        // Ẩn các section sản phẩm khi có lỗi
+        popularProductsAdapter.submitList(Collections.emptyList());
+        bestDealsRow.setVisible(false);
 
         // Có thể thêm error view hoặc empty state view ở đây
     }
@@ -284,9 +341,9 @@ public class HomeFragment extends Fragment {
         homeViewModel.forceRefreshFromFirebase();
     }
     
-    private void setupBannerSlider(View root) {
-        bannerViewPager = root.findViewById(R.id.viewPagerBanners);
-        dotsIndicator = root.findViewById(R.id.dotsIndicator);
+    private void setupBannerSlider(View header) {
+        bannerViewPager = header.findViewById(R.id.viewPagerBanners);
+        dotsIndicator = header.findViewById(R.id.dotsIndicator);
         
         // Tạo sample banner data
         List<Banner> banners = createSampleBanners();
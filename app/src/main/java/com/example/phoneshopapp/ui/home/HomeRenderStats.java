@@ -0,0 +1,118 @@
+package com.example.phoneshopapp.ui.home;
+
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.phoneshopapp.utils.AppLog;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Đo thời gian tới frame đầu tiên của trang chủ và số item view đã inflate.
+ *
+ * Mỗi item view (một ViewHolder) chỉ được đếm lần đầu attach, nên số đếm là số lần
+ * onCreateViewHolder của RecyclerView cha và các hàng con, không tính view được tái sử dụng.
+ * Kết quả ghi ra logcat với tag HomeFragment và giữ ở getLastReport() để instrumented test
+ * (HomeRenderStatsTest) đọc và so sánh giữa các bản build.
+ *
+ * Chỉ bật ở bản debug ({@link AppLog#DEBUG}): bản release không giữ WeakHashMap view,
+ * không gắn listener vào RecyclerView và không ghi report.
+ */
+final class HomeRenderStats implements RecyclerView.OnChildAttachStateChangeListener {
+
+    private static final String TAG = "HomeFragment";
+
+    private final long startMs = SystemClock.uptimeMillis();
+    private final Set<View> inflatedViews = Collections.newSetFromMap(new WeakHashMap<>());
+    private boolean contentFrameLogged = false;
+
+    // Số đo của màn home gần nhất; -1 khi frame đó chưa được vẽ
+    static final class Report {
+        final long firstFrameMs;
+        final long contentFrameMs;
+        final int inflatedViews;
+
+        Report(long firstFrameMs, long contentFrameMs, int inflatedViews) {
+            this.firstFrameMs = firstFrameMs;
+            this.contentFrameMs = contentFrameMs;
+            this.inflatedViews = inflatedViews;
+        }
+
+        @Override
+        public String toString() {
+            return "first frame " + firstFrameMs + "ms, first content frame " + contentFrameMs + "ms, "
+                    + inflatedViews + " item views inflated";
+        }
+    }
+
+    private static volatile Report lastReport;
+
+    static Report getLastReport() {
+        return lastReport;
+    }
+
+    private HomeRenderStats() {
+        lastReport = null;
+    }
+
+    // null khi build không bật log debug; nơi gọi bỏ qua việc đo
+    static HomeRenderStats createIfEnabled() {
+        return AppLog.DEBUG ? new HomeRenderStats() : null;
+    }
+
+    void track(@NonNull RecyclerView recyclerView) {
+        recyclerView.addOnChildAttachStateChangeListener(this);
+    }
+
+    int getInflatedViewCount() {
+        return inflatedViews.size();
+    }
+
+    // Log frame đầu tiên được vẽ (layout trống hoặc có cache)
+    void logFirstFrame(@NonNull View root) {
+        logNextFrame(root, "first frame", false);
+    }
+
+    // Log frame đầu tiên sau khi có dữ liệu sản phẩm, chỉ một lần
+    void logFirstContentFrame(@NonNull View root) {
+        if (contentFrameLogged) {
+            return;
+        }
+        contentFrameLogged = true;
+        logNextFrame(root, "first content frame", true);
+    }
+
+    private void logNextFrame(@NonNull View root, String label, boolean content) {
+        root.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (root.getViewTreeObserver().isAlive()) {
+                    root.getViewTreeObserver().removeOnPreDrawListener(this);
+                }
+                long elapsedMs = SystemClock.uptimeMillis() - startMs;
+                int inflated = getInflatedViewCount();
+                Report previous = lastReport;
+                lastReport = content
+                        ? new Report(previous != null ? previous.firstFrameMs : -1, elapsedMs, inflated)
+                        : new Report(elapsedMs, previous != null ? previous.contentFrameMs : -1, inflated);
+                AppLog.i(TAG, () -> "Home " + label + ": " + elapsedMs + "ms, " + inflated + " item views inflated");
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void onChildViewAttachedToWindow(@NonNull View view) {
+        inflatedViews.add(view);
+    }
+
+    @Override
+    public void onChildViewDetachedFromWindow(@NonNull View view) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.phoneshopapp.ui.home;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.phoneshopapp.R;
+
+/**
+ * Một hàng cuộn ngang (danh mục, flash sale, ưu đãi) trong RecyclerView dọc của trang chủ.
+ *
+ * RecyclerView con dùng RecycledViewPool chung với các hàng khác và prefetch sẵn
+ * {@code initialPrefetchCount} item khi hàng sắp cuộn vào màn hình, nên view của hàng
+ * sau có thể lấy lại từ pool thay vì inflate mới. Layout phải có RecyclerView id recyclerRow.
+ */
+class HomeRowAdapter extends RecyclerView.Adapter<HomeRowAdapter.RowViewHolder> {
+
+    private final int layoutRes;
+    private final RecyclerView.Adapter<?> rowAdapter;
+    private final RecyclerView.RecycledViewPool sharedPool;
+    private final int initialPrefetchCount;
+    private final HomeRenderStats renderStats;
+    private RecyclerView.OnScrollListener rowScrollListener;
+    private boolean visible = true;
+
+    HomeRowAdapter(@LayoutRes int layoutRes, RecyclerView.Adapter<?> rowAdapter,
+            RecyclerView.RecycledViewPool sharedPool, int initialPrefetchCount,
+            HomeRenderStats renderStats) {
+        this.layoutRes = layoutRes;
+        this.rowAdapter = rowAdapter;
+        this.sharedPool = sharedPool;
+        this.initialPrefetchCount = initialPrefetchCount;
+        this.renderStats = renderStats;
+    }
+
+    // Listener gắn vào RecyclerView con (vd. preloader ảnh), phải gọi trước khi hàng được tạo
+    void setRowScrollListener(RecyclerView.OnScrollListener listener) {
+        this.rowScrollListener = listener;
+    }
+
+    void setVisible(boolean visible) {
+        if (this.visible == visible) {
+            return;
+        }
+        this.visible = visible;
+        if (visible) {
+            notifyItemInserted(0);
+        } else {
+            notifyItemRemoved(0);
+        }
+    }
+
+    @NonNull
+    @Override
+    public RowViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false);
+        RecyclerView recyclerRow = view.findViewById(R.id.recyclerRow);
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(
+                parent.getContext(), LinearLayoutManager.HORIZONTAL, false);
+        layoutManager.setInitialPrefetchItemCount(initialPrefetchCount);
+        // Trả item về pool chung khi hàng bị detach để hàng khác dùng lại
+        layoutManager.setRecycleChildrenOnDetach(true);
+
+        recyclerRow.setLayoutManager(layoutManager);
+        recyclerRow.setRecycledViewPool(sharedPool);
+        recyclerRow.setAdapter(rowAdapter);
+        if (rowScrollListener != null) {
+            recyclerRow.addOnScrollListener(rowScrollListener);
+        }
+        if (renderStats != null) {
+            renderStats.track(recyclerRow);
+        }
+        return new RowViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowViewHolder holder, int position) {
+        // RecyclerView con đã gắn adapter riêng, dữ liệu cập nhật qua submitList của adapter đó
+    }
+
+    @Override
+    public int getItemCount() {
+        return visible ? 1 : 0;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return layoutRes;
+    }
+
+    static class RowViewHolder extends RecyclerView.ViewHolder {
+        RowViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.phoneshopapp.ui.home;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Một phần tĩnh của trang chủ (header, voucher, tiêu đề section) dưới dạng adapter 0/1 item
+ * để ghép vào ConcatAdapter. View chỉ được inflate và gắn listener một lần khi tạo holder.
+ */
+class HomeSectionAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    interface OnViewCreatedListener {
+        void onViewCreated(@NonNull View view);
+    }
+
+    private final int layoutRes;
+    private final OnViewCreatedListener listener;
+    private boolean visible = true;
+
+    HomeSectionAdapter(@LayoutRes int layoutRes, OnViewCreatedListener listener) {
+        this.layoutRes = layoutRes;
+        this.listener = listener;
+    }
+
+    void setVisible(boolean visible) {
+        if (this.visible == visible) {
+            return;
+        }
+        this.visible = visible;
+        if (visible) {
+            notifyItemInserted(0);
+        } else {
+            notifyItemRemoved(0);
+        }
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false);
+        if (listener != null) {
+            listener.onViewCreated(view);
+        }
+        return new RecyclerView.ViewHolder(view) { };
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        // Nội dung tĩnh, đã gắn xong trong onCreateViewHolder
+    }
+
+    @Override
+    public int getItemCount() {
+        return visible ? 1 : 0;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return layoutRes;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.phoneshopapp.ui.home;
 
-import android.util.Log;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
@@ -8,10 +7,14 @@ import androidx.lifecycle.ViewModel;
 import com.example.phoneshopapp.Category;
 import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.ProductManager;
-import com.example.phoneshopapp.R;
+import com.example.phoneshopapp.data.CatalogChangeSet;
+import com.example.phoneshopapp.data.ProductData;
+import com.example.phoneshopapp.utils.AppExecutors;
+import com.example.phoneshopapp.utils.AppLog;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HomeViewModel extends ViewModel {
 
@@ -23,15 +26,57 @@ public class HomeViewModel extends ViewModel {
     private final MutableLiveData<List<Product>> flashSaleProducts;
     private final MutableLiveData<Boolean> isLoading;
     private final MutableLiveData<String> errorMessage;
+    private final MutableLiveData<FeedTimings> feedTimings;
     private final ProductManager productManager;
 
-    // Static cache để giữ data giữa các lần navigation
-    private static List<Product> cachedPopularProducts = null;
-    private static List<Product> cachedBestDeals = null;
-    private static List<Product> cachedFlashSaleProducts = null;
-    private static long lastCacheTime = 0;
+    // Nhận thay đổi incremental từ snapshot listener của PhoneDB
+    private final ProductData.OnCatalogChangedListener catalogChangedListener = this::onCatalogChanged;
+
+    // Chỉ publish feed của lần build mới nhất
+    private final AtomicInteger feedGeneration = new AtomicInteger();
+
+    // Static cache để giữ data giữa các lần navigation. Ghi trên background executor, đọc
+    // trên main thread: feed và thời điểm cache nằm chung một holder volatile
+    private static volatile CachedFeed cache = null;
     private static final long CACHE_DURATION = 5 * 60 * 1000; // 5 phút cache
 
+    private static final class CachedFeed {
+        final HomeFeed feed;
+        final long cachedAt;
+
+        CachedFeed(HomeFeed feed, long cachedAt) {
+            this.feed = feed;
+            this.cachedAt = cachedAt;
+        }
+
+        boolean isValid() {
+            return (System.currentTimeMillis() - cachedAt) < CACHE_DURATION;
+        }
+    }
+
+    /**
+     * Thời gian từng stage của lần dựng home feed gần nhất (ms)
+     */
+    public static class FeedTimings {
+        public final long fetchMs;
+        public final long partitionMs;
+        public final long totalMs;
+        public final int productCount;
+
+        FeedTimings(long fetchMs, long partitionMs, long totalMs, int productCount) {
+            this.fetchMs = fetchMs;
+            this.partitionMs = partitionMs;
+            this.totalMs = totalMs;
+            this.productCount = productCount;
+        }
+
+        @Override
+        public String toString() {
+            return "fetch=" + fetchMs + "ms, partition=" + partitionMs + "ms, total=" + totalMs +
+                    "ms (" + productCount + " products)";
+        }
+    }
+
     public HomeViewModel() {
         categories = new MutableLiveData<>();
         popularProducts = new MutableLiveData<>();
@@ -39,174 +84,56 @@ public class HomeViewModel extends ViewModel {
         flashSaleProducts = new MutableLiveData<>();
         isLoading = new MutableLiveData<>();
         errorMessage = new MutableLiveData<>();
+        feedTimings = new MutableLiveData<>();
         productManager = ProductManager.getInstance();
 
-        loadCategories();
-
-        // Luôn load từ Firebase để đảm bảo data mới nhất
-        Log.d(TAG, "Force loading fresh data from Firebase on init");
-        forceRefreshFromFirebase();
-    }
-
-    private void loadCategories() {
-        // Load categories dynamically from products
-        productManager.loadProductsFromFirebase(new ProductManager.OnProductsLoadedListener() {
-            @Override
-            public void onSuccess(List<Product> products) {
-                // Extract unique categories from products
-                List<Category> categoryList = new ArrayList<>();
-                List<String> uniqueCategories = new ArrayList<>();
-                
-                for (Product product : products) {
-                    String category = product.getCategory();
-                    if (category != null && !category.isEmpty() && !uniqueCategories.contains(category)) {
-                        uniqueCategories.add(category);
-                        // Map category names to appropriate icons
-                        int iconRes = getCategoryIcon(category);
-                        categoryList.add(new Category(category, iconRes));
-                    }
-                }
-                
-                Log.d(TAG, "📂 Loaded " + categoryList.size() + " categories from products");
-                categories.setValue(categoryList);
-            }
+        ProductData.addOnCatalogChangedListener(catalogChangedListener);
 
-            @Override
-            public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to load categories: " + e.getMessage());
-                // Fallback to empty list
-                categories.setValue(new ArrayList<>());
-            }
-        });
-    }
-    
-    /**
-     * Map category names to appropriate icons
-     */
-    private int getCategoryIcon(String category) {
-        if (category == null) return R.drawable.ic_home_black_24dp;
-        
-        String lowerCategory = category.toLowerCase();
-        
-        if (lowerCategory.contains("phone") || lowerCategory.contains("smartphone")) {
-            return R.drawable.ic_home_black_24dp;
-        } else if (lowerCategory.contains("tablet") || lowerCategory.contains("ipad")) {
-            return R.drawable.ic_dashboard_black_24dp;
-        } else if (lowerCategory.contains("accessory") || lowerCategory.contains("accessories")) {
-            return R.drawable.ic_notifications_black_24dp;
-        } else if (lowerCategory.contains("watch")) {
-            return R.drawable.ic_home_black_24dp;
-        } else if (lowerCategory.contains("audio") || lowerCategory.contains("headphone")) {
-            return R.drawable.ic_dashboard_black_24dp;
-        } else {
-            return R.drawable.ic_notifications_black_24dp; // Default icon
+        // Hiển thị ngay feed đã cache (nếu còn hạn) trong lúc chờ catalog
+        CachedFeed cached = cache;
+        if (cached != null && cached.isValid()) {
+            publishFeed(cached.feed);
         }
-    }
 
-    // Kiểm tra cache có còn valid không
-    private boolean isCacheValid() {
-        return cachedPopularProducts != null &&
-                cachedBestDeals != null &&
-                cachedFlashSaleProducts != null &&
-                (System.currentTimeMillis() - lastCacheTime) < CACHE_DURATION;
+        // Một lần lấy snapshot catalog duy nhất cho mọi section
+        loadHomeFeed(false);
     }
 
-    // Load data từ cache
-    private void loadFromCache() {
-        isLoading.setValue(false);
-        popularProducts.setValue(new ArrayList<>(cachedPopularProducts));
-        bestDeals.setValue(new ArrayList<>(cachedBestDeals));
-        flashSaleProducts.setValue(new ArrayList<>(cachedFlashSaleProducts));
-        Log.d(TAG, "Loaded data from cache - Popular: " + cachedPopularProducts.size() +
-                ", Deals: " + cachedBestDeals.size() +
-                ", FlashSale: " + cachedFlashSaleProducts.size());
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        ProductData.removeOnCatalogChangedListener(catalogChangedListener);
     }
 
-    // Update cache với data mới
-    private void updateCache(List<Product> featured, List<Product> deals, List<Product> flashSale) {
-        cachedPopularProducts = new ArrayList<>(featured);
-        cachedBestDeals = new ArrayList<>(deals);
-        cachedFlashSaleProducts = new ArrayList<>(flashSale);
-        lastCacheTime = System.currentTimeMillis();
-        Log.d(TAG, "Cache updated with " + featured.size() + " featured, " + deals.size() + " deals, and " + flashSale.size() + " flash sale products");
+    private void onCatalogChanged(CatalogChangeSet changeSet) {
+        AppLog.d(TAG, () -> "Catalog changed: +" + changeSet.getAdded().size() +
+                " ~" + changeSet.getModified().size() +
+                " -" + changeSet.getRemovedIds().size());
+        buildFeed(changeSet.getSnapshot(), System.nanoTime());
     }
 
     // Clear cache (có thể gọi khi cần refresh)
     public static void clearCache() {
-        cachedPopularProducts = null;
-        cachedBestDeals = null;
-        cachedFlashSaleProducts = null;
-        lastCacheTime = 0;
-        Log.d("HomeViewModel", "Cache cleared");
+        cache = null;
+        AppLog.d("HomeViewModel", "Cache cleared");
     }
 
-    private void loadProductsFromFirebase() {
-        Log.d(TAG, "Loading products from Firebase...");
+    private void loadHomeFeed(boolean force) {
+        AppLog.d(TAG, () -> "Loading home feed (force=" + force + ")");
         isLoading.setValue(true);
         errorMessage.setValue(null);
 
-        productManager.loadProductsFromFirebase(new ProductManager.OnProductsLoadedListener() {
+        final long requestedAt = System.nanoTime();
+        ProductManager.OnProductsLoadedListener listener = new ProductManager.OnProductsLoadedListener() {
             @Override
             public void onSuccess(List<Product> products) {
-                Log.d(TAG, "Successfully loaded " + products.size() + " products from Firebase");
-                isLoading.setValue(false);
-
-                List<Product> featured = new ArrayList<>();
-                List<Product> deals = new ArrayList<>();
-                List<Product> flashSale = new ArrayList<>();
-
-                for (Product product : products) {
-                    Log.d(TAG, "Product: " + product.getName() +
-                            " | Featured: " + product.isFeatured() +
-                            " | BestDeal: " + product.isBestDeal() +
-                            " | FlashSale: " + product.isFlashSale() +
-                            " | ImageUrl: " + product.getImageUrl());
-
-                    if (product.isFeatured()) {
-                        featured.add(product);
-                    }
-                    if (product.isBestDeal()) {
-                        deals.add(product);
-                    }
-                    if (product.isFlashSale()) {
-                        flashSale.add(product);
-                    }
-                }
-
-                Log.d(TAG, "Featured products: " + featured.size() + ", Best deals: " + deals.size() + ", Flash sale: " + flashSale.size());
-
-                // Nếu không có sản phẩm featured, hiển thị tất cả sản phẩm
-                if (featured.isEmpty() && !products.isEmpty()) {
-                    Log.d(TAG, "No featured products found, showing all " + products.size() + " products as featured");
-                    featured.addAll(products);
-                }
-
-                // Nếu không có best deals, hiển thị tất cả sản phẩm
-                if (deals.isEmpty() && !products.isEmpty()) {
-                    Log.d(TAG, "No best deals found, showing all " + products.size() + " products as deals");
-                    deals.addAll(products);
-                }
-
-                // Nếu không có flash sale, hiển thị tất cả sản phẩm
-                if (flashSale.isEmpty() && !products.isEmpty()) {
-                    Log.d(TAG, "No flash sale products found, showing all " + products.size() + " products as flash sale");
-                    flashSale.addAll(products);
-                }
-
-                // Log final count
-                Log.d(TAG, "Final - Featured: " + featured.size() + ", Deals: " + deals.size());
-
-                // Update cache với data mới
-                updateCache(featured, deals, flashSale);
-
-                popularProducts.setValue(featured);
-                bestDeals.setValue(deals);
-                flashSaleProducts.setValue(flashSale);
+                AppLog.d(TAG, () -> "Catalog snapshot received - " + products.size() + " products");
+                buildFeed(products, requestedAt);
             }
 
             @Override
             public void onFailure(Exception e) {
-                Log.e(TAG, "Failed to load products from Firebase", e);
+                AppLog.e(TAG, "Failed to load products from Firebase", e);
                 isLoading.setValue(false);
 
                 // Hiển thị thông báo lỗi thực tế cho user
@@ -216,87 +143,67 @@ public class HomeViewModel extends ViewModel {
                 }
                 errorMessage.setValue(userFriendlyMessage);
 
-                // Không có fallback - chỉ hiển thị lỗi
-                popularProducts.setValue(new ArrayList<>());
-                bestDeals.setValue(new ArrayList<>());
-                Log.d(TAG, "No local fallback - showing error to user");
+                // Không có fallback - chỉ hiển thị lỗi (giữ feed cũ nếu đã có)
+                if (popularProducts.getValue() == null) {
+                    categories.setValue(new ArrayList<>());
+                    popularProducts.setValue(new ArrayList<>());
+                    bestDeals.setValue(new ArrayList<>());
+                }
             }
-        });
-    }
+        };
 
-    public void refreshProducts() {
-        Log.d(TAG, "Refreshing products from Firebase...");
-        // Clear cache để force reload
-        clearCache();
-        loadProductsFromFirebase();
+        if (force) {
+            productManager.forceRefreshFromFirebase(listener);
+        } else {
+            productManager.loadProductsFromFirebase(listener);
+        }
     }
 
-    // Force refresh từ Firebase (bỏ qua cache)
-    public void forceRefreshFromFirebase() {
-        Log.d(TAG, "Force refreshing products from Firebase...");
-        isLoading.setValue(true);
-        errorMessage.setValue(null);
-
-        productManager.forceRefreshFromFirebase(new ProductManager.OnProductsLoadedListener() {
-            @Override
-            public void onSuccess(List<Product> products) {
-                Log.d(TAG, "Force refresh successful - " + products.size() + " products");
-                isLoading.setValue(false);
+    // Dựng feed trên background executor rồi post kết quả về LiveData
+    private void buildFeed(List<Product> products, long requestedAt) {
+        final int generation = feedGeneration.incrementAndGet();
+        final long fetchNanos = System.nanoTime() - requestedAt;
 
-                List<Product> featured = new ArrayList<>();
-                List<Product> deals = new ArrayList<>();
-                List<Product> flashSale = new ArrayList<>();
-
-                for (Product product : products) {
-                    if (product.isFeatured()) {
-                        featured.add(product);
-                    }
-                    if (product.isBestDeal()) {
-                        deals.add(product);
-                    }
-                    if (product.isFlashSale()) {
-                        flashSale.add(product);
-                    }
-                }
+        AppExecutors.background().execute(() -> {
+            HomeFeed feed = HomeFeedBuilder.build(products);
+            if (generation != feedGeneration.get()) {
+                return; // Đã có snapshot mới hơn
+            }
 
-                // Nếu không có sản phẩm featured, hiển thị tất cả sản phẩm
-                if (featured.isEmpty() && !products.isEmpty()) {
-                    Log.d(TAG, "Force refresh: No featured products, showing all " + products.size() + " products");
-                    featured.addAll(products);
-                }
+            cache = new CachedFeed(feed, System.currentTimeMillis());
 
-                // Nếu không có best deals, hiển thị tất cả sản phẩm
-                if (deals.isEmpty() && !products.isEmpty()) {
-                    Log.d(TAG, "Force refresh: No deals, showing all " + products.size() + " products");
-                    deals.addAll(products);
-                }
-
-                // Nếu không có flash sale, hiển thị tất cả sản phẩm
-                if (flashSale.isEmpty() && !products.isEmpty()) {
-                    Log.d(TAG, "No flash sale products found, showing all " + products.size() + " products as flash sale");
-                    flashSale.addAll(products);
-                }
+            FeedTimings timings = new FeedTimings(
+                    fetchNanos / 1_000_000,
+                    feed.getPartitionNanos() / 1_000_000,
+                    (System.nanoTime() - requestedAt) / 1_000_000,
+                    feed.getProductCount());
+            AppLog.d(TAG, () -> "Home feed built: " + timings);
 
-                Log.d(TAG, "Force refresh final - Featured: " + featured.size() + ", Deals: " + deals.size() + ", FlashSale: " + flashSale.size());
+            isLoading.postValue(false);
+            feedTimings.postValue(timings);
+            publishFeed(feed);
+        });
+    }
 
-                updateCache(featured, deals, flashSale);
-                popularProducts.setValue(featured);
-                bestDeals.setValue(deals);
-                flashSaleProducts.setValue(flashSale);
-            }
+    // postValue an toàn cả từ main thread lẫn background thread
+    private void publishFeed(HomeFeed feed) {
+        categories.postValue(feed.getCategories());
+        popularProducts.postValue(feed.getFeatured());
+        bestDeals.postValue(feed.getDeals());
+        flashSaleProducts.postValue(feed.getFlashSale());
+    }
 
-            @Override
-            public void onFailure(Exception e) {
-                Log.e(TAG, "Force refresh failed", e);
-                isLoading.setValue(false);
+    public void refreshProducts() {
+        AppLog.d(TAG, "Refreshing products from Firebase...");
+        // Clear cache để force reload
+        clearCache();
+        loadHomeFeed(false);
+    }
 
-                String userFriendlyMessage = e.getMessage();
-                if (userFriendlyMessage == null || userFriendlyMessage.isEmpty()) {
-                    userFriendlyMessage = "Không thể làm mới dữ liệu. Vui lòng thử lại sau.";
-                }
-                errorMessage.setValue(userFriendlyMessage);
-            }
-        });
+    // Force refresh từ Firebase (bỏ qua cache)
+    public void forceRefreshFromFirebase() {
+        AppLog.d(TAG, "Force refreshing products from Firebase...");
+        loadHomeFeed(true);
     }
 
     public LiveData<List<Category>> getCategories() {
@@ -322,4 +229,8 @@ public class HomeViewModel extends ViewModel {
     public LiveData<String> getErrorMessage() {
         return errorMessage;
     }
+
+    public LiveData<FeedTimings> getFeedTimings() {
+        return feedTimings;
+    }
 }
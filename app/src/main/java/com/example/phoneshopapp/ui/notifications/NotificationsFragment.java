@@ -22,6 +22,7 @@ import com.example.phoneshopapp.Product;
 import com.example.phoneshopapp.ProductManager;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.databinding.FragmentNotificationsBinding;
+import com.example.phoneshopapp.utils.DisplayFormatter;
 
 import java.util.List;
 
@@ -129,11 +130,11 @@ public class NotificationsFragment extends Fragment implements CartAdapter.OnCar
 
             // Update item count
             int totalItems = cartManager.getTotalItemCount();
-            textItemCount.setText(totalItems + " sản phẩm");
+            textItemCount.setText(DisplayFormatter.itemCount(totalItems));
 
             // Update total price
             double totalPrice = cartManager.getTotalPrice();
-            textTotalPrice.setText("₫" + String.format("%.0f", totalPrice));
+            textTotalPrice.setText(DisplayFormatter.price(totalPrice));
 
             // Enable checkout button
             btnCheckout.setEnabled(true);
@@ -1,7 +1,10 @@
 package com.example.phoneshopapp.ui.profile;
 
+import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -23,12 +26,14 @@ import com.example.phoneshopapp.UserManager;
 import com.example.phoneshopapp.R;
 import com.example.phoneshopapp.databinding.FragmentProfileBinding;
 import com.example.phoneshopapp.data.auth.AuthRepository;
+import com.example.phoneshopapp.data.cart.CartManager;
 import com.example.phoneshopapp.utils.PreferencesManager;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
 
 public class ProfileFragment extends Fragment {
   private static final String TAG = "ProfileFragment";
+  private static final long LOGOUT_FLUSH_TIMEOUT_MS = 3000;
 
   private FragmentProfileBinding binding;
   private UserManager userManager;
@@ -224,18 +229,39 @@ public class ProfileFragment extends Fragment {
 
     Log.d(TAG, "User logging out: " + userManager.getUserInfoDebug());
 
+    // Ghi các thay đổi giỏ hàng đang chờ khi vẫn còn phiên đăng nhập và chỉ đăng xuất khi
+    // server đã xác nhận; offline thì không chờ quá LOGOUT_FLUSH_TIMEOUT_MS
+    Activity activity = getActivity();
+    Handler handler = new Handler(Looper.getMainLooper());
+    boolean[] loggedOut = {false};
+    Runnable finishLogout = () -> {
+      if (loggedOut[0]) {
+        return;
+      }
+      loggedOut[0] = true;
+      handler.removeCallbacksAndMessages(null);
+      completeLogout(activity);
+    };
+    handler.postDelayed(finishLogout, LOGOUT_FLUSH_TIMEOUT_MS);
+    CartManager.getInstance().flushPendingUpdates(finishLogout);
+  }
+
+  private void completeLogout(Activity activity) {
+    CartManager.getInstance().reset();
+
     // Sign out from Firebase + clear local
     new AuthRepository().logout();
     userManager.logout();
 
+    if (activity == null) {
+      return;
+    }
+
     // Navigate back to login screen
-    Intent intent = new Intent(getActivity(), LoginActivity.class);
+    Intent intent = new Intent(activity, LoginActivity.class);
     intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-    startActivity(intent);
-
-    if (getActivity() != null) {
-      getActivity().finish();
-    }
+    activity.startActivity(intent);
+    activity.finish();
   }
 
   private void showEditProfileDialog() {
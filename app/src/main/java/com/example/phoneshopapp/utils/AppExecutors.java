@@ -0,0 +1,56 @@
+package com.example.phoneshopapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AppExecutors - Thread pool dùng chung cho các việc nặng CPU ngoài main thread
+ * (dựng home feed, decode catalog...) và executor để post kết quả về main thread.
+ */
+public final class AppExecutors {
+
+  private static final int BACKGROUND_THREADS =
+      Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+  private static final ExecutorService BACKGROUND =
+      Executors.newFixedThreadPool(BACKGROUND_THREADS, new NamedThreadFactory("phoneshop-bg"));
+
+  private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+  private static final Executor MAIN_THREAD = MAIN_HANDLER::post;
+
+  private AppExecutors() {
+  }
+
+  public static ExecutorService background() {
+    return BACKGROUND;
+  }
+
+  public static Executor mainThread() {
+    return MAIN_THREAD;
+  }
+
+  public static int backgroundThreadCount() {
+    return BACKGROUND_THREADS;
+  }
+
+  private static class NamedThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger counter = new AtomicInteger(1);
+
+    NamedThreadFactory(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+      thread.setPriority(Thread.NORM_PRIORITY - 1);
+      return thread;
+    }
+  }
+}
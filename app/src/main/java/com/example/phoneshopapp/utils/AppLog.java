@@ -0,0 +1,104 @@
+package com.example.phoneshopapp.utils;
+
+import android.util.Log;
+
+import com.example.phoneshopapp.BuildConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * AppLog - Facade log cho data layer và ViewModel, lọc theo mức log của build.
+ *
+ * {@link #LEVEL} lấy từ BuildConfig.LOG_LEVEL (debug: DEBUG, release: WARN) và là hằng
+ * số lúc compile, nên {@code if (AppLog.DEBUG) { ... }} bị javac bỏ hẳn trong bản release.
+ * Message debug/info nối chuỗi thì truyền dưới dạng Supplier để chỉ dựng khi mức log bật.
+ * Log cho từng item trong vòng lặp dùng {@link Sampler} để chỉ ghi 1 trên N item.
+ *
+ * Warn/error vẫn nhận String thường: chỉ xảy ra trên nhánh lỗi, không phải đường nóng.
+ */
+public final class AppLog {
+
+  public static final int LEVEL = BuildConfig.LOG_LEVEL;
+  public static final boolean VERBOSE = LEVEL <= Log.VERBOSE;
+  public static final boolean DEBUG = LEVEL <= Log.DEBUG;
+  public static final boolean INFO = LEVEL <= Log.INFO;
+  public static final boolean WARN = LEVEL <= Log.WARN;
+
+  private AppLog() {
+  }
+
+  public static void d(String tag, String message) {
+    if (DEBUG) {
+      Log.d(tag, message);
+    }
+  }
+
+  public static void d(String tag, Supplier<String> message) {
+    if (DEBUG) {
+      Log.d(tag, message.get());
+    }
+  }
+
+  // Chỉ ghi khi sampler cho phép (1 trên N lần gọi)
+  public static void d(String tag, Sampler sampler, Supplier<String> message) {
+    if (DEBUG && sampler.sample()) {
+      Log.d(tag, message.get() + " [1/" + sampler.every + "]");
+    }
+  }
+
+  public static void i(String tag, String message) {
+    if (INFO) {
+      Log.i(tag, message);
+    }
+  }
+
+  public static void i(String tag, Supplier<String> message) {
+    if (INFO) {
+      Log.i(tag, message.get());
+    }
+  }
+
+  public static void w(String tag, String message) {
+    if (WARN) {
+      Log.w(tag, message);
+    }
+  }
+
+  public static void w(String tag, String message, Throwable error) {
+    if (WARN) {
+      Log.w(tag, message, error);
+    }
+  }
+
+  public static void e(String tag, String message) {
+    Log.e(tag, message);
+  }
+
+  public static void e(String tag, String message, Throwable error) {
+    Log.e(tag, message, error);
+  }
+
+  public static Sampler sampleEvery(int every) {
+    return new Sampler(every);
+  }
+
+  /**
+   * Cho qua 1 trên {@code every} lần gọi (lần đầu luôn qua). Thread-safe.
+   */
+  public static final class Sampler {
+    private final int every;
+    private final AtomicLong calls = new AtomicLong();
+
+    private Sampler(int every) {
+      if (every < 1) {
+        throw new IllegalArgumentException("every must be >= 1");
+      }
+      this.every = every;
+    }
+
+    public boolean sample() {
+      return calls.getAndIncrement() % every == 0;
+    }
+  }
+}
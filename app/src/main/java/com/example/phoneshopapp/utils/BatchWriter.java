@@ -0,0 +1,141 @@
+package com.example.phoneshopapp.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BatchWriter - Gom nhiều thao tác ghi (delete/update/set) thành các WriteBatch tối đa
+ * 500 thao tác, commit lần lượt từng chunk và gọi callback một lần khi xong.
+ *
+ * Mỗi chunk là atomic. Chunk lỗi tạm thời (mạng, quá tải, xung đột) được dựng lại và thử
+ * lại với backoff; nếu vẫn lỗi thì dừng, các chunk trước đó giữ nguyên. Dùng chung cho
+ * giỏ hàng, yêu thích và địa chỉ. Callback chạy trên main thread.
+ */
+public final class BatchWriter {
+
+  private static final String TAG = "BatchWriter";
+
+  // Giới hạn thao tác trong một WriteBatch của Firestore
+  public static final int MAX_OPERATIONS_PER_BATCH = 500;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long BASE_BACKOFF_MS = 250;
+
+  public interface Callback {
+    void onSuccess(int writeCount);
+
+    // committedCount: số thao tác thuộc các chunk đã commit thành công trước khi lỗi
+    void onFailure(Exception e, int committedCount);
+  }
+
+  private interface Operation {
+    void addTo(WriteBatch batch);
+  }
+
+  private static final Handler RETRY_HANDLER = new Handler(Looper.getMainLooper());
+
+  private final FirebaseFirestore db;
+  private final List<Operation> operations = new ArrayList<>();
+
+  public BatchWriter(FirebaseFirestore db) {
+    this.db = db;
+  }
+
+  public BatchWriter delete(DocumentReference ref) {
+    operations.add(batch -> batch.delete(ref));
+    return this;
+  }
+
+  public BatchWriter update(DocumentReference ref, Map<String, Object> fields) {
+    operations.add(batch -> batch.update(ref, fields));
+    return this;
+  }
+
+  public BatchWriter update(DocumentReference ref, String field, Object value) {
+    operations.add(batch -> batch.update(ref, field, value));
+    return this;
+  }
+
+  public BatchWriter set(DocumentReference ref, Map<String, Object> data) {
+    operations.add(batch -> batch.set(ref, data));
+    return this;
+  }
+
+  public BatchWriter merge(DocumentReference ref, Map<String, Object> data) {
+    operations.add(batch -> batch.set(ref, data, SetOptions.merge()));
+    return this;
+  }
+
+  public int size() {
+    return operations.size();
+  }
+
+  public boolean isEmpty() {
+    return operations.isEmpty();
+  }
+
+  public void commit(Callback callback) {
+    List<Operation> snapshot = new ArrayList<>(operations);
+    operations.clear();
+    if (snapshot.isEmpty()) {
+      callback.onSuccess(0);
+      return;
+    }
+    int chunks = (snapshot.size() + MAX_OPERATIONS_PER_BATCH - 1) / MAX_OPERATIONS_PER_BATCH;
+    AppLog.d(TAG, () -> "Committing " + snapshot.size() + " writes in " + chunks + " batch(es)");
+    commitChunk(snapshot, 0, 1, callback);
+  }
+
+  private void commitChunk(List<Operation> all, int from, int attempt, Callback callback) {
+    int to = Math.min(from + MAX_OPERATIONS_PER_BATCH, all.size());
+
+    // WriteBatch đã commit không dùng lại được, mỗi lần thử dựng batch mới
+    WriteBatch batch = db.batch();
+    for (int i = from; i < to; i++) {
+      all.get(i).addTo(batch);
+    }
+
+    batch.commit()
+        .addOnSuccessListener(aVoid -> {
+          if (to < all.size()) {
+            commitChunk(all, to, 1, callback);
+          } else {
+            callback.onSuccess(all.size());
+          }
+        })
+        .addOnFailureListener(e -> {
+          if (attempt < MAX_ATTEMPTS && isRetryable(e)) {
+            long delay = BASE_BACKOFF_MS << (attempt - 1);
+            AppLog.w(TAG, "Batch [" + from + ", " + to + ") failed (attempt " + attempt
+                + "), retrying in " + delay + "ms: " + e.getMessage());
+            RETRY_HANDLER.postDelayed(() -> commitChunk(all, from, attempt + 1, callback), delay);
+            return;
+          }
+          AppLog.e(TAG, "Batch [" + from + ", " + to + ") failed after " + attempt + " attempt(s)", e);
+          callback.onFailure(e, from);
+        });
+  }
+
+  private static boolean isRetryable(Exception e) {
+    if (!(e instanceof FirebaseFirestoreException)) {
+      return false;
+    }
+    switch (((FirebaseFirestoreException) e).getCode()) {
+      case UNAVAILABLE:
+      case ABORTED:
+      case DEADLINE_EXCEEDED:
+      case RESOURCE_EXHAUSTED:
+      case INTERNAL:
+        return true;
+      default:
+        return false;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.example.phoneshopapp.utils;
+
+import com.example.phoneshopapp.models.Money;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * DisplayFormatter - Format nhãn giá, số lượng và rating cho UI.
+ *
+ * Mỗi loại nhãn có một cache giới hạn (set-associative, thay thế LRU trong từng set)
+ * keyed theo giá trị long, nên onBindViewHolder khi cuộn lại các giá đã gặp không
+ * tạo String mới. Formatter (StringBuilder, NumberFormat) được giữ riêng cho từng thread.
+ */
+public final class DisplayFormatter {
+
+  private static final Locale VIETNAM = new Locale.Builder().setLanguage("vi").setRegion("VN").build();
+
+  private static final ThreadLocal<StringBuilder> BUILDER =
+      ThreadLocal.withInitial(() -> new StringBuilder(32));
+  private static final ThreadLocal<NumberFormat> CURRENCY_VN =
+      ThreadLocal.withInitial(() -> NumberFormat.getCurrencyInstance(VIETNAM));
+
+  // "₫25990000"
+  private static final LabelCache PRICE = new LabelCache("₫", "", false);
+  // "-₫2599000"
+  private static final LabelCache DISCOUNT = new LabelCache("-₫", "", false);
+  // "Tổng: ₫25990000"
+  private static final LabelCache LINE_TOTAL = new LabelCache("Tổng: ₫", "", false);
+  // "Tổng cộng: 25.990.000 ₫"
+  private static final LabelCache ORDER_TOTAL = new LabelCache("Tổng cộng: ", "", true);
+  // "3 sản phẩm"
+  private static final LabelCache ITEM_COUNT = new LabelCache("", " sản phẩm", false);
+  // "x3"
+  private static final LabelCache QUANTITY = new LabelCache("x", "", false);
+  // "Số lượng: 3"
+  private static final LabelCache QUANTITY_LABEL = new LabelCache("Số lượng: ", "", false);
+
+  // Rating 0.0 - 5.0 theo bước 0.1, dựng lại khi locale mặc định đổi
+  private static volatile RatingLabels ratingLabels;
+
+  private DisplayFormatter() {
+  }
+
+  public static String price(double amount) {
+    return PRICE.get(Money.toDong(amount));
+  }
+
+  public static String price(long dong) {
+    return PRICE.get(dong);
+  }
+
+  public static String discount(double amount) {
+    return DISCOUNT.get(Money.toDong(amount));
+  }
+
+  public static String lineTotal(double amount) {
+    return LINE_TOTAL.get(Money.toDong(amount));
+  }
+
+  public static String orderTotal(double amount) {
+    return ORDER_TOTAL.get(Money.toDong(amount));
+  }
+
+  public static String itemCount(int count) {
+    return ITEM_COUNT.get(count);
+  }
+
+  public static String quantity(int quantity) {
+    return QUANTITY.get(quantity);
+  }
+
+  public static String quantityLabel(int quantity) {
+    return QUANTITY_LABEL.get(quantity);
+  }
+
+  // Giống String.format("%.1f", rating) với locale mặc định
+  public static String rating(double rating) {
+    long tenths = Math.round(rating * 10);
+    if (Double.isNaN(rating) || tenths < 0 || tenths > RatingLabels.MAX_TENTHS) {
+      return String.format(Locale.getDefault(), "%.1f", rating);
+    }
+    Locale locale = Locale.getDefault();
+    RatingLabels labels = ratingLabels;
+    if (labels == null || !labels.locale.equals(locale)) {
+      labels = new RatingLabels(locale);
+      ratingLabels = labels;
+    }
+    return labels.labels[(int) tenths];
+  }
+
+  private static final class RatingLabels {
+    static final int MAX_TENTHS = 50;
+
+    final Locale locale;
+    final String[] labels = new String[MAX_TENTHS + 1];
+
+    RatingLabels(Locale locale) {
+      this.locale = locale;
+      for (int i = 0; i <= MAX_TENTHS; i++) {
+        labels[i] = String.format(locale, "%.1f", i / 10.0);
+      }
+    }
+  }
+
+  /**
+   * Cache nhãn đã format, không cấp phát khi hit. 4 way mỗi set, set đầy thì thay
+   * entry dùng lâu nhất.
+   */
+  private static final class LabelCache {
+    private static final int SETS = 128;
+    private static final int WAYS = 4;
+
+    private final String prefix;
+    private final String suffix;
+    private final boolean groupedCurrency;
+
+    private final long[] keys = new long[SETS * WAYS];
+    private final String[] values = new String[SETS * WAYS];
+    private final long[] lastUsed = new long[SETS * WAYS];
+    private long clock = 0;
+
+    LabelCache(String prefix, String suffix, boolean groupedCurrency) {
+      this.prefix = prefix;
+      this.suffix = suffix;
+      this.groupedCurrency = groupedCurrency;
+    }
+
+    String get(long value) {
+      int base = setIndex(value) * WAYS;
+      synchronized (this) {
+        for (int i = base; i < base + WAYS; i++) {
+          if (values[i] != null && keys[i] == value) {
+            lastUsed[i] = ++clock;
+            return values[i];
+          }
+        }
+      }
+
+      // Miss: format ngoài lock bằng formatter của thread hiện tại
+      String label = format(value);
+      synchronized (this) {
+        int victim = base;
+        for (int i = base; i < base + WAYS; i++) {
+          if (values[i] == null) {
+            victim = i;
+            break;
+          }
+          if (lastUsed[i] < lastUsed[victim]) {
+            victim = i;
+          }
+        }
+        keys[victim] = value;
+        values[victim] = label;
+        lastUsed[victim] = ++clock;
+      }
+      return label;
+    }
+
+    private String format(long value) {
+      StringBuilder builder = BUILDER.get();
+      builder.setLength(0);
+      builder.append(prefix);
+      if (groupedCurrency) {
+        builder.append(CURRENCY_VN.get().format(value));
+      } else {
+        builder.append(value);
+      }
+      builder.append(suffix);
+      return builder.toString();
+    }
+
+    private static int setIndex(long value) {
+      long h = value * 0x9E3779B97F4A7C15L;
+      return (int) (h >>> 57) & (SETS - 1);
+    }
+  }
+}
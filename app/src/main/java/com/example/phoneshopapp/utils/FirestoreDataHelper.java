@@ -5,6 +5,7 @@ import android.util.Log;
 import android.widget.Toast;
 
 import com.example.phoneshopapp.UserManager;
+import com.example.phoneshopapp.data.cart.CartRepository;
 import com.example.phoneshopapp.models.CartItem;
 import com.google.firebase.firestore.FirebaseFirestore;
 
@@ -62,10 +63,12 @@ public class FirestoreDataHelper {
     cartData.put("addedAt", new Date());
     cartData.put("updatedAt", new Date());
 
+    String cartItemId = CartRepository.cartItemId(userId, productId, null);
     db.collection("carts")
-        .add(cartData)
-        .addOnSuccessListener(documentReference -> {
-          Log.d(TAG, "Sample cart item created with ID: " + documentReference.getId());
+        .document(cartItemId)
+        .set(cartData)
+        .addOnSuccessListener(aVoid -> {
+          Log.d(TAG, "Sample cart item created with ID: " + cartItemId);
         })
         .addOnFailureListener(e -> {
           Log.e(TAG, "Error creating sample cart item", e);
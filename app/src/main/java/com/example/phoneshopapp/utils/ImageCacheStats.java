@@ -0,0 +1,113 @@
+package com.example.phoneshopapp.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Đếm nguồn của mọi ảnh Glide load xong (memory cache, disk cache, mạng) để theo dõi
+ * tỉ lệ hit. Được đăng ký làm global RequestListener trong PhoneShopGlideModule; bản
+ * debug log tóm tắt sau mỗi {@link #LOG_EVERY} ảnh.
+ *
+ * Request preload cũng đi qua listener này, nên ảnh bind sau khi được preload sẽ được
+ * tính là memory hit.
+ */
+public final class ImageCacheStats implements RequestListener<Object> {
+
+  private static final String TAG = "ImageCacheStats";
+  private static final int LOG_EVERY = 50;
+
+  private static final ImageCacheStats INSTANCE = new ImageCacheStats();
+
+  private final AtomicLong memoryHits = new AtomicLong();
+  private final AtomicLong diskHits = new AtomicLong();
+  private final AtomicLong remoteLoads = new AtomicLong();
+  private final AtomicLong localLoads = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private volatile boolean loggingEnabled = false;
+
+  private ImageCacheStats() {
+  }
+
+  public static ImageCacheStats getInstance() {
+    return INSTANCE;
+  }
+
+  public void setLoggingEnabled(boolean enabled) {
+    loggingEnabled = enabled;
+  }
+
+  @Override
+  public boolean onResourceReady(@NonNull Object resource, @NonNull Object model, Target<Object> target,
+      @NonNull DataSource dataSource, boolean isFirstResource) {
+    switch (dataSource) {
+      case MEMORY_CACHE:
+        memoryHits.incrementAndGet();
+        break;
+      case RESOURCE_DISK_CACHE:
+      case DATA_DISK_CACHE:
+        diskHits.incrementAndGet();
+        break;
+      case REMOTE:
+        remoteLoads.incrementAndGet();
+        break;
+      default:
+        localLoads.incrementAndGet();
+        break;
+    }
+    maybeLog();
+    return false;
+  }
+
+  @Override
+  public boolean onLoadFailed(@Nullable GlideException e, @Nullable Object model,
+      @NonNull Target<Object> target, boolean isFirstResource) {
+    failures.incrementAndGet();
+    maybeLog();
+    return false;
+  }
+
+  /**
+   * Tỉ lệ ảnh từ mạng được phục vụ bởi memory hoặc disk cache (0..1). Ảnh local
+   * (resource, file) không tính.
+   */
+  public double getHitRate() {
+    long hits = memoryHits.get() + diskHits.get();
+    long total = hits + remoteLoads.get();
+    return total == 0 ? 0.0 : (double) hits / total;
+  }
+
+  public long getLoadCount() {
+    return memoryHits.get() + diskHits.get() + remoteLoads.get() + localLoads.get() + failures.get();
+  }
+
+  public void reset() {
+    memoryHits.set(0);
+    diskHits.set(0);
+    remoteLoads.set(0);
+    localLoads.set(0);
+    failures.set(0);
+  }
+
+  private void maybeLog() {
+    if (loggingEnabled && getLoadCount() % LOG_EVERY == 0) {
+      Log.d(TAG, toString());
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(java.util.Locale.US,
+        "hit rate %.1f%% (memory %d, disk %d, remote %d, local %d, failed %d)",
+        getHitRate() * 100, memoryHits.get(), diskHits.get(), remoteLoads.get(),
+        localLoads.get(), failures.get());
+  }
+}
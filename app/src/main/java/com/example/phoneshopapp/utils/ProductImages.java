@@ -0,0 +1,126 @@
+package com.example.phoneshopapp.utils;
+
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListAdapter;
+
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.resource.bitmap.CenterCrop;
+import com.bumptech.glide.load.resource.bitmap.RoundedCorners;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.phoneshopapp.R;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * ProductImages - Request Glide dùng chung cho ảnh sản phẩm.
+ *
+ * Bind trong adapter và request preload phải dùng cùng builder (cùng transform, cùng
+ * kích thước) thì ảnh đã preload mới trúng memory cache. Ảnh sản phẩm cache cả dữ liệu
+ * gốc lẫn bản đã resize trên disk, nên màn chi tiết decode lại từ disk thay vì tải lại.
+ */
+public final class ProductImages {
+
+  private static final RequestOptions BASE = new RequestOptions()
+      .placeholder(R.drawable.ic_image_placeholder)
+      .error(R.drawable.ic_image_placeholder)
+      .diskCacheStrategy(DiskCacheStrategy.ALL)
+      .lock();
+
+  // Card trong lưới / hàng ngang sản phẩm
+  private static final RequestOptions CARD = BASE.clone()
+      .transform(new CenterCrop(), new RoundedCorners(16))
+      .lock();
+
+  // Card nhỏ hơn trong danh sách yêu thích
+  private static final RequestOptions COMPACT_CARD = BASE.clone()
+      .transform(new CenterCrop(), new RoundedCorners(12))
+      .lock();
+
+  private static final RequestOptions THUMBNAIL = BASE.clone()
+      .centerCrop()
+      .lock();
+
+  private ProductImages() {
+  }
+
+  public static boolean hasUrl(String url) {
+    return url != null && !url.isEmpty();
+  }
+
+  public static RequestBuilder<Drawable> card(@NonNull RequestManager requests, String url) {
+    return requests.load(url).apply(CARD);
+  }
+
+  public static RequestBuilder<Drawable> compactCard(@NonNull RequestManager requests, String url) {
+    return requests.load(url).apply(COMPACT_CARD);
+  }
+
+  public static RequestBuilder<Drawable> thumbnail(@NonNull RequestManager requests, String url) {
+    return requests.load(url).apply(THUMBNAIL);
+  }
+
+  // Không transform, scaleType của ImageView quyết định cách hiển thị
+  public static RequestBuilder<Drawable> plain(@NonNull RequestManager requests, String url) {
+    return requests.load(url).apply(BASE);
+  }
+
+  // Hàm dựng request cho một URL, ví dụ ProductImages::card
+  public interface Request {
+    RequestBuilder<Drawable> build(@NonNull RequestManager requests, String url);
+  }
+
+  /**
+   * Preloader tải trước ảnh của {@code maxPreload} item phía trước vị trí cuộn. {@code request}
+   * phải là hàm mà onBindViewHolder dùng để ảnh preload trúng memory cache.
+   *
+   * @param itemAt item tại một vị trí adapter, null nếu vị trí nằm ngoài danh sách
+   */
+  public static <T> RecyclerViewPreloader<T> preloader(@NonNull RequestManager requests,
+      @NonNull IntFunction<T> itemAt, @NonNull Function<T, String> urlOf, @NonNull Request request,
+      @NonNull ListPreloader.PreloadSizeProvider<T> sizes, int maxPreload) {
+    return new RecyclerViewPreloader<>(requests, new PreloadModels<>(requests, itemAt, urlOf, request),
+        sizes, maxPreload);
+  }
+
+  public static <T> IntFunction<T> itemsOf(@NonNull ListAdapter<T, ?> adapter) {
+    return position -> position >= 0 && position < adapter.getItemCount()
+        ? adapter.getCurrentList().get(position) : null;
+  }
+
+  private static final class PreloadModels<T> implements ListPreloader.PreloadModelProvider<T> {
+    private final RequestManager requests;
+    private final IntFunction<T> itemAt;
+    private final Function<T, String> urlOf;
+    private final Request request;
+
+    PreloadModels(RequestManager requests, IntFunction<T> itemAt, Function<T, String> urlOf, Request request) {
+      this.requests = requests;
+      this.itemAt = itemAt;
+      this.urlOf = urlOf;
+      this.request = request;
+    }
+
+    @NonNull
+    @Override
+    public List<T> getPreloadItems(int position) {
+      T item = itemAt.apply(position);
+      return item != null && hasUrl(urlOf.apply(item))
+          ? Collections.singletonList(item) : Collections.emptyList();
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull T item) {
+      return request.build(requests, urlOf.apply(item));
+    }
+  }
+}
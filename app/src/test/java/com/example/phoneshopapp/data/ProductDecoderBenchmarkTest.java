@@ -0,0 +1,124 @@
+package com.example.phoneshopapp.data;
+
+import com.example.phoneshopapp.Product;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Microbenchmark cho bước decode document PhoneDB -> Product.
+ * In ra số document decode được mỗi giây, tuần tự và chia chunk song song.
+ */
+public class ProductDecoderBenchmarkTest {
+
+    private static final int DOCUMENT_COUNT = 20_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    public void fromMap_decodesAllFields() {
+        Product product = ProductDecoder.fromMap("p1", fakeDocument(1));
+
+        assertEquals("p1", product.getId());
+        assertEquals("Phone 1", product.getName());
+        assertEquals("Apple", product.getBrand());
+        assertEquals(25990001.0, product.getPriceValue(), 0.0);
+        assertTrue(product.isHasVariants());
+        assertEquals(11, product.getStockQuantity());
+    }
+
+    @Test
+    public void decodeChunked_keepsInputOrder() {
+        List<Map<String, Object>> documents = fakeDocuments(1_000);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Product[] products = ProductDecoder.decodeChunked(documents, this::decode, pool);
+            for (int i = 0; i < products.length; i++) {
+                assertEquals("doc" + i, products[i].getId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Ignore("Benchmark chạy tay khi sửa ProductDecoder, chỉ in số docs/s")
+    @Test
+    public void benchmark_documentsPerSecond() {
+        List<Map<String, Object>> documents = fakeDocuments(DOCUMENT_COUNT);
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            double sequential = measure(documents, null);
+            double parallel = measure(documents, pool);
+
+            System.out.printf("ProductDecoder: sequential %.0f docs/s, chunked x%d threads %.0f docs/s%n",
+                    sequential, threads, parallel);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // pool null: decode tuần tự trên thread hiện tại
+    private double measure(List<Map<String, Object>> input, ExecutorService pool) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            decodeAll(input, pool);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            decodeAll(input, pool);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return input.size() * (double) MEASURED_ROUNDS / seconds;
+    }
+
+    private void decodeAll(List<Map<String, Object>> documents, ExecutorService pool) {
+        if (pool != null) {
+            ProductDecoder.decodeChunked(documents, this::decode, pool);
+        } else {
+            for (int i = 0; i < documents.size(); i++) {
+                decode(documents.get(i));
+            }
+        }
+    }
+
+    private Product decode(Map<String, Object> document) {
+        return ProductDecoder.fromMap((String) document.get("__id"), document);
+    }
+
+    private static List<Map<String, Object>> fakeDocuments(int count) {
+        List<Map<String, Object>> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> document = fakeDocument(i);
+            document.put("__id", "doc" + i);
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    private static Map<String, Object> fakeDocument(int i) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Phone " + i);
+        data.put("price", "₫" + (25990000 + i));
+        data.put("imageUrl", "https://example.com/" + i + ".jpg");
+        data.put("description", "Mô tả sản phẩm " + i);
+        data.put("category", i % 2 == 0 ? "Smartphone" : "Tablet");
+        data.put("brand", i % 3 == 0 ? "Samsung" : "Apple");
+        data.put("specScreen", "6.7 inch OLED");
+        data.put("specProcessor", "A17 Pro");
+        data.put("specRam", "8GB");
+        data.put("specStorage", "256GB");
+        data.put("isFeatured", i % 5 == 0);
+        data.put("isBestDeal", i % 7 == 0);
+        data.put("hasVariants", true);
+        data.put("stockQuantity", (long) (10 + i));
+        return data;
+    }
+}
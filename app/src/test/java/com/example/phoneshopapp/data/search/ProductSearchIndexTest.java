@@ -0,0 +1,129 @@
+package com.example.phoneshopapp.data.search;
+
+import com.example.phoneshopapp.Product;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Kiểm tra tìm kiếm theo prefix / nhiều từ của ProductSearchIndex và đo thời gian
+ * query một ký tự trên catalog lớn: prefix ngắn phải OR postings của cả subtree trong
+ * trie nên là trường hợp chậm nhất.
+ */
+public class ProductSearchIndexTest {
+
+    private static final int LARGE_CATALOG_SIZE = 50_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 100;
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Xiaomi", "Oppo", "Vivo", "Realme", "Nokia", "Sony"};
+
+    private final ProductSearchIndex index = ProductSearchIndex.getInstance();
+
+    @Test
+    public void search_matchesFoldedQueryAgainstAccentedText() {
+        index.ensureIndexed(Arrays.asList(
+                product("p1", "iPhone 15 Pro", "Apple", "Điện thoại"),
+                product("p2", "iPad Air", "Apple", "Máy tính bảng"),
+                product("p3", "Galaxy S24", "Samsung", "Điện thoại")));
+
+        assertEquals(Arrays.asList("p1", "p3"), index.search("dien thoai"));
+        assertEquals(Arrays.asList("p1", "p3"), index.search("ĐIỆN THOẠI"));
+        assertEquals(Collections.singletonList("p2"), index.search("may tinh"));
+    }
+
+    @Test
+    public void search_matchesTokenPrefix() {
+        index.ensureIndexed(Arrays.asList(
+                product("p1", "iPhone 15 Pro", "Apple", "Điện thoại"),
+                product("p2", "iPad Air", "Apple", "Máy tính bảng"),
+                product("p3", "Galaxy S24", "Samsung", "Điện thoại")));
+
+        assertEquals(Collections.singletonList("p1"), index.search("iph"));
+        assertEquals(Arrays.asList("p1", "p2"), index.search("ip"));
+        assertEquals(Collections.singletonList("p3"), index.search("s2"));
+        assertEquals(Collections.emptyList(), index.search("nokia"));
+    }
+
+    @Test
+    public void search_multiTokenQueryIntersectsPrefixes() {
+        index.ensureIndexed(Arrays.asList(
+                product("p1", "iPhone 15 Pro", "Apple", "Điện thoại"),
+                product("p2", "iPhone 15", "Apple", "Điện thoại"),
+                product("p3", "Galaxy S24 Pro", "Samsung", "Điện thoại")));
+
+        assertEquals(Collections.singletonList("p1"), index.search("iphone pro"));
+        assertEquals(Arrays.asList("p1", "p2"), index.search("apple 15"));
+        // Thứ tự từ trong query không ảnh hưởng kết quả
+        assertEquals(Collections.singletonList("p3"), index.search("pro sam"));
+        assertEquals(Collections.emptyList(), index.search("iphone galaxy"));
+    }
+
+    @Test
+    public void search_emptyQueryReturnsWholeCatalog() {
+        List<Product> catalog = Arrays.asList(
+                product("p1", "iPhone 15 Pro", "Apple", "Điện thoại"),
+                product("p2", "Galaxy S24", "Samsung", "Điện thoại"));
+        index.ensureIndexed(catalog);
+
+        assertEquals(catalog, index.searchProducts("  "));
+    }
+
+    @Ignore("Benchmark chạy tay khi sửa ProductSearchIndex, catalog 50k mất vài giây")
+    @Test
+    public void benchmark_singleCharacterPrefixOnLargeCatalog() {
+        List<Product> catalog = largeCatalog(LARGE_CATALOG_SIZE);
+        long buildStart = System.nanoTime();
+        index.ensureIndexed(catalog);
+        double buildMs = (System.nanoTime() - buildStart) / 1e6;
+
+        // "m": mọi "modelN" là một token riêng, cả subtree của trie khớp prefix
+        double subtreeMicros = measureMicros("m");
+        // "s": ít token hơn nhưng mỗi posting dày (brand Samsung/Sony, "smartphone")
+        double densePostingMicros = measureMicros("s");
+        double multiTokenMicros = measureMicros("model1 sam");
+
+        System.out.printf("ProductSearchIndex (%d products): build %.0f ms, \"m\" %.0f us, \"s\" %.0f us,"
+                + " \"model1 sam\" %.0f us per query%n",
+                LARGE_CATALOG_SIZE, buildMs, subtreeMicros, densePostingMicros, multiTokenMicros);
+        assertEquals(LARGE_CATALOG_SIZE, index.search("m").size());
+    }
+
+    private double measureMicros(String query) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            index.searchProducts(query);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            index.searchProducts(query);
+        }
+        return (System.nanoTime() - start) / 1e3 / MEASURED_ROUNDS;
+    }
+
+    private static List<Product> largeCatalog(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = product("doc" + i, "Model" + i, BRANDS[i % BRANDS.length],
+                    i % 4 == 0 ? "Máy tính bảng" : "Điện thoại smartphone");
+            product.setSpecRam((4 << (i % 3)) + "GB");
+            product.setSpecStorage((64 << (i % 4)) + "GB");
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static Product product(String id, String name, String brand, String category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setCategory(category);
+        return product;
+    }
+}
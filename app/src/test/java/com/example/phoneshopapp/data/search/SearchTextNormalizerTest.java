@@ -0,0 +1,50 @@
+package com.example.phoneshopapp.data.search;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Kiểm tra bỏ dấu tiếng Việt và tách token dùng cho ProductSearchIndex.
+ */
+public class SearchTextNormalizerTest {
+
+    @Test
+    public void fold_removesVietnameseDiacritics() {
+        assertEquals("dien thoai", SearchTextNormalizer.fold("điện thoại"));
+        assertEquals("may tinh bang", SearchTextNormalizer.fold("Máy Tính Bảng"));
+        assertEquals("ao khoac", SearchTextNormalizer.fold("ÁO KHOÁC"));
+        assertEquals("tai nghe khong day", SearchTextNormalizer.fold("Tai nghe không dây"));
+    }
+
+    @Test
+    public void fold_mapsDStrokeBothCases() {
+        assertEquals("d", SearchTextNormalizer.fold("đ"));
+        assertEquals("d", SearchTextNormalizer.fold("Đ"));
+        assertEquals("dong ho", SearchTextNormalizer.fold("Đồng hồ"));
+    }
+
+    @Test
+    public void fold_handlesEmptyAndNull() {
+        assertEquals("", SearchTextNormalizer.fold(null));
+        assertEquals("", SearchTextNormalizer.fold(""));
+    }
+
+    @Test
+    public void tokenize_splitsOnNonAlphanumeric() {
+        assertEquals(Arrays.asList("iphone", "15", "pro", "max"),
+                SearchTextNormalizer.tokenize("iPhone 15 Pro-Max"));
+        assertEquals(Arrays.asList("6", "7", "inch", "oled"),
+                SearchTextNormalizer.tokenize("  6.7 inch, OLED  "));
+        assertEquals(Arrays.asList("8gb", "256gb"), SearchTextNormalizer.tokenize("8GB / 256GB"));
+    }
+
+    @Test
+    public void tokenize_foldedQueryMatchesAccentedText() {
+        assertEquals(SearchTextNormalizer.tokenize("Điện Thoại"), SearchTextNormalizer.tokenize("dien thoai"));
+        assertEquals(Collections.emptyList(), SearchTextNormalizer.tokenize(" - "));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.phoneshopapp.models;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Kiểm tra Money.parseDong và so sánh tốc độ với cách parse cũ bằng regex
+ * (replaceAll("[^\\d.]", "") + Double.parseDouble).
+ */
+public class MoneyParseBenchmarkTest {
+
+    private static final int PRICE_COUNT = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    @Test
+    public void parseDong_handlesVndFormats() {
+        assertEquals(25_990_000L, Money.parseDong("₫25.990.000"));
+        assertEquals(25_990_000L, Money.parseDong("25,990,000 VND"));
+        assertEquals(25_990_000L, Money.parseDong("25990000"));
+        assertEquals(25_990_000L, Money.parseDong("25 990 000đ"));
+        assertEquals(25_990_000L, Money.parseDong("₫25990000.0"));
+        assertEquals(1_000L, Money.parseDong("$999.99"));
+        assertEquals(999L, Money.parseDong("$999 (Black Friday!)"));
+        assertEquals(0L, Money.parseDong("Liên hệ"));
+        assertEquals(0L, Money.parseDong(""));
+        assertEquals(0L, Money.parseDong(null));
+    }
+
+    @Test
+    public void sums_areExact() {
+        String[] prices = {"₫19.990.000", "25,990,000 VND", "1 234 567đ", "₫999.5"};
+        long total = 0L;
+        Money sum = Money.ZERO;
+        double legacy = 0.0;
+        for (int i = 0; i < 1_000; i++) {
+            for (String price : prices) {
+                total += Money.parseDong(price);
+                sum = sum.plus(Money.parse(price));
+                legacy += Money.parseDong(price);
+            }
+        }
+        // (19.990.000 + 25.990.000 + 1.234.567 + 1.000) * 1000
+        assertEquals(47_215_567_000L, total);
+        assertEquals(Money.ofDong(total), sum);
+        assertEquals(sum, Money.fromDouble(legacy));
+        assertEquals(Money.ofDong(5).times(3), Money.ofDong(10).plus(Money.ofDong(5)));
+        assertTrue(Money.ofDong(1).compareTo(Money.ZERO) > 0);
+    }
+
+    @Ignore("Benchmark chạy tay khi sửa Money.parseDong, chỉ in số prices/s")
+    @Test
+    public void benchmark_regexVsParseDong() {
+        String[] prices = fakePrices(PRICE_COUNT);
+
+        double regex = measure(prices, true);
+        double handWritten = measure(prices, false);
+
+        System.out.printf("Price parsing: regex %.0f prices/s, Money.parseDong %.0f prices/s (x%.1f)%n",
+                regex, handWritten, handWritten / regex);
+    }
+
+    private double measure(String[] prices, boolean useRegex) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += parseAll(prices, useRegex);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            sink += parseAll(prices, useRegex);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertTrue(sink > 0);
+        return prices.length * (double) MEASURED_ROUNDS / seconds;
+    }
+
+    private long parseAll(String[] prices, boolean useRegex) {
+        long total = 0;
+        for (String price : prices) {
+            total += useRegex ? (long) regexParse(price) : Money.parseDong(price);
+        }
+        return total;
+    }
+
+    // Cách parse cũ của Product.parsePrice
+    private static double regexParse(String price) {
+        try {
+            return Double.parseDouble(price.replaceAll("[^\\d.]", ""));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    // Định dạng không có dấu chấm để regex path vẫn parse được
+    private static String[] fakePrices(int count) {
+        String[] prices = new String[count];
+        for (int i = 0; i < count; i++) {
+            prices[i] = "₫" + (1_990_000 + i * 1_000);
+        }
+        return prices;
+    }
+}